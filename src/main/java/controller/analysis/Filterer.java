@@ -2,8 +2,11 @@ package controller.analysis;
 
 import model.data.Airline;
 import model.data.Airport;
+import model.data.DataType;
 import model.data.Route;
+import model.database.QueryBackend;
 
+import java.sql.SQLException;
 import java.util.*;
 
 /**
@@ -20,6 +23,11 @@ public class Filterer {
   private ArrayList<Airline> filteredAirlines;
   /** A list of routes after a filter has been applied to them. */
   private ArrayList<Route> filteredRoutes;
+  /**
+   * The order key of each entry of the latest filter, which finds its position in its file, if it
+   * filtered a stored file in the database, or null if it filtered a list.
+   */
+  private Map<DataType, Long> filteredKeys;
   /** Records whether the latest filter was successfully executed. */
   private boolean filterSuccess;
 
@@ -51,6 +59,7 @@ public class Filterer {
     }
 
     this.filteredAirports = filteredAirports;
+    this.filteredKeys = null;
   }
 
   /**
@@ -82,6 +91,7 @@ public class Filterer {
     }
 
     this.filteredAirlines = filteredAirlines;
+    this.filteredKeys = null;
   }
 
   /**
@@ -113,6 +123,81 @@ public class Filterer {
     }
 
     this.filteredRoutes = filteredRoutes;
+    this.filteredKeys = null;
+  }
+
+  /**
+   * This method filters the airports of a stored file in the database, so the file does not need
+   * to be loaded.
+   *
+   * @param filterTerms A HashMap of Strings of filter terms selected by the user for Airport
+   *     records they want information on and their associated attribute type as a String.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored airport file.
+   */
+  public void filterAirports(
+      HashMap<String, String> filterTerms, QueryBackend backend, String fileName) {
+    this.filteredKeys = new IdentityHashMap<>();
+    this.filteredAirports = filter("Airport", filterTerms, backend, fileName, filteredKeys);
+  }
+
+  /**
+   * This method filters the airlines of a stored file in the database, so the file does not need
+   * to be loaded.
+   *
+   * @param filterTerms A HashMap of Strings of filter terms selected by the user for airline
+   *     records they want information on and their associated attribute type as a String.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored airline file.
+   */
+  public void filterAirlines(
+      HashMap<String, String> filterTerms, QueryBackend backend, String fileName) {
+    this.filteredKeys = new IdentityHashMap<>();
+    this.filteredAirlines = filter("Airline", filterTerms, backend, fileName, filteredKeys);
+  }
+
+  /**
+   * This method filters the routes of a stored file in the database, so the file does not need to
+   * be loaded.
+   *
+   * @param filterTerms A HashMap of Strings of filter terms selected by the user for route records
+   *     they want information on and their associated attribute type as a String.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored route file, or history for the flight history.
+   */
+  public void filterRoutes(
+      HashMap<String, String> filterTerms, QueryBackend backend, String fileName) {
+    this.filteredKeys = new IdentityHashMap<>();
+    this.filteredRoutes = filter("Route", filterTerms, backend, fileName, filteredKeys);
+  }
+
+  /**
+   * This method filters a stored file in the database with every filter term at once.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param filterTerms The filter terms and their associated attribute types.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored file.
+   * @param keys Given the order key of each entry which matches.
+   * @param <T> The class of the entries of the file.
+   * @return the entries which match every filter term.
+   */
+  private static <T extends DataType> ArrayList<T> filter(
+      String fileType,
+      HashMap<String, String> filterTerms,
+      QueryBackend backend,
+      String fileName,
+      Map<? super T, Long> keys) {
+    ArrayList<T> filtered;
+    try {
+      filtered = new ArrayList<>(backend.query(fileType, fileName, filterTerms, keys));
+    } catch (SQLException e) {
+      throw new RuntimeException(e.getMessage());
+    }
+    if (filtered.isEmpty()) {
+      throw new RuntimeException("No entries match your filter term(s).");
+    }
+    return filtered;
   }
 
   /**
@@ -140,4 +225,14 @@ public class Filterer {
   public List<Route> getFilteredRoutes() {
     return filteredRoutes;
   }
+
+  /**
+   * This method returns the order key of each entry of the latest filter, which finds its
+   * position in its file.
+   *
+   * @return the order keys, by entry, or null if the latest filter filtered a list.
+   */
+  public Map<DataType, Long> getFilteredKeys() {
+    return filteredKeys;
+  }
 }
@@ -2,9 +2,14 @@ package controller.analysis;
 
 import model.data.Airline;
 import model.data.Airport;
+import model.data.DataType;
 import model.data.Route;
+import model.database.QueryBackend;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class for searching data for entry which matches specific search term.
@@ -137,4 +142,99 @@ public class Searcher {
     }
     return matches;
   }
+
+  /**
+   * This method searches the airports of a stored file for entries that match the given search
+   * term, in the database, so the file does not need to be loaded.
+   *
+   * @param searchTerm A string entered by the user for something they want information on.
+   * @param type The type of attribute the user.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored airport file.
+   * @param keys Given the order key of each match, which finds its position in the file, or null.
+   * @return An arrayList of the airports that match the search term.
+   */
+  public static ArrayList<Airport> searchAirports(
+      String searchTerm,
+      String type,
+      QueryBackend backend,
+      String fileName,
+      Map<? super Airport, Long> keys) {
+    return search("Airport", searchTerm, type, backend, fileName, keys);
+  }
+
+  /**
+   * This method searches the airlines of a stored file for entries that match the given search
+   * term, in the database, so the file does not need to be loaded.
+   *
+   * @param searchTerm A string entered by the user for something they want information on.
+   * @param type The type of attribute the user.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored airline file.
+   * @param keys Given the order key of each match, which finds its position in the file, or null.
+   * @return An arrayList of the airlines that match the search term.
+   */
+  public static ArrayList<Airline> searchAirlines(
+      String searchTerm,
+      String type,
+      QueryBackend backend,
+      String fileName,
+      Map<? super Airline, Long> keys) {
+    return search("Airline", searchTerm, type, backend, fileName, keys);
+  }
+
+  /**
+   * This method searches the routes of a stored file for entries that match the given search term,
+   * in the database, so the file does not need to be loaded.
+   *
+   * @param searchTerm A string entered by the user for something they want information on.
+   * @param type The type of attribute the user. Must by one of "Airline", "Source", "Destination".
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored route file, or history for the flight history.
+   * @param keys Given the order key of each match, which finds its position in the file, or null.
+   * @return An arrayList of the routes that match the search term.
+   */
+  public static ArrayList<Route> searchRoutes(
+      String searchTerm,
+      String type,
+      QueryBackend backend,
+      String fileName,
+      Map<? super Route, Long> keys) {
+    return search("Route", searchTerm, type, backend, fileName, keys);
+  }
+
+  /**
+   * This method searches a stored file in the database for entries that match the given search
+   * term.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param searchTerm A string entered by the user for something they want information on.
+   * @param type The type of attribute the user.
+   * @param backend The backend searching the database.
+   * @param fileName The name of the stored file.
+   * @param keys Given the order key of each match, or null.
+   * @param <T> The class of the entries of the file.
+   * @return An arrayList of the entries that match the search term.
+   */
+  private static <T extends DataType> ArrayList<T> search(
+      String fileType,
+      String searchTerm,
+      String type,
+      QueryBackend backend,
+      String fileName,
+      Map<? super T, Long> keys) {
+    ArrayList<T> matches;
+    try {
+      matches =
+          new ArrayList<>(
+              backend.query(
+                  fileType, fileName, Collections.singletonMap(type, searchTerm), keys));
+    } catch (SQLException e) {
+      throw new RuntimeException(e.getMessage());
+    }
+    if (matches.isEmpty()) {
+      throw new RuntimeException("No entries match your search term.");
+    }
+    return matches;
+  }
 }
@@ -67,4 +67,19 @@ public class AlertPopUp {
     alert.initStyle(StageStyle.UTILITY);
     return alert.showAndWait();
   }
+
+  /**
+   * This method displays an error to the user when a change could not be saved to the database.
+   *
+   * @param description What the change was, such as saving the flight history.
+   * @param cause Why the change could not be saved.
+   */
+  public static void showWriteFailedAlert(String description, Exception cause) {
+    Alert alert = new Alert(Alert.AlertType.ERROR);
+    alert.setTitle("Save failed");
+    alert.setHeaderText(description + " failed. The change has not been saved.");
+    alert.setContentText(String.valueOf(cause.getMessage()));
+    alert.initStyle(StageStyle.UTILITY);
+    alert.show();
+  }
 }
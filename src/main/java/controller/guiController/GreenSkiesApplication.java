@@ -1,6 +1,7 @@
 package controller.guiController;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -18,6 +19,9 @@ public class GreenSkiesApplication extends Application {
   /** The main window for the application */
   private static Stage primaryStage;
 
+  /** The longest time to wait for uploads and changes to finish writing when the app closes. */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
   /**
    * This method starts the application's GUI
    *
@@ -27,12 +31,28 @@ public class GreenSkiesApplication extends Application {
   @Override
   public void start(Stage primaryStage) throws IOException {
     this.primaryStage = primaryStage;
+    Main.getStorage()
+        .getPersistence()
+        .setFailureListener(
+            (description, e) ->
+                Platform.runLater(() -> AlertPopUp.showWriteFailedAlert(description, e)));
     Parent root = FXMLLoader.load(getClass().getResource("/view/welcome.fxml"));
     primaryStage.setTitle("Green Skies");
     primaryStage.setScene(new Scene(root));
     primaryStage.show();
   }
 
+  /**
+   * This method is called when the application closes. It waits for files being written to the
+   * database to finish, so they are not left half written, then for the changes still queued to be
+   * written, so they are not lost.
+   */
+  @Override
+  public void stop() {
+    Main.getUploadService().shutdown(SHUTDOWN_TIMEOUT_SECONDS);
+    Main.getStorage().getPersistence().shutdown(SHUTDOWN_TIMEOUT_SECONDS);
+  }
+
   /**
    * The method returns the primary stage of the application.
    *
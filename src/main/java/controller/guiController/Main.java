@@ -4,8 +4,10 @@ import controller.analysis.AirportStatsCalculator;
 import controller.analysis.Filterer;
 import controller.analysis.GeneralStatsCalculator;
 import controller.analysis.RouteStatsCalculator;
+import javafx.application.Platform;
 import model.data.Storage;
 import model.loader.Loader;
+import model.loader.UploadService;
 import java.sql.SQLException;
 
 /**
@@ -19,6 +21,9 @@ public class Main {
   private static Storage storage = new Storage();
   /** The data loader for the the application. */
   private static Loader loader = new Loader(storage);
+  /** The background file uploads for the application, which change storage on the UI thread. */
+  private static UploadService uploadService =
+      new UploadService(loader, storage, Platform::runLater);
   /** The filter for the application. */
   private static Filterer filterer = new Filterer();
   /** The GeneralStatsCalculator for the application. */
@@ -36,6 +41,10 @@ public class Main {
     return loader;
   }
 
+  public static UploadService getUploadService() {
+    return uploadService;
+  }
+
   public static Filterer getFilterer() {
     return filterer;
   }
@@ -2,19 +2,24 @@ package controller.guiController.dataview;
 
 import controller.analysis.Searcher;
 import controller.guiController.AlertPopUp;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.cell.CheckBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
 import model.data.Airline;
-import model.data.Route;
-import model.database.SQLiteDatabase;
+import model.data.DataType;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -27,7 +32,7 @@ import java.util.ResourceBundle;
 public class AirlineDataViewController extends DataViewController {
 
   @FXML private TableView<Airline> tableView;
-  @FXML private TableColumn<Route, Boolean> addColumn;
+  @FXML private TableColumn<Airline, Boolean> addColumn;
   @FXML private TableColumn<Airline, Integer> airlineIDColumn;
   @FXML private TableColumn<Airline, String> airlineNameColumn;
   @FXML private TableColumn<Airline, String> airlineAliasColumn;
@@ -37,14 +42,19 @@ public class AirlineDataViewController extends DataViewController {
   @FXML private TableColumn<Airline, String> countryColumn;
   @FXML private TableColumn<Airline, Boolean> activeStatusColumn;
 
-  /** The database object. */
-  private SQLiteDatabase database = new SQLiteDatabase();
-
   /** Initialize the strings in the searchTypes list. */
   private final ObservableList<String> searchTypes =
       FXCollections.observableArrayList("Name", "Country", "IATA", "ICAO");
 
+  /** The airlines of the current file, read from the database as shown until the file is loaded. */
   ObservableList<Airline> airlines;
+
+  /** The airlines selected, kept apart from the airlines. */
+  private final RowSelection<Airline> selection = new RowSelection<>();
+
+  /** The order key of each airline shown by a search or filter of the file in the database. */
+  private Map<DataType, Long> matchKeys = new IdentityHashMap<>();
+
   /**
    * This method initializes the controller class.
    *
@@ -53,7 +63,13 @@ public class AirlineDataViewController extends DataViewController {
    */
   @Override
   public void initialize(URL url, ResourceBundle rb) {
-    addColumn.setCellValueFactory(new PropertyValueFactory<>("select"));
+    addColumn.setCellFactory(
+        CheckBoxTableCell.forTableColumn(
+            index -> {
+              Airline airline = tableView.getItems().get(index);
+              return selection.property(
+                  airline, position(airlines, tableView.getItems(), matchKeys, airline, index));
+            }));
     airlineIDColumn.setCellValueFactory(new PropertyValueFactory<>("airlineID"));
     airlineNameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
     airlineAliasColumn.setCellValueFactory(new PropertyValueFactory<>("airlineAlias"));
@@ -63,15 +79,60 @@ public class AirlineDataViewController extends DataViewController {
     countryColumn.setCellValueFactory(new PropertyValueFactory<>("country"));
     activeStatusColumn.setCellValueFactory(new PropertyValueFactory<>("activeStatus"));
 
-    if (storage.getAirlines() != null) {
-      for (Airline airline : storage.getAirlines()) {
-        airline.initCheckBox();
-      }
+    airlines =
+        PagedRowList.fileRows(
+            storage, "Airline", storage.getCurrentAirlineFile(), storage::getAirlines);
+    if (airlines instanceof PagedRowList) {
+      ((PagedRowList<Airline>) airlines)
+          .setFailureListener(e -> Platform.runLater(() -> readFailed(e)));
+    }
+    tableView.setItems(airlines);
+    tableView.setEditable(true);
+    searchTypeSelection.setItems(searchTypes); // Setup choice boxes
+  }
+
+  /**
+   * This method returns the airlines of the current file in storage, loading the file if its
+   * airlines are still read from the database as they are shown. The table then shows the loaded
+   * airlines, which the selection is moved to.
+   *
+   * @return the airlines of the current file.
+   */
+  private List<Airline> loadAirlines() {
+    if (airlines instanceof PagedRowList) {
+      selection.resolve(storage.getAirlines());
       airlines = FXCollections.observableList(storage.getAirlines());
       tableView.setItems(airlines);
-      searchTypeSelection.setItems(searchTypes); // Setup choice boxes
     }
+    return storage.getAirlines();
+  }
+
+  /**
+   * This method checks whether the airlines of the current file are read from the database as they
+   * are shown, so they are searched there. Once the file has been loaded the table shows the
+   * loaded airlines, as their changes may not have been written to the database yet.
+   *
+   * @return true if the airlines are read from the database.
+   */
+  private boolean readsDatabase() {
+    if (airlines instanceof PagedRowList
+        && storage.isLoaded("Airline", storage.getCurrentAirlineFile())) {
+      loadAirlines();
+    }
+    return airlines instanceof PagedRowList;
+  }
+
+  /**
+   * This method loads the current file once a page of it cannot be read from the database, so
+   * the table shows the loaded airlines instead of blank rows.
+   *
+   * @param e Why the page could not be read.
+   */
+  private void readFailed(SQLException e) {
+    loadAirlines();
+    showReadFailure(e);
   }
+
   /**
    * This method calls searchAirlines method from searcher class and upldates table to display
    * results of search.
@@ -80,8 +141,16 @@ public class AirlineDataViewController extends DataViewController {
    * @param searchType The type of attribute to check for matches.
    */
   public void searchByDataType(String searchTerm, String searchType) {
-    ArrayList<Airline> results =
-        Searcher.searchAirlines(searchTerm, searchType, storage.getAirlines());
+    ArrayList<Airline> results;
+    if (readsDatabase()) {
+      Map<DataType, Long> keys = new IdentityHashMap<>();
+      results =
+          Searcher.searchAirlines(
+              searchTerm, searchType, backend, storage.getCurrentAirlineFile(), keys);
+      matchKeys = keys;
+    } else {
+      results = Searcher.searchAirlines(searchTerm, searchType, loadAirlines());
+    }
     tableView.setItems(FXCollections.observableList(results));
   }
 
@@ -90,7 +159,7 @@ public class AirlineDataViewController extends DataViewController {
   public void clearSearch() {
     errorText.setVisible(false);
     searchBar.setText(null);
-    tableView.setItems(FXCollections.observableList(storage.getAirlines()));
+    tableView.setItems(airlines);
   }
 
   /**
@@ -105,6 +174,12 @@ public class AirlineDataViewController extends DataViewController {
     filterer.setFilterSuccess(false);
     filterPopUp.display();
     if (filterer.getFilterSuccess()) {
+      if (filterer.getFilteredKeys() == null) {
+        // Filtered in storage, as the file had been loaded.
+        loadAirlines();
+      } else {
+        matchKeys = filterer.getFilteredKeys();
+      }
       tableView.setItems(FXCollections.observableList(filterer.getFilteredAirlines()));
     }
   }
@@ -114,10 +189,15 @@ public class AirlineDataViewController extends DataViewController {
     if (getAnySelected()) {
       Optional<ButtonType> result = AlertPopUp.showDeleteAlert("airline(s)");
       if (result.isPresent() && result.get() == ButtonType.OK) {
-        airlines.removeIf(airline -> airline.getSelect().isSelected());
-        database.deleteFile(storage.getCurrentAirlineFile(), "Airline");
-        database.initialiseTable("Airline", storage.getCurrentAirlineFile());
-        database.updateAirlineTable(storage.getAirlines());
+        List<Airline> selected = new ArrayList<>();
+        for (Airline airline : loadAirlines()) {
+          if (selection.isSelected(airline)) {
+            selected.add(airline);
+          }
+        }
+        airlines.removeIf(selection::isSelected);
+        storage.removeEntries("Airline", selected);
+        selection.clear();
       }
     } else {
       errorText.setText("No airlines selected");
@@ -131,13 +211,6 @@ public class AirlineDataViewController extends DataViewController {
    * @return true if any have been selected or false otherwise.
    */
   public boolean getAnySelected() {
-    boolean selected = false;
-    for (Airline airline : airlines) {
-      if (airline.getSelect().isSelected()) {
-        selected = true;
-        break;
-      }
-    }
-    return selected;
+    return !selection.isEmpty();
   }
 }
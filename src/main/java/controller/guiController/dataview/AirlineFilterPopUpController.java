@@ -59,13 +59,18 @@ public class AirlineFilterPopUpController extends FilterPopUpController {
 
   /**
    * This method calls the filterAirlines method of filterer with the given hashmap of filter types
-   * and terms.
+   * and terms. The current file is filtered in the database while it is not loaded.
    *
    * @param filterTerms A hasmap with filter types as keys and filter terms as values.
    */
   @Override
   public void filterByDataType(HashMap<String, String> filterTerms) {
-    filterer.filterAirlines(filterTerms, storage.getAirlines());
+    String fileName = storage.getCurrentAirlineFile();
+    if (inDatabase("Airline", fileName)) {
+      filterer.filterAirlines(filterTerms, backend, fileName);
+    } else {
+      filterer.filterAirlines(filterTerms, storage.getAirlines());
+    }
   }
 
   /**
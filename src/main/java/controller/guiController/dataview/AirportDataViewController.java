@@ -2,18 +2,24 @@ package controller.guiController.dataview;
 
 import controller.analysis.Searcher;
 import controller.guiController.AlertPopUp;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.cell.CheckBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
 import model.data.Airport;
-import model.database.SQLiteDatabase;
+import model.data.DataType;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -40,15 +46,19 @@ public class AirportDataViewController extends DataViewController {
   @FXML private TableColumn<Airport, String> DSTColumn;
   @FXML private TableColumn<Airport, String> dataBaseTimeZoneColumn;
 
-  /** The database object. */
-  private SQLiteDatabase database = new SQLiteDatabase();
-
   /** Initialize the list of attribute to be added tp the searchTypes list */
   private final ObservableList<String> searchTypes =
       FXCollections.observableArrayList("Name", "Country", "IATA", "ICAO");
 
+  /** The airports of the current file, read from the database as shown until the file is loaded. */
   ObservableList<Airport> airports;
 
+  /** The airports selected, kept apart from the airports. */
+  private final RowSelection<Airport> selection = new RowSelection<>();
+
+  /** The order key of each airport shown by a search or filter of the file in the database. */
+  private Map<DataType, Long> matchKeys = new IdentityHashMap<>();
+
   /**
    * This method initializes the controller class.
    *
@@ -57,7 +67,13 @@ public class AirportDataViewController extends DataViewController {
    */
   @Override
   public void initialize(URL url, ResourceBundle rb) {
-    addColumn.setCellValueFactory(new PropertyValueFactory<>("select"));
+    addColumn.setCellFactory(
+        CheckBoxTableCell.forTableColumn(
+            index -> {
+              Airport airport = tableView.getItems().get(index);
+              return selection.property(
+                  airport, position(airports, tableView.getItems(), matchKeys, airport, index));
+            }));
     airportIDColumn.setCellValueFactory(new PropertyValueFactory<>("airportID"));
     nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
     cityColumn.setCellValueFactory(new PropertyValueFactory<>("city"));
@@ -70,22 +86,75 @@ public class AirportDataViewController extends DataViewController {
     timezoneColumn.setCellValueFactory(new PropertyValueFactory<>("timezone"));
     DSTColumn.setCellValueFactory(new PropertyValueFactory<>("DST"));
     dataBaseTimeZoneColumn.setCellValueFactory(new PropertyValueFactory<>("dataBaseTimeZone"));
-    if (storage.getAirports() != null) {
-      for (Airport airport : storage.getAirports()) {
-        airport.initCheckBox();
-      }
+    airports =
+        PagedRowList.fileRows(
+            storage, "Airport", storage.getCurrentAirportFile(), storage::getAirports);
+    if (airports instanceof PagedRowList) {
+      ((PagedRowList<Airport>) airports)
+          .setFailureListener(e -> Platform.runLater(() -> readFailed(e)));
+    }
+    tableView.setItems(airports);
+    tableView.setEditable(true);
+    searchTypeSelection.setItems(searchTypes); // Setup choice boxes
+  }
+
+  /**
+   * This method returns the airports of the current file in storage, loading the file if its
+   * airports are still read from the database as they are shown. The table then shows the loaded
+   * airports, which the selection is moved to.
+   *
+   * @return the airports of the current file.
+   */
+  private List<Airport> loadAirports() {
+    if (airports instanceof PagedRowList) {
+      selection.resolve(storage.getAirports());
       airports = FXCollections.observableList(storage.getAirports());
       tableView.setItems(airports);
-      searchTypeSelection.setItems(searchTypes);
     }
+    return storage.getAirports();
   }
+
+  /**
+   * This method checks whether the airports of the current file are read from the database as they
+   * are shown, so they are searched there. Once the file has been loaded the table shows the
+   * loaded airports, as their changes may not have been written to the database yet.
+   *
+   * @return true if the airports are read from the database.
+   */
+  private boolean readsDatabase() {
+    if (airports instanceof PagedRowList
+        && storage.isLoaded("Airport", storage.getCurrentAirportFile())) {
+      loadAirports();
+    }
+    return airports instanceof PagedRowList;
+  }
+
+  /**
+   * This method loads the current file once a page of it cannot be read from the database, so
+   * the table shows the loaded airports instead of blank rows.
+   *
+   * @param e Why the page could not be read.
+   */
+  private void readFailed(SQLException e) {
+    loadAirports();
+    showReadFailure(e);
+  }
+
   /**
    * This method calls searchAirports method from searcher class and upldates table to display
    * results of search.
    */
   public void searchByDataType(String searchTerm, String searchType) {
-    ArrayList<Airport> results =
-        Searcher.searchAirports(searchTerm, searchType, storage.getAirports());
+    ArrayList<Airport> results;
+    if (readsDatabase()) {
+      Map<DataType, Long> keys = new IdentityHashMap<>();
+      results =
+          Searcher.searchAirports(
+              searchTerm, searchType, backend, storage.getCurrentAirportFile(), keys);
+      matchKeys = keys;
+    } else {
+      results = Searcher.searchAirports(searchTerm, searchType, loadAirports());
+    }
     tableView.setItems(FXCollections.observableList(results));
   }
 
@@ -94,7 +163,7 @@ public class AirportDataViewController extends DataViewController {
   public void clearSearch() {
     errorText.setVisible(false);
     searchBar.setText(null);
-    tableView.setItems(FXCollections.observableList(storage.getAirports()));
+    tableView.setItems(airports);
   }
 
   /**
@@ -107,6 +176,12 @@ public class AirportDataViewController extends DataViewController {
     filterer.setFilterSuccess(false);
     filterPopUpController.display();
     if (filterer.getFilterSuccess()) {
+      if (filterer.getFilteredKeys() == null) {
+        // Filtered in storage, as the file had been loaded.
+        loadAirports();
+      } else {
+        matchKeys = filterer.getFilteredKeys();
+      }
       tableView.setItems(FXCollections.observableList(filterer.getFilteredAirports()));
     }
   }
@@ -116,10 +191,15 @@ public class AirportDataViewController extends DataViewController {
     if (getAnySelected()) {
       Optional<ButtonType> result = AlertPopUp.showDeleteAlert("airport(s)");
       if (result.isPresent() && result.get() == ButtonType.OK) {
-        airports.removeIf(airport -> airport.getSelect().isSelected());
-        database.deleteFile(storage.getCurrentAirportFile(), "Airport");
-        database.initialiseTable("Airport", storage.getCurrentAirportFile());
-        database.updateAirportTable(airports);
+        List<Airport> selected = new ArrayList<>();
+        for (Airport airport : loadAirports()) {
+          if (selection.isSelected(airport)) {
+            selected.add(airport);
+          }
+        }
+        airports.removeIf(selection::isSelected);
+        storage.removeEntries("Airport", selected);
+        selection.clear();
       }
     } else {
       errorText.setText("No airports selected.");
@@ -133,13 +213,6 @@ public class AirportDataViewController extends DataViewController {
    * @return true if any have been selected or false otherwise.
    */
   public boolean getAnySelected() {
-    boolean selected = false;
-    for (Airport airport : airports) {
-      if (airport.getSelect().isSelected()) {
-        selected = true;
-        break;
-      }
-    }
-    return selected;
+    return !selection.isEmpty();
   }
 }
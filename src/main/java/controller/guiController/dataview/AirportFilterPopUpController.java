@@ -50,12 +50,17 @@ public class AirportFilterPopUpController extends FilterPopUpController {
 
   /**
    * This method calls the filterAirports method of the Filterer class with the given hashmap of
-   * filter types and term.
+   * filter types and term. The current file is filtered in the database while it is not loaded.
    *
    * @param filterTerms a hashmap to pass into the filterAirports method.
    */
   public void filterByDataType(HashMap<String, String> filterTerms) {
-    filterer.filterAirports(filterTerms, storage.getAirports());
+    String fileName = storage.getCurrentAirportFile();
+    if (inDatabase("Airport", fileName)) {
+      filterer.filterAirports(filterTerms, backend, fileName);
+    } else {
+      filterer.filterAirports(filterTerms, storage.getAirports());
+    }
   }
 
   /**
@@ -9,9 +9,15 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import model.data.DataType;
+import model.database.QueryBackend;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.IntSupplier;
 
 /**
  * Superclass for all data view pages. All such pages contain a table of data, tools for searching
@@ -39,6 +45,9 @@ public abstract class DataViewController extends SideNavBarController {
   /** Class to get filtered data from. */
   protected final Filterer filterer = Main.getFilterer();
 
+  /** Searches the current file in the database while it is not loaded. */
+  protected final QueryBackend backend = new QueryBackend();
+
   /**
    * This method is inherited from Initializable interface.
    *
@@ -65,6 +74,39 @@ public abstract class DataViewController extends SideNavBarController {
    */
   public abstract void filterOptions() throws IOException;
 
+  /**
+   * This method returns what finds the position in its file of a row shown in the table, for the
+   * selection. A row of the whole file is at its index, and a row shown by a search or filter of
+   * the file in the database is found by its order key once it is selected.
+   *
+   * @param rows The rows of the current file.
+   * @param shown The rows shown in the table.
+   * @param keys The order key of each row shown by a search or filter of the database.
+   * @param row The row.
+   * @param index The index of the row in the table.
+   * @param <T> The class of the rows.
+   * @return finds the position of the row in its file.
+   */
+  protected static <T extends DataType> IntSupplier position(
+      ObservableList<T> rows, List<T> shown, Map<DataType, Long> keys, T row, int index) {
+    if (shown == rows || !(rows instanceof PagedRowList)) {
+      return () -> index;
+    }
+    Long key = keys.get(row);
+    return () -> ((PagedRowList<T>) rows).position(key);
+  }
+
+  /**
+   * This method shows that the current file could not be read from the database as it was shown,
+   * so it has been loaded instead.
+   *
+   * @param e Why the file could not be read.
+   */
+  protected void showReadFailure(SQLException e) {
+    errorText.setText("The file could not be read as it was shown, so it was loaded: " + e);
+    errorText.setVisible(true);
+  }
+
   /**
    * This method checks user's search for errors and displays an error message if any are present.
    * If no errors are present, calls searchByDataType method in subclass.
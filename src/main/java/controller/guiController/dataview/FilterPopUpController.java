@@ -11,6 +11,7 @@ import javafx.scene.control.Label;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import model.data.Storage;
+import model.database.QueryBackend;
 import java.io.IOException;
 import java.util.HashMap;
 
@@ -30,6 +31,9 @@ public abstract class FilterPopUpController implements Initializable {
   /** Class to get stored data from. */
   protected Storage storage = Main.getStorage();
 
+  /** Searches the current file in the database while it is not loaded. */
+  protected QueryBackend backend = new QueryBackend();
+
   /**
    * This method gets the filter terms the user has entered and their types.
    *
@@ -44,6 +48,17 @@ public abstract class FilterPopUpController implements Initializable {
    */
   public abstract void filterByDataType(HashMap<String, String> filterTerms);
 
+  /**
+   * This method checks whether a file is filtered in the database, as it has not been loaded.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or null if there is no file of the type.
+   * @return true if the file is stored and has not been loaded.
+   */
+  protected boolean inDatabase(String fileType, String fileName) {
+    return fileName != null && !storage.isLoaded(fileType, fileName);
+  }
+
   /**
    * This method returns the fxml file name which the class is the controller for.
    *
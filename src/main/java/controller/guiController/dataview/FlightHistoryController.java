@@ -21,7 +21,6 @@ import javafx.util.converter.IntegerStringConverter;
 import model.data.Airport;
 import model.data.Route;
 import model.data.Storage;
-import model.database.SQLiteDatabase;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
@@ -49,8 +48,6 @@ public class FlightHistoryController extends DataViewController {
   @FXML private TextField searchBar;
   @FXML private ChoiceBox<String> RankSelection;
 
-  /** The database object. */
-  private SQLiteDatabase database = new SQLiteDatabase();
   /** The types of search which can be performed on history. */
   private final ObservableList<String> searchTypes =
       FXCollections.observableArrayList("Airline", "Source", "Destination");
@@ -91,6 +88,7 @@ public class FlightHistoryController extends DataViewController {
                   .getItems()
                   .get(routeIntegerCellEditEvent.getTablePosition().getRow());
           routeChanged.setTimesTaken(routeIntegerCellEditEvent.getNewValue());
+          storage.saveHistory();
         });
 
     distanceColumn.setCellValueFactory(new PropertyValueFactory<>("distanceDisplayString"));
@@ -185,7 +183,7 @@ public class FlightHistoryController extends DataViewController {
           updateReportStatsDeletionSingleRoute(route);
         }
       }
-      database.updateHistoryTable(storage.getHistory());
+      storage.saveHistory();
 
     } else {
       errorText.setText("No routes selected.");
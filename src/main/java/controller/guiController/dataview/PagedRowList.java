@@ -0,0 +1,183 @@
+package controller.guiController.dataview;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import model.data.DataType;
+import model.data.Storage;
+import model.database.RowPager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Class which shows a stored file in a table without loading the whole file. The table only asks
+ * for the rows it shows, and the rows are read from the database a page at a time by keyset, with
+ * the page after read ahead, so scrolling down reads each page once. The last pages read are kept,
+ * so scrolling back does not read them again. The list cannot be changed. If a page cannot be read,
+ * no more pages are read, and the failure listener is told, so the view can load the file instead
+ * of showing blank rows.
+ *
+ * @param <T> The class of the rows, matching the type of the file.
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PagedRowList<T extends DataType> extends ObservableListBase<T> {
+
+  /** The number of rows in a page. */
+  static final int PAGE_SIZE = 200;
+
+  /** The number of pages kept. */
+  private static final int CACHED_PAGES = 10;
+
+  /** Reads the rows of the file. */
+  private final RowPager pager;
+
+  /** The number of rows of the file. */
+  private final int size;
+
+  /** Why a page could not be read, or null if every page read so far has been read. */
+  private SQLException failure;
+
+  /** Told the first time a page cannot be read. */
+  private Consumer<SQLException> failureListener = e -> {};
+
+  /** The pages kept, by page number, the least recently used first. */
+  private final Map<Integer, List<T>> pages =
+      new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+          return size() > CACHED_PAGES;
+        }
+      };
+
+  /**
+   * Constructor of PagedRowList.
+   *
+   * @param pager Reads the rows of the file shown.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public PagedRowList(RowPager pager) throws SQLException {
+    this.pager = pager;
+    this.size = pager.size();
+  }
+
+  /**
+   * This method returns the rows of a file to show in a table. A file already loaded in storage is
+   * shown from storage, and any other file is read from the database as it is shown, so opening a
+   * view does not wait for the whole file to load. If the file cannot be read from the database it
+   * is loaded into storage.
+   *
+   * @param storage The storage of the application.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or null if there is no file of the type.
+   * @param loaded Returns the rows of the file in storage, loading them if needed.
+   * @param <T> The class of the rows, matching the type of the file.
+   * @return the rows of the file.
+   */
+  public static <T extends DataType> ObservableList<T> fileRows(
+      Storage storage, String fileType, String fileName, Supplier<List<T>> loaded) {
+    if (fileName != null && !storage.isLoaded(fileType, fileName)) {
+      try {
+        return new PagedRowList<>(new RowPager(fileType, fileName));
+      } catch (SQLException ignored) {
+        // Loaded into storage instead.
+      }
+    }
+    return FXCollections.observableList(loaded.get());
+  }
+
+  /**
+   * This method sets the listener told the first time a page cannot be read. It is called while
+   * the table asks for its rows, so it should change the table later, not straight away.
+   *
+   * @param failureListener Given why the page could not be read.
+   */
+  public void setFailureListener(Consumer<SQLException> failureListener) {
+    this.failureListener = failureListener;
+  }
+
+  /**
+   * This method returns why a page could not be read.
+   *
+   * @return the failure, or null if no page has failed to be read.
+   */
+  public SQLException getFailure() {
+    return failure;
+  }
+
+  /**
+   * This method returns the row at a position, reading its page and the page after if they are
+   * not kept. Once a page has failed to be read, pages which are not kept are not read again.
+   *
+   * @param index The position of the row.
+   * @return the row, or null if its page cannot be read.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int page = index / PAGE_SIZE;
+    List<T> rows = pages.get(page);
+    if (rows == null) {
+      if (failure != null) {
+        return null;
+      }
+      List<DataType> read;
+      try {
+        read = pager.read(page * PAGE_SIZE, 2 * PAGE_SIZE);
+      } catch (SQLException e) {
+        failure = e;
+        failureListener.accept(e);
+        return null;
+      }
+      for (int first = 0; first < read.size(); first += PAGE_SIZE) {
+        List<T> pageRows = new ArrayList<>(PAGE_SIZE);
+        for (DataType row : read.subList(first, Math.min(first + PAGE_SIZE, read.size()))) {
+          pageRows.add((T) row);
+        }
+        pages.put(page + first / PAGE_SIZE, pageRows);
+      }
+      rows = pages.get(page);
+      if (rows == null) {
+        return null;
+      }
+    }
+    int offset = index % PAGE_SIZE;
+    return offset < rows.size() ? rows.get(offset) : null;
+  }
+
+  /**
+   * This method finds the position in the file of a row found by a search of the file in the
+   * database, by its order key.
+   *
+   * @param key The order key of the row, or null if it is not known.
+   * @return the position of the row, or -1 if the key is not known or the file cannot be read.
+   */
+  public int position(Long key) {
+    if (key == null) {
+      return -1;
+    }
+    try {
+      return pager.position(key);
+    } catch (SQLException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * This method returns the number of rows of the file, counted when the list was made.
+   *
+   * @return the number of rows.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+}
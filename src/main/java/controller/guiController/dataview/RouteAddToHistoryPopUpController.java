@@ -21,11 +21,13 @@ import javafx.stage.Stage;
 import javafx.util.converter.IntegerStringConverter;
 import model.data.Route;
 import model.data.Storage;
-import model.database.SQLiteDatabase;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
 /**
  * The controller class which contains the controls for the route data view.
@@ -58,18 +60,21 @@ public class RouteAddToHistoryPopUpController implements Initializable {
   /** List of routes to be added to history. */
   private ObservableList<Route> tempRoute;
 
-  /** The database for adding history to history table in database. */
-  private SQLiteDatabase database = new SQLiteDatabase();
+  /** Told the routes added to the history once they are confirmed. */
+  private Consumer<List<Route>> onAdded = added -> {};
 
   /**
    * This method displays the content for the history.
    *
+   * @param onAdded Told the routes added to the history, such as the view they were selected in.
    * @throws IOException This throws an IOException.
    */
-  public void display() throws IOException {
+  public void display(Consumer<List<Route>> onAdded) throws IOException {
 
-    Parent root =
-        FXMLLoader.load(getClass().getResource("/view/dataview/routeAddToHistoryPopUp.fxml"));
+    FXMLLoader loader =
+        new FXMLLoader(getClass().getResource("/view/dataview/routeAddToHistoryPopUp.fxml"));
+    Parent root = loader.load();
+    loader.<RouteAddToHistoryPopUpController>getController().onAdded = onAdded;
     Stage addPopUp = new Stage();
     addPopUp.setTitle("Add To History ");
     addPopUp.initModality(Modality.APPLICATION_MODAL);
@@ -114,6 +119,7 @@ public class RouteAddToHistoryPopUpController implements Initializable {
    * be added to history
    */
   public void confirm() {
+    List<Route> added = new ArrayList<>();
     for (Route route : Main.getStorage().getTempRoutes()) {
       if (route.getTimesTaken() <= 0) {
         // Have not edit number of passenger => invalid history
@@ -129,11 +135,12 @@ public class RouteAddToHistoryPopUpController implements Initializable {
         } else {
           Main.getStorage().getHistory().add(route);
         }
-        route.getSelect().setSelected(false);
+        added.add(route);
         updateReportStats(route);
       }
     }
-    database.updateHistoryTable(storage.getHistory());
+    onAdded.accept(added);
+    storage.saveHistory();
 
     tempRoute.clear();
     Stage stage = (Stage) cancelBtn.getScene().getWindow();
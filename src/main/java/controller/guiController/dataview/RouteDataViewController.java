@@ -4,6 +4,7 @@ import controller.analysis.GeneralStatsCalculator;
 import controller.analysis.Searcher;
 import controller.guiController.AlertPopUp;
 import controller.guiController.Main;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -11,14 +12,19 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.cell.CheckBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
 import model.data.Airport;
+import model.data.DataType;
 import model.data.Route;
-import model.database.SQLiteDatabase;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -43,9 +49,6 @@ public class RouteDataViewController extends DataViewController {
   @FXML private Button AddToHistoryButton;
   @FXML private Button removeBtn;
 
-  /** The database object. */
-  private SQLiteDatabase database = new SQLiteDatabase();
-
   /** The types of search which can be performed on routes. */
   private final ObservableList<String> searchTypes =
       FXCollections.observableArrayList("Airline", "Source", "Destination");
@@ -56,11 +59,18 @@ public class RouteDataViewController extends DataViewController {
   /** Pop up to launch when adding route to history. */
   private final RouteAddToHistoryPopUpController addPopUp = new RouteAddToHistoryPopUpController();
 
+  /** The routes of the current file, read from the database as shown until the file is loaded. */
   private ObservableList<Route> routes;
 
+  /** The routes selected, kept apart from the routes. */
+  private final RowSelection<Route> selection = new RowSelection<>();
+
+  /** The order key of each route shown by a search or filter of the file in the database. */
+  private Map<DataType, Long> matchKeys = new IdentityHashMap<>();
+
   private HashSet<String> airports;
   /**
-   * Initializes the controller class. The checkboxes are added to each record.
+   * Initializes the controller class. A check box is only made for each route shown.
    *
    * @param url The URL used.
    * @param rb The resource bundle used.
@@ -68,7 +78,13 @@ public class RouteDataViewController extends DataViewController {
   @Override
   public void initialize(URL url, ResourceBundle rb) {
     this.generalStatsCalculator = Main.getGeneralStatsCalculator();
-    addColumn.setCellValueFactory(new PropertyValueFactory<>("select"));
+    addColumn.setCellFactory(
+        CheckBoxTableCell.forTableColumn(
+            index -> {
+              Route route = tableView.getItems().get(index);
+              return selection.property(
+                  route, position(routes, tableView.getItems(), matchKeys, route, index));
+            }));
     airlineNameColumn.setCellValueFactory(new PropertyValueFactory<>("airlineName"));
     sourceAirportColumn.setCellValueFactory(new PropertyValueFactory<>("sourceAirport"));
     destinationAirportColumn.setCellValueFactory(new PropertyValueFactory<>("destinationAirport"));
@@ -76,25 +92,67 @@ public class RouteDataViewController extends DataViewController {
     numOfStopsColumn.setCellValueFactory(new PropertyValueFactory<>("numOfStops"));
     equipmentColumn.setCellValueFactory(new PropertyValueFactory<>("firstEquipment"));
 
-    if (storage.getRoutes() != null) {
-      for (Route route : storage.getRoutes()) {
-        route.initCheckBox();
-      }
+    routes =
+        PagedRowList.fileRows(storage, "Route", storage.getCurrentRouteFile(), storage::getRoutes);
+    if (routes instanceof PagedRowList) {
+      ((PagedRowList<Route>) routes)
+          .setFailureListener(e -> Platform.runLater(() -> readFailed(e)));
+    }
+    tableView.setItems(routes);
+    tableView.setEditable(true);
+    searchTypeSelection.setItems(searchTypes); // Setup choice boxes
+  }
+
+  /**
+   * This method returns the routes of the current file in storage, loading the file if its routes
+   * are still read from the database as they are shown. The table then shows the loaded routes,
+   * which the selection is moved to.
+   *
+   * @return the routes of the current file.
+   */
+  private List<Route> loadRoutes() {
+    if (routes instanceof PagedRowList) {
+      selection.resolve(storage.getRoutes());
       routes = FXCollections.observableList(storage.getRoutes());
       tableView.setItems(routes);
-      tableView.setEditable(true);
-      searchTypeSelection.setItems(searchTypes); // Setup choice boxes
     }
+    return storage.getRoutes();
+  }
 
-    airports = new HashSet<>();
-    for (Airport airport : Main.getStorage().getAirports()) {
-      if (!airport.getIATA().equals("")) {
-        airports.add(airport.getIATA());
-      }
-      if (!airport.getICAO().equals("")) {
-        airports.add(airport.getICAO());
-      }
+  /**
+   * This method checks whether the routes of the current file are read from the database as they
+   * are shown, so they are searched there. Once the file has been loaded the table shows the
+   * loaded routes, as their changes may not have been written to the database yet.
+   *
+   * @return true if the routes are read from the database.
+   */
+  private boolean readsDatabase() {
+    if (routes instanceof PagedRowList
+        && storage.isLoaded("Route", storage.getCurrentRouteFile())) {
+      loadRoutes();
     }
+    return routes instanceof PagedRowList;
+  }
+
+  /**
+   * This method loads the current file once a page of it cannot be read from the database, so
+   * the table shows the loaded routes instead of blank rows.
+   *
+   * @param e Why the page could not be read.
+   */
+  private void readFailed(SQLException e) {
+    loadRoutes();
+    showReadFailure(e);
+  }
+
+  /**
+   * This method deselects routes, such as once they have been added to the history.
+   *
+   * @param added The routes to deselect.
+   */
+  private void deselect(List<Route> added) {
+    selection.deselect(added);
+    tableView.refresh();
   }
 
   /**
@@ -102,7 +160,16 @@ public class RouteDataViewController extends DataViewController {
    * of search.
    */
   public void searchByDataType(String searchTerm, String searchType) {
-    ArrayList<Route> results = Searcher.searchRoutes(searchTerm, searchType, storage.getRoutes());
+    ArrayList<Route> results;
+    if (readsDatabase()) {
+      Map<DataType, Long> keys = new IdentityHashMap<>();
+      results =
+          Searcher.searchRoutes(
+              searchTerm, searchType, backend, storage.getCurrentRouteFile(), keys);
+      matchKeys = keys;
+    } else {
+      results = Searcher.searchRoutes(searchTerm, searchType, loadRoutes());
+    }
     tableView.setItems(FXCollections.observableList(results));
   }
 
@@ -119,8 +186,8 @@ public class RouteDataViewController extends DataViewController {
         Main.getStorage().getTempRoutes().clear();
       }
 
-      for (Route route : Main.getStorage().getRoutes()) {
-        if (route.getSelect().isSelected()) {
+      for (Route route : loadRoutes()) {
+        if (selection.isSelected(route)) {
           Main.getStorage().getTempRoutes().add(route);
         }
       }
@@ -143,7 +210,7 @@ public class RouteDataViewController extends DataViewController {
   public void airportWarning(HashSet<String> invalidAirports) throws IOException {
     Optional<ButtonType> result = AlertPopUp.showAirportAlert(invalidAirports);
     if (result.isPresent() && result.get() == ButtonType.OK) {
-      addPopUp.display();
+      addPopUp.display(this::deselect);
     }
   }
 
@@ -155,6 +222,17 @@ public class RouteDataViewController extends DataViewController {
    * @throws IOException If the warning pop up cannot be launched.
    */
   public void checkAirports() throws IOException {
+    if (airports == null) {
+      airports = new HashSet<>();
+      for (Airport airport : Main.getStorage().getAirports()) {
+        if (!airport.getIATA().equals("")) {
+          airports.add(airport.getIATA());
+        }
+        if (!airport.getICAO().equals("")) {
+          airports.add(airport.getICAO());
+        }
+      }
+    }
     HashSet<String> invalidAirports = new HashSet<>();
     for (Route route : storage.getTempRoutes()) {
       if (!airports.contains(route.getDestinationAirport())) {
@@ -167,7 +245,7 @@ public class RouteDataViewController extends DataViewController {
     if (invalidAirports.size() > 0) {
       airportWarning(invalidAirports);
     } else {
-      addPopUp.display();
+      addPopUp.display(this::deselect);
     }
   }
 
@@ -176,7 +254,7 @@ public class RouteDataViewController extends DataViewController {
   public void clearSearch() {
     errorText.setVisible(false);
     searchBar.setText(null);
-    tableView.setItems(FXCollections.observableList(storage.getRoutes()));
+    tableView.setItems(routes);
   }
 
   /**
@@ -191,6 +269,12 @@ public class RouteDataViewController extends DataViewController {
     filterer.setFilterSuccess(false);
     filterPopUp.display();
     if (filterer.getFilterSuccess()) {
+      if (filterer.getFilteredKeys() == null) {
+        // Filtered in storage, as the file had been loaded.
+        loadRoutes();
+      } else {
+        matchKeys = filterer.getFilteredKeys();
+      }
       tableView.setItems(FXCollections.observableList(filterer.getFilteredRoutes()));
     }
   }
@@ -201,10 +285,15 @@ public class RouteDataViewController extends DataViewController {
     if (getAnySelected()) {
       Optional<ButtonType> result = AlertPopUp.showDeleteAlert("route(s)");
       if (result.isPresent() && result.get() == ButtonType.OK) {
-        routes.removeIf(route -> route.getSelect().isSelected());
-        database.deleteFile(storage.getCurrentRouteFile(), "Route");
-        database.initialiseTable("Route", storage.getCurrentRouteFile());
-        database.updateRoute(storage.getRoutes());
+        List<Route> selected = new ArrayList<>();
+        for (Route route : loadRoutes()) {
+          if (selection.isSelected(route)) {
+            selected.add(route);
+          }
+        }
+        routes.removeIf(selection::isSelected);
+        storage.removeEntries("Route", selected);
+        selection.clear();
       }
     } else {
       errorText.setText("No routes selected.");
@@ -218,11 +307,6 @@ public class RouteDataViewController extends DataViewController {
    * @return true if any have been selected or false otherwise.
    */
   public boolean getAnySelected() {
-    for (Route route : routes) {
-      if (route.getSelect().isSelected()) {
-        return true;
-      }
-    }
-    return false;
+    return !selection.isEmpty();
   }
 }
@@ -53,13 +53,18 @@ public class RouteFilterPopUpController extends FilterPopUpController {
 
   /**
    * This method calls the filterRoutes method of filterer with the given HashMap of filter types
-   * and terms.
+   * and terms. The current file is filtered in the database while it is not loaded.
    *
    * @param filterTerms A HashMap with filter type as the key and filter term as the value.
    */
   @Override
   public void filterByDataType(HashMap<String, String> filterTerms) {
-    filterer.filterRoutes(filterTerms, storage.getRoutes());
+    String fileName = storage.getCurrentRouteFile();
+    if (inDatabase("Route", fileName)) {
+      filterer.filterRoutes(filterTerms, backend, fileName);
+    } else {
+      filterer.filterRoutes(filterTerms, storage.getRoutes());
+    }
   }
 
   /**
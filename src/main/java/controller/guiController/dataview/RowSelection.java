@@ -0,0 +1,114 @@
+package controller.guiController.dataview;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Class which keeps the rows selected in a data view, apart from the rows themselves, so a row
+ * only needs a check box while it is shown. Rows are compared by identity, as two equal rows can
+ * be in the same file. Each row is kept with its position in its file, so rows selected while a
+ * file is read from the database can be found again once it is loaded.
+ *
+ * @param <T> The class of the rows.
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowSelection<T> {
+
+  /** The selected rows, with their position in their file. */
+  private final Map<T, Integer> selected = new IdentityHashMap<>();
+
+  /**
+   * This method returns a property which is true while a row is selected, for the check box of a
+   * shown row. Changing the property selects or deselects the row. The property is not told about
+   * changes made through this class, so the table should be refreshed after them.
+   *
+   * @param row The row.
+   * @param position The position of the row in its file.
+   * @return the property.
+   */
+  public BooleanProperty property(T row, int position) {
+    return property(row, () -> position);
+  }
+
+  /**
+   * This method returns a property which is true while a row is selected, finding the position of
+   * the row in its file only once the row is selected, such as a row shown by a search.
+   *
+   * @param row The row.
+   * @param position Finds the position of the row in its file, or -1 if it cannot.
+   * @return the property.
+   */
+  public BooleanProperty property(T row, IntSupplier position) {
+    BooleanProperty property = new SimpleBooleanProperty(row != null && isSelected(row));
+    property.addListener(
+        (observable, wasSelected, isSelected) -> {
+          if (row == null) {
+            return;
+          }
+          if (isSelected) {
+            selected.put(row, position.getAsInt());
+          } else {
+            selected.remove(row);
+          }
+        });
+    return property;
+  }
+
+  /**
+   * This method checks whether a row is selected.
+   *
+   * @param row The row.
+   * @return true if the row is selected.
+   */
+  public boolean isSelected(T row) {
+    return selected.containsKey(row);
+  }
+
+  /**
+   * This method checks whether no row is selected.
+   *
+   * @return true if no row is selected.
+   */
+  public boolean isEmpty() {
+    return selected.isEmpty();
+  }
+
+  /**
+   * This method deselects rows.
+   *
+   * @param rows The rows to deselect.
+   */
+  public void deselect(Collection<? extends T> rows) {
+    for (T row : rows) {
+      selected.remove(row);
+    }
+  }
+
+  /** This method deselects every row. */
+  public void clear() {
+    selected.clear();
+  }
+
+  /**
+   * This method replaces each selected row by the row at the same position of a list, such as when
+   * the rows read from the database are replaced by the file loaded in storage. Rows at positions
+   * past the end of the list are deselected.
+   *
+   * @param rows The rows which replace those shown, in the same order.
+   */
+  public void resolve(List<? extends T> rows) {
+    Map<T, Integer> positions = new IdentityHashMap<>(selected);
+    selected.clear();
+    for (Integer position : positions.values()) {
+      if (position >= 0 && position < rows.size()) {
+        selected.put(rows.get(position), position);
+      }
+    }
+  }
+}
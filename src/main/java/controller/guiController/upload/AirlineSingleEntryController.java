@@ -7,13 +7,9 @@ import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import model.data.Airline;
-import model.data.DataType;
-import model.database.SQLiteDatabase;
+import model.data.Storage;
 import model.loader.Loader;
 
-import java.util.List;
-
 /**
  * The controller class which contains the controls for data entry of a single Airline.
  *
@@ -24,6 +20,9 @@ public class AirlineSingleEntryController {
   /** Initialize a loader object */
   private final Loader loader = Main.getLoader();
 
+  /** The storage the entry is added to. */
+  private final Storage storage = Main.getStorage();
+
   @FXML TextField nameField;
   @FXML TextField airlineIDField;
   @FXML TextField aliasField;
@@ -60,15 +59,7 @@ public class AirlineSingleEntryController {
 
     try {
       String message = loader.loadLine(entryString, "Airline");
-
-      List<DataType> data = loader.getParser().getData();
-      String fileName = loader.getLineFileName("Airline");
-
-      SQLiteDatabase database = new SQLiteDatabase();
-      database.initialiseTable("Airline", fileName);
-      while (data.remove(null)) ;
-      database.addAirlines((Airline) data.get(data.size() - 1));
-      database.startCommite();
+      storage.updateDatabase("Airline", loader.getLastEntry());
 
       showConfirmDialog(message);
 
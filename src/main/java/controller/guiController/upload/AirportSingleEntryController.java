@@ -6,11 +6,8 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import model.data.Airport;
-import model.data.DataType;
-import model.database.SQLiteDatabase;
+import model.data.Storage;
 import model.loader.Loader;
-import java.util.List;
 
 /**
  * The controller class which contains the controls for data entry of a single Airport.
@@ -23,6 +20,9 @@ public class AirportSingleEntryController {
   /** Initialize a loader object */
   private final Loader loader = Main.getLoader();
 
+  /** The storage the entry is added to. */
+  private final Storage storage = Main.getStorage();
+
   @FXML TextField nameFld;
   @FXML TextField cityFld;
   @FXML TextField countryFld;
@@ -63,15 +63,7 @@ public class AirportSingleEntryController {
 
     try {
       String message = loader.loadLine(entryString, "Airport");
-
-      List<DataType> data = loader.getParser().getData();
-      String fileName = loader.getLineFileName("Airport");
-
-      SQLiteDatabase database = new SQLiteDatabase();
-      database.initialiseTable("Airport", fileName);
-      while (data.remove(null)) ;
-      database.addAirports((Airport) data.get(data.size() - 1));
-      database.startCommite();
+      storage.updateDatabase("Airport", loader.getLastEntry());
 
       showConfirmDialog(message);
 
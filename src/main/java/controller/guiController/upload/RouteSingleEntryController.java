@@ -6,11 +6,8 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import model.data.DataType;
-import model.data.Route;
-import model.database.SQLiteDatabase;
+import model.data.Storage;
 import model.loader.Loader;
-import java.util.List;
 
 /**
  * The controller class which contains the controls for data entry of a single Route.
@@ -23,6 +20,9 @@ public class RouteSingleEntryController {
   /** Initialize a loader object */
   private final Loader loader = Main.getLoader();
 
+  /** The storage the entry is added to. */
+  private final Storage storage = Main.getStorage();
+
   @FXML TextField airlineNameField;
   @FXML TextField airlineIDField;
   @FXML TextField numStopsField;
@@ -60,15 +60,7 @@ public class RouteSingleEntryController {
 
     try {
       String message = loader.loadLine(entryString, "Route");
-
-      List<DataType> data = loader.getParser().getData();
-      String fileName = loader.getLineFileName("Route");
-
-      SQLiteDatabase database = new SQLiteDatabase();
-      database.initialiseTable("Route", fileName);
-      while (data.remove(null)) ;
-      database.addRoutes((Route) data.get(data.size() - 1));
-      database.startCommite();
+      storage.updateDatabase("Route", loader.getLastEntry());
 
       showConfirmDialog(message);
 
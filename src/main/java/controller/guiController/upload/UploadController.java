@@ -13,11 +13,9 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import model.data.DataType;
-import model.data.Route;
 import model.data.Storage;
-import model.database.SQLiteDatabase;
-import model.loader.Loader;
+import model.loader.UploadService;
+import model.loader.UploadTask;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -33,7 +31,10 @@ import java.util.ResourceBundle;
 public class UploadController extends SideNavBarController {
 
     private final Storage storage = Main.getStorage();
-    private final Loader loader = Main.getLoader();
+    private final UploadService uploadService = Main.getUploadService();
+
+    /** The upload page currently open, which is refreshed as background uploads progress. */
+    private static UploadController shownController;
 
     private String currentAirlineFile;
 
@@ -41,8 +42,6 @@ public class UploadController extends SideNavBarController {
 
     private String currentRouteFile;
 
-    private SQLiteDatabase database = new SQLiteDatabase();
-
     /**Iniitialize the list of data types to be added to the ChoiceBox 'dataTypeSelect'*/
     ObservableList<String> dataTypeList =
             FXCollections.observableArrayList("Airport", "Route", "Airline");
@@ -54,6 +53,8 @@ public class UploadController extends SideNavBarController {
     @FXML
     private ListView<String> routeFileList;
     @FXML
+    private ListView<UploadTask> uploadList;
+    @FXML
     private ChoiceBox dataTypeSelect;
     @FXML
     private Button backButton;
@@ -73,6 +74,9 @@ public class UploadController extends SideNavBarController {
         airlineFileList.getSelectionModel().select(storage.getCurrentAirlineFile());
         airportFileList.getSelectionModel().select(storage.getCurrentAirportFile());
         routeFileList.getSelectionModel().select(storage.getCurrentRouteFile());
+
+        uploadList.getItems().addAll(uploadService.getActiveUploads());
+        shownController = this;
     }
 
     /**
@@ -92,7 +96,8 @@ public class UploadController extends SideNavBarController {
     }
 
     /**
-     * This method opens the user's file browser when the 'browse' button is clicked.
+     * This method opens the user's file browser when the 'browse' button is clicked, and starts
+     * uploading the selected file in the background.
      */
     public void browseFiles() {
 
@@ -106,51 +111,116 @@ public class UploadController extends SideNavBarController {
                 String stringFile;
                 stringFile = selectedFile.toString();
 
-                String resultString = loader.checkFile(stringFile, fileType);
-                Alert ConfirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                ConfirmAlert.setContentText(resultString);
-                ConfirmAlert.setHeaderText("Confirm file upload");
-                ButtonType yesButton = new ButtonType("Yes");
-                ButtonType cancelButton = new ButtonType("Cancel");
-                ConfirmAlert.getButtonTypes().setAll(yesButton, cancelButton);
-
-                Optional<ButtonType> result = ConfirmAlert.showAndWait();
-                if (result.get() == yesButton) {
-                    loader.loadFile(stringFile, fileType);
-                    storage.updateDatabase(fileType);
-                    switch (fileType) {
-                        case "Airport":
-                            airportFileList.setItems(FXCollections.observableList(storage.getAirportFileNames()));
-                            airportFileList.getSelectionModel().select(storage.getCurrentAirportFile());
-                            break;
-                        case "Airline":
-                            airlineFileList.setItems(FXCollections.observableList(storage.getAirlineFileNames()));
-                            airlineFileList.getSelectionModel().select(storage.getCurrentAirlineFile());
-                            break;
-                        case "Route":
-                            routeFileList.setItems(FXCollections.observableList(storage.getRouteFileNames()));
-                            routeFileList.getSelectionModel().select(storage.getCurrentRouteFile());
-                            break;
-                    }
-                    ConfirmAlert.close();
-                    /**only load data if it is not erroneous*/
-                    for (DataType line : storage.getRoutes()) {
-                        Route test = (Route) line;
-                    }
-                } else if (result.get() == cancelButton) {
-                    ConfirmAlert.close();
-                }
+                UploadTask task = uploadService.upload(stringFile, fileType, UploadController::uploadChanged);
+                uploadList.getItems().add(task);
             }
             catch (Exception e) {
-                if (e.getMessage() != null) {
-                    Alert ErrorAlert = new Alert(Alert.AlertType.NONE);
-                    ErrorAlert.setAlertType(Alert.AlertType.ERROR);
-                    ErrorAlert.setContentText(e.getMessage());
-                    ErrorAlert.show();
-                }
+                showError(e);
             }
         }
-        //
+    }
+
+    /**
+     * This method cancels the upload selected in the upload list when the 'Cancel Upload' button is
+     * clicked. Any rows of the file already written to the database are removed.
+     */
+    public void cancelUpload() {
+        UploadTask task = uploadList.getSelectionModel().getSelectedItem();
+        if (task != null && !task.isFinished()) {
+            uploadService.cancel(task, UploadController::uploadChanged);
+        }
+    }
+
+    /**
+     * This method is called on the JavaFX thread whenever a background upload changes. Once a file
+     * has been parsed the user is asked to confirm the upload, and the lists on the upload page are
+     * refreshed if it is open. The user is only asked, or shown an error, on the change which
+     * staged or failed the upload, not on progress updates which arrive after it.
+     *
+     * @param task The upload which has changed.
+     * @param state The state of the upload when it changed.
+     */
+    private static void uploadChanged(UploadTask task, UploadTask.State state) {
+        if (state == UploadTask.State.STAGED) {
+            confirmUpload(task);
+        } else if (state == UploadTask.State.FAILED
+                && task.getError() != null
+                && task.getError().getMessage() != null) {
+            showError(task.getError());
+        }
+        if (shownController != null) {
+            shownController.refreshLists(task);
+        }
+    }
+
+    /**
+     * This method shows the errors found in a parsed file and asks the user whether to upload it.
+     *
+     * @param task The staged upload.
+     */
+    private static void confirmUpload(UploadTask task) {
+        String resultString = task.getUpload().getErrorMessage() + task.getUpload().getIngestReport();
+        Alert ConfirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        ConfirmAlert.setContentText(resultString);
+        ConfirmAlert.setHeaderText("Confirm upload of " + task.getFileName());
+        ButtonType yesButton = new ButtonType("Yes");
+        ButtonType cancelButton = new ButtonType("Cancel");
+        ConfirmAlert.getButtonTypes().setAll(yesButton, cancelButton);
+
+        Optional<ButtonType> result = ConfirmAlert.showAndWait();
+        if (task.getState() != UploadTask.State.STAGED) {
+            return; // cancelled while the user was deciding
+        }
+        UploadService uploadService = Main.getUploadService();
+        if (result.isPresent() && result.get() == yesButton) {
+            try {
+                uploadService.commit(task, UploadController::uploadChanged);
+            } catch (Exception e) {
+                // the failed upload is reported through uploadChanged
+            }
+        } else {
+            uploadService.cancel(task, UploadController::uploadChanged);
+        }
+    }
+
+    /**
+     * This method shows an error message to the user.
+     *
+     * @param e The error to show.
+     */
+    private static void showError(Exception e) {
+        if (e.getMessage() != null) {
+            Alert ErrorAlert = new Alert(Alert.AlertType.NONE);
+            ErrorAlert.setAlertType(Alert.AlertType.ERROR);
+            ErrorAlert.setContentText(e.getMessage());
+            ErrorAlert.show();
+        }
+    }
+
+    /**
+     * This method refreshes the upload list, and the file list of the type of an upload.
+     *
+     * @param task The upload which has changed.
+     */
+    private void refreshLists(UploadTask task) {
+        if (!uploadList.getItems().contains(task)) {
+            uploadList.getItems().add(task);
+        }
+        uploadList.refresh();
+        switch (task.getDataType()) {
+            case "Airport":
+                airportFileList.setItems(FXCollections.observableList(storage.getAirportFileNames()));
+                airportFileList.getSelectionModel().select(storage.getCurrentAirportFile());
+                break;
+            case "Airline":
+                airlineFileList.setItems(FXCollections.observableList(storage.getAirlineFileNames()));
+                airlineFileList.getSelectionModel().select(storage.getCurrentAirlineFile());
+                break;
+            case "Route":
+                routeFileList.setItems(FXCollections.observableList(storage.getRouteFileNames()));
+                routeFileList.getSelectionModel().select(storage.getCurrentRouteFile());
+                break;
+        }
     }
 
     /**
@@ -222,32 +292,33 @@ public class UploadController extends SideNavBarController {
 
 
     /**
-     * This method deletes selected file and raises alertBox.
+     * This method deletes selected file and raises alertBox. The file is removed from storage with
+     * its loaded data and indexes, and deleting it from the database is queued.
      */
     @FXML
     public void deleteFile() {
         if (currentAirlineFile != null) {
             Optional<ButtonType> result = AlertPopUp.showDeleteAlert("airline file");
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                storage.getAirlineFileList().remove(currentAirlineFile);
-                database.deleteFile(currentAirlineFile, "Airline");
-                storage.setCurrentAirlineFile(null);
+                storage.removeFile(currentAirlineFile, "Airline");
+                storage.getPersistence().deleteFile(currentAirlineFile, "Airline");
+                currentAirlineFile = null;
                 airlineFileList.setItems(FXCollections.observableList(storage.getAirlineFileNames()));
             }
         }  if (currentAirportFile != null) {
             Optional<ButtonType> result = AlertPopUp.showDeleteAlert("airport file");
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                storage.getAirportFileList().remove(currentAirportFile);
-                database.deleteFile(currentAirportFile, "Airport");
-                storage.setCurrentAirportFile(null);
+                storage.removeFile(currentAirportFile, "Airport");
+                storage.getPersistence().deleteFile(currentAirportFile, "Airport");
+                currentAirportFile = null;
                 airportFileList.setItems(FXCollections.observableList(storage.getAirportFileNames()));
             }
         } if (currentRouteFile != null) {
             Optional<ButtonType> result = AlertPopUp.showDeleteAlert("route file");
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                storage.getRouteFileList().remove(currentRouteFile);
-                database.deleteFile(currentRouteFile, "Route");
-                storage.setCurrentRouteFile(null);
+                storage.removeFile(currentRouteFile, "Route");
+                storage.getPersistence().deleteFile(currentRouteFile, "Route");
+                currentRouteFile = null;
                 routeFileList.setItems(FXCollections.observableList(storage.getRouteFileNames()));
             }
         }
@@ -1,7 +1,5 @@
 package model.data;
 
-import javafx.scene.control.CheckBox;
-
 /**
  * The Airline class which contains all data for one unique airline.
  *
@@ -33,9 +31,6 @@ public class Airline implements DataType {
   /** "Y" if the airline is or has until recently been operational, "N" if it is defunct. */
   private final Boolean activeStatus;
 
-  /** A checkbox to tell whether this airline has been selected. */
-  private CheckBox select;
-
   /** The Airline constructor. */
   public Airline(
       int airlineID,
@@ -56,11 +51,6 @@ public class Airline implements DataType {
     this.activeStatus = activeStatus;
   }
 
-  /** This method initializes the routes checkbox to use with JavaFx. */
-  public void initCheckBox() {
-    this.select = new CheckBox();
-  }
-
   public int getAirlineID() {
     return airlineID;
   }
@@ -93,24 +83,6 @@ public class Airline implements DataType {
     return activeStatus;
   }
 
-  /**
-   * This method returns the airline selection checkbox.
-   *
-   * @return select.
-   */
-  public CheckBox getSelect() {
-    return select;
-  }
-
-  /**
-   * This method adds a selection checkbox to the airline.
-   *
-   * @param select The selection checkbox to be added.
-   */
-  public void setSelect(CheckBox select) {
-    this.select = select;
-  }
-
   /**
    * Returns true if all another is instance of airline and has all the same attributes as this
    * airline, false otherwise..
@@ -1,7 +1,5 @@
 package model.data;
 
-import javafx.scene.control.CheckBox;
-
 /**
  * The Airport class which contains all data for one unique airport.
  *
@@ -49,9 +47,6 @@ public class Airport implements DataType {
   /** Timezone in "tz" (Olson) format, eg. "America/Los_Angeles". */
   private final String dataBaseTimeZone;
 
-  /** A checkbox to tell whether this route has been selected. */
-  private CheckBox select;
-
   /** The Airport constructor. */
   public Airport(
       int airportID,
@@ -80,11 +75,6 @@ public class Airport implements DataType {
     this.dataBaseTimeZone = dataBaseTimeZone;
   }
 
-  /** This method initializes the routes checkbox to use with JavaFx. */
-  public void initCheckBox() {
-    this.select = new CheckBox();
-  }
-
   public int getAirportID() {
     return airportID;
   }
@@ -133,24 +123,6 @@ public class Airport implements DataType {
     return dataBaseTimeZone;
   }
 
-  /**
-   * This method returns the routes selection checkbox.
-   *
-   * @return select.
-   */
-  public CheckBox getSelect() {
-    return select;
-  }
-
-  /**
-   * This method adds a selection checkbox to the route.
-   *
-   * @param select The selection checkbox to be added.
-   */
-  public void setSelect(CheckBox select) {
-    this.select = select;
-  }
-
   /**
    * This method returns true if object has the same attributes as the airport from which the method
    * is called, false otherwise.
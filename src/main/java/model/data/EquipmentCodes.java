@@ -0,0 +1,72 @@
+package model.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class which interns the plane codes of routes. There are only a few hundred plane codes, and far
+ * fewer combinations of them than routes, so every route flying the same planes shares one array
+ * of codes, and each code is a single string, however the route was made.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public final class EquipmentCodes {
+
+  /** The single copy of each plane code. */
+  private static final Map<String, String> CODES = new ConcurrentHashMap<>();
+
+  /** The shared array of each combination of plane codes, in order. */
+  private static final Map<List<String>, String[]> COMBINATIONS = new ConcurrentHashMap<>();
+
+  /** An empty array, shared by every route with no plane codes. */
+  private static final String[] NONE = new String[0];
+
+  private EquipmentCodes() {}
+
+  /**
+   * This method returns the shared array holding the given plane codes in the same order. Empty
+   * codes are left out. The array returned is shared between routes, so it must not be changed.
+   *
+   * @param codes The plane codes of a route.
+   * @return the shared array of the codes.
+   */
+  public static String[] intern(String[] codes) {
+    if (codes.length == 0) {
+      return NONE;
+    }
+    String[] shared = COMBINATIONS.get(Arrays.asList(codes));
+    if (shared != null) {
+      return shared;
+    }
+    List<String> interned = new ArrayList<>(codes.length);
+    for (String code : codes) {
+      if (code != null && !code.isEmpty()) {
+        interned.add(CODES.computeIfAbsent(code, key -> key));
+      }
+    }
+    String[] combination = interned.toArray(NONE);
+    shared = COMBINATIONS.computeIfAbsent(interned, key -> combination);
+    if (combination.length != codes.length) {
+      // Also found by the codes given, copied so later changes to them do not affect the key.
+      COMBINATIONS.putIfAbsent(Arrays.asList(codes.clone()), shared);
+    }
+    return shared;
+  }
+
+  /**
+   * This method returns the shared array of the plane codes of space separated text.
+   *
+   * @param codes The plane codes, separated by spaces, such as "CR2 A81".
+   * @return the shared array of the codes, empty if the text is null or blank.
+   */
+  public static String[] split(String codes) {
+    if (codes == null || codes.isBlank()) {
+      return NONE;
+    }
+    return intern(codes.trim().split(" +"));
+  }
+}
@@ -35,7 +35,7 @@ public class Route implements DataType {
   /** The number of stops on this route. */
   private final int numOfStops;
 
-  /** The planes used on this route. */
+  /** The planes used on this route, shared with every route flying the same planes. */
   private final String[] equipment;
 
   /** The first plane in the equipment array. */
@@ -72,9 +72,9 @@ public class Route implements DataType {
     this.destinationAirportID = destinationAirportID;
     this.codeShare = codeShare;
     this.numOfStops = numOfStops;
-    this.equipment = equipment;
-    if (equipment.length > 0) {
-      firstEquipment = equipment[0];
+    this.equipment = EquipmentCodes.intern(equipment);
+    if (this.equipment.length > 0) {
+      firstEquipment = this.equipment[0];
     } else {
       firstEquipment = "";
     }
@@ -0,0 +1,228 @@
+package model.data;
+
+import java.util.Arrays;
+
+/**
+ * A set of route identities, where a route is identified by its airline ID, source airport ID and
+ * destination airport ID. The three IDs are packed into a single long key, 21 bits each, and the
+ * keys are stored in an open addressing table with linear probing. This lets duplicate routes be
+ * found in constant time without keeping an object per route.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RouteKeyIndex {
+
+  /** The number of bits used for each ID in a key. */
+  private static final int ID_BITS = 21;
+
+  /** The largest ID which can be stored in a key. */
+  public static final int MAX_ID = (1 << ID_BITS) - 1;
+
+  /** Value marking an empty slot in the table. Keys are never negative. */
+  private static final long EMPTY = -1L;
+
+  /** The table is grown when it is more than this fraction full. */
+  private static final double MAX_LOAD = 0.5;
+
+  /** The keys in the index, with EMPTY in unused slots. */
+  private long[] keys;
+
+  /** The number of keys in the index. */
+  private int size = 0;
+
+  /** Constructor of an empty RouteKeyIndex. */
+  public RouteKeyIndex() {
+    this(16);
+  }
+
+  /**
+   * Constructor of an empty RouteKeyIndex with room for the given number of routes before growing.
+   *
+   * @param expectedSize The number of routes expected to be added.
+   */
+  public RouteKeyIndex(int expectedSize) {
+    int capacity = 16;
+    while (capacity * MAX_LOAD < expectedSize) {
+      capacity <<= 1;
+    }
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * This method packs the IDs identifying a route into a single key.
+   *
+   * @param airlineID The ID of the airline flying the route.
+   * @param sourceAirportID The ID of the airport the route starts at.
+   * @param destinationAirportID The ID of the airport the route finishes at.
+   * @return the key of the route.
+   * @throws IllegalArgumentException If any ID is negative or greater than MAX_ID.
+   */
+  public static long key(int airlineID, int sourceAirportID, int destinationAirportID)
+      throws IllegalArgumentException {
+    if ((airlineID | sourceAirportID | destinationAirportID) < 0
+        || airlineID > MAX_ID
+        || sourceAirportID > MAX_ID
+        || destinationAirportID > MAX_ID) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Route IDs must be between 0 and %d: %d, %d, %d",
+              MAX_ID, airlineID, sourceAirportID, destinationAirportID));
+    }
+    return ((long) airlineID << (2 * ID_BITS))
+        | ((long) sourceAirportID << ID_BITS)
+        | destinationAirportID;
+  }
+
+  /**
+   * This method returns the key identifying a route.
+   *
+   * @param route The route to get the key of.
+   * @return the key of the route.
+   */
+  public static long key(Route route) {
+    return key(route.getAirlineID(), route.getSourceAirportID(), route.getDestinationAirportID());
+  }
+
+  /**
+   * This method adds a route to the index.
+   *
+   * @param route The route to add.
+   * @return true if the route was added, false if a route with the same IDs is already indexed.
+   */
+  public boolean add(Route route) {
+    return add(key(route));
+  }
+
+  /**
+   * This method adds a route key to the index.
+   *
+   * @param key The key to add, as returned by key().
+   * @return true if the key was added, false if it was already indexed.
+   */
+  public boolean add(long key) {
+    int slot = findSlot(keys, key);
+    if (keys[slot] == key) {
+      return false;
+    }
+    keys[slot] = key;
+    size++;
+    if (size > keys.length * MAX_LOAD) {
+      grow();
+    }
+    return true;
+  }
+
+  /**
+   * This method checks if a route with the same IDs is in the index.
+   *
+   * @param route The route to look for.
+   * @return true if the route is indexed, false otherwise.
+   */
+  public boolean contains(Route route) {
+    return contains(key(route));
+  }
+
+  /**
+   * This method checks if a route key is in the index.
+   *
+   * @param key The key to look for, as returned by key().
+   * @return true if the key is indexed, false otherwise.
+   */
+  public boolean contains(long key) {
+    return keys[findSlot(keys, key)] == key;
+  }
+
+  /**
+   * This method removes a route from the index.
+   *
+   * @param route The route to remove.
+   * @return true if the route was removed, false if it was not indexed.
+   */
+  public boolean remove(Route route) {
+    return remove(key(route));
+  }
+
+  /**
+   * This method removes a route key from the index. The keys after it in the same probe run are
+   * shifted back so no slot is left marked as deleted.
+   *
+   * @param key The key to remove, as returned by key().
+   * @return true if the key was removed, false if it was not indexed.
+   */
+  public boolean remove(long key) {
+    int mask = keys.length - 1;
+    int slot = findSlot(keys, key);
+    if (keys[slot] != key) {
+      return false;
+    }
+    int next = (slot + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = hash(keys[next]) & mask;
+      // Move the key back if its home slot is not between the gap and its current slot.
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[slot] = EMPTY;
+    size--;
+    return true;
+  }
+
+  /**
+   * This method returns the number of routes in the index.
+   *
+   * @return the size of the index.
+   */
+  public int size() {
+    return size;
+  }
+
+  /** This method removes every route from the index. */
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  /**
+   * This method spreads the bits of a key to pick its home slot.
+   *
+   * @param key The key to hash.
+   * @return the hash of the key.
+   */
+  private static int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * This method finds the slot holding a key, or the empty slot where it would be added.
+   *
+   * @param table The table to search.
+   * @param key The key to find.
+   * @return the index of the slot.
+   */
+  private static int findSlot(long[] table, long key) {
+    int mask = table.length - 1;
+    int slot = hash(key) & mask;
+    while (table[slot] != EMPTY && table[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** This method doubles the size of the table and re-inserts every key. */
+  private void grow() {
+    long[] oldKeys = keys;
+    keys = new long[oldKeys.length << 1];
+    Arrays.fill(keys, EMPTY);
+    for (long key : oldKeys) {
+      if (key != EMPTY) {
+        keys[findSlot(keys, key)] = key;
+      }
+    }
+  }
+}
@@ -1,16 +1,34 @@
 package model.data;
 
 import javafx.util.Pair;
+import model.database.ConnectionManager;
+import model.database.HistoryJournal;
+import model.database.PersistenceQueue;
 import model.database.SQLiteDatabase;
-import java.sql.SQLException;
+import model.loader.IntHashSet;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class to keep track of all the data that has been uploaded to the application, also interact with
  * database.
  *
+ * <p>Files stored in the database are only listed when the application starts. The data of a file
+ * is loaded from the database the first time it is needed and then kept, and the current file of
+ * each type is loaded in the background ahead of time. A file which has not been loaded yet is
+ * mapped to null in the file maps.
+ *
+ * <p>Changes are written to the database in the background by a PersistenceQueue, so the caller
+ * does not wait for them to be written.
+ *
  * @version 1.0
  * @since 04/10/2020
  */
@@ -34,6 +52,15 @@ public class Storage {
   /** The name of the route file which is currently in use. */
   private String currentRouteFile;
 
+  /** The IDs of the airlines in each airline file, used to check single entries for duplicates. */
+  private final HashMap<String, IntHashSet> airlineIdIndexes = new HashMap<>();
+
+  /** The IDs of the airports in each airport file, used to check single entries for duplicates. */
+  private final HashMap<String, IntHashSet> airportIdIndexes = new HashMap<>();
+
+  /** The keys of the routes in each route file, used to check single entries for duplicates. */
+  private final HashMap<String, RouteKeyIndex> routeKeyIndexes = new HashMap<>();
+
   /** Temporary list of routes used when adding routes to history. */
   private final List<Route> tempRoutes = new ArrayList<>();
 
@@ -49,6 +76,9 @@ public class Storage {
   /** A list of all the routes that have been added to the user's personal history. */
   private final List<Route> history = new ArrayList<>();
 
+  /** How the history was last saved to the database, so saves only write what has changed. */
+  private final HistoryJournal historyJournal = new HistoryJournal();
+
   /**
    * A HashMap of all the source airports the user has visited and the number of times they have
    * visited them.
@@ -64,6 +94,25 @@ public class Storage {
   /** The database in which data added to the application is stored. */
   private final SQLiteDatabase database = new SQLiteDatabase();
 
+  /** Writes changes to the database in the background. */
+  private final PersistenceQueue persistence = new PersistenceQueue();
+
+  /**
+   * Loads the data of files from the database ahead of time, in the background. There is a thread
+   * for each read only connection, so the current files of every type are read at the same time.
+   */
+  private static final ExecutorService prefetcher =
+      Executors.newFixedThreadPool(
+          ConnectionManager.getShared().getReaderCount(),
+          task -> {
+            Thread thread = new Thread(task, "storage-prefetch");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** The background loads of files which have not been collected yet, by type and file name. */
+  private final HashMap<String, Future<List<DataType>>> prefetches = new HashMap<>();
+
   /** Airport to display in google map. */
   private HashMap<Integer, ArrayList<Airport>> MapAirport = new HashMap<>();
 
@@ -97,6 +146,7 @@ public class Storage {
   public void setCurrentAirlineFile(String newCurrentFile) {
     if (airlineFiles.containsKey(newCurrentFile) || newCurrentFile == null) {
       currentAirlineFile = newCurrentFile;
+      prefetch("Airline", airlineFiles, newCurrentFile);
     }
   }
 
@@ -110,7 +160,7 @@ public class Storage {
     if (currentAirlineFile == null) {
       return new ArrayList<>();
     }
-    return airlineFiles.get(currentAirlineFile);
+    return load("Airline", airlineFiles, currentAirlineFile);
   }
 
   /**
@@ -143,6 +193,7 @@ public class Storage {
   public void setCurrentAirportFile(String newCurrentFile) {
     if (airportFiles.containsKey(newCurrentFile) || newCurrentFile == null) {
       currentAirportFile = newCurrentFile;
+      prefetch("Airport", airportFiles, newCurrentFile);
     }
   }
 
@@ -156,7 +207,7 @@ public class Storage {
     if (currentAirportFile == null) {
       return new ArrayList<>();
     }
-    return airportFiles.get(currentAirportFile);
+    return load("Airport", airportFiles, currentAirportFile);
   }
 
   /**
@@ -189,6 +240,7 @@ public class Storage {
   public void setCurrentRouteFile(String newCurrentFile) {
     if (routeFiles.containsKey(newCurrentFile) || newCurrentFile == null) {
       currentRouteFile = newCurrentFile;
+      prefetch("Route", routeFiles, newCurrentFile);
     }
   }
 
@@ -202,7 +254,7 @@ public class Storage {
     if (currentRouteFile == null) {
       return new ArrayList<>();
     }
-    return routeFiles.get(currentRouteFile);
+    return load("Route", routeFiles, currentRouteFile);
   }
 
   /** @return a list of Route object from route to add to history. */
@@ -215,6 +267,24 @@ public class Storage {
     return history;
   }
 
+  /** @return how the history was last saved to the database. */
+  public HistoryJournal getHistoryJournal() {
+    return historyJournal;
+  }
+
+  /** @return the queue of changes waiting to be written to the database. */
+  public PersistenceQueue getPersistence() {
+    return persistence;
+  }
+
+  /**
+   * This method queues saving the routes added to, removed from or edited in the history since it
+   * was last saved to the database. Saves queued close together are written once.
+   */
+  public void saveHistory() {
+    persistence.saveHistory(history, historyJournal);
+  }
+
   /** @return a list of distance has been analysed . */
   public List<Double> getAnalyseDistanceResult() {
     return analyseDistanceResult;
@@ -252,86 +322,426 @@ public class Storage {
    */
   public void setData(List<DataType> data, String type, String filename) {
     if (type.matches("Airline")) {
-      List<Airline> airlines = new ArrayList<>();
       if (filename == null) {
         filename = currentAirlineFile;
-
       } else {
         currentAirlineFile = filename;
       }
-      for (DataType entry : data) {
-        Airline airline = (Airline) entry;
-        if (airline != null) {
-          airlines.add(airline);
-        }
-      }
-      airlineFiles.put(filename, airlines);
     } else if (type.matches("Airport")) {
-      List<Airport> airports = new ArrayList<>();
       if (filename == null) {
         filename = currentAirportFile;
       } else {
         currentAirportFile = filename;
       }
-      for (DataType entry : data) {
-        Airport airport = (Airport) entry;
-        airports.add(airport);
-      }
-      airportFiles.put(filename, airports);
     } else if (type.matches("Route")) {
-      List<Route> routes = new ArrayList<>();
       if (filename == null) {
         filename = currentRouteFile;
       } else {
         currentRouteFile = filename;
       }
-      for (DataType entry : data) {
-        Route route = (Route) entry;
-        routes.add(route);
-      }
-      routeFiles.put(filename, routes);
     } else {
       throw new IllegalArgumentException("Type must be airline, airport or route");
     }
+    prefetches.remove(fileKey(type, filename));
+    putFile(data, type, filename);
+  }
+
+  /**
+   * This method stores the data of a file, replacing any data already stored for it. Null
+   * airlines are left out.
+   *
+   * @param data The list of data.
+   * @param type Type of data to be stored, one of Airline, Airport, Route.
+   * @param filename The name of the file.
+   */
+  private void putFile(List<DataType> data, String type, String filename) {
+    switch (type) {
+      case "Airline":
+        List<Airline> airlines = new ArrayList<>();
+        for (DataType entry : data) {
+          Airline airline = (Airline) entry;
+          if (airline != null) {
+            airlines.add(airline);
+          }
+        }
+        airlineFiles.put(filename, airlines);
+        airlineIdIndexes.remove(filename);
+        break;
+      case "Airport":
+        List<Airport> airports = new ArrayList<>();
+        for (DataType entry : data) {
+          airports.add((Airport) entry);
+        }
+        airportFiles.put(filename, airports);
+        airportIdIndexes.remove(filename);
+        break;
+      case "Route":
+        List<Route> routes = new ArrayList<>();
+        for (DataType entry : data) {
+          routes.add((Route) entry);
+        }
+        routeFiles.put(filename, routes);
+        routeKeyIndexes.remove(filename);
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be airline, airport or route");
+    }
   }
 
   /**
-   * This method update database after user upload data.
+   * This method adds a file stored in the database to storage without loading its data, and makes
+   * it the current file of its type. The data is loaded when it is first needed.
+   *
+   * @param type Type of data in the file, one of Airline, Airport, Route.
+   * @param filename The name of the file.
+   */
+  public void addStoredFile(String type, String filename) {
+    switch (type) {
+      case "Airline":
+        airlineFiles.putIfAbsent(filename, null);
+        currentAirlineFile = filename;
+        break;
+      case "Airport":
+        airportFiles.putIfAbsent(filename, null);
+        currentAirportFile = filename;
+        break;
+      case "Route":
+        routeFiles.putIfAbsent(filename, null);
+        currentRouteFile = filename;
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be airline, airport or route");
+    }
+  }
+
+  /**
+   * This method checks if the data of a file has been loaded.
+   *
+   * @param type Type of data in the file, one of Airline, Airport, Route.
+   * @param filename The name of the file.
+   * @return true if the file is stored and its data has been loaded, false otherwise.
+   */
+  public boolean isLoaded(String type, String filename) {
+    switch (type) {
+      case "Airline":
+        return airlineFiles.get(filename) != null;
+      case "Airport":
+        return airportFiles.get(filename) != null;
+      case "Route":
+        return routeFiles.get(filename) != null;
+      default:
+        throw new IllegalArgumentException("Type must be airline, airport or route");
+    }
+  }
+
+  /**
+   * This method returns the data of a file, loading it from the database if it has not been
+   * loaded. A load already started in the background is waited for rather than repeated. If the
+   * background load failed the file is loaded again on the caller's thread, so a failure is only
+   * shown once, and never from a background thread.
+   *
+   * @param type Type of data in the file, one of Airline, Airport, Route.
+   * @param files The files of that type.
+   * @param filename The name of the file.
+   * @param <T> The type of data in the file.
+   * @return the data of the file, or null if there is no such file.
+   */
+  private <T extends DataType> List<T> load(
+      String type, HashMap<String, List<T>> files, String filename) {
+    if (files.containsKey(filename) && files.get(filename) == null) {
+      List<DataType> data = null;
+      Future<List<DataType>> prefetch = prefetches.remove(fileKey(type, filename));
+      if (prefetch != null) {
+        try {
+          data = prefetch.get();
+        } catch (ExecutionException e) {
+          // Loaded again below, which shows the failure if it happens again.
+          data = null;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (data == null) {
+        data = database.loadFile(type, filename);
+      }
+      putFile(data == null ? new ArrayList<>() : data, type, filename);
+    }
+    return files.get(filename);
+  }
+
+  /**
+   * This method starts loading the data of a file in the background, if it has not been loaded and
+   * is not already being loaded. A failure is kept in the load, for load to deal with.
+   *
+   * @param type Type of data in the file, one of Airline, Airport, Route.
+   * @param files The files of that type.
+   * @param filename The name of the file.
+   */
+  private void prefetch(String type, HashMap<String, ? extends List<?>> files, String filename) {
+    if (filename != null && files.containsKey(filename) && files.get(filename) == null) {
+      prefetches.computeIfAbsent(
+          fileKey(type, filename),
+          key -> prefetcher.submit(() -> database.readFile(type, filename)));
+    }
+  }
+
+  /**
+   * This method returns the key of a file in the map of background loads.
+   *
+   * @param type Type of data in the file.
+   * @param filename The name of the file.
+   * @return the key of the file.
+   */
+  private static String fileKey(String type, String filename) {
+    return type + "/" + filename;
+  }
+
+  /**
+   * This method removes a file from storage, and clears the current file of its type if it was the
+   * file removed.
+   *
+   * @param filename The name of the file to remove.
+   * @param type Type of data in the file, one of Airline, Airport, Route.
+   */
+  public void removeFile(String filename, String type) {
+    prefetches.remove(fileKey(type, filename));
+    switch (type) {
+      case "Airline":
+        airlineFiles.remove(filename);
+        airlineIdIndexes.remove(filename);
+        if (filename.equals(currentAirlineFile)) {
+          currentAirlineFile = null;
+        }
+        break;
+      case "Airport":
+        airportFiles.remove(filename);
+        airportIdIndexes.remove(filename);
+        if (filename.equals(currentAirportFile)) {
+          currentAirportFile = null;
+        }
+        break;
+      case "Route":
+        routeFiles.remove(filename);
+        routeKeyIndexes.remove(filename);
+        if (filename.equals(currentRouteFile)) {
+          currentRouteFile = null;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be airline, airport or route");
+    }
+  }
+
+  /**
+   * This method removes entries from the current file of their type, in storage and in the
+   * database. Only the rows of the entries removed are deleted from the database, the rest of the
+   * file is left as it is, and the rows are deleted in the background. Entries are matched by
+   * identity, and any which have already been removed from the file in storage are still deleted
+   * from the database.
+   *
+   * @param fileType The type of the entries, one of Airport, Airline, Route.
+   * @param entries The entries to remove.
+   */
+  public void removeEntries(String fileType, List<? extends DataType> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    Set<DataType> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+    removed.addAll(entries);
+    String filename;
+    switch (fileType) {
+      case "Airport":
+        filename = currentAirportFile;
+        getAirports().removeIf(removed::contains);
+        airportIdIndexes.remove(filename);
+        break;
+      case "Airline":
+        filename = currentAirlineFile;
+        getAirlines().removeIf(removed::contains);
+        airlineIdIndexes.remove(filename);
+        break;
+      case "Route":
+        filename = currentRouteFile;
+        getRoutes().removeIf(removed::contains);
+        routeKeyIndexes.remove(filename);
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be Airport, Airline or Route");
+    }
+    if (filename != null) {
+      persistence.deleteRows(fileType, filename, entries);
+    }
+  }
+
+  /**
+   * This method adds a single entry to the end of a file in storage, creating the file if it does
+   * not exist, and makes that file the current file of its type. The entry is added in place, so
+   * the cost does not depend on the size of the file. The entry should already have been checked
+   * for duplicates against the index of the file.
+   *
+   * @param entry The entry to add.
+   * @param type Type of the entry, one of Airline, Airport, Route.
+   * @param filename The name of the file to add the entry to.
+   */
+  public void appendEntry(DataType entry, String type, String filename) {
+    switch (type) {
+      case "Airline":
+        Airline airline = (Airline) entry;
+        load(type, airlineFiles, filename);
+        getAirlineIds(filename).add(airline.getAirlineID());
+        airlineFiles.computeIfAbsent(filename, name -> new ArrayList<>()).add(airline);
+        currentAirlineFile = filename;
+        break;
+      case "Airport":
+        Airport airport = (Airport) entry;
+        load(type, airportFiles, filename);
+        getAirportIds(filename).add(airport.getAirportID());
+        airportFiles.computeIfAbsent(filename, name -> new ArrayList<>()).add(airport);
+        currentAirportFile = filename;
+        break;
+      case "Route":
+        Route route = (Route) entry;
+        load(type, routeFiles, filename);
+        getRouteKeys(filename).add(route);
+        routeFiles.computeIfAbsent(filename, name -> new ArrayList<>()).add(route);
+        currentRouteFile = filename;
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be airline, airport or route");
+    }
+  }
+
+  /**
+   * This method returns the IDs of the airlines in an airline file. The index is kept between calls
+   * and updated by appendEntry, and is rebuilt if the file has been changed some other way.
+   *
+   * @param filename The name of the airline file.
+   * @return the set of airline IDs in the file, empty if there is no such file.
+   */
+  public IntHashSet getAirlineIds(String filename) {
+    List<Airline> airlines = load("Airline", airlineFiles, filename);
+    if (airlines == null) {
+      airlines = new ArrayList<>();
+    }
+    IntHashSet ids = airlineIdIndexes.get(filename);
+    if (ids == null || ids.size() != airlines.size()) {
+      ids = new IntHashSet(airlines.size());
+      for (Airline airline : airlines) {
+        ids.add(airline.getAirlineID());
+      }
+      airlineIdIndexes.put(filename, ids);
+    }
+    return ids;
+  }
+
+  /**
+   * This method returns the IDs of the airports in an airport file. The index is kept between calls
+   * and updated by appendEntry, and is rebuilt if the file has been changed some other way.
+   *
+   * @param filename The name of the airport file.
+   * @return the set of airport IDs in the file, empty if there is no such file.
+   */
+  public IntHashSet getAirportIds(String filename) {
+    List<Airport> airports = load("Airport", airportFiles, filename);
+    if (airports == null) {
+      airports = new ArrayList<>();
+    }
+    IntHashSet ids = airportIdIndexes.get(filename);
+    if (ids == null || ids.size() != airports.size()) {
+      ids = new IntHashSet(airports.size());
+      for (Airport airport : airports) {
+        ids.add(airport.getAirportID());
+      }
+      airportIdIndexes.put(filename, ids);
+    }
+    return ids;
+  }
+
+  /**
+   * This method returns the keys of the routes in a route file. The index is kept between calls and
+   * updated by appendEntry, and is rebuilt if the file has been changed some other way.
+   *
+   * @param filename The name of the route file.
+   * @return the index of routes in the file, empty if there is no such file.
+   */
+  public RouteKeyIndex getRouteKeys(String filename) {
+    List<Route> routes = load("Route", routeFiles, filename);
+    if (routes == null) {
+      routes = new ArrayList<>();
+    }
+    RouteKeyIndex keys = routeKeyIndexes.get(filename);
+    if (keys == null || keys.size() != routes.size()) {
+      keys = new RouteKeyIndex();
+      for (Route route : routes) {
+        keys.add(route);
+      }
+      routeKeyIndexes.put(filename, keys);
+    }
+    return keys;
+  }
+
+  /**
+   * This method queues writing every entry of the current file of a type to the database,
+   * replacing the rows stored for the file.
    *
    * @param fileType The string shows what type of data user may uploaded.
    */
   public void updateDatabase(String fileType) {
-    if (!(fileType.matches("Airport")
-        || fileType.matches("Airline")
-        || fileType.matches("Route"))) {
-      throw new IllegalArgumentException("Type must be Airport, Airline or Route");
-    }
-    database.closeAutoCommite();
     switch (fileType) {
       case "Airport":
-        database.initialiseTable("Airport", getCurrentAirportFile());
-        database.updateAirportTable(getAirports());
-        database.updateTableList(getCurrentAirportFile(), "Airport");
+        persistence.writeFile("Airport", getCurrentAirportFile(), getAirports());
         break;
       case "Airline":
-        database.initialiseTable("Airline", getCurrentAirlineFile());
-        database.updateAirlineTable(getAirlines());
-        database.updateTableList(getCurrentAirlineFile(), "Airline");
+        persistence.writeFile("Airline", getCurrentAirlineFile(), getAirlines());
         break;
       case "Route":
-        database.initialiseTable("Route", getCurrentRouteFile());
-        database.updateRoute(getRoutes());
-        database.updateTableList(getCurrentRouteFile(), "Route");
+        persistence.writeFile("Route", getCurrentRouteFile(), getRoutes());
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be Airport, Airline or Route");
     }
   }
 
   /**
-   * This method initialises storage with data from database after user start the application
+   * This method queues adding a single entry to the table of the current file of its type in the
+   * database, without rewriting the rest of the file.
    *
-   * @throws SQLException This throws an SQLException.
+   * @param fileType The type of the entry, one of Airport, Airline, Route.
+   * @param entry The entry to add, which must already be in the current file.
+   */
+  public void updateDatabase(String fileType, DataType entry) {
+    switch (fileType) {
+      case "Airport":
+        persistence.addRows("Airport", getCurrentAirportFile(), Collections.singletonList(entry));
+        break;
+      case "Airline":
+        persistence.addRows("Airline", getCurrentAirlineFile(), Collections.singletonList(entry));
+        break;
+      case "Route":
+        persistence.addRows("Route", getCurrentRouteFile(), Collections.singletonList(entry));
+        break;
+      default:
+        throw new IllegalArgumentException("Type must be Airport, Airline or Route");
+    }
+  }
+
+  /**
+   * This method initialises storage with data from database after user start the application. Only
+   * the names of the stored files and the flight history are read straight away. The current file
+   * of each type, the last one stored, is loaded in the background, and the others when they are
+   * first used. The current files are each read on their own thread and connection while the
+   * history is read, so start up takes about as long as reading the largest of them.
    */
   public void initialiseStorage() {
-    database.initialiseStorage(this);
+    for (String type : new String[] {"Airport", "Airline", "Route"}) {
+      for (String filename : database.getFileNamesByType(type)) {
+        addStoredFile(type, filename);
+      }
+    }
+    prefetch("Airport", airportFiles, currentAirportFile);
+    prefetch("Airline", airlineFiles, currentAirlineFile);
+    prefetch("Route", routeFiles, currentRouteFile);
+    history.addAll(database.loadHistory(historyJournal));
   }
 
   /**
@@ -414,7 +824,7 @@ public class Storage {
    * This method gets the airline file list.
    *
    * @return A HashMap of the names of airline file as key and the list of airlines that is parsed
-   *     in the file.
+   *     in the file, or null if the file has not been loaded yet.
    */
   public HashMap<String, List<Airline>> getAirlineFileList() {
     return airlineFiles;
@@ -424,7 +834,7 @@ public class Storage {
    * This method gets the airport file list.
    *
    * @return A HashMap of the names of airport file as key and the list of airports that is parsed
-   *     in the file.
+   *     in the file, or null if the file has not been loaded yet.
    */
   public HashMap<String, List<Airport>> getAirportFileList() {
     return airportFiles;
@@ -434,7 +844,7 @@ public class Storage {
    * This method gets the route file list.
    *
    * @return A HashMap of the names of route file as key and the list of routes that is parsed in
-   *     the file.
+   *     the file, or null if the file has not been loaded yet.
    */
   public HashMap<String, List<Route>> getRouteFileList() {
     return routeFiles;
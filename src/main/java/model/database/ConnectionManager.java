@@ -0,0 +1,289 @@
+package model.database;
+
+import org.sqlite.SQLiteConfig;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class which owns the connections to the database file, so every SQLiteDatabase shares them
+ * instead of opening its own. There is one writer connection, used by one thread at a time, and a
+ * small pool of read only connections handed to one thread at a time, so data can be read on
+ * background threads without seeing, or committing, another thread's unfinished transaction.
+ * Connections are opened when first needed and reopened if they have been closed.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ConnectionManager {
+
+  /** The database used by the application. */
+  static final String DEFAULT_URL = "jdbc:sqlite:app.sqlite";
+
+  /**
+   * The number of read only connections kept by the shared manager, one for each processor
+   * between two and four, so tables can be read in parallel.
+   */
+  static final int DEFAULT_READERS =
+      Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+  /** The manager shared by every SQLiteDatabase, created when first used. */
+  private static ConnectionManager shared;
+
+  static {
+    try {
+      Class.forName("org.sqlite.JDBC");
+    } catch (ClassNotFoundException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /** The JDBC url of the database. */
+  private final String url;
+
+  /** The snapshots of the files of the database, kept in a directory next to its file. */
+  private final SnapshotStore snapshots;
+
+  /** The most read only connections which can be open at once. */
+  private final int readerCount;
+
+  /** The settings applied to each connection when it is opened. */
+  private final PragmaProfile profile;
+
+  /** Held by the thread using the writer connection. */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /** The writer connection, or null before it is first opened. */
+  private Connection writer;
+
+  /** The read only connections which are open and not in use. */
+  private final BlockingQueue<Connection> idleReaders = new LinkedBlockingQueue<>();
+
+  /** Every read only connection opened, in use or not. */
+  private final List<Connection> readers = new ArrayList<>();
+
+  /**
+   * Constructor of ConnectionManager, which opens connections with the DURABLE profile.
+   *
+   * @param url The JDBC url of the database.
+   * @param readerCount The most read only connections which can be open at once.
+   */
+  public ConnectionManager(String url, int readerCount) {
+    this(url, readerCount, PragmaProfile.DURABLE);
+  }
+
+  /**
+   * Constructor of ConnectionManager.
+   *
+   * @param url The JDBC url of the database.
+   * @param readerCount The most read only connections which can be open at once.
+   * @param profile The settings applied to each connection when it is opened.
+   */
+  public ConnectionManager(String url, int readerCount, PragmaProfile profile) {
+    this.url = url;
+    this.readerCount = readerCount;
+    this.profile = profile;
+    this.snapshots = new SnapshotStore(snapshotDirectory(url));
+  }
+
+  /**
+   * This method returns the directory the snapshots of a database are kept in, next to the file of
+   * the database and named after it, so each database has its own snapshots. A database with no
+   * file, held in memory, keeps its snapshots in the temporary directory.
+   *
+   * @param url The JDBC url of the database.
+   * @return the directory of the snapshots.
+   */
+  static Path snapshotDirectory(String url) {
+    String path = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : url;
+    if (path.contains("?")) {
+      path = path.substring(0, path.indexOf('?'));
+    }
+    if (path.startsWith("file:")) {
+      path = path.substring("file:".length());
+    }
+    if (path.isEmpty() || path.equals(":memory:")) {
+      return Paths.get(System.getProperty("java.io.tmpdir"), "sqlite-memory-" + url.hashCode());
+    }
+    Path database = Paths.get(path).toAbsolutePath();
+    return database.resolveSibling(database.getFileName() + "-snapshots");
+  }
+
+  /**
+   * This method returns the manager of the application's database, shared by every
+   * SQLiteDatabase.
+   *
+   * @return the shared connection manager.
+   */
+  public static synchronized ConnectionManager getShared() {
+    if (shared == null) {
+      shared = new ConnectionManager(DEFAULT_URL, DEFAULT_READERS);
+    }
+    return shared;
+  }
+
+  /**
+   * This method returns the writer connection, opening it if it is not open. Auto-commit is off,
+   * so changes are only saved when committed. The connection should only be used by the thread
+   * holding the write lock.
+   *
+   * @return the writer connection.
+   * @throws SQLException If the database cannot be opened.
+   */
+  public synchronized Connection getWriter() throws SQLException {
+    if (writer == null || writer.isClosed()) {
+      writer = DriverManager.getConnection(url);
+      profile.applyToWriter(writer);
+      writer.setAutoCommit(false);
+    }
+    return writer;
+  }
+
+  /**
+   * This method changes the settings of the writer connection which can be changed while it is
+   * open, such as to write a large upload with BULK_INGEST. It should only be called by the thread
+   * holding the write lock, which should change the settings back to getProfile once it is done.
+   * A reopened writer always uses the profile of the manager. SQLite only changes the
+   * synchronous level between transactions, so anything not yet committed on the writer is
+   * committed first.
+   *
+   * @param writerProfile The settings to use.
+   * @throws SQLException If a setting cannot be applied.
+   */
+  public void setWriterProfile(PragmaProfile writerProfile) throws SQLException {
+    Connection con = getWriter();
+    con.setAutoCommit(true);
+    try {
+      writerProfile.applyToConnection(con);
+    } finally {
+      con.setAutoCommit(false);
+    }
+  }
+
+  /**
+   * This method returns the snapshots of the files of the database, shared by every SQLiteDatabase
+   * using these connections.
+   *
+   * @return the snapshots.
+   */
+  SnapshotStore getSnapshots() {
+    return snapshots;
+  }
+
+  /**
+   * This method returns the most read only connections which can be open at once.
+   *
+   * @return the size of the reader pool.
+   */
+  public int getReaderCount() {
+    return readerCount;
+  }
+
+  /**
+   * This method returns the settings applied to each connection when it is opened.
+   *
+   * @return the profile of the manager.
+   */
+  public PragmaProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * This method waits until no other thread is using the writer connection, then reserves it for
+   * the current thread. A thread can lock the writer several times, and must unlock it as many
+   * times.
+   */
+  public void lockWriter() {
+    writeLock.lock();
+  }
+
+  /** This method releases the writer connection locked by the current thread. */
+  public void unlockWriter() {
+    writeLock.unlock();
+  }
+
+  /**
+   * This method takes a read only connection from the pool, opening one if none is free and fewer
+   * than the most allowed are open, otherwise waiting for one to be released. Each read sees only
+   * committed data.
+   *
+   * @return a read only connection, which must be given back with releaseReader.
+   * @throws SQLException If a connection cannot be opened.
+   */
+  public Connection acquireReader() throws SQLException {
+    Connection reader = idleReaders.poll();
+    if (reader == null) {
+      reader = openReader();
+    }
+    if (reader == null) {
+      try {
+        reader = idleReaders.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while waiting for a database connection.");
+      }
+    }
+    if (reader.isClosed()) {
+      synchronized (this) {
+        readers.remove(reader);
+      }
+      return acquireReader();
+    }
+    return reader;
+  }
+
+  /**
+   * This method opens a new read only connection if fewer than the most allowed are open.
+   *
+   * @return the new connection, or null if the pool is full.
+   * @throws SQLException If the connection cannot be opened.
+   */
+  private synchronized Connection openReader() throws SQLException {
+    if (readers.size() >= readerCount) {
+      return null;
+    }
+    // A read only connection cannot create the database file, so the writer is opened first.
+    getWriter();
+    SQLiteConfig config = new SQLiteConfig();
+    config.setReadOnly(true);
+    Connection reader = DriverManager.getConnection(url, config.toProperties());
+    profile.applyToConnection(reader);
+    readers.add(reader);
+    return reader;
+  }
+
+  /**
+   * This method gives a read only connection back to the pool.
+   *
+   * @param reader The connection taken with acquireReader, or null.
+   */
+  public void releaseReader(Connection reader) {
+    if (reader != null) {
+      idleReaders.add(reader);
+    }
+  }
+
+  /** This method closes every connection. Connections are opened again if they are used later. */
+  public synchronized void close() {
+    List<Connection> open = new ArrayList<>(readers);
+    if (writer != null) {
+      open.add(writer);
+    }
+    for (Connection connection : open) {
+      try {
+        connection.close();
+      } catch (SQLException ignored) {
+      }
+    }
+    readers.clear();
+    idleReaders.clear();
+    writer = null;
+  }
+}
@@ -0,0 +1,144 @@
+package model.database;
+
+import model.data.EquipmentCodes;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class which encodes the plane codes of routes for the equipment column of the route tables.
+ * Each plane code is numbered once in the equipment_codes table, and the column of a route holds
+ * the two byte number of each of its codes, in order. A dictionary is only used for one write or
+ * one read, so the numbers it has looked up always match the table of the current transaction,
+ * even if an earlier transaction which numbered new codes was rolled back.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+class EquipmentDictionary {
+
+  /** The statement creating the table of plane codes, if it does not exist. */
+  static final String CREATE_STATEMENT =
+      "create table if not exists equipment_codes"
+          + "(code_id integer,"
+          + "code varchar(16) not null unique,"
+          + "primary key (code_id))";
+
+  /** The largest number a plane code can have, to fit in two bytes. */
+  private static final int MAX_CODE_ID = 0xFFFF;
+
+  /** The connection the codes are read, and numbered, through. */
+  private final Connection con;
+
+  /** The number of each plane code looked up or numbered. */
+  private final Map<String, Integer> ids = new HashMap<>();
+
+  /** The plane code of each number, read the first time a column is decoded. */
+  private Map<Integer, String> codes;
+
+  /**
+   * Constructor of EquipmentDictionary.
+   *
+   * @param con The connection to read and write the table of plane codes through.
+   */
+  EquipmentDictionary(Connection con) {
+    this.con = con;
+  }
+
+  /**
+   * This method encodes the plane codes of a route for its equipment column, numbering any code
+   * not yet in the table of plane codes in the current transaction.
+   *
+   * @param equipment The plane codes of the route.
+   * @return the number of each code, as two bytes, in order.
+   * @throws SQLException If the table of plane codes cannot be read or written.
+   */
+  byte[] encode(String[] equipment) throws SQLException {
+    byte[] column = new byte[2 * equipment.length];
+    for (int i = 0; i < equipment.length; i++) {
+      int id = id(equipment[i]);
+      column[2 * i] = (byte) (id >> 8);
+      column[2 * i + 1] = (byte) id;
+    }
+    return column;
+  }
+
+  /**
+   * This method decodes the equipment column of a route.
+   *
+   * @param column The number of each code, as two bytes, in order.
+   * @return the shared array of the plane codes of the route.
+   * @throws SQLException If the table of plane codes cannot be read, or a number is not in it.
+   */
+  String[] decode(byte[] column) throws SQLException {
+    if (column == null) {
+      return EquipmentCodes.intern(new String[0]);
+    }
+    if (codes == null) {
+      codes = readCodes();
+    }
+    String[] equipment = new String[column.length / 2];
+    for (int i = 0; i < equipment.length; i++) {
+      int id = (column[2 * i] & 0xFF) << 8 | (column[2 * i + 1] & 0xFF);
+      equipment[i] = codes.get(id);
+      if (equipment[i] == null) {
+        throw new SQLException("No plane code numbered " + id);
+      }
+    }
+    return EquipmentCodes.intern(equipment);
+  }
+
+  /**
+   * This method returns the number of a plane code, adding it to the table if it is not there.
+   *
+   * @param code The plane code.
+   * @return the number of the code.
+   * @throws SQLException If the table cannot be read or written, or is full.
+   */
+  private int id(String code) throws SQLException {
+    Integer id = ids.get(code);
+    if (id != null) {
+      return id;
+    }
+    try (PreparedStatement insert =
+        con.prepareStatement("insert or ignore into equipment_codes (code) values(?)")) {
+      insert.setString(1, code);
+      insert.execute();
+    }
+    try (PreparedStatement select =
+        con.prepareStatement("select code_id from equipment_codes where code = ?")) {
+      select.setString(1, code);
+      try (ResultSet rows = select.executeQuery()) {
+        id = rows.getInt(1);
+      }
+    }
+    if (id > MAX_CODE_ID) {
+      throw new SQLException("Too many plane codes to number " + code);
+    }
+    ids.put(code, id);
+    return id;
+  }
+
+  /**
+   * This method reads every plane code of the table by its number.
+   *
+   * @return the plane code of each number, empty if there is no table.
+   * @throws SQLException If the table cannot be read.
+   */
+  private Map<Integer, String> readCodes() throws SQLException {
+    Map<Integer, String> read = new HashMap<>();
+    if (SQLiteDatabase.tableExists(con, "'equipment_codes'")) {
+      try (Statement query = con.createStatement();
+          ResultSet rows = query.executeQuery("select code_id, code from equipment_codes")) {
+        while (rows.next()) {
+          read.put(rows.getInt(1), rows.getString(2));
+        }
+      }
+    }
+    return read;
+  }
+}
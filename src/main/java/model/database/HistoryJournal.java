@@ -0,0 +1,248 @@
+package model.database;
+
+import model.data.Route;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class which remembers how the flight history was last saved to the history table, so only the
+ * routes which changed since are written. Each saved route is kept with its route_id row and the
+ * values it was saved with. Routes are compared by identity, as two equal routes can be in the
+ * history with different times taken.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class HistoryJournal {
+
+  /** The row of each saved route and the values it was saved with. */
+  private final Map<Route, SavedRoute> saved = new IdentityHashMap<>();
+
+  /**
+   * The values of a route which can change once it is in history, as they were when taken. A save
+   * of the history is made from these values, so the journal records the values written even if
+   * the route is edited again while it is saved.
+   */
+  static class RouteValues {
+
+    /** The route. */
+    private final Route route;
+
+    /** The number of times taken. */
+    private final int timesTaken;
+
+    /** The emissions. */
+    private final double emissions;
+
+    /** The distance. */
+    private final double distance;
+
+    /**
+     * Constructor which takes the values of a route as they are now.
+     *
+     * @param route The route.
+     */
+    RouteValues(Route route) {
+      this.route = route;
+      this.timesTaken = route.getTimesTaken();
+      this.emissions = route.getEmissions();
+      this.distance = route.getDistance();
+    }
+
+    /** @return the route. */
+    Route getRoute() {
+      return route;
+    }
+
+    /** @return the number of times taken, as taken. */
+    int getTimesTaken() {
+      return timesTaken;
+    }
+
+    /** @return the emissions, as taken. */
+    double getEmissions() {
+      return emissions;
+    }
+
+    /** @return the distance, as taken. */
+    double getDistance() {
+      return distance;
+    }
+
+    /**
+     * This method checks whether other values of the route are the same as these.
+     *
+     * @param other The other values.
+     * @return true if none of the values differ.
+     */
+    private boolean matches(RouteValues other) {
+      return timesTaken == other.timesTaken
+          && Double.compare(emissions, other.emissions) == 0
+          && Double.compare(distance, other.distance) == 0;
+    }
+  }
+
+  /** The route_id row of a saved route and the values it was saved with. */
+  private static class SavedRoute {
+
+    /** The route_id of the row of the route. */
+    private final int routeId;
+
+    /** The values saved. */
+    private final RouteValues values;
+
+    /**
+     * Constructor of SavedRoute.
+     *
+     * @param routeId The route_id of the row of the route.
+     * @param values The values saved.
+     */
+    private SavedRoute(int routeId, RouteValues values) {
+      this.routeId = routeId;
+      this.values = values;
+    }
+  }
+
+  /**
+   * This method takes the values of every route of the history as they are now, such as before
+   * the history is saved on another thread.
+   *
+   * @param history The flight history.
+   * @return the values of each route, in order.
+   */
+  static List<RouteValues> snapshot(List<Route> history) {
+    List<RouteValues> values = new ArrayList<>(history.size());
+    for (Route route : history) {
+      values.add(new RouteValues(route));
+    }
+    return values;
+  }
+
+  /**
+   * This method records that a route has been saved to a row of the history table.
+   *
+   * @param route The route saved.
+   * @param routeId The route_id of its row.
+   */
+  public void saved(Route route, int routeId) {
+    saved(new RouteValues(route), routeId);
+  }
+
+  /**
+   * This method records that a route has been saved to a row of the history table with the given
+   * values.
+   *
+   * @param values The values of the route saved.
+   * @param routeId The route_id of its row.
+   */
+  void saved(RouteValues values, int routeId) {
+    saved.put(values.getRoute(), new SavedRoute(routeId, values));
+  }
+
+  /**
+   * This method records that the row of a route has been deleted.
+   *
+   * @param route The route deleted.
+   */
+  public void deleted(Route route) {
+    saved.remove(route);
+  }
+
+  /** This method forgets every saved route, such as when the history table is rewritten. */
+  public void clear() {
+    saved.clear();
+  }
+
+  /**
+   * This method returns the route_id of the row of a saved route.
+   *
+   * @param route The route.
+   * @return the route_id, or -1 if the route has not been saved.
+   */
+  public int getRouteId(Route route) {
+    SavedRoute row = saved.get(route);
+    return row == null ? -1 : row.routeId;
+  }
+
+  /**
+   * This method returns the number of saved routes.
+   *
+   * @return the number of rows of the history table.
+   */
+  public int size() {
+    return saved.size();
+  }
+
+  /**
+   * This method returns the routes of the history which have not been saved.
+   *
+   * @param history The flight history.
+   * @return the routes to insert.
+   */
+  public List<Route> getAdded(List<Route> history) {
+    List<Route> added = new ArrayList<>();
+    Set<Route> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Route route : history) {
+      if (!saved.containsKey(route) && seen.add(route)) {
+        added.add(route);
+      }
+    }
+    return added;
+  }
+
+  /**
+   * This method returns the saved routes which are no longer in the history.
+   *
+   * @param history The flight history.
+   * @return the routes to delete.
+   */
+  public List<Route> getRemoved(List<Route> history) {
+    Set<Route> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+    kept.addAll(history);
+    List<Route> removed = new ArrayList<>();
+    for (Route route : saved.keySet()) {
+      if (!kept.contains(route)) {
+        removed.add(route);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * This method returns the saved routes in the history whose times taken, emissions or distance
+   * have changed since they were saved.
+   *
+   * @param history The flight history.
+   * @return the routes to update.
+   */
+  public List<Route> getChanged(List<Route> history) {
+    List<Route> changed = new ArrayList<>();
+    for (RouteValues values : getChangedValues(snapshot(history))) {
+      changed.add(values.getRoute());
+    }
+    return changed;
+  }
+
+  /**
+   * This method returns the values of the saved routes in the history whose times taken,
+   * emissions or distance differ from the values they were saved with.
+   *
+   * @param history The values of the routes of the flight history.
+   * @return the values of the routes to update.
+   */
+  List<RouteValues> getChangedValues(List<RouteValues> history) {
+    List<RouteValues> changed = new ArrayList<>();
+    Set<Route> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (RouteValues values : history) {
+      SavedRoute row = saved.get(values.getRoute());
+      if (row != null && !row.values.matches(values) && seen.add(values.getRoute())) {
+        changed.add(values);
+      }
+    }
+    return changed;
+  }
+}
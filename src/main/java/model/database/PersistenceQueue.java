@@ -0,0 +1,367 @@
+package model.database;
+
+import model.data.DataType;
+import model.data.Route;
+import javax.swing.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Class which writes changes to the database in the background, so the application does not wait
+ * for the database when the user changes data. Writes are queued and made by a single writer
+ * thread. Every write queued while the writer is busy is made in the next transaction, each in its
+ * own savepoint, so a write which fails is rolled back on its own and the others are committed.
+ *
+ * <p>Writes with the same key are coalesced: a write queued while another with its key is still
+ * waiting replaces it, and is moved to the end of the queue. Saving the flight history always has
+ * the same key, so several changes to the history made in quick succession are saved once. A write
+ * or delete of a whole file also replaces the writes of rows of the file still waiting, as it is
+ * made from the file with their changes, and they could fail or change it again after it.
+ *
+ * <p>The data given to a write is copied when it is queued, but the rows themselves are not. The
+ * values of the routes of the flight history which can be edited are taken when a save is queued,
+ * and the flight history journal is only used by the writer once queued. A failed write is reported
+ * to the failure listener, on the writer thread.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PersistenceQueue {
+
+  /** The key of every save of the flight history. */
+  private static final String HISTORY_KEY = "history";
+
+  /** A write to the database, made in the writer's transaction. */
+  @FunctionalInterface
+  interface Write {
+
+    /**
+     * This method makes the write, without committing it.
+     *
+     * @param database The database, whose writer connection is reserved for the writer thread.
+     * @return run once the write is committed, or null.
+     * @throws SQLException If the write fails, rolling back only this write.
+     */
+    Runnable write(SQLiteDatabase database) throws SQLException;
+  }
+
+  /** A queued write and what it does, shown to the user if it fails. */
+  private static class Pending {
+
+    /** What the write does. */
+    private final String description;
+
+    /** The write. */
+    private final Write write;
+
+    /** The key of the file whose rows the write changes, or null. */
+    private final String file;
+
+    /**
+     * Constructor of Pending.
+     *
+     * @param description What the write does.
+     * @param write The write.
+     * @param file The key of the file whose rows the write changes, or null.
+     */
+    private Pending(String description, Write write, String file) {
+      this.description = description;
+      this.write = write;
+      this.file = file;
+    }
+  }
+
+  /** The connections to the database written to. */
+  private final ConnectionManager connections;
+
+  /** The thread writes are made on. */
+  private final ExecutorService writer;
+
+  /** The writes waiting for the writer, by key, in the order they are made. */
+  private final Map<Object, Pending> pending = new LinkedHashMap<>();
+
+  /** Whether the writer has been asked to make the pending writes. */
+  private boolean drainScheduled;
+
+  /** Told about each write which fails, with what it did, on the writer thread. */
+  private volatile BiConsumer<String, Exception> failureListener;
+
+  /** The database the writer thread writes to, created on first use. */
+  private SQLiteDatabase database;
+
+  /** Constructor of PersistenceQueue, which writes to the application's database. */
+  public PersistenceQueue() {
+    this(ConnectionManager.getShared());
+  }
+
+  /**
+   * Constructor of PersistenceQueue.
+   *
+   * @param connections The connections to the database written to.
+   */
+  public PersistenceQueue(ConnectionManager connections) {
+    this.connections = connections;
+    this.writer =
+        Executors.newSingleThreadExecutor(
+            task -> {
+              Thread thread = new Thread(task, "persistence-writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.failureListener =
+        (description, e) -> JOptionPane.showMessageDialog(null, description + " failed: " + e);
+  }
+
+  /**
+   * This method sets the listener told about each write which fails. The listener is called on
+   * the writer thread, so a listener showing the failure to the user should pass it to the UI
+   * thread. By default failures are shown in a message dialog.
+   *
+   * @param failureListener Given what the failed write did and why it failed.
+   */
+  public void setFailureListener(BiConsumer<String, Exception> failureListener) {
+    this.failureListener = failureListener;
+  }
+
+  /**
+   * This method queues the save of the changes made to the flight history since it was last saved,
+   * replacing any save of the history still waiting.
+   *
+   * @param history The flight history, whose routes' values are taken as they are now.
+   * @param journal How the history was last saved, only used by the writer from now on.
+   */
+  public void saveHistory(List<Route> history, HistoryJournal journal) {
+    List<HistoryJournal.RouteValues> routes = HistoryJournal.snapshot(history);
+    submit(
+        HISTORY_KEY,
+        "Saving the flight history",
+        database -> database.writeHistory(routes, journal));
+  }
+
+  /**
+   * This method queues adding rows to the end of a file, registering the file if it is not stored.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows The rows to add, in order.
+   */
+  public void addRows(String fileType, String fileName, List<? extends DataType> rows) {
+    List<DataType> added = new ArrayList<>(rows);
+    submit(
+        new Object(),
+        fileKey(fileType, fileName),
+        "Saving " + fileName,
+        database -> {
+          database.storeRows(fileType, fileName, added, false);
+          return null;
+        });
+  }
+
+  /**
+   * This method queues replacing every row of a file, registering the file if it is not stored.
+   * The write replaces any waiting write of the whole file or of its rows.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows Every row of the file, in order.
+   */
+  public void writeFile(String fileType, String fileName, List<? extends DataType> rows) {
+    List<DataType> file = new ArrayList<>(rows);
+    String key = fileKey(fileType, fileName);
+    submit(
+        key,
+        key,
+        "Saving " + fileName,
+        database -> {
+          database.storeRows(fileType, fileName, file, true);
+          return null;
+        });
+  }
+
+  /**
+   * This method queues deleting some rows of a file.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows The rows to delete.
+   */
+  public void deleteRows(String fileType, String fileName, List<? extends DataType> rows) {
+    List<DataType> deleted = new ArrayList<>(rows);
+    submit(
+        new Object(),
+        fileKey(fileType, fileName),
+        "Deleting rows of " + fileName,
+        database -> {
+          database.removeRows(fileType, fileName, deleted);
+          return null;
+        });
+  }
+
+  /**
+   * This method queues deleting a file and every row of it. Any waiting write of the whole file
+   * or of its rows is replaced, as it would be deleted.
+   *
+   * @param fileName The name of the file.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   */
+  public void deleteFile(String fileName, String fileType) {
+    String key = fileKey(fileType, fileName);
+    submit(
+        key,
+        key,
+        "Deleting " + fileName,
+        database -> {
+          database.removeFile(fileName, fileType);
+          return null;
+        });
+  }
+
+  /**
+   * This method queues a write, replacing any waiting write with the same key.
+   *
+   * @param key The key of the write.
+   * @param description What the write does, given to the failure listener if it fails.
+   * @param write The write.
+   */
+  void submit(Object key, String description, Write write) {
+    submit(key, null, description, write);
+  }
+
+  /**
+   * This method queues a write, replacing any waiting write with the same key. A write whose key
+   * is the key of its file writes the whole file, and also replaces the waiting writes of the rows
+   * of the file.
+   *
+   * @param key The key of the write.
+   * @param file The key of the file whose rows the write changes, or null.
+   * @param description What the write does, given to the failure listener if it fails.
+   * @param write The write.
+   */
+  private void submit(Object key, String file, String description, Write write) {
+    synchronized (pending) {
+      pending.remove(key);
+      if (key.equals(file)) {
+        pending.values().removeIf(waiting -> file.equals(waiting.file));
+      }
+      pending.put(key, new Pending(description, write, file));
+      if (!drainScheduled) {
+        drainScheduled = true;
+        writer.execute(this::drain);
+      }
+    }
+  }
+
+  /**
+   * This method returns the key of a file, the key of every write of the whole file.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the key of the file.
+   */
+  private static String fileKey(String fileType, String fileName) {
+    return fileType + "/" + fileName;
+  }
+
+  /**
+   * This method makes every waiting write in one transaction, on the writer thread. Each write is
+   * made in a savepoint, so one which fails is rolled back and reported without affecting the
+   * others. If the transaction cannot be committed every write in it is reported as failed.
+   */
+  private void drain() {
+    List<Pending> writes;
+    synchronized (pending) {
+      writes = new ArrayList<>(pending.values());
+      pending.clear();
+      drainScheduled = false;
+    }
+    if (database == null) {
+      database = new SQLiteDatabase(connections);
+    }
+    List<Runnable> committed = new ArrayList<>();
+    List<Pending> made = new ArrayList<>();
+    database.beginWrite();
+    try {
+      Connection con = database.getCon();
+      for (Pending write : writes) {
+        Savepoint savepoint = con.setSavepoint();
+        try {
+          Runnable done = write.write.write(database);
+          con.releaseSavepoint(savepoint);
+          made.add(write);
+          if (done != null) {
+            committed.add(done);
+          }
+        } catch (SQLException | RuntimeException e) {
+          con.rollback(savepoint);
+          fail(write, e);
+        }
+      }
+      con.commit();
+      committed.forEach(Runnable::run);
+    } catch (SQLException e) {
+      database.rollback();
+      made.forEach(write -> fail(write, e));
+    } finally {
+      database.endWrite();
+    }
+  }
+
+  /**
+   * This method tells the failure listener a write failed.
+   *
+   * @param write The write which failed.
+   * @param e Why it failed.
+   */
+  private void fail(Pending write, Exception e) {
+    try {
+      failureListener.accept(write.description, e);
+    } catch (RuntimeException ignored) {
+      // A broken listener must not stop the writer.
+    }
+  }
+
+  /**
+   * This method waits for every write queued so far to be made.
+   *
+   * @param timeout The longest time to wait.
+   * @param unit The unit of the timeout.
+   * @return true if every write was made, false if the time ran out or the wait was interrupted.
+   */
+  public boolean flush(long timeout, TimeUnit unit) {
+    try {
+      writer.submit(() -> {}).get(timeout, unit);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException | TimeoutException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * This method stops accepting writes and waits for the writes queued so far to be made, so they
+   * are not lost when the application closes.
+   *
+   * @param timeoutSeconds The longest time to wait for the writer.
+   */
+  public void shutdown(long timeoutSeconds) {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package model.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Class holding the SQLite settings applied to each connection when it is opened, which trade
+ * durability against speed. Two presets are provided. DURABLE, used by the application, keeps
+ * every committed transaction safe from power loss. BULK_INGEST only waits for the disk when the
+ * write ahead log is checkpointed and uses more memory, for writing large files. A power loss
+ * while it is used can lose the last transactions committed, which can be uploaded again, but
+ * never corrupts the database or loses files committed earlier. The synchronous level is never
+ * set to OFF, as the writer connection is shared by the whole database, and with OFF a power loss
+ * during a checkpoint can corrupt files which were committed before the upload.
+ *
+ * <p>Both presets use a write ahead log, so readers are not blocked while a long upload is being
+ * written and a commit writes each page once. The journal mode and page size are fixed when the
+ * writer connection is opened, and the page size only changes a new, empty database. The other
+ * settings can be changed on an open connection.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PragmaProfile {
+
+  /** Settings which keep every commit safe, used by the application. */
+  public static final PragmaProfile DURABLE =
+      new PragmaProfile("durable", "WAL", "FULL", 8 * 1024, 64L << 20, "DEFAULT", 4096);
+
+  /** Settings for writing large amounts of data quickly, which may lose the last commits. */
+  public static final PragmaProfile BULK_INGEST =
+      new PragmaProfile("bulk-ingest", "WAL", "NORMAL", 64 * 1024, 256L << 20, "MEMORY", 4096);
+
+  /** The name of the profile. */
+  private final String name;
+
+  /** The journal mode, such as WAL or DELETE. */
+  private final String journalMode;
+
+  /** The synchronous level, one of OFF, NORMAL, FULL, EXTRA. */
+  private final String synchronous;
+
+  /** The size of the page cache of each connection in KiB. */
+  private final int cacheSizeKib;
+
+  /** The number of bytes of the database file read through memory mapping. */
+  private final long mmapSize;
+
+  /** Where temporary tables and indexes are kept, one of DEFAULT, FILE, MEMORY. */
+  private final String tempStore;
+
+  /** The size of a page of a new database in bytes. */
+  private final int pageSize;
+
+  /**
+   * Constructor of PragmaProfile.
+   *
+   * @param name The name of the profile.
+   * @param journalMode The journal mode, such as WAL or DELETE.
+   * @param synchronous The synchronous level, one of OFF, NORMAL, FULL, EXTRA.
+   * @param cacheSizeKib The size of the page cache of each connection in KiB.
+   * @param mmapSize The number of bytes of the database file read through memory mapping.
+   * @param tempStore Where temporary data is kept, one of DEFAULT, FILE, MEMORY.
+   * @param pageSize The size of a page of a new database in bytes.
+   */
+  public PragmaProfile(
+      String name,
+      String journalMode,
+      String synchronous,
+      int cacheSizeKib,
+      long mmapSize,
+      String tempStore,
+      int pageSize) {
+    this.name = name;
+    this.journalMode = journalMode;
+    this.synchronous = synchronous;
+    this.cacheSizeKib = cacheSizeKib;
+    this.mmapSize = mmapSize;
+    this.tempStore = tempStore;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * This method applies every setting to a writer connection which has just been opened, before
+   * any transaction is started on it.
+   *
+   * @param con The writer connection.
+   * @throws SQLException If a setting cannot be applied.
+   */
+  public void applyToWriter(Connection con) throws SQLException {
+    try (Statement pragma = con.createStatement()) {
+      pragma.execute("PRAGMA page_size = " + pageSize);
+      pragma.execute("PRAGMA journal_mode = " + journalMode);
+    }
+    applyToConnection(con);
+  }
+
+  /**
+   * This method applies the settings which belong to a single connection, which can be changed
+   * on an open connection and are the only settings a read only connection can change.
+   *
+   * @param con The connection.
+   * @throws SQLException If a setting cannot be applied.
+   */
+  public void applyToConnection(Connection con) throws SQLException {
+    try (Statement pragma = con.createStatement()) {
+      pragma.execute("PRAGMA synchronous = " + synchronous);
+      pragma.execute("PRAGMA cache_size = " + -cacheSizeKib);
+      pragma.execute("PRAGMA mmap_size = " + mmapSize);
+      pragma.execute("PRAGMA temp_store = " + tempStore);
+    }
+  }
+
+  /**
+   * This method returns the name of the profile.
+   *
+   * @return the name of the profile.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * This method returns the journal mode of the profile.
+   *
+   * @return the journal mode.
+   */
+  public String getJournalMode() {
+    return journalMode;
+  }
+
+  /**
+   * This method returns the synchronous level of the profile.
+   *
+   * @return the synchronous level.
+   */
+  public String getSynchronous() {
+    return synchronous;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
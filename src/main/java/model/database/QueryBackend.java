@@ -0,0 +1,332 @@
+package model.database;
+
+import model.data.DataType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Class which searches and filters the rows of stored files in the database, so a file does not
+ * have to be loaded into Storage to be searched. Search and filter terms are compiled into a
+ * parameterized where clause, one case insensitive comparison per term, and the matching rows are
+ * read on a read only connection and handed back one at a time. Each column which can be searched
+ * has an index on the file_id and that column, created with its table, so searching a column of a
+ * file does not read every row of the file, and a search never waits for the writer.
+ *
+ * <p>Terms are compared with SQLite's NOCASE collation, which only ignores the case of ASCII
+ * letters, where searching a list in memory ignores the case of every letter.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class QueryBackend {
+
+  /** The connections to the database. */
+  private final ConnectionManager connections;
+
+  /** Constructor of QueryBackend, which searches the application's database. */
+  public QueryBackend() {
+    this(ConnectionManager.getShared());
+  }
+
+  /**
+   * Constructor of QueryBackend.
+   *
+   * @param connections The connections to the database searched.
+   */
+  public QueryBackend(ConnectionManager connections) {
+    this.connections = connections;
+  }
+
+  /**
+   * This method returns the column of a table of the given type which a search type compares.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @param searchType The type of search, as offered by the data views.
+   * @return the name of the column.
+   * @throws IllegalArgumentException If the search type is not one of the table's.
+   */
+  static String column(String fileType, String searchType) {
+    switch (fileType) {
+      case "Airport":
+        switch (searchType) {
+          case "Name":
+            return "name";
+          case "Country":
+            return "country";
+          case "IATA":
+            return "IATA";
+          case "ICAO":
+            return "ICAO";
+          case "City":
+            return "city";
+          default:
+            throw new IllegalArgumentException(
+                "Search type must be one of: Name, Country, City, IATA, ICAO.");
+        }
+      case "Airline":
+        switch (searchType) {
+          case "Name":
+            return "airlineName";
+          case "Country":
+            return "country";
+          case "IATA":
+            return "IATA";
+          case "ICAO":
+            return "ICAO";
+          case "Active status":
+            return "activeStatus";
+          default:
+            throw new IllegalArgumentException(
+                "Search type must be one of: Name, Country, IATA, ICAO, Active status.");
+        }
+      case "Route":
+        switch (searchType) {
+          case "Airline":
+            return "airlineName";
+          case "Source":
+            return "sourceAirport";
+          case "Destination":
+            return "destinationAirport";
+          default:
+            throw new IllegalArgumentException(
+                "Search type must be one of: Airline, Source, Destination.");
+        }
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method returns the statements creating an index on each column of a table which can be
+   * searched, if they do not exist. The index of a table of files starts with the file_id, so it
+   * finds the rows of one file.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @param table The name of the table.
+   * @param byFile Whether the table holds the rows of many files, by their file_id.
+   * @return the create statements.
+   */
+  static List<String> indexStatements(String fileType, String table, boolean byFile) {
+    String[] searchTypes;
+    switch (fileType) {
+      case "Airport":
+        searchTypes = new String[] {"Name", "Country", "IATA", "ICAO", "City"};
+        break;
+      case "Airline":
+        searchTypes = new String[] {"Name", "Country", "IATA", "ICAO", "Active status"};
+        break;
+      case "Route":
+        searchTypes = new String[] {"Airline", "Source", "Destination"};
+        break;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+    List<String> statements = new ArrayList<>();
+    for (String searchType : searchTypes) {
+      String column = column(fileType, searchType);
+      statements.add(
+          "create index if not exists "
+              + table
+              + "_"
+              + column
+              + " on "
+              + table
+              + " ("
+              + (byFile ? "file_id, " : "")
+              + column
+              + (column.equals("activeStatus") ? ")" : " collate nocase)"));
+    }
+    return statements;
+  }
+
+  /**
+   * This method builds the query selecting the rows of a table which match every term. When
+   * indexed, the rows are looked up through the index of the first column, which must exist, as
+   * otherwise SQLite prefers to read every row of the file through the primary key, already in
+   * order.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @param table The name of the table.
+   * @param byFile Whether the rows are of one file, selected by a first parameter for its file_id.
+   * @param columns The column compared by each term.
+   * @param indexed Whether the first column has an index to look the rows up through.
+   * @return the query, with a parameter for each term.
+   */
+  static String selectStatement(
+      String fileType, String table, boolean byFile, List<String> columns, boolean indexed) {
+    StringBuilder query = new StringBuilder("select * from ").append(table);
+    if (!columns.isEmpty() && indexed) {
+      query.append(" indexed by ").append(table).append("_").append(columns.get(0));
+    }
+    String joiner = " where ";
+    if (byFile) {
+      query.append(joiner).append("file_id = ?");
+      joiner = " and ";
+    }
+    for (String column : columns) {
+      query.append(joiner).append(column);
+      // Active status is stored as 1 or 0, and compared with the number the term stands for.
+      query.append(column.equals("activeStatus") ? " = ?" : " = ? collate nocase");
+      joiner = " and ";
+    }
+    return query.append(" order by ").append(SQLiteDatabase.orderColumn(fileType)).toString();
+  }
+
+  /**
+   * This method reads the rows of a stored file which match every term, handing each row to the
+   * consumer as it is read, in the order of the file.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or history for the flight history.
+   * @param terms The term for each type of search, such as Country to Iceland.
+   * @param consumer Given each matching row.
+   * @return the number of matching rows.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public int forEachMatch(
+      String fileType, String fileName, Map<String, String> terms, Consumer<DataType> consumer)
+      throws SQLException {
+    return forEachKeyedMatch(fileType, fileName, terms, (row, key) -> consumer.accept(row));
+  }
+
+  /**
+   * This method reads the rows of a stored file which match every term, handing each row to the
+   * consumer with its order key, the route_id, airport_id or airline_id which orders the rows of
+   * the file, so the position of the row in the file can be found later.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or history for the flight history.
+   * @param terms The term for each type of search, such as Country to Iceland.
+   * @param consumer Given each matching row and its order key.
+   * @return the number of matching rows.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public int forEachKeyedMatch(
+      String fileType,
+      String fileName,
+      Map<String, String> terms,
+      BiConsumer<DataType, Long> consumer)
+      throws SQLException {
+    List<String> columns = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    for (Map.Entry<String, String> term : terms.entrySet()) {
+      columns.add(column(fileType, term.getKey()));
+      values.add(term.getValue());
+    }
+
+    Connection reader = connections.acquireReader();
+    try {
+      int fileId = SQLiteDatabase.findFile(reader, fileType, fileName);
+      String table;
+      if (fileId >= 0) {
+        table = SQLiteDatabase.dataTable(fileType);
+      } else if (fileType.equals("Route")
+          && fileName.equals("history")
+          && SQLiteDatabase.tableExists(reader, "'history'")) {
+        table = "history";
+      } else {
+        throw new SQLException("No stored file " + fileName);
+      }
+      boolean byFile = fileId >= 0;
+      boolean indexed = !columns.isEmpty() && indexExists(reader, table + "_" + columns.get(0));
+      String key = SQLiteDatabase.orderColumn(fileType);
+      try (PreparedStatement query =
+          reader.prepareStatement(selectStatement(fileType, table, byFile, columns, indexed))) {
+        int parameter = 1;
+        if (byFile) {
+          query.setInt(parameter++, fileId);
+        }
+        for (int i = 0; i < columns.size(); i++) {
+          if (columns.get(i).equals("activeStatus")) {
+            String status = values.get(i).toLowerCase();
+            query.setInt(
+                parameter++, status.equals("true") ? 1 : status.equals("false") ? 0 : -1);
+          } else {
+            query.setString(parameter++, values.get(i));
+          }
+        }
+        int matches = 0;
+        EquipmentDictionary equipment = new EquipmentDictionary(reader);
+        try (ResultSet rows = query.executeQuery()) {
+          while (rows.next()) {
+            consumer.accept(SQLiteDatabase.readRow(rows, fileType, equipment), rows.getLong(key));
+            matches++;
+          }
+        }
+        return matches;
+      }
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /**
+   * This method returns the rows of a stored file which match every term.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or history for the flight history.
+   * @param terms The term for each type of search, such as Country to Iceland.
+   * @param <T> The class of the rows, matching the type of the file.
+   * @return the matching rows, in the order of the file.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public <T extends DataType> List<T> query(
+      String fileType, String fileName, Map<String, String> terms) throws SQLException {
+    return query(fileType, fileName, terms, null);
+  }
+
+  /**
+   * This method returns the rows of a stored file which match every term, recording the order
+   * key of each.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file, or history for the flight history.
+   * @param terms The term for each type of search, such as Country to Iceland.
+   * @param keys Given the order key of each matching row, or null.
+   * @param <T> The class of the rows, matching the type of the file.
+   * @return the matching rows, in the order of the file.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends DataType> List<T> query(
+      String fileType, String fileName, Map<String, String> terms, Map<? super T, Long> keys)
+      throws SQLException {
+    List<T> matches = new ArrayList<>();
+    forEachKeyedMatch(
+        fileType,
+        fileName,
+        terms,
+        (row, key) -> {
+          matches.add((T) row);
+          if (keys != null) {
+            keys.put((T) row, key);
+          }
+        });
+    return matches;
+  }
+
+  /**
+   * This method checks whether an index exists in the database.
+   *
+   * @param reader The connection to check with.
+   * @param index The name of the index.
+   * @return true if the index exists, false otherwise.
+   * @throws SQLException If the schema cannot be read.
+   */
+  private static boolean indexExists(Connection reader, String index) throws SQLException {
+    try (PreparedStatement query =
+        reader.prepareStatement("SELECT name FROM sqlite_master WHERE type='index' AND name=?")) {
+      query.setString(1, index);
+      try (ResultSet rows = query.executeQuery()) {
+        return rows.next();
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package model.database;
+
+import model.data.DataType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Class to insert many rows into one table through a single prepared statement. Rows are added to
+ * a JDBC batch which is executed every BATCH_SIZE rows, so the insert is only prepared once and
+ * the driver is called once per batch rather than once per row. The rows are not committed, so a
+ * whole file can be written in one transaction and rolled back if it fails.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowBatch implements AutoCloseable {
+
+  /** The number of rows added to the statement before the batch is executed. */
+  static final int BATCH_SIZE = 1000;
+
+  /** The type of the rows inserted, one of Airport, Airline, Route. */
+  private final String fileType;
+
+  /** The file_id of the file of the rows, or -1 if the table has no file_id. */
+  private final int fileId;
+
+  /** Numbers the plane codes of the routes inserted. */
+  private final EquipmentDictionary equipment;
+
+  /** The insert statement, reused for every row. */
+  private final PreparedStatement prep;
+
+  /** The number of rows executed per batch. */
+  private final int batchSize;
+
+  /** The number of rows added since the last batch was executed. */
+  private int pending = 0;
+
+  /** The number of rows added in total. */
+  private int rowsAdded = 0;
+
+  /**
+   * Constructor which prepares the insert statement of a table.
+   *
+   * @param con The connection to insert through.
+   * @param fileType The type of the rows, one of Airport, Airline, Route.
+   * @param tableName The quoted name of the table to insert into.
+   * @param fileId The file_id of the file of the rows, or -1 if the table has no file_id.
+   * @param batchSize The number of rows executed per batch.
+   * @throws SQLException If the statement cannot be prepared.
+   */
+  RowBatch(Connection con, String fileType, String tableName, int fileId, int batchSize)
+      throws SQLException {
+    this.fileType = fileType;
+    this.fileId = fileId;
+    this.batchSize = batchSize;
+    this.equipment = new EquipmentDictionary(con);
+    this.prep =
+        con.prepareStatement(SQLiteDatabase.insertStatement(fileType, tableName, fileId >= 0));
+  }
+
+  /**
+   * This method adds a row to the batch, executing the batch once it is full. Null rows are
+   * skipped.
+   *
+   * @param row The row to insert, of the type of the batch.
+   * @throws SQLException If the batch cannot be executed.
+   */
+  public void add(DataType row) throws SQLException {
+    if (row == null) {
+      return;
+    }
+    SQLiteDatabase.bindRow(prep, fileType, row, fileId, equipment);
+    prep.addBatch();
+    rowsAdded++;
+    if (++pending == batchSize) {
+      flush();
+    }
+  }
+
+  /**
+   * This method executes the rows added since the last batch.
+   *
+   * @throws SQLException If the batch cannot be executed.
+   */
+  public void flush() throws SQLException {
+    if (pending > 0) {
+      prep.executeBatch();
+      pending = 0;
+    }
+  }
+
+  /**
+   * This method returns the number of rows added to the batch.
+   *
+   * @return the number of rows added.
+   */
+  public int getRowsAdded() {
+    return rowsAdded;
+  }
+
+  /**
+   * This method executes any rows left in the batch and closes the statement.
+   *
+   * @throws SQLException If the batch cannot be executed.
+   */
+  @Override
+  public void close() throws SQLException {
+    try {
+      flush();
+    } finally {
+      prep.close();
+    }
+  }
+}
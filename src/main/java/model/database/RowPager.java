@@ -0,0 +1,204 @@
+package model.database;
+
+import model.data.DataType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class which reads the rows of a stored file a page at a time, in the order of the file, so a
+ * view of the file only reads the rows it shows. Pages are read by keyset: each page starts after
+ * the order key of the last row before it, rather than skipping rows with an offset, so reading a
+ * page does not read the rows before it. The key before each position read so far is remembered,
+ * and the first time a page far from any known position is read, only the keys of the rows
+ * skipped are read, through the primary key, to find where it starts.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowPager {
+
+  /** The connections to the database read. */
+  private final ConnectionManager connections;
+
+  /** The type of the file, one of Airport, Airline, Route. */
+  private final String fileType;
+
+  /** The name of the file. */
+  private final String fileName;
+
+  /** The order key of the row before each known position of the file. */
+  private final TreeMap<Integer, Long> keysBefore = new TreeMap<>();
+
+  /**
+   * Constructor of RowPager, which reads a file of the application's database.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   */
+  public RowPager(String fileType, String fileName) {
+    this(ConnectionManager.getShared(), fileType, fileName);
+  }
+
+  /**
+   * Constructor of RowPager.
+   *
+   * @param connections The connections to the database read.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   */
+  public RowPager(ConnectionManager connections, String fileType, String fileName) {
+    this.connections = connections;
+    this.fileType = fileType;
+    this.fileName = fileName;
+    keysBefore.put(0, Long.MIN_VALUE);
+  }
+
+  /**
+   * This method counts the rows of the file.
+   *
+   * @return the number of rows of the file.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public int size() throws SQLException {
+    Connection reader = connections.acquireReader();
+    try {
+      return SQLiteDatabase.countRows(reader, fileType, fileId(reader));
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /**
+   * This method reads the rows of the file from a position on, in the order of the file.
+   *
+   * @param first The position of the first row to read.
+   * @param count The most rows to read.
+   * @return the rows read, fewer than count if the file ends first.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public List<DataType> read(int first, int count) throws SQLException {
+    String key = SQLiteDatabase.orderColumn(fileType);
+    String table = SQLiteDatabase.dataTable(fileType);
+    List<DataType> page = new ArrayList<>(count);
+    Connection reader = connections.acquireReader();
+    try {
+      int fileId = fileId(reader);
+      long keyBefore = keyBefore(reader, fileId, first);
+      try (PreparedStatement query =
+          reader.prepareStatement(
+              "select * from "
+                  + table
+                  + " where file_id = ? and "
+                  + key
+                  + " > ? order by "
+                  + key
+                  + " limit ?")) {
+        query.setInt(1, fileId);
+        query.setLong(2, keyBefore);
+        query.setInt(3, count);
+        EquipmentDictionary equipment = new EquipmentDictionary(reader);
+        try (ResultSet rows = query.executeQuery()) {
+          while (rows.next()) {
+            page.add(SQLiteDatabase.readRow(rows, fileType, equipment));
+            keyBefore = rows.getLong(key);
+          }
+        }
+      }
+      keysBefore.put(first + page.size(), keyBefore);
+      return page;
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /**
+   * This method finds the position in the file of a row, by its order key, such as a row found by
+   * a search of the file.
+   *
+   * @param key The order key of the row, its route_id, airport_id or airline_id.
+   * @return the number of rows of the file before the row.
+   * @throws SQLException If the file is not stored or cannot be read.
+   */
+  public int position(long key) throws SQLException {
+    String column = SQLiteDatabase.orderColumn(fileType);
+    Connection reader = connections.acquireReader();
+    try (PreparedStatement query =
+        reader.prepareStatement(
+            "select count(*) from "
+                + SQLiteDatabase.dataTable(fileType)
+                + " where file_id = ? and "
+                + column
+                + " < ?")) {
+      query.setInt(1, fileId(reader));
+      query.setLong(2, key);
+      try (ResultSet rows = query.executeQuery()) {
+        return rows.getInt(1);
+      }
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /**
+   * This method returns the order key of the row before a position, reading the keys of the rows
+   * between it and the closest known position before it if it is not known.
+   *
+   * @param reader The connection to read with.
+   * @param fileId The file_id of the file.
+   * @param position The position.
+   * @return the key of the row before the position, or the smallest key if there is none.
+   * @throws SQLException If the keys cannot be read.
+   */
+  private long keyBefore(Connection reader, int fileId, int position) throws SQLException {
+    Map.Entry<Integer, Long> known = keysBefore.floorEntry(position);
+    int skipped = position - known.getKey();
+    if (skipped == 0) {
+      return known.getValue();
+    }
+    String key = SQLiteDatabase.orderColumn(fileType);
+    try (PreparedStatement query =
+        reader.prepareStatement(
+            "select "
+                + key
+                + " from "
+                + SQLiteDatabase.dataTable(fileType)
+                + " where file_id = ? and "
+                + key
+                + " > ? order by "
+                + key
+                + " limit 1 offset ?")) {
+      query.setInt(1, fileId);
+      query.setLong(2, known.getValue());
+      query.setInt(3, skipped - 1);
+      try (ResultSet rows = query.executeQuery()) {
+        if (!rows.next()) {
+          return Long.MAX_VALUE;
+        }
+        long keyBefore = rows.getLong(1);
+        keysBefore.put(position, keyBefore);
+        return keyBefore;
+      }
+    }
+  }
+
+  /**
+   * This method returns the file_id of the file.
+   *
+   * @param reader The connection to read with.
+   * @return the file_id.
+   * @throws SQLException If the file is not stored.
+   */
+  private int fileId(Connection reader) throws SQLException {
+    int fileId = SQLiteDatabase.findFile(reader, fileType, fileName);
+    if (fileId < 0) {
+      throw new SQLException("No stored file " + fileName);
+    }
+    return fileId;
+  }
+}
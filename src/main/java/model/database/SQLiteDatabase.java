@@ -4,17 +4,32 @@ import model.data.*;
 import javax.swing.*;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Class to store persistent data in database.
+ * Class to store persistent data in database. The rows of every uploaded file of a type are kept
+ * in one table, airport_rows, airline_rows or route_rows, each row with the file_id of its file in
+ * file_list, so the rows of several files can be queried together and each table is only indexed
+ * once. A database made with a table for each file is migrated to these tables when first opened.
+ * The plane codes of a route are stored as numbers in the equipment_codes table, see
+ * EquipmentDictionary.
  *
  * @version 1.0
  * @since 04/10/2020
  */
 public class SQLiteDatabase {
   /** database connection. */
-  private static Connection con;
+  private Connection con;
+
+  /** The connections to the database, shared with every other SQLiteDatabase. */
+  private final ConnectionManager connections;
+
+  /** Binary snapshots of the data of each file, used to load files quickly at start up. */
+  private final SnapshotStore snapshots;
 
   /** statement for building tables. */
   private Statement buildTable;
@@ -31,26 +46,102 @@ public class SQLiteDatabase {
   /** Variable for table name that is going to be created in database. */
   private String tableName;
 
-  /** The constructor for the SQLiteDatabase. */
+  /** The file_id of the file whose rows are inserted, or -1 when the table has no file_id. */
+  private int fileId = -1;
+
+  /** The version of the schema, kept in the user_version of the database. */
+  static final int SCHEMA_VERSION = 4;
+
+  /** The statement creating the history table, if it does not exist. */
+  private static final String HISTORY_TABLE_STATEMENT =
+      "create table if not exists "
+          + "history"
+          + "(route_id integer,"
+          + "airlineName varchar(60),"
+          + "airlineID integer,"
+          + "sourceAirport varchar(60),"
+          + "sourceAirportID integer,"
+          + "destinationAirport varchar(60),"
+          + "destinationAirportID integer,"
+          + "codeShare varchar(60),"
+          + "numOfStops integer,"
+          + "equipment blob,"
+          + "emissions double(100, 10),"
+          + "distance double(100, 10),"
+          + "timesTaken integer,"
+          + "primary key (route_id))";
+
+  /**
+   * The constructor for the SQLiteDatabase. Every instance shares the connections of the
+   * application's database, so constructing one does not open a connection of its own.
+   */
   public SQLiteDatabase() {
+    this(ConnectionManager.getShared());
+  }
+
+  /**
+   * The constructor for a SQLiteDatabase using the given connections.
+   *
+   * @param connections The connections to the database.
+   */
+  public SQLiteDatabase(ConnectionManager connections) {
+    this.connections = connections;
+    this.snapshots = connections.getSnapshots();
     buildConnection();
     closeAutoCommite();
+    ensureSchema();
   }
 
   /**
-   * This method create connection to local database, and will create one if there is no database.
+   * This method gets the writer connection to the database, which is opened, or reopened if it
+   * has been closed, by the connection manager.
    */
   protected void buildConnection() {
     try {
-      // sqlite driver
-      Class.forName("org.sqlite.JDBC");
-      // database path, if it's new database, it will be created in the project folder
-      con = DriverManager.getConnection("jdbc:sqlite:app.sqlite");
+      con = connections.getWriter();
+    } catch (Exception e) {
+      JOptionPane.showMessageDialog(null, e);
+    }
+  }
+
+  /**
+   * This method reserves the writer connection for the current thread, so a transaction made of
+   * several calls is not mixed with, or committed by, another thread's changes. Every call must be
+   * followed by a call to endWrite.
+   */
+  public void beginWrite() {
+    connections.lockWriter();
+    closeAutoCommite();
+  }
+
+  /** This method releases the writer connection reserved by beginWrite. */
+  public void endWrite() {
+    connections.unlockWriter();
+  }
+
+  /**
+   * This method changes the settings of the writer connection, which should be reserved by
+   * beginWrite. The settings should be changed back to getProfile before endWrite is called.
+   *
+   * @param profile The settings to use.
+   */
+  public void setWriterProfile(PragmaProfile profile) {
+    try {
+      connections.setWriterProfile(profile);
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
     }
   }
 
+  /**
+   * This method returns the settings the connections to the database are opened with.
+   *
+   * @return the profile of the connections.
+   */
+  public PragmaProfile getProfile() {
+    return connections.getProfile();
+  }
+
   /** This method is getter for connection returns connection as an object. */
   public Connection getCon() {
     return con;
@@ -94,6 +185,27 @@ public class SQLiteDatabase {
     }
   }
 
+  /**
+   * This method commits the current transaction. Unlike startCommite a failure is thrown rather
+   * than shown, so the caller can roll the changes back.
+   *
+   * @throws SQLException If the transaction cannot be committed.
+   */
+  public void commit() throws SQLException {
+    con.commit();
+  }
+
+  /** This method discards all changes made since the last commit. */
+  public void rollback() {
+    try {
+      if (!con.isClosed()) {
+        con.rollback();
+      }
+    } catch (Exception e) {
+      JOptionPane.showMessageDialog(null, e);
+    }
+  }
+
   /**
    * This method sets table name that is going to be created in database.
    *
@@ -101,12 +213,48 @@ public class SQLiteDatabase {
    * @return Return fileName without extension name.
    */
   public String setTableName(String fileName) {
-    this.tableName = "'" + fileName.split("\\.")[0] + "'";
+    this.tableName = quoteTableName(fileName);
+    this.fileId = -1;
     return tableName;
   }
 
-  /** This method builds airports table with airport attributes as columns in database. */
+  /**
+   * This method returns the quoted name of the table of a file, which is the file name without
+   * its extension.
+   *
+   * @param fileName The name of the file.
+   * @return the quoted table name.
+   */
+  static String quoteTableName(String fileName) {
+    return "'" + fileName.split("\\.")[0] + "'";
+  }
+
+  /** This method builds the table of the airports of every file, if it does not exist. */
   protected void buildAirportsTable() {
+    buildTables("Airport");
+  }
+
+  /** This method builds the table of the routes of every file, if it does not exist. */
+  protected void buildRoutesTable() {
+    buildTables("Route");
+  }
+
+  /** This method builds the table of the airlines of every file, if it does not exist. */
+  protected void buildAirlinesTable() {
+    buildTables("Airline");
+  }
+
+  /** This method create a table that contains all file names and corresponding types */
+  protected void buildTableList() {
+    buildTables("file_list");
+  }
+
+  /**
+   * This method runs the statements creating a table and its indexes, then commits them.
+   *
+   * @param table The type of the table, one of Airport, Airline, Route, or file_list.
+   */
+  private void buildTables(String table) {
     try {
       if (con.isClosed()) {
         // get connection
@@ -118,22 +266,9 @@ public class SQLiteDatabase {
 
     try {
       buildTable = con.createStatement();
-      buildTable.executeUpdate(
-          "create table "
-              + tableName
-              + "(airport_id integer,"
-              + "name varchar(60),"
-              + "city varchar(60),"
-              + "country varchar(60),"
-              + "IATA varchar(5),"
-              + "ICAO varchar(5),"
-              + "lat double(4, 6),"
-              + "lon double(4, 6),"
-              + "alt integer,"
-              + "timezone float,"
-              + "DST varchar(60),"
-              + "DBTimezone varchar(60),"
-              + "primary key (airport_id))");
+      for (String statement : createStatements(table)) {
+        buildTable.executeUpdate(statement);
+      }
       startCommite();
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
@@ -146,22 +281,74 @@ public class SQLiteDatabase {
     }
   }
 
-  /** This method builds routes table with routes attributes as columns in database. */
-  protected void buildRoutesTable() {
-    try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
-      }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+  /**
+   * This method returns the statements creating a table and its indexes, if they do not exist.
+   * The tables of airports, airlines and routes hold the rows of every file of their type, the
+   * file_id of the file of each row in their last column. They and the history table have an
+   * index on each column which can be searched.
+   *
+   * @param table The type of the table, one of Airport, Airline, Route, history, or file_list.
+   * @return the create statements.
+   */
+  static String[] createStatements(String table) {
+    List<String> statements = new ArrayList<>(Arrays.asList(tableStatements(table)));
+    if (table.equals("history")) {
+      statements.addAll(QueryBackend.indexStatements("Route", "history", false));
+    } else if (!table.equals("file_list")) {
+      statements.addAll(QueryBackend.indexStatements(table, dataTable(table), true));
     }
+    return statements.toArray(new String[0]);
+  }
 
-    try {
-      buildTable = con.createStatement();
-      buildTable.executeUpdate(
-          "create table "
-              + tableName
+  /**
+   * This method returns the statements creating a table and the indexes it needs to be written,
+   * if they do not exist.
+   *
+   * @param table The type of the table, one of Airport, Airline, Route, history, or file_list.
+   * @return the create statements.
+   */
+  private static String[] tableStatements(String table) {
+    switch (table) {
+      case "Airport":
+        return new String[] {
+          "create table if not exists "
+              + dataTable("Airport")
+              + "(airport_id integer,"
+              + "name varchar(60),"
+              + "city varchar(60),"
+              + "country varchar(60),"
+              + "IATA varchar(5),"
+              + "ICAO varchar(5),"
+              + "lat double(4, 6),"
+              + "lon double(4, 6),"
+              + "alt integer,"
+              + "timezone float,"
+              + "DST varchar(60),"
+              + "DBTimezone varchar(60),"
+              + "file_id integer not null,"
+              + "primary key (file_id, airport_id)) without rowid"
+        };
+      case "Airline":
+        return new String[] {
+          "create table if not exists "
+              + dataTable("Airline")
+              + "(airline_id integer,"
+              + "airlineName varchar(60),"
+              + "alias varchar(60),"
+              + "IATA varchar(5),"
+              + "ICAO varchar(5),"
+              + "callsign varchar(60),"
+              + "country varchar(60),"
+              + "activeStatus boolean,"
+              + "file_id integer not null,"
+              + "primary key (file_id, airline_id)) without rowid"
+        };
+      case "Route":
+        String routes = dataTable("Route");
+        return new String[] {
+          EquipmentDictionary.CREATE_STATEMENT,
+          "create table if not exists "
+              + routes
               + "(route_id integer,"
               + "airlineName varchar(60),"
               + "airlineID integer,"
@@ -171,90 +358,266 @@ public class SQLiteDatabase {
               + "destinationAirportID integer,"
               + "codeShare varchar(60),"
               + "numOfStops integer,"
-              + "equipment varchar(256),"
+              + "equipment blob,"
               + "emissions double(100, 10),"
               + "distance double(100, 10),"
               + "timesTaken integer,"
-              + "primary key (route_id))");
-      startCommite();
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
-      try {
-        buildTable.close();
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      }
+              + "file_id integer not null,"
+              + "primary key (route_id))",
+          // Finds the routes of a file, and the routes deleted from it by their airline, source
+          // and destination.
+          "create index if not exists route_rows_key on "
+              + routes
+              + " (file_id, airlineID, sourceAirportID, destinationAirportID)"
+        };
+      case "file_list":
+        return new String[] {
+          "create table if not exists file_list"
+              + "(file_id integer,"
+              + "file_name varchar(255),"
+              + "file_type varchar(10),"
+              + "revision integer not null default 0,"
+              + " primary key (file_id))",
+          // The last revision given to a file, kept apart from file_list so it is not reused
+          // when a file is deleted.
+          "create table if not exists file_revision(revision integer not null)",
+          "insert into file_revision select 0 where not exists (select * from file_revision)"
+        };
+      case "history":
+        return new String[] {HISTORY_TABLE_STATEMENT};
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
     }
   }
 
   /**
-   * This method builds airlines table with given name and with airline attributes as columns in
+   * This method returns the name of the table holding the rows of every file of a type.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @return the name of the table.
+   */
+  static String dataTable(String fileType) {
+    switch (fileType) {
+      case "Airport":
+        return "airport_rows";
+      case "Airline":
+        return "airline_rows";
+      case "Route":
+        return "route_rows";
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method returns the columns of the table of a type which hold the attributes of a row,
+   * in the order they are inserted. The route_id of a route is left out, as it is numbered by the
    * database.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @return the columns, separated by commas.
    */
-  protected void buildAirlinesTable() {
-    try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
-      }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+  private static String dataColumns(String fileType) {
+    switch (fileType) {
+      case "Airport":
+        return "airport_id, name, city, country, IATA, ICAO, lat, lon, alt, timezone, DST,"
+            + " DBTimezone";
+      case "Airline":
+        return "airline_id, airlineName, alias, IATA, ICAO, callsign, country, activeStatus";
+      case "Route":
+        return "airlineName, airlineID, sourceAirport, sourceAirportID, destinationAirport,"
+            + " destinationAirportID, codeShare, numOfStops, equipment, emissions, distance,"
+            + " timesTaken";
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method returns the column ordering the rows of a file of a type as they were uploaded.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @return the name of the column.
+   */
+  static String orderColumn(String fileType) {
+    switch (fileType) {
+      case "Airport":
+        return "airport_id";
+      case "Airline":
+        return "airline_id";
+      default:
+        return "route_id";
     }
+  }
 
+  /**
+   * This method makes sure the database has the tables of the current schema, creating them if
+   * they do not exist. A database made before the schema version 1, with a table for each file
+   * named after the file, is migrated: the rows of each file's table are copied into the table of
+   * its type with the file_id of the file, and the file's table is dropped. Before version 2 the
+   * plane codes of a route were stored as text, each code after a space, and are numbered. Before
+   * version 4 file_list has no revision column, which is added. The migration is made in one
+   * transaction, so if it fails the database is left as it was.
+   */
+  private void ensureSchema() {
+    connections.lockWriter();
     try {
-      buildTable = con.createStatement();
-      buildTable.executeUpdate(
-          "create table"
-              + tableName
-              + "(airline_id integer,"
-              + "airlineName varchar(60),"
-              + "alias varchar(60),"
-              + "IATA varchar(5),"
-              + "ICAO varchar(5),"
-              + "callsign varchar(60),"
-              + "country varchar(60),"
-              + "activeStatus boolean,"
-              + " primary key (airline_id))");
-      startCommite();
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
       try {
-        buildTable.close();
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
+      }
+
+      try (Statement schema = con.createStatement()) {
+        int version;
+        try (ResultSet pragma = schema.executeQuery("PRAGMA user_version")) {
+          version = pragma.getInt(1);
+        }
+        boolean catalogue = tableExists(con, "'file_list'");
+        if (version >= SCHEMA_VERSION && catalogue) {
+          return;
+        }
+
+        List<String[]> legacy = new ArrayList<>();
+        if (version < SCHEMA_VERSION && catalogue) {
+          // Each file's table is renamed first, so it cannot have the name of a new table.
+          try (ResultSet files = schema.executeQuery("select * from 'file_list'")) {
+            while (files.next()) {
+              legacy.add(
+                  new String[] {
+                    files.getString("file_id"), files.getString("file_name"),
+                    files.getString("file_type")
+                  });
+            }
+          }
+          for (String[] file : legacy) {
+            String table = quoteTableName(file[1]);
+            if (tableExists(con, table)) {
+              schema.executeUpdate(
+                  "alter table " + table + " rename to 'legacy_file_" + file[0] + "'");
+            }
+          }
+        }
+
+        for (String table : new String[] {"file_list", "Airport", "Airline", "Route"}) {
+          for (String statement : createStatements(table)) {
+            schema.executeUpdate(statement);
+          }
+        }
+        if (!columnExists(con, "file_list", "revision")) {
+          schema.executeUpdate(
+              "alter table file_list add column revision integer not null default 0");
+        }
+        if (tableExists(con, "'history'")) {
+          for (String statement : createStatements("history")) {
+            schema.executeUpdate(statement);
+          }
+        }
+
+        for (String[] file : legacy) {
+          String table = "'legacy_file_" + file[0] + "'";
+          if (!tableExists(con, table)) {
+            continue;
+          }
+          switch (file[2]) {
+            case "Airport":
+            case "Airline":
+            case "Route":
+              String columns = dataColumns(file[2]);
+              schema.executeUpdate(
+                  "insert into "
+                      + dataTable(file[2])
+                      + " ("
+                      + columns
+                      + ", file_id) select "
+                      + columns
+                      + ", "
+                      + file[0]
+                      + " from "
+                      + table
+                      + " order by "
+                      + orderColumn(file[2]));
+              schema.executeUpdate("drop table " + table);
+              break;
+            default:
+              // Not a table of a file of data, so it is left as it was.
+              schema.executeUpdate(
+                  "alter table " + table + " rename to " + quoteTableName(file[1]));
+          }
+        }
+        if (version < 2) {
+          EquipmentDictionary equipment = new EquipmentDictionary(con);
+          encodeEquipment(dataTable("Route"), equipment);
+          if (tableExists(con, "'history'")) {
+            encodeEquipment("history", equipment);
+          }
+        }
+        schema.executeUpdate("PRAGMA user_version = " + SCHEMA_VERSION);
+        con.commit();
       } catch (Exception e) {
+        rollback();
         JOptionPane.showMessageDialog(null, e);
       }
+    } finally {
+      connections.unlockWriter();
     }
   }
 
-  /** This method create a table that contains all file names and corresponding types */
-  protected void buildTableList() {
-    try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+  /**
+   * This method checks if a table has a column.
+   *
+   * @param reader The connection to check with.
+   * @param table The name of the table.
+   * @param column The name of the column.
+   * @return true if the table has the column, false otherwise.
+   * @throws SQLException If the schema cannot be read.
+   */
+  private static boolean columnExists(Connection reader, String table, String column)
+      throws SQLException {
+    try (Statement query = reader.createStatement();
+        ResultSet columns = query.executeQuery("PRAGMA table_info('" + table + "')")) {
+      while (columns.next()) {
+        if (columns.getString("name").equalsIgnoreCase(column)) {
+          return true;
+        }
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
     }
-    try {
-      buildTable = con.createStatement();
-      buildTable.executeUpdate(
-          "create table file_list"
-              + "(file_id integer,"
-              + "file_name varchar(255),"
-              + "file_type varchar(10),"
-              + " primary key (file_id))");
-      startCommite();
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
-      try {
-        buildTable.close();
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
+    return false;
+  }
+
+  /**
+   * This method numbers the plane codes of every route of a table whose equipment column is still
+   * text, as it was before the schema version 2.
+   *
+   * @param table The name of a table of routes.
+   * @param equipment Numbers the plane codes.
+   * @throws SQLException If the table cannot be read or written.
+   */
+  private void encodeEquipment(String table, EquipmentDictionary equipment) throws SQLException {
+    List<Integer> routeIds = new ArrayList<>();
+    List<String> columns = new ArrayList<>();
+    try (Statement query = con.createStatement();
+        ResultSet rows =
+            query.executeQuery(
+                "select route_id, equipment from "
+                    + table
+                    + " where typeof(equipment) = 'text'")) {
+      while (rows.next()) {
+        routeIds.add(rows.getInt(1));
+        columns.add(rows.getString(2));
+      }
+    }
+    try (PreparedStatement update =
+        con.prepareStatement("update " + table + " set equipment = ? where route_id = ?")) {
+      for (int i = 0; i < routeIds.size(); i++) {
+        update.setBytes(1, equipment.encode(EquipmentCodes.split(columns.get(i))));
+        update.setInt(2, routeIds.get(i));
+        update.addBatch();
       }
+      update.executeBatch();
     }
   }
 
@@ -271,23 +634,9 @@ public class SQLiteDatabase {
 
     try {
       buildTable = con.createStatement();
-      buildTable.executeUpdate(
-          "create table "
-              + "history"
-              + "(route_id integer,"
-              + "airlineName varchar(60),"
-              + "airlineID integer,"
-              + "sourceAirport varchar(60),"
-              + "sourceAirportID integer,"
-              + "destinationAirport varchar(60),"
-              + "destinationAirportID integer,"
-              + "codeShare varchar(60),"
-              + "numOfStops integer,"
-              + "equipment varchar(256),"
-              + "emissions double(100, 10),"
-              + "distance double(100, 10),"
-              + "timesTaken integer,"
-              + "primary key (route_id))");
+      for (String statement : createStatements("history")) {
+        buildTable.executeUpdate(statement);
+      }
       startCommite();
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
@@ -315,19 +664,8 @@ public class SQLiteDatabase {
       JOptionPane.showMessageDialog(null, e);
     }
     try {
-      prep = con.prepareStatement("insert into " + tableName + " values(?,?,?,?,?,?,?,?,?,?,?,?);");
-      prep.setInt(1, airport.getAirportID());
-      prep.setString(2, airport.getName());
-      prep.setString(3, airport.getCity());
-      prep.setString(4, airport.getCountry());
-      prep.setString(5, airport.getIATA());
-      prep.setString(6, airport.getICAO());
-      prep.setDouble(7, airport.getLatitude());
-      prep.setDouble(8, airport.getLongitude());
-      prep.setInt(9, airport.getAltitude());
-      prep.setDouble(10, airport.getTimezone());
-      prep.setString(11, airport.getDST());
-      prep.setString(12, airport.getDataBaseTimeZone());
+      prep = con.prepareStatement(insertStatement("Airport", tableName, fileId >= 0));
+      bindRow(prep, "Airport", airport, fileId, null);
       prep.execute();
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
@@ -356,29 +694,8 @@ public class SQLiteDatabase {
     }
 
     try {
-      prep =
-          con.prepareStatement("insert into " + tableName + " values(?,?,?,?,?,?,?,?,?,?,?,?,?);");
-      prep.setString(2, route.getAirlineName());
-      prep.setInt(3, route.getAirlineID());
-      prep.setString(4, route.getSourceAirport());
-      prep.setInt(5, route.getSourceAirportID());
-      prep.setString(6, route.getDestinationAirport());
-      prep.setInt(7, route.getDestinationAirportID());
-      prep.setString(8, route.getCodeShare());
-      prep.setInt(9, route.getNumOfStops());
-
-      String[] equipments = route.getEquipment();
-      StringBuilder stringEquipment = new StringBuilder();
-      if (equipments != null) {
-        for (String equipment : equipments) {
-          stringEquipment.append(" ").append(equipment);
-        }
-      }
-
-      prep.setString(10, stringEquipment.toString());
-      prep.setDouble(11, route.getEmissions());
-      prep.setDouble(12, route.getDistance());
-      prep.setInt(13, route.getTimesTaken());
+      prep = con.prepareStatement(insertStatement("Route", tableName, fileId >= 0));
+      bindRow(prep, "Route", route, fileId, new EquipmentDictionary(con));
       prep.execute();
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
@@ -392,49 +709,181 @@ public class SQLiteDatabase {
   }
 
   /**
-   * This method insert all attributes of an airline object into database.
+   * This method returns the insert statement of a table of the given type.
    *
-   * @param airline Object of airline contains information of airline as attributes.
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @param tableName The quoted name of the table.
+   * @param withFile Whether the table has a file_id column after the attributes of a row.
+   * @return the insert statement, with a parameter for each column.
    */
-  public void addAirlines(Airline airline) {
-    try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
-      }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+  static String insertStatement(String fileType, String tableName, boolean withFile) {
+    int columns = columnCount(fileType) + (withFile ? 1 : 0);
+    return "insert into "
+        + tableName
+        + " values("
+        + String.join(",", Collections.nCopies(columns, "?"))
+        + ");";
+  }
+
+  /**
+   * This method returns the number of columns holding the attributes of a row of a type.
+   *
+   * @param fileType The type of the row, one of Airport, Airline, Route.
+   * @return the number of columns, including the route_id of a route.
+   */
+  private static int columnCount(String fileType) {
+    switch (fileType) {
+      case "Airport":
+        return 12;
+      case "Airline":
+        return 8;
+      case "Route":
+        return 13;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
     }
-    try {
-      prep = con.prepareStatement("insert into" + tableName + "values(?,?,?,?,?,?,?,?);");
-      prep.setInt(1, airline.getAirlineID());
-      prep.setString(2, airline.getName());
-      prep.setString(3, airline.getAirlineAlias());
-      prep.setString(4, airline.getIATA());
-      prep.setString(5, airline.getICAO());
-      prep.setString(6, airline.getCallsign());
-      prep.setString(7, airline.getCountry());
-      prep.setBoolean(8, airline.getActiveStatus());
-      prep.execute();
+  }
+
+  /**
+   * This method sets the parameters of an insert statement to the attributes of a row.
+   *
+   * @param prep The insert statement of the table of the row.
+   * @param fileType The type of the row, one of Airport, Airline, Route.
+   * @param row The row to insert.
+   * @param fileId The file_id of the file of the row, or -1 if the table has no file_id.
+   * @param equipment Numbers the plane codes of a route, unused for other rows.
+   * @throws SQLException If a parameter cannot be set.
+   */
+  static void bindRow(
+      PreparedStatement prep,
+      String fileType,
+      DataType row,
+      int fileId,
+      EquipmentDictionary equipment)
+      throws SQLException {
+    switch (fileType) {
+      case "Airport":
+        bindAirport(prep, (Airport) row);
+        break;
+      case "Airline":
+        bindAirline(prep, (Airline) row);
+        break;
+      case "Route":
+        bindRoute(prep, (Route) row, equipment);
+        break;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+    if (fileId >= 0) {
+      prep.setInt(columnCount(fileType) + 1, fileId);
+    }
+  }
+
+  /**
+   * This method sets the parameters of an airport insert statement.
+   *
+   * @param prep The insert statement of an airport table.
+   * @param airport The airport to insert.
+   * @throws SQLException If a parameter cannot be set.
+   */
+  private static void bindAirport(PreparedStatement prep, Airport airport) throws SQLException {
+    prep.setInt(1, airport.getAirportID());
+    prep.setString(2, airport.getName());
+    prep.setString(3, airport.getCity());
+    prep.setString(4, airport.getCountry());
+    prep.setString(5, airport.getIATA());
+    prep.setString(6, airport.getICAO());
+    prep.setDouble(7, airport.getLatitude());
+    prep.setDouble(8, airport.getLongitude());
+    prep.setInt(9, airport.getAltitude());
+    prep.setDouble(10, airport.getTimezone());
+    prep.setString(11, airport.getDST());
+    prep.setString(12, airport.getDataBaseTimeZone());
+  }
+
+  /**
+   * This method sets the parameters of a route insert statement. The route_id is left null, so
+   * the database numbers the route.
+   *
+   * @param prep The insert statement of a route table.
+   * @param route The route to insert.
+   * @param equipment Numbers the plane codes of the route.
+   * @throws SQLException If a parameter cannot be set.
+   */
+  private static void bindRoute(PreparedStatement prep, Route route, EquipmentDictionary equipment)
+      throws SQLException {
+    prep.setNull(1, Types.INTEGER);
+    prep.setString(2, route.getAirlineName());
+    prep.setInt(3, route.getAirlineID());
+    prep.setString(4, route.getSourceAirport());
+    prep.setInt(5, route.getSourceAirportID());
+    prep.setString(6, route.getDestinationAirport());
+    prep.setInt(7, route.getDestinationAirportID());
+    prep.setString(8, route.getCodeShare());
+    prep.setInt(9, route.getNumOfStops());
+    prep.setBytes(10, equipment.encode(route.getEquipment()));
+    prep.setDouble(11, route.getEmissions());
+    prep.setDouble(12, route.getDistance());
+    prep.setInt(13, route.getTimesTaken());
+  }
+
+  /**
+   * This method sets the parameters of an airline insert statement.
+   *
+   * @param prep The insert statement of an airline table.
+   * @param airline The airline to insert.
+   * @throws SQLException If a parameter cannot be set.
+   */
+  private static void bindAirline(PreparedStatement prep, Airline airline) throws SQLException {
+    prep.setInt(1, airline.getAirlineID());
+    prep.setString(2, airline.getName());
+    prep.setString(3, airline.getAirlineAlias());
+    prep.setString(4, airline.getIATA());
+    prep.setString(5, airline.getICAO());
+    prep.setString(6, airline.getCallsign());
+    prep.setString(7, airline.getCountry());
+    prep.setBoolean(8, airline.getActiveStatus());
+  }
+
+  /**
+   * This method starts a batch of inserts into the table set by setTableName or initialiseTable.
+   * The rows are written in the current transaction, and are only saved once it is committed.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @return the batch, which must be closed once every row has been added.
+   * @throws SQLException If the insert statement cannot be prepared.
+   */
+  public RowBatch startBatch(String fileType) throws SQLException {
+    if (con.isClosed()) {
+      buildConnection();
+    }
+    return new RowBatch(con, fileType, tableName, fileId, RowBatch.BATCH_SIZE);
+  }
+
+  /**
+   * This method inserts every row of a list into the table set by setTableName or initialiseTable
+   * as batches of one prepared statement, then commits them.
+   *
+   * @param fileType The type of the table, one of Airport, Airline, Route.
+   * @param rows The rows to insert.
+   */
+  private void insertAll(String fileType, List<? extends DataType> rows) {
+    try (RowBatch batch = startBatch(fileType)) {
+      for (DataType row : rows) {
+        batch.add(row);
+      }
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
-    } finally {
-      try {
-        prep.close();
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      }
     }
+    startCommite();
   }
 
   /**
-   * This method initialise table according to provided table type, it deletes table and recreates
-   * it. This method also set table name for global attribute for other method to interact to
-   * desired table.
+   * This method insert all attributes of an airline object into database.
    *
-   * @param tableType Three types of table corresponding to airport, route and airline.
+   * @param airline Object of airline contains information of airline as attributes.
    */
-  public void initialiseTable(String tableType, String fileName) {
+  public void addAirlines(Airline airline) {
     try {
       if (con.isClosed()) {
         // get connection
@@ -443,358 +892,447 @@ public class SQLiteDatabase {
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
     }
-
-    setTableName(fileName);
-
     try {
-      state = con.createStatement();
-      res =
-          state.executeQuery(
-              "SELECT name FROM sqlite_master WHERE type='table' AND name='file_list'");
-      if (!res.next()) {
-        buildTableList();
-      }
+      prep = con.prepareStatement(insertStatement("Airline", tableName, fileId >= 0));
+      bindRow(prep, "Airline", airline, fileId, null);
+      prep.execute();
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
     } finally {
       try {
-        res.close();
-        state.close();
+        prep.close();
       } catch (Exception e) {
         JOptionPane.showMessageDialog(null, e);
       }
     }
+  }
 
-    switch (tableType) {
-      case "Airport":
-        try {
-          state = con.createStatement();
-          res =
-              state.executeQuery(
-                  "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
-          if (!res.next()) {
-            buildAirportsTable();
-          }
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
-        } finally {
-          try {
-            res.close();
-            state.close();
-          } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, e);
-          }
-        }
-        break;
-      case "Route":
-        try {
-          state = con.createStatement();
-          res =
-              state.executeQuery(
-                  "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
-          if (!res.next()) {
-            buildRoutesTable();
-          }
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
-        } finally {
-          try {
-            res.close();
-            state.close();
-          } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, e);
-          }
-        }
-        break;
-      case "Airline":
-        try {
-          state = con.createStatement();
-          res =
-              state.executeQuery(
-                  "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
-          if (!res.next()) {
-            buildAirlinesTable();
-          }
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
-        } finally {
+  /**
+   * This method initialise table according to provided table type, creating the tables of the
+   * schema if they do not exist. For a file of airports, airlines or routes the file is registered
+   * in file_list, if it is not already, and its rows are inserted into the table of its type with
+   * its file_id. The registration is part of the current transaction, so the file is only stored
+   * once its rows are committed. For any other type the table is named after the file.
+   *
+   * @param tableType Three types of table corresponding to airport, route and airline.
+   */
+  public void initialiseTable(String tableType, String fileName) {
+    connections.lockWriter();
+    try {
+      ensureSchema();
+      setTableName(fileName);
+
+      switch (tableType) {
+        case "Airport":
+        case "Route":
+        case "Airline":
           try {
-            res.close();
-            state.close();
+            fileId = registerFile(fileName, tableType);
+            tableName = dataTable(tableType);
           } catch (Exception e) {
             JOptionPane.showMessageDialog(null, e);
           }
-        }
-        break;
+          break;
+      }
+    } finally {
+      connections.unlockWriter();
     }
-    startCommite();
   }
 
   /**
-   * This method initialise storage with data from database.
+   * This method starts writing a file of airports, airlines or routes, registering it in file_list
+   * if it is not stored, so the rows added by startBatch are of the file. Unlike initialiseTable a
+   * failure is thrown rather than shown, so the caller can roll the file back. The writer
+   * connection must be reserved by beginWrite, and nothing is committed.
    *
-   * @param storage The storage used.
-   * @throws ClassNotFoundException This throws a ClassNotFoundException.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @throws SQLException If the file cannot be registered.
    */
-  public void initialiseStorage(Storage storage) {
-    try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+  public void startFile(String fileType, String fileName) throws SQLException {
+    ensureSchema();
+    setTableName(fileName);
+    fileId = registerFile(fileName, fileType);
+    tableName = dataTable(fileType);
+  }
+
+  /**
+   * This method returns the file_id of a file, adding the file to file_list if it is not there.
+   * A new file's file_id may have been used by a file whose rows were left behind, such as when
+   * file_list is dropped, so any rows with the file_id are deleted. The file is moved to a new
+   * revision, as its rows are about to change. Nothing is committed.
+   *
+   * @param fileName The name of the file.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @return the file_id of the file.
+   * @throws SQLException If file_list cannot be read or written.
+   */
+  private int registerFile(String fileName, String fileType) throws SQLException {
+    int id = findFile(con, fileType, fileName);
+    if (id < 0) {
+      try (PreparedStatement insert =
+          con.prepareStatement(
+              "insert into 'file_list' (file_id, file_name, file_type) values(?,?,?);")) {
+        insert.setNull(1, Types.INTEGER);
+        insert.setString(2, fileName);
+        insert.setString(3, fileType);
+        insert.execute();
+      }
+      id = findFile(con, fileType, fileName);
+      try (PreparedStatement delete =
+          con.prepareStatement("delete from " + dataTable(fileType) + " where file_id = ?")) {
+        delete.setInt(1, id);
+        delete.execute();
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
     }
+    nextRevision(id);
+    return id;
+  }
 
-    List<String> airportfileNames = getFileNamesByType("Airport");
-
-    for (String airportsName : airportfileNames) {
-      setTableName(airportsName);
+  /**
+   * This method moves a file to a new revision without committing, so it is part of the same
+   * transaction as the change to the file's rows. Revisions are taken from a counter which only
+   * grows, so a file stored again after being deleted never has the revision of its old rows.
+   *
+   * @param id The file_id of the file.
+   * @throws SQLException If the revision cannot be written.
+   */
+  private void nextRevision(int id) throws SQLException {
+    try (Statement counter = con.createStatement()) {
+      counter.executeUpdate("update file_revision set revision = revision + 1");
+    }
+    try (PreparedStatement update =
+        con.prepareStatement(
+            "update 'file_list' set revision = (select revision from file_revision)"
+                + " where file_id = ?")) {
+      update.setInt(1, id);
+      update.execute();
+    }
+  }
 
-      try {
-        state = con.createStatement();
-        res =
-            state.executeQuery(
-                "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
+  /**
+   * This method returns the revision of a file, which changes whenever the rows of the file do.
+   *
+   * @param reader The connection to read with.
+   * @param id The file_id of the file.
+   * @return the revision of the file, or -1 if it is not in file_list.
+   * @throws SQLException If file_list cannot be read.
+   */
+  static long findRevision(Connection reader, int id) throws SQLException {
+    try (PreparedStatement query =
+        reader.prepareStatement("select revision from 'file_list' where file_id = ?")) {
+      query.setInt(1, id);
+      try (ResultSet rows = query.executeQuery()) {
+        return rows.next() ? rows.getLong(1) : -1;
+      }
+    }
+  }
 
-        if (res.next()) {
-          state = con.createStatement();
-          res = state.executeQuery("select * from " + tableName);
-          ArrayList<DataType> airports = new ArrayList<>();
-          while (res.next()) {
-            int airportId = res.getInt("airport_id");
-            String name = res.getString("name");
-            String city = res.getString("city");
-            String country = res.getString("country");
-            String IATA = res.getString("IATA");
-            String ICAO = res.getString("ICAO");
-            double lat = res.getDouble("lat");
-            double lon = res.getDouble("lon");
-            int alt = res.getInt("alt");
-            float timezone = res.getFloat("timezone");
-            String DST = res.getString("DST");
-            String DBTimezone = res.getString("DBTimezone");
-            Airport airport =
-                new Airport(
-                    airportId,
-                    name,
-                    city,
-                    country,
-                    IATA,
-                    ICAO,
-                    lat,
-                    lon,
-                    alt,
-                    timezone,
-                    DST,
-                    DBTimezone);
-            airports.add(airport);
-          }
+  /**
+   * This method stores rows of a file, registering the file if it is not stored, without
+   * committing. The writer connection must be reserved by the caller.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows The rows to store, in order.
+   * @param replace Whether the rows replace every stored row of the file, rather than being added
+   *     after them.
+   * @throws SQLException If the rows cannot be written.
+   */
+  void storeRows(String fileType, String fileName, List<? extends DataType> rows, boolean replace)
+      throws SQLException {
+    ensureSchema();
+    int id = registerFile(fileName, fileType);
+    if (replace) {
+      try (PreparedStatement delete =
+          con.prepareStatement("delete from " + dataTable(fileType) + " where file_id = ?")) {
+        delete.setInt(1, id);
+        delete.execute();
+      }
+    }
+    try (RowBatch batch =
+        new RowBatch(con, fileType, dataTable(fileType), id, RowBatch.BATCH_SIZE)) {
+      for (DataType row : rows) {
+        batch.add(row);
+      }
+    }
+  }
 
-          storage.setData(airports, "Airport", airportsName);
-        }
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      } finally {
-        try {
-          res.close();
-          state.close();
-          //          con.close();
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
-        }
+  /**
+   * This method returns the file_id of a file in file_list.
+   *
+   * @param reader The connection to read with.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the file_id of the file, or -1 if it is not in file_list.
+   * @throws SQLException If file_list cannot be read.
+   */
+  static int findFile(Connection reader, String fileType, String fileName) throws SQLException {
+    if (!tableExists(reader, "'file_list'")) {
+      return -1;
+    }
+    try (PreparedStatement query =
+        reader.prepareStatement(
+            "select file_id from 'file_list' where file_name = ? and file_type = ?")) {
+      query.setString(1, fileName);
+      query.setString(2, fileType);
+      try (ResultSet rows = query.executeQuery()) {
+        return rows.next() ? rows.getInt(1) : -1;
       }
     }
+  }
 
-    List<String> airlinesFileNames = getFileNamesByType("Airline");
+  /**
+   * This method loads the data of a single uploaded file on a read only connection, showing a
+   * failure to the user. Use readFile to load a file off the thread the user is on.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the data of the file, or null if it has no table or cannot be read.
+   */
+  public List<DataType> loadFile(String fileType, String fileName) {
+    try {
+      return readFile(fileType, fileName);
+    } catch (Exception e) {
+      JOptionPane.showMessageDialog(null, e);
+      return null;
+    }
+  }
 
-    for (String airlinesName : airlinesFileNames) {
-      setTableName(airlinesName);
+  /**
+   * This method loads the routes of the flight history on a read only connection.
+   *
+   * @param journal Records the row of each route loaded, so later saves only write changes.
+   * @return the routes of the history, empty if there is no history.
+   */
+  public List<Route> loadHistory(HistoryJournal journal) {
+    try {
+      return readHistory(journal);
+    } catch (Exception e) {
+      JOptionPane.showMessageDialog(null, e);
+      return new ArrayList<>();
+    }
+  }
 
-      try {
-        state = con.createStatement();
-        res =
-            state.executeQuery(
-                "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
+  /**
+   * This method reads the data of an uploaded file on a read only connection taken from the pool,
+   * so it can be called from any thread. Unlike loadFile a failure is thrown rather than shown, so
+   * it can be reported on the thread the user is on.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the data of the file, or null if it has no table.
+   * @throws SQLException If the file cannot be read.
+   */
+  public List<DataType> readFile(String fileType, String fileName) throws SQLException {
+    Connection reader = connections.acquireReader();
+    try {
+      return readFile(reader, fileType, fileName);
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
 
-        if (res.next()) {
-          state = con.createStatement();
-          res = state.executeQuery("select * from " + tableName);
-          ArrayList<DataType> airlines = new ArrayList<>();
-          while (res.next()) {
-            int airlineId = res.getInt("airline_id");
-            String airlineName = res.getString("airlineName");
-            String alias = res.getString("alias");
-            String IATA = res.getString("IATA");
-            String ICAO = res.getString("ICAO");
-            String callsign = res.getString("callsign");
-            String country = res.getString("country");
-            Boolean activeStatus = res.getBoolean("activeStatus");
-            Airline airline =
-                new Airline(
-                    airlineId, airlineName, alias, IATA, ICAO, callsign, country, activeStatus);
-            airlines.add(airline);
+  /**
+   * This method reads the routes of the flight history on a read only connection taken from the
+   * pool.
+   *
+   * @param journal Records the row of each route read.
+   * @return the routes of the history, empty if there is no history.
+   * @throws SQLException If the history cannot be read.
+   */
+  private List<Route> readHistory(HistoryJournal journal) throws SQLException {
+    List<Route> history = new ArrayList<>();
+    Connection reader = connections.acquireReader();
+    try {
+      if (tableExists(reader, "'history'")) {
+        EquipmentDictionary equipment = new EquipmentDictionary(reader);
+        try (Statement query = reader.createStatement();
+            ResultSet rows = query.executeQuery("select * from 'history'")) {
+          while (rows.next()) {
+            Route route = (Route) readRow(rows, "Route", equipment);
+            journal.saved(route, rows.getInt("route_id"));
+            history.add(route);
           }
-
-          storage.setData(airlines, "Airline", airlinesName);
-        }
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      } finally {
-        try {
-          res.close();
-          state.close();
-          //        con.close();
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
         }
       }
+    } finally {
+      connections.releaseReader(reader);
     }
+    return history;
+  }
 
-    List<String> routeNames = getFileNamesByType("Route");
-
-    for (String routesName : routeNames) {
-      setTableName(routesName);
-
-      try {
-        state = con.createStatement();
-        res =
-            state.executeQuery(
-                "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
-
-        if (res.next()) {
-          state = con.createStatement();
-          res = state.executeQuery("select * from " + tableName);
-          ArrayList<DataType> routes = new ArrayList<>();
-          while (res.next()) {
-            //                int route_id = routesRow.getInt("route_id");
-            String airlineName = res.getString("airlineName");
-            int airlineID = res.getInt("airlineID");
-            String sourceAirport = res.getString("sourceAirport");
-            int sourceAirportID = res.getInt("sourceAirportID");
-            String destinationAirport = res.getString("destinationAirport");
-            int destinationAirportID = res.getInt("destinationAirportID");
-            String codeShare = res.getString("codeShare");
-            int numOfStops = res.getInt("numOfStops");
-
-            String equipment = res.getString("equipment");
-            String[] equipmentArray;
-            if (equipment != null) {
-              equipmentArray = equipment.split(" ");
-            } else {
-              equipmentArray = null;
-            }
+  /**
+   * This method reads the data of an uploaded file, from its snapshot if there is one of its
+   * current revision and otherwise from the rows with its file_id, writing a snapshot for next
+   * time. The snapshot is only written if the revision has not changed while the rows were read,
+   * so it never holds rows of an older revision than the one it is written at.
+   *
+   * @param reader The connection to read with.
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the data of the file, or null if it is not in file_list.
+   * @throws SQLException If the rows cannot be read.
+   */
+  private List<DataType> readFile(Connection reader, String fileType, String fileName)
+      throws SQLException {
+    int id = findFile(reader, fileType, fileName);
+    if (id < 0) {
+      return null;
+    }
+    long revision = findRevision(reader, id);
+    List<DataType> data = snapshots.read(fileType, fileName, revision);
+    if (data == null) {
+      data = readRows(reader, fileType, id);
+      if (revision >= 0 && findRevision(reader, id) == revision) {
+        snapshots.write(fileType, fileName, revision, data);
+      }
+    }
+    return data;
+  }
 
-            double emissions = res.getDouble("emissions");
-            double distance = res.getDouble("distance");
-            int timesTaken = res.getInt("timesTaken");
-
-            assert equipmentArray != null;
-            Route route =
-                new Route(
-                    airlineName,
-                    airlineID,
-                    sourceAirport,
-                    sourceAirportID,
-                    destinationAirport,
-                    destinationAirportID,
-                    codeShare,
-                    numOfStops,
-                    equipmentArray);
-            route.setEmissions(emissions);
-            route.setTimesTaken(timesTaken);
-            route.setDistance(distance);
-            routes.add(route);
-          }
+  /**
+   * This method checks if a table exists.
+   *
+   * @param reader The connection to check with.
+   * @param table The quoted name of the table.
+   * @return true if the table exists, false otherwise.
+   * @throws SQLException If the schema cannot be read.
+   */
+  static boolean tableExists(Connection reader, String table) throws SQLException {
+    try (Statement query = reader.createStatement();
+        ResultSet rows =
+            query.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type='table' AND name=" + table)) {
+      return rows.next();
+    }
+  }
 
-          storage.setData(routes, "Route", routesName);
-        }
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      } finally {
-        try {
-          res.close();
-          state.close();
-        } catch (Exception e) {
-          JOptionPane.showMessageDialog(null, e);
+  /**
+   * This method reads every row of a file.
+   *
+   * @param reader The connection to read with.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param id The file_id of the file.
+   * @return the rows of the file, in order.
+   * @throws SQLException If the rows cannot be read.
+   */
+  private static List<DataType> readRows(Connection reader, String fileType, int id)
+      throws SQLException {
+    List<DataType> data = new ArrayList<>();
+    EquipmentDictionary equipment = new EquipmentDictionary(reader);
+    try (PreparedStatement query =
+        reader.prepareStatement(
+            "select * from "
+                + dataTable(fileType)
+                + " where file_id = ? order by "
+                + orderColumn(fileType))) {
+      query.setInt(1, id);
+      try (ResultSet rows = query.executeQuery()) {
+        while (rows.next()) {
+          data.add(readRow(rows, fileType, equipment));
         }
       }
     }
+    return data;
+  }
 
-    setTableName("history");
-
-    try {
-      state = con.createStatement();
-      res =
-          state.executeQuery(
-              "SELECT name FROM sqlite_master WHERE type='table' AND name=" + tableName);
-
-      if (res.next()) {
-        state = con.createStatement();
-        res = state.executeQuery("select * from " + tableName);
-        ArrayList<DataType> routesHistory = new ArrayList<>();
-        while (res.next()) {
-          //                int route_id = routesRow.getInt("route_id");
-          String airlineName = res.getString("airlineName");
-          int airlineID = res.getInt("airlineID");
-          String sourceAirport = res.getString("sourceAirport");
-          int sourceAirportID = res.getInt("sourceAirportID");
-          String destinationAirport = res.getString("destinationAirport");
-          int destinationAirportID = res.getInt("destinationAirportID");
-          String codeShare = res.getString("codeShare");
-          int numOfStops = res.getInt("numOfStops");
-
-          String equipment = res.getString("equipment");
-          String[] equipmentArray;
-          if (equipment != null) {
-            equipmentArray = equipment.split(" ");
-          } else {
-            equipmentArray = null;
-          }
-
-          double emissions = res.getDouble("emissions");
-          double distance = res.getDouble("distance");
-          int timesTaken = res.getInt("timesTaken");
-
-          assert equipmentArray != null;
-          Route route =
-              new Route(
-                  airlineName,
-                  airlineID,
-                  sourceAirport,
-                  sourceAirportID,
-                  destinationAirport,
-                  destinationAirportID,
-                  codeShare,
-                  numOfStops,
-                  equipmentArray);
-          route.setEmissions(emissions);
-          route.setTimesTaken(timesTaken);
-          route.setDistance(distance);
-          routesHistory.add(route);
-        }
+  /**
+   * This method reads the current row of a result set.
+   *
+   * @param res The result set, positioned on a row.
+   * @param fileType The type of the row, one of Airport, Airline, Route.
+   * @param equipment Decodes the plane codes of a route, unused for other rows.
+   * @return the row read.
+   * @throws SQLException If the row cannot be read.
+   */
+  static DataType readRow(ResultSet res, String fileType, EquipmentDictionary equipment)
+      throws SQLException {
+    switch (fileType) {
+      case "Airport":
+        return new Airport(
+            res.getInt("airport_id"),
+            res.getString("name"),
+            res.getString("city"),
+            res.getString("country"),
+            res.getString("IATA"),
+            res.getString("ICAO"),
+            res.getDouble("lat"),
+            res.getDouble("lon"),
+            res.getInt("alt"),
+            res.getFloat("timezone"),
+            res.getString("DST"),
+            res.getString("DBTimezone"));
+      case "Airline":
+        return new Airline(
+            res.getInt("airline_id"),
+            res.getString("airlineName"),
+            res.getString("alias"),
+            res.getString("IATA"),
+            res.getString("ICAO"),
+            res.getString("callsign"),
+            res.getString("country"),
+            res.getBoolean("activeStatus"));
+      case "Route":
+        String[] equipmentArray = equipment.decode(res.getBytes("equipment"));
+        Route route =
+            new Route(
+                res.getString("airlineName"),
+                res.getInt("airlineID"),
+                res.getString("sourceAirport"),
+                res.getInt("sourceAirportID"),
+                res.getString("destinationAirport"),
+                res.getInt("destinationAirportID"),
+                res.getString("codeShare"),
+                res.getInt("numOfStops"),
+                equipmentArray);
+        route.setEmissions(res.getDouble("emissions"));
+        route.setTimesTaken(res.getInt("timesTaken"));
+        route.setDistance(res.getDouble("distance"));
+        return route;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
 
-        List<Route> history = storage.getHistory();
-        for (DataType route : routesHistory) {
-          Route bufferRoute = (Route) route;
-          history.add(bufferRoute);
-        }
-      }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
-      try {
-        res.close();
-        state.close();
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
+  /**
+   * This method counts the rows of a file.
+   *
+   * @param reader The connection to count with.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param id The file_id of the file.
+   * @return the number of rows of the file.
+   * @throws SQLException If the rows cannot be read.
+   */
+  static int countRows(Connection reader, String fileType, int id) throws SQLException {
+    try (PreparedStatement count =
+        reader.prepareStatement(
+            "select count(*) from " + dataTable(fileType) + " where file_id = ?")) {
+      count.setInt(1, id);
+      try (ResultSet rows = count.executeQuery()) {
+        return rows.getInt(1);
       }
     }
+  }
 
+  /**
+   * This method writes a snapshot of the data of a file, so it can be loaded quickly the next time
+   * the application starts. It should be called once the rows of the file have been committed,
+   * before the writer connection reserved by beginWrite is released, so the snapshot is written at
+   * the revision of the rows. A snapshot which cannot be written is skipped, as the rows can
+   * always be read from the database.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param data The data of the file, in the same order as the rows of its table.
+   */
+  public void writeSnapshot(String fileType, String fileName, List<? extends DataType> data) {
     try {
-      con.close();
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+      int id = findFile(con, fileType, fileName);
+      if (id >= 0) {
+        snapshots.write(fileType, fileName, findRevision(con, id), data);
+      }
+    } catch (SQLException ignored) {
     }
   }
 
@@ -805,24 +1343,26 @@ public class SQLiteDatabase {
    * @param airports A list contains all airports needs to be uploaded to database.
    */
   public void updateAirportTable(List<Airport> airports) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    }
 
-    try {
-      if (!airports.isEmpty()) {
-        for (Airport airport : airports) {
-          addAirports(airport);
+      try {
+        if (!airports.isEmpty()) {
+          insertAll("Airport", airports);
         }
-        startCommite();
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+    } finally {
+      connections.unlockWriter();
     }
   }
 
@@ -833,24 +1373,26 @@ public class SQLiteDatabase {
    * @param airlines A list contains all airlines needs to be uploaded to database.
    */
   public void updateAirlineTable(List<Airline> airlines) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    }
 
-    try {
-      if (!airlines.isEmpty()) {
-        for (Airline airline : airlines) {
-          addAirlines(airline);
+      try {
+        if (!airlines.isEmpty()) {
+          insertAll("Airline", airlines);
         }
-        startCommite();
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+    } finally {
+      connections.unlockWriter();
     }
   }
 
@@ -861,116 +1403,215 @@ public class SQLiteDatabase {
    * @param routes A list contains all routes needs to be uploaded to database.
    */
   public void updateRoute(List<Route> routes) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    }
 
-    try {
-      if (!routes.isEmpty()) {
-        for (Route route : routes) {
-          addRoutes(route);
+      try {
+        if (!routes.isEmpty()) {
+          insertAll("Route", routes);
         }
-        startCommite();
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+    } finally {
+      connections.unlockWriter();
     }
   }
 
   /**
-   * this method update table name list when user upload a data file.
+   * this method update table name list when user upload a data file, then commits the current
+   * transaction.
    *
    * @param fileName Name of the file that user uploaded.
    * @param fileType Type of the file that user uploaded.
    */
   public void updateTableList(String fileName, String fileType) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
-      }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    }
-    try {
-      state = con.createStatement();
-      res =
-          state.executeQuery(
-              "select * from 'file_list' where file_name='"
-                  + fileName
-                  + "' and file_type='"
-                  + fileType
-                  + "'");
-      if (!res.next()) {
-        prep = con.prepareStatement("insert into 'file_list' values(?,?,?);");
-        prep.setString(2, fileName);
-        prep.setString(3, fileType);
-        prep.execute();
-        prep.close();
-        startCommite();
-      }
-
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
+      ensureSchema();
       try {
-        res.close();
-        state.close();
+        registerFile(fileName, fileType);
+        startCommite();
       } catch (Exception e) {
         JOptionPane.showMessageDialog(null, e);
       }
+    } finally {
+      connections.unlockWriter();
     }
   }
 
   /**
-   * This method will update history in database when user add routes to history.
+   * This method will update history in database when user add routes to history. Every row of the
+   * history table is deleted and the routes inserted again, see saveHistory to only write changes.
    *
    * @param routes Route Object of route contains information of route as attributes.
    */
   public void updateHistoryTable(List<Route> routes) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    }
-
-    setTableName("history");
-    try {
-      state = con.createStatement();
-      res =
-          state.executeQuery(
-              "SELECT name FROM sqlite_master WHERE type='table' AND name='history'");
 
-      if (res.next()) {
-        state.executeUpdate("delete from 'history'");
-        startCommite();
-      } else {
-        buildHistoryTable();
-      }
       setTableName("history");
-      if (!routes.isEmpty()) {
-        for (Route route : routes) {
-          addRoutes(route);
+      try {
+        state = con.createStatement();
+        res =
+            state.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type='table' AND name='history'");
+
+        if (res.next()) {
+          state.executeUpdate("delete from 'history'");
+          startCommite();
+        } else {
+          buildHistoryTable();
+        }
+        setTableName("history");
+        if (!routes.isEmpty()) {
+          insertAll("Route", routes);
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
+      } finally {
+        try {
+          res.close();
+          state.close();
+        } catch (Exception e) {
+          JOptionPane.showMessageDialog(null, e);
         }
-        startCommite();
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
     } finally {
+      connections.unlockWriter();
+    }
+  }
+
+  /**
+   * This method saves the changes made to the flight history since it was last saved or loaded.
+   * Only routes added, removed or edited are written, by their route_id, in one transaction, so
+   * a save takes about the same time however long the history is. If the save fails nothing is
+   * written and the changes are saved next time.
+   *
+   * @param history The flight history.
+   * @param journal How the history was last saved, updated once the changes are committed.
+   */
+  public void saveHistory(List<Route> history, HistoryJournal journal) {
+    connections.lockWriter();
+    try {
       try {
-        res.close();
-        state.close();
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
+      }
+
+      try {
+        Runnable saved = writeHistory(HistoryJournal.snapshot(history), journal);
+        con.commit();
+        saved.run();
       } catch (Exception e) {
+        rollback();
         JOptionPane.showMessageDialog(null, e);
       }
+    } finally {
+      connections.unlockWriter();
+    }
+  }
+
+  /**
+   * This method writes the changes made to the flight history since it was last saved or loaded,
+   * without committing them. The writer connection must be reserved by the caller. The values of
+   * the routes written are those given, so the journal records what was written even if a route
+   * is edited again before the changes are committed.
+   *
+   * @param history The values of the routes of the flight history, taken when it was saved.
+   * @param journal How the history was last saved.
+   * @return updates the journal, and must only be run once the changes are committed.
+   * @throws SQLException If the history table cannot be written.
+   */
+  Runnable writeHistory(List<HistoryJournal.RouteValues> history, HistoryJournal journal)
+      throws SQLException {
+    List<Route> routes = new ArrayList<>(history.size());
+    Map<Route, HistoryJournal.RouteValues> values = new IdentityHashMap<>();
+    for (HistoryJournal.RouteValues route : history) {
+      routes.add(route.getRoute());
+      values.put(route.getRoute(), route);
+    }
+    List<Route> added = journal.getAdded(routes);
+    List<Route> removed = journal.getRemoved(routes);
+    List<HistoryJournal.RouteValues> written = journal.getChangedValues(history);
+    int changed = written.size();
+    if (added.isEmpty() && removed.isEmpty() && changed == 0) {
+      return () -> {};
+    }
+    for (Route route : added) {
+      written.add(values.get(route));
+    }
+    try (Statement create = con.createStatement()) {
+      for (String statement : createStatements("history")) {
+        create.executeUpdate(statement);
+      }
+    }
+    try (PreparedStatement delete =
+        con.prepareStatement("delete from 'history' where route_id = ?")) {
+      for (Route route : removed) {
+        delete.setInt(1, journal.getRouteId(route));
+        delete.addBatch();
+      }
+      delete.executeBatch();
+    }
+    int[] routeIds = new int[written.size()];
+    int nextId = maxHistoryId() + 1;
+    EquipmentDictionary equipment = new EquipmentDictionary(con);
+    try (PreparedStatement upsert =
+        con.prepareStatement(
+            "insert or replace into 'history' values(?,?,?,?,?,?,?,?,?,?,?,?,?);")) {
+      for (int i = 0; i < routeIds.length; i++) {
+        HistoryJournal.RouteValues route = written.get(i);
+        routeIds[i] = i < changed ? journal.getRouteId(route.getRoute()) : nextId++;
+        bindRoute(upsert, route.getRoute(), equipment);
+        upsert.setInt(1, routeIds[i]);
+        upsert.setDouble(11, route.getEmissions());
+        upsert.setDouble(12, route.getDistance());
+        upsert.setInt(13, route.getTimesTaken());
+        upsert.addBatch();
+      }
+      upsert.executeBatch();
+    }
+    return () -> {
+      for (Route route : removed) {
+        journal.deleted(route);
+      }
+      for (int i = 0; i < routeIds.length; i++) {
+        journal.saved(written.get(i), routeIds[i]);
+      }
+    };
+  }
+
+  /**
+   * This method returns the largest route_id of the history table.
+   *
+   * @return the largest route_id, or 0 if the table is empty.
+   * @throws SQLException If the table cannot be read.
+   */
+  private int maxHistoryId() throws SQLException {
+    try (Statement query = con.createStatement();
+        ResultSet max = query.executeQuery("select coalesce(max(route_id), 0) from 'history'")) {
+      return max.getInt(1);
     }
   }
 
@@ -981,87 +1622,219 @@ public class SQLiteDatabase {
    * @return A list that contains all specified type name in it.
    */
   public List<String> getFileNamesByType(String fileType) {
+    Connection reader = null;
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
-      }
+      reader = connections.acquireReader();
+      return getFileNamesByType(reader, fileType);
     } catch (Exception e) {
       JOptionPane.showMessageDialog(null, e);
+      return new ArrayList<>();
+    } finally {
+      connections.releaseReader(reader);
     }
-    ArrayList<String> file_names = new ArrayList<>();
-    try {
-      state = con.createStatement();
-      res =
-          state.executeQuery(
-              "SELECT name FROM sqlite_master WHERE type='table' AND name='file_list'");
-      if (res.next()) {
-        res = state.executeQuery("select * from 'file_list' where file_type='" + fileType + "'");
-        while (res.next()) {
-          String fileName = res.getString("file_name");
-          file_names.add(fileName);
+  }
+
+  /**
+   * This method get specific type of file name from database using the given connection.
+   *
+   * @param reader The connection to read with.
+   * @param fileType File type includes Airport, Airline and route.
+   * @return A list that contains all specified type name in it.
+   * @throws SQLException If the file list cannot be read.
+   */
+  private static List<String> getFileNamesByType(Connection reader, String fileType)
+      throws SQLException {
+    List<String> fileNames = new ArrayList<>();
+    if (!tableExists(reader, "'file_list'")) {
+      return fileNames;
+    }
+    try (PreparedStatement query =
+        reader.prepareStatement("select file_name from 'file_list' where file_type=?")) {
+      query.setString(1, fileType);
+      try (ResultSet rows = query.executeQuery()) {
+        while (rows.next()) {
+          fileNames.add(rows.getString("file_name"));
         }
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
-      try {
-        state.close();
-        res.close();
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, e);
-      }
     }
-    return file_names;
+    return fileNames;
   }
 
   /**
    * This method delete the row in file_list table where file_name and file_Type column is as
-   * provided from input.
+   * provided from input, along with every row of the file.
    *
    * @param fileName The file_name of the row that will be deleted.
    * @param fileType The file_type of the row that will be deleted.
    */
   public void deleteFile(String fileName, String fileType) {
+    connections.lockWriter();
     try {
-      if (con.isClosed()) {
-        // get connection
-        buildConnection();
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
+
+      try {
+        removeFile(fileName, fileType);
+        startCommite();
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
+      }
+    } finally {
+      connections.unlockWriter();
     }
+  }
 
-    setTableName(fileName);
+  /**
+   * This method deletes a file and every row of it, without committing. The writer connection
+   * must be reserved by the caller.
+   *
+   * @param fileName The name of the file.
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @throws SQLException If the file cannot be deleted.
+   */
+  void removeFile(String fileName, String fileType) throws SQLException {
+    snapshots.delete(fileType, fileName);
+    int id = findFile(con, fileType, fileName);
+    if (id >= 0) {
+      try (PreparedStatement delete =
+          con.prepareStatement("delete from " + dataTable(fileType) + " where file_id = ?")) {
+        delete.setInt(1, id);
+        delete.execute();
+      }
+      try (PreparedStatement delete =
+          con.prepareStatement("delete from 'file_list' where file_id = ?")) {
+        delete.setInt(1, id);
+        delete.execute();
+      }
+    }
+  }
+
+  /**
+   * This method deletes some rows of a file, leaving the other rows as they are. Airports and
+   * airlines are deleted by their ID. A route is deleted by its airline, source and destination,
+   * looked up through the route_rows_key index, and only one row is deleted for each route given.
+   * All the rows are deleted through one batched statement and committed together.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows The rows to delete.
+   */
+  public void deleteRows(String fileType, String fileName, List<? extends DataType> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    connections.lockWriter();
     try {
-      state = con.createStatement();
-      state.executeUpdate("drop table " + tableName);
-      res =
-          state.executeQuery(
-              "select count(*) as row_count from 'file_list' where file_name='"
-                  + fileName
-                  + "' and file_type='"
-                  + fileType
-                  + "'");
-      if (res.getInt("row_count") != 0) {
-
-        state.executeUpdate(
-            "delete from file_list where file_name='"
-                + fileName
-                + "' and file_type='"
-                + fileType
-                + "'");
+      try {
+        if (con.isClosed()) {
+          // get connection
+          buildConnection();
+        }
+      } catch (Exception e) {
+        JOptionPane.showMessageDialog(null, e);
       }
-      startCommite();
-    } catch (Exception e) {
-      JOptionPane.showMessageDialog(null, e);
-    } finally {
+
       try {
-        res.close();
-        state.close();
+        removeRows(fileType, fileName, rows);
+        con.commit();
       } catch (Exception e) {
+        rollback();
         JOptionPane.showMessageDialog(null, e);
       }
+    } finally {
+      connections.unlockWriter();
+    }
+  }
+
+  /**
+   * This method deletes some rows of a file, as deleteRows does, without committing. The writer
+   * connection must be reserved by the caller.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param rows The rows to delete.
+   * @throws SQLException If the file is not stored or its rows cannot be deleted.
+   */
+  void removeRows(String fileType, String fileName, List<? extends DataType> rows)
+      throws SQLException {
+    int id = findFile(con, fileType, fileName);
+    if (id < 0) {
+      throw new SQLException("No stored file " + fileName);
+    }
+    nextRevision(id);
+    try (PreparedStatement delete = con.prepareStatement(deleteStatement(fileType))) {
+      for (DataType row : rows) {
+        delete.setInt(1, id);
+        bindKey(delete, fileType, row);
+        delete.addBatch();
+      }
+      delete.executeBatch();
+    }
+  }
+
+  /**
+   * This method returns the statement deleting a single row of a file of the given type.
+   *
+   * @param fileType The type of the file, one of Airport, Airline, Route.
+   * @return the delete statement, with a parameter for the file_id of the file followed by one for
+   *     each column of the key of a row.
+   */
+  private static String deleteStatement(String fileType) {
+    String table = dataTable(fileType);
+    switch (fileType) {
+      case "Airport":
+        return "delete from " + table + " where file_id = ? and airport_id = ?";
+      case "Airline":
+        return "delete from " + table + " where file_id = ? and airline_id = ?";
+      case "Route":
+        return "delete from "
+            + table
+            + " where route_id = (select route_id from "
+            + table
+            + " where file_id = ? and airlineID = ? and sourceAirportID = ?"
+            + " and destinationAirportID = ? and airlineName = ? and sourceAirport = ?"
+            + " and destinationAirport = ? and codeShare = ? and numOfStops = ? limit 1)";
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method sets the parameters of a delete statement to the key of a row, after the file_id.
+   *
+   * @param delete The delete statement of the type of the row.
+   * @param fileType The type of the row, one of Airport, Airline, Route.
+   * @param row The row to delete.
+   * @throws SQLException If a parameter cannot be set.
+   */
+  private static void bindKey(PreparedStatement delete, String fileType, DataType row)
+      throws SQLException {
+    switch (fileType) {
+      case "Airport":
+        delete.setInt(2, ((Airport) row).getAirportID());
+        break;
+      case "Airline":
+        delete.setInt(2, ((Airline) row).getAirlineID());
+        break;
+      case "Route":
+        Route route = (Route) row;
+        delete.setInt(2, route.getAirlineID());
+        delete.setInt(3, route.getSourceAirportID());
+        delete.setInt(4, route.getDestinationAirportID());
+        delete.setString(5, route.getAirlineName());
+        delete.setString(6, route.getSourceAirport());
+        delete.setString(7, route.getDestinationAirport());
+        delete.setString(8, route.getCodeShare());
+        delete.setInt(9, route.getNumOfStops());
+        break;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
     }
   }
 }
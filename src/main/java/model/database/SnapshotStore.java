@@ -0,0 +1,545 @@
+package model.database;
+
+import model.data.Airline;
+import model.data.Airport;
+import model.data.DataType;
+import model.data.EquipmentCodes;
+import model.data.Route;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to keep a binary snapshot of the data of each uploaded file, so the data can be loaded at
+ * start up without reading every row of its table. The database remains the source of truth: each
+ * file has a revision in file_list, moved on in the same transaction as every change to its rows,
+ * and a snapshot is only used if it was written at the file's current revision. A snapshot left
+ * behind by a change, or written late from rows read before it, is therefore never read.
+ *
+ * <p>A snapshot starts with a header holding a magic number, the format version, the type of data,
+ * the name of the file, its revision and the number of rows. It is followed by a dictionary of
+ * every distinct string in the file, then one column per attribute. String columns hold indexes
+ * into the dictionary, so repeated values such as countries and airport codes are stored, and
+ * loaded, once. The plane codes of a route are stored as one string, the codes separated by
+ * spaces. Other columns hold their primitive values. Snapshots are memory mapped to be read.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class SnapshotStore {
+
+  /** The first four bytes of every snapshot, "GSKY". */
+  private static final int MAGIC = 0x47534B59;
+
+  /** The version of the snapshot format. Snapshots of any other version are ignored. */
+  static final int VERSION = 4;
+
+  /** The dictionary index stored for a null string. */
+  private static final int NULL_STRING = -1;
+
+  /** The directory the snapshots are kept in. */
+  private final Path directory;
+
+  /**
+   * Constructor of SnapshotStore.
+   *
+   * @param directory The directory the snapshots are kept in, created when the first is written.
+   */
+  public SnapshotStore(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * This method returns the path of the snapshot of a file, named after the whole name of the
+   * file and its hash, so files whose names differ only in characters which cannot be in a path
+   * are unlikely to share a snapshot. The name of the file is also stored in the snapshot, so a
+   * snapshot of another file is never read.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @return the path of the snapshot.
+   */
+  Path getPath(String fileType, String fileName) {
+    String safeName = fileName.replaceAll("[^A-Za-z0-9_-]", "_");
+    return directory.resolve(
+        String.format("%s-%s-%08x.snap", fileType, safeName, fileName.hashCode()));
+  }
+
+  /**
+   * This method returns the code stored in the header for a type of data.
+   *
+   * @param fileType The type of data, one of Airport, Airline, Route.
+   * @return the type code.
+   * @throws IllegalArgumentException If the type is not one of Airport, Airline, Route.
+   */
+  private static int typeCode(String fileType) throws IllegalArgumentException {
+    switch (fileType) {
+      case "Airport":
+        return 0;
+      case "Airline":
+        return 1;
+      case "Route":
+        return 2;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method writes a snapshot of the data of a file, replacing any existing snapshot. The
+   * snapshot is written to a temporary file first, so a snapshot is never left half written. A
+   * snapshot which cannot be written is skipped, since the data can always be read from the
+   * database.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param revision The revision of the file the data was read at.
+   * @param data The data of the file, in the same order as the rows of its table. Null entries
+   *     are skipped, as they are never written to the table.
+   * @return true if the snapshot was written, false otherwise.
+   */
+  public boolean write(
+      String fileType, String fileName, long revision, List<? extends DataType> data) {
+    List<DataType> rows = new ArrayList<>(data.size());
+    for (DataType entry : data) {
+      if (entry != null) {
+        rows.add(entry);
+      }
+    }
+    Path path = getPath(fileType, fileName);
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        encode(fileType, fileName, revision, rows, out);
+      }
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException ignored) {
+      }
+      return false;
+    }
+  }
+
+  /**
+   * This method reads the snapshot of a file. The snapshot is only used if it is in the current
+   * format, is of the file and was written at its current revision.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   * @param revision The current revision of the file.
+   * @return the data of the file, or null if there is no valid snapshot.
+   */
+  public List<DataType> read(String fileType, String fileName, long revision) {
+    Path path = getPath(fileType, fileName);
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 16
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != VERSION
+          || buffer.getInt() != typeCode(fileType)
+          || !readString(buffer).equals(fileName)
+          || buffer.getLong() != revision) {
+        return null;
+      }
+      return decode(fileType, buffer.getInt(), buffer);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * This method deletes the snapshot of a file, if there is one, to free its space. A snapshot
+   * which cannot be deleted is left, as it is never read once the file has changed.
+   *
+   * @param fileType The type of data in the file, one of Airport, Airline, Route.
+   * @param fileName The name of the file.
+   */
+  public void delete(String fileType, String fileName) {
+    try {
+      Files.deleteIfExists(getPath(fileType, fileName));
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * This method writes the header, dictionary and columns of a snapshot.
+   *
+   * @param fileType The type of data, one of Airport, Airline, Route.
+   * @param fileName The name of the file the data is of.
+   * @param revision The revision of the file the data was read at.
+   * @param data The data to write.
+   * @param out The stream to write to.
+   * @throws IOException If the stream cannot be written.
+   */
+  private static void encode(
+      String fileType,
+      String fileName,
+      long revision,
+      List<? extends DataType> data,
+      DataOutputStream out)
+      throws IOException {
+    int rows = data.size();
+    Dictionary dictionary = new Dictionary();
+    List<int[]> stringColumns = new ArrayList<>();
+    switch (fileType) {
+      case "Airport":
+        for (int column = 0; column < 7; column++) {
+          stringColumns.add(new int[rows]);
+        }
+        for (int row = 0; row < rows; row++) {
+          Airport airport = (Airport) data.get(row);
+          stringColumns.get(0)[row] = dictionary.code(airport.getName());
+          stringColumns.get(1)[row] = dictionary.code(airport.getCity());
+          stringColumns.get(2)[row] = dictionary.code(airport.getCountry());
+          stringColumns.get(3)[row] = dictionary.code(airport.getIATA());
+          stringColumns.get(4)[row] = dictionary.code(airport.getICAO());
+          stringColumns.get(5)[row] = dictionary.code(airport.getDST());
+          stringColumns.get(6)[row] = dictionary.code(airport.getDataBaseTimeZone());
+        }
+        break;
+      case "Airline":
+        for (int column = 0; column < 6; column++) {
+          stringColumns.add(new int[rows]);
+        }
+        for (int row = 0; row < rows; row++) {
+          Airline airline = (Airline) data.get(row);
+          stringColumns.get(0)[row] = dictionary.code(airline.getName());
+          stringColumns.get(1)[row] = dictionary.code(airline.getAirlineAlias());
+          stringColumns.get(2)[row] = dictionary.code(airline.getIATA());
+          stringColumns.get(3)[row] = dictionary.code(airline.getICAO());
+          stringColumns.get(4)[row] = dictionary.code(airline.getCallsign());
+          stringColumns.get(5)[row] = dictionary.code(airline.getCountry());
+        }
+        break;
+      case "Route":
+        for (int column = 0; column < 5; column++) {
+          stringColumns.add(new int[rows]);
+        }
+        for (int row = 0; row < rows; row++) {
+          Route route = (Route) data.get(row);
+          stringColumns.get(0)[row] = dictionary.code(route.getAirlineName());
+          stringColumns.get(1)[row] = dictionary.code(route.getSourceAirport());
+          stringColumns.get(2)[row] = dictionary.code(route.getDestinationAirport());
+          stringColumns.get(3)[row] = dictionary.code(route.getCodeShare());
+          stringColumns.get(4)[row] = dictionary.code(String.join(" ", route.getEquipment()));
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(typeCode(fileType));
+    writeString(fileName, out);
+    out.writeLong(revision);
+    out.writeInt(rows);
+    out.writeInt(dictionary.strings.size());
+    for (String string : dictionary.strings) {
+      writeString(string, out);
+    }
+    for (int[] column : stringColumns) {
+      for (int code : column) {
+        out.writeInt(code);
+      }
+    }
+    switch (fileType) {
+      case "Airport":
+        for (DataType entry : data) {
+          out.writeInt(((Airport) entry).getAirportID());
+        }
+        for (DataType entry : data) {
+          out.writeDouble(((Airport) entry).getLatitude());
+        }
+        for (DataType entry : data) {
+          out.writeDouble(((Airport) entry).getLongitude());
+        }
+        for (DataType entry : data) {
+          out.writeInt(((Airport) entry).getAltitude());
+        }
+        for (DataType entry : data) {
+          out.writeFloat((float) ((Airport) entry).getTimezone());
+        }
+        break;
+      case "Airline":
+        for (DataType entry : data) {
+          out.writeInt(((Airline) entry).getAirlineID());
+        }
+        for (DataType entry : data) {
+          out.writeBoolean(((Airline) entry).getActiveStatus());
+        }
+        break;
+      default:
+        for (DataType entry : data) {
+          out.writeInt(((Route) entry).getAirlineID());
+        }
+        for (DataType entry : data) {
+          out.writeInt(((Route) entry).getSourceAirportID());
+        }
+        for (DataType entry : data) {
+          out.writeInt(((Route) entry).getDestinationAirportID());
+        }
+        for (DataType entry : data) {
+          out.writeInt(((Route) entry).getNumOfStops());
+        }
+        for (DataType entry : data) {
+          out.writeDouble(((Route) entry).getEmissions());
+        }
+        for (DataType entry : data) {
+          out.writeDouble(((Route) entry).getDistance());
+        }
+        for (DataType entry : data) {
+          out.writeInt(((Route) entry).getTimesTaken());
+        }
+        break;
+    }
+  }
+
+  /**
+   * This method reads the dictionary and columns of a snapshot and creates an object per row. The
+   * buffer must be positioned just after the header.
+   *
+   * @param fileType The type of data, one of Airport, Airline, Route.
+   * @param rows The number of rows in the snapshot.
+   * @param buffer The mapped snapshot.
+   * @return the data in the snapshot.
+   */
+  private static List<DataType> decode(String fileType, int rows, MappedByteBuffer buffer) {
+    String[] dictionary = new String[buffer.getInt()];
+    for (int i = 0; i < dictionary.length; i++) {
+      dictionary[i] = readString(buffer);
+    }
+    Columns columns = new Columns(buffer, rows, dictionary);
+    List<DataType> data = new ArrayList<>(rows);
+    switch (fileType) {
+      case "Airport":
+        {
+          int name = columns.next(4);
+          int city = columns.next(4);
+          int country = columns.next(4);
+          int iata = columns.next(4);
+          int icao = columns.next(4);
+          int dst = columns.next(4);
+          int dbTimezone = columns.next(4);
+          int id = columns.next(4);
+          int latitude = columns.next(8);
+          int longitude = columns.next(8);
+          int altitude = columns.next(4);
+          int timezone = columns.next(4);
+          columns.checkEnd();
+          for (int row = 0; row < rows; row++) {
+            data.add(
+                new Airport(
+                    buffer.getInt(id + 4 * row),
+                    columns.string(name, row),
+                    columns.string(city, row),
+                    columns.string(country, row),
+                    columns.string(iata, row),
+                    columns.string(icao, row),
+                    buffer.getDouble(latitude + 8 * row),
+                    buffer.getDouble(longitude + 8 * row),
+                    buffer.getInt(altitude + 4 * row),
+                    buffer.getFloat(timezone + 4 * row),
+                    columns.string(dst, row),
+                    columns.string(dbTimezone, row)));
+          }
+          break;
+        }
+      case "Airline":
+        {
+          int name = columns.next(4);
+          int alias = columns.next(4);
+          int iata = columns.next(4);
+          int icao = columns.next(4);
+          int callsign = columns.next(4);
+          int country = columns.next(4);
+          int id = columns.next(4);
+          int active = columns.next(1);
+          columns.checkEnd();
+          for (int row = 0; row < rows; row++) {
+            data.add(
+                new Airline(
+                    buffer.getInt(id + 4 * row),
+                    columns.string(name, row),
+                    columns.string(alias, row),
+                    columns.string(iata, row),
+                    columns.string(icao, row),
+                    columns.string(callsign, row),
+                    columns.string(country, row),
+                    buffer.get(active + row) != 0));
+          }
+          break;
+        }
+      default:
+        {
+          int airline = columns.next(4);
+          int source = columns.next(4);
+          int destination = columns.next(4);
+          int codeshare = columns.next(4);
+          int equipment = columns.next(4);
+          int airlineId = columns.next(4);
+          int sourceId = columns.next(4);
+          int destinationId = columns.next(4);
+          int stops = columns.next(4);
+          int emissions = columns.next(8);
+          int distance = columns.next(8);
+          int timesTaken = columns.next(4);
+          columns.checkEnd();
+          for (int row = 0; row < rows; row++) {
+            Route route =
+                new Route(
+                    columns.string(airline, row),
+                    buffer.getInt(airlineId + 4 * row),
+                    columns.string(source, row),
+                    buffer.getInt(sourceId + 4 * row),
+                    columns.string(destination, row),
+                    buffer.getInt(destinationId + 4 * row),
+                    columns.string(codeshare, row),
+                    buffer.getInt(stops + 4 * row),
+                    EquipmentCodes.split(columns.string(equipment, row)));
+            route.setEmissions(buffer.getDouble(emissions + 8 * row));
+            route.setDistance(buffer.getDouble(distance + 8 * row));
+            route.setTimesTaken(buffer.getInt(timesTaken + 4 * row));
+            data.add(route);
+          }
+          break;
+        }
+    }
+    return data;
+  }
+
+  /**
+   * This method writes a string as its length in bytes followed by its UTF-8 bytes.
+   *
+   * @param string The string.
+   * @param out The stream to write to.
+   * @throws IOException If the stream cannot be written.
+   */
+  private static void writeString(String string, DataOutputStream out) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * This method reads a string written by writeString.
+   *
+   * @param buffer The mapped snapshot, positioned at the string.
+   * @return the string.
+   * @throws IllegalStateException If the length of the string runs past the end of the snapshot.
+   */
+  private static String readString(MappedByteBuffer buffer) throws IllegalStateException {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalStateException("Snapshot is the wrong size.");
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** The distinct strings of a snapshot being written, each given the index it is stored at. */
+  private static class Dictionary {
+
+    /** The index of each string. */
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /** The strings in index order. */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * This method returns the index of a string, adding it to the dictionary if it is new.
+     *
+     * @param string The string, which may be null.
+     * @return the index of the string, or NULL_STRING for null.
+     */
+    private int code(String string) {
+      if (string == null) {
+        return NULL_STRING;
+      }
+      return codes.computeIfAbsent(
+          string,
+          key -> {
+            strings.add(key);
+            return strings.size() - 1;
+          });
+    }
+  }
+
+  /** The positions of the columns of a snapshot being read. */
+  private static class Columns {
+
+    /** The mapped snapshot. */
+    private final MappedByteBuffer buffer;
+
+    /** The number of rows in each column. */
+    private final int rows;
+
+    /** The strings the string columns refer to. */
+    private final String[] dictionary;
+
+    /** The position of the next column. */
+    private int position;
+
+    private Columns(MappedByteBuffer buffer, int rows, String[] dictionary) {
+      this.buffer = buffer;
+      this.rows = rows;
+      this.dictionary = dictionary;
+      this.position = buffer.position();
+    }
+
+    /**
+     * This method returns the position of the next column.
+     *
+     * @param width The number of bytes each value of the column takes.
+     * @return the position of the column in the buffer.
+     */
+    private int next(int width) {
+      int start = position;
+      position += width * rows;
+      return start;
+    }
+
+    /**
+     * This method checks the columns end exactly at the end of the snapshot.
+     *
+     * @throws IllegalStateException If the snapshot is the wrong size.
+     */
+    private void checkEnd() throws IllegalStateException {
+      if (position != buffer.limit()) {
+        throw new IllegalStateException("Snapshot is the wrong size.");
+      }
+    }
+
+    /**
+     * This method returns a value of a string column.
+     *
+     * @param column The position of the column.
+     * @param row The index of the row.
+     * @return the string, or null if a null string was stored.
+     */
+    private String string(int column, int row) {
+      int code = buffer.getInt(column + 4 * row);
+      return code == NULL_STRING ? null : dictionary[code];
+    }
+  }
+}
@@ -3,6 +3,7 @@ package model.loader;
 import model.data.Airline;
 import model.data.DataType;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -17,7 +18,7 @@ import java.util.List;
 public class AirlineParser extends Parser {
 
   /** Variable name to represent line index */
-  private final int airlineID = 0,
+  private static final int airlineID = 0,
       name = 1,
       alias = 2,
       IATA = 3,
@@ -26,19 +27,91 @@ public class AirlineParser extends Parser {
       country = 6,
       activeStatus = 7;
 
+  private static final FieldRule NAME_RULE = FieldRule.text(name, "[a-zA-Z0-9 -.]", 3);
+  private static final FieldRule ALIAS_RULE =
+      FieldRule.text(alias, "[\\w ]", 4).length(0, Integer.MAX_VALUE).allow("\\N");
+  private static final FieldRule IATA_RULE =
+      FieldRule.text(IATA, "[A-Z0-9]", 5).length(2, 2).allow("", "-");
+  private static final FieldRule ICAO_RULE =
+      FieldRule.text(ICAO, "[A-Z0-9]", 6).length(3, 3).allow("\\N", "N/A", "");
+  private static final FieldRule CALLSIGN_RULE =
+      FieldRule.text(callsign, "[A-Za-z -]", 7).length(0, Integer.MAX_VALUE);
+  // ISO 3166-1 codes not implemented
+  private static final FieldRule COUNTRY_RULE =
+      FieldRule.text(country, "[a-zA-Z ]", 8).length(0, Integer.MAX_VALUE).allow("\\N");
+  private static final FieldRule ACTIVE_RULE =
+      FieldRule.text(activeStatus, "[YN]", 9).length(1, 1);
+
+  /** The layout of a line of airline data, with the rules checked after the airline ID. */
+  private static final FieldSchema SCHEMA =
+      new FieldSchema(
+          8,
+          NAME_RULE,
+          ALIAS_RULE,
+          IATA_RULE,
+          ICAO_RULE,
+          CALLSIGN_RULE,
+          COUNTRY_RULE,
+          ACTIVE_RULE);
+
+  /** The IDs of the airlines in parserData, used to check for duplicate IDs. */
+  private final IntHashSet airlineIds = new IntHashSet();
+
+  /** The IDs of the airlines already in the file the lines are added to. Never changed here. */
+  private final IntHashSet existingIds;
+
   /**
    * This method initializes error collection and calls dataParser method to begin processing data.
    *
-   * @param dataFile ArrayList of a string for each line in the file.
+   * @param dataFile A string for each line in the file.
    */
-  public AirlineParser(List<String> dataFile, List<Airline> existingAirlines) {
-    super(dataFile, 11);
+  public AirlineParser(Iterable<? extends CharSequence> dataFile, List<Airline> existingAirlines) {
+    this(dataFile, existingAirlines, 1);
+  }
+
+  /**
+   * This method initializes error collection and calls dataParser method to begin processing data,
+   * checking the lines in parallel chunks.
+   *
+   * @param dataFile A string for each line in the file.
+   * @param parseChunks The number of chunks to check in parallel.
+   */
+  public AirlineParser(
+      Iterable<? extends CharSequence> dataFile, List<Airline> existingAirlines, int parseChunks) {
+    super(dataFile, 11, parseChunks);
+    existingIds = new IntHashSet();
     for (Airline airline : existingAirlines) {
       addAirLine(airline.getAirlineID(), airline);
     }
     dataParser();
   }
 
+  /**
+   * This method initializes error collection and calls dataParser method to begin processing data
+   * added to an existing file. The lines are checked for duplicates against the IDs already in the
+   * file, but only the new airlines are added to parserData.
+   *
+   * @param dataFile A string for each line in the file.
+   * @param existingIds The IDs of the airlines already in the file.
+   */
+  public AirlineParser(Iterable<? extends CharSequence> dataFile, IntHashSet existingIds) {
+    super(dataFile, 11);
+    this.existingIds = existingIds;
+    dataParser();
+  }
+
+  /** Constructor of an empty AirlineParser used to check lines on a worker thread or a sample. */
+  AirlineParser() {
+    super(Collections.emptyList(), 11);
+    existingIds = new IntHashSet();
+  }
+
+  /** This method returns an empty AirlineParser to check lines on a worker thread. */
+  @Override
+  protected Parser newWorker() {
+    return new AirlineParser();
+  }
+
   /** This method initializes error lookup array with message for each error code. */
   @Override
   protected void initErrorLookup() {
@@ -61,14 +134,7 @@ public class AirlineParser extends Parser {
    */
   @Override
   public void dataParser() {
-    for (String dataLine : dataFile) {
-      if (totalErrors > 200) {
-        totalErrors = 0;
-        throw new RuntimeException(
-            "File rejected: more than 200 lines contain errors.\n" + getErrorMessage(false));
-      }
-      parseLine(dataLine);
-    }
+    parseLines();
     if (!getValidFile()) {
       if (totalErrors == 1) {
         throw new RuntimeException(
@@ -80,37 +146,50 @@ public class AirlineParser extends Parser {
     }
   }
 
+  /** This method returns the layout of a line of airline data. */
+  @Override
+  protected FieldSchema getSchema() {
+    return SCHEMA;
+  }
+
+  /** This method returns the error code for an airline which could not be created. */
+  @Override
+  protected int getUnknownErrorCode() {
+    return 10;
+  }
+
   /**
-   * This method splits the line into data segments, calls the validator method to check each
-   * segment, and then adds that line to parserData if it is valid.
+   * This method creates an airline object from a line of airline data.
    *
-   * @param dataLine line from file to split into segments.
+   * @param line A string for each field of the line.
+   * @return the airline created.
    */
-  protected void parseLine(String dataLine) {
-    dataLine = dataLine.replaceAll("[\"]", "");
-    String[] line = dataLine.split(",");
-
-    if (validater(line)) {
-      try {
-        boolean active = false;
-        if (line[activeStatus].matches("Y")) {
-          active = true;
-        }
-        Airline airline =
-            new Airline(
-                Integer.parseInt(line[airlineID]),
-                line[name],
-                line[alias],
-                line[IATA],
-                line[ICAO],
-                line[callsign],
-                line[country],
-                active);
-        addAirLine(airline.getAirlineID(), airline);
-      } catch (Exception e) {
-        errorCounter(10);
-      }
+  @Override
+  protected DataType buildEntry(String[] line) {
+    boolean active = false;
+    if (line[activeStatus].matches("Y")) {
+      active = true;
     }
+    return new Airline(
+        Integer.parseInt(line[airlineID]),
+        line[name],
+        line[alias],
+        line[IATA],
+        line[ICAO],
+        line[callsign],
+        line[country],
+        active);
+  }
+
+  /**
+   * This method adds an airline to parserData at the index of its airline ID.
+   *
+   * @param entry the airline to add.
+   */
+  @Override
+  protected void addEntry(DataType entry) {
+    Airline airline = (Airline) entry;
+    addAirLine(airline.getAirlineID(), airline);
   }
 
   /**
@@ -133,6 +212,7 @@ public class AirlineParser extends Parser {
     }
     if (parserData.get(airlineID) == null) {
       parserData.set(airlineID, airline);
+      airlineIds.add(airlineID);
     } else if (parserData.get(airlineID).equals(airline)) {
       errorCounter(1); // Have the same airline
     } else {
@@ -141,51 +221,26 @@ public class AirlineParser extends Parser {
   }
 
   /**
-   * This method checks that line has expected number of entries and calls isValid method to check
-   * that each token on the line matches the expected pattern.
+   * This method checks the airline ID is valid and not a duplicate of one already parsed.
    *
-   * @param line A string made up of comma-separated tokens representing data about a route
-   * @return True if all tokens are valid, false otherwise
+   * @param line A string for each field of the line.
+   * @return True if the ID is valid, false otherwise
    */
   @Override
-  protected boolean validater(String[] line) {
-    if (line.length != 8) {
-      errorCounter(0);
-      return false;
-    }
-
-    if (!isIdValid(line[airlineID])) {
-      return false;
-    }
-
-    if (!isNameValid(line[name])) {
-      return false;
-    }
-
-    if (!isAliasValid(line[alias])) {
-      return false;
-    }
-
-    if (!isIATAValid(line[IATA])) {
-      return false;
-    }
-
-    if (!isICAOValid(line[ICAO])) {
-      return false;
-    }
-
-    if (!isCallSignValid(line[callsign])) {
-      return false;
-    }
-
-    if (!isCountryValid(line[country])) {
-      return false;
-    }
+  protected boolean isKeyValid(String[] line) {
+    return isIdValid(line[airlineID]);
+  }
 
-    if (!isActiveStatusValid(line[activeStatus])) {
-      return false;
-    }
-    return true;
+  /**
+   * This method checks the airline ID of the line held by the tokenizer is not a duplicate of one
+   * already parsed, without creating a String for it.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @return true if the ID is valid, false otherwise.
+   */
+  @Override
+  protected boolean isKeyValid(CsvTokenizer fields) {
+    return isIdValid(fields.view(airlineID));
   }
 
   /**
@@ -194,26 +249,17 @@ public class AirlineParser extends Parser {
    * @param airlineID airline id as a string.
    * @return true if valid, false if invalid.
    */
-  protected boolean isIdValid(String airlineID) {
+  protected boolean isIdValid(CharSequence airlineID) {
+    long parsed = FieldRule.parseInteger(airlineID);
+    if (parsed == FieldRule.NOT_AN_INTEGER) {
+      errorCounter(2);
+      return false;
+    }
+    int id = (int) parsed;
 
     // airline ID Duplication and Negative check
-    try {
-      if (Integer.parseInt(airlineID) <= 0) {
-        errorCounter(1);
-        return false;
-      }
-      for (DataType data : parserData) {
-        if (data == null) {
-          continue;
-        }
-        Airline airline = (Airline) data;
-        if (airline.getAirlineID() == Integer.parseInt(airlineID)) {
-          errorCounter(1);
-          return false;
-        }
-      }
-    } catch (Exception e) {
-      errorCounter(2);
+    if (id <= 0 || airlineIds.contains(id) || existingIds.contains(id)) {
+      errorCounter(1);
       return false;
     }
     return true;
@@ -226,11 +272,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isNameValid(String name) {
-    if (!name.matches("[a-zA-Z0-9 -.]+")) {
-      errorCounter(3);
-      return false;
-    }
-    return true;
+    return isFieldValid(NAME_RULE, name);
   }
 
   /**
@@ -240,11 +282,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isAliasValid(String alias) {
-    if (!alias.matches("(\\\\N)|([\\w ]+)|(^$)")) {
-      errorCounter(4);
-      return false;
-    }
-    return true;
+    return isFieldValid(ALIAS_RULE, alias);
   }
 
   /**
@@ -254,15 +292,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isIATAValid(String IATA) {
-
-    // airline IATA check
-    if (!IATA.equalsIgnoreCase("")) {
-      if (!IATA.matches("-|([A-Z0-9]{2})")) {
-        errorCounter(5);
-        return false;
-      }
-    }
-    return true;
+    return isFieldValid(IATA_RULE, IATA);
   }
 
   /**
@@ -272,13 +302,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isICAOValid(String ICAO) {
-
-    if (!ICAO.matches("(\\\\N)|(N/A)|([A-Z0-9]{3})|(^$)")) {
-      errorCounter(6);
-      return false;
-    }
-
-    return true;
+    return isFieldValid(ICAO_RULE, ICAO);
   }
 
   /**
@@ -288,11 +312,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isCallSignValid(String callSign) {
-    if (!callSign.matches("([A-Za-z -]+)|(^$)")) {
-      errorCounter(7);
-      return false;
-    }
-    return true;
+    return isFieldValid(CALLSIGN_RULE, callSign);
   }
 
   /**
@@ -302,12 +322,7 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isCountryValid(String country) {
-    // ISO 3166-1 codes not implemented
-    if (!country.matches("(\\\\N)|([a-zA-Z ]+)|(^$)")) {
-      errorCounter(8);
-      return false;
-    }
-    return true;
+    return isFieldValid(COUNTRY_RULE, country);
   }
 
   /**
@@ -317,10 +332,6 @@ public class AirlineParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isActiveStatusValid(String activeStatus) {
-    if (!activeStatus.matches("[YN]")) {
-      errorCounter(9);
-      return false;
-    }
-    return true;
+    return isFieldValid(ACTIVE_RULE, activeStatus);
   }
 }
@@ -3,7 +3,7 @@ package model.loader;
 import model.data.Airport;
 import model.data.DataType;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -23,31 +23,113 @@ public class AirportParser extends Parser {
    * timezone 114: invalid unknown error 115: number of failed insertions 116: invalid alias 117:
    * invalid callsign 118: invalid activeStatus
    */
-  private final int airportID = 0;
-
-  private final int name = 1;
-  private final int city = 2;
-  private final int country = 3;
-  private final int IATA = 4;
-  private final int ICAO = 5;
-  private final int latitude = 6;
-  private final int longitude = 7;
-  private final int altitude = 8;
-  private final int timezone = 9;
-  private final int DST = 10;
-  private final int dataBaseTimeZone = 11;
+  private static final int airportID = 0;
+
+  private static final int name = 1;
+  private static final int city = 2;
+  private static final int country = 3;
+  private static final int IATA = 4;
+  private static final int ICAO = 5;
+  private static final int latitude = 6;
+  private static final int longitude = 7;
+  private static final int altitude = 8;
+  private static final int timezone = 9;
+  private static final int DST = 10;
+  private static final int dataBaseTimeZone = 11;
+
+  private static final FieldRule NAME_RULE = FieldRule.text(name, "[\\p{L}0-9 .,'()/-]", 3);
+  private static final FieldRule CITY_RULE = FieldRule.text(city, "[\\p{L}0-9 .,'()/-]", 4);
+  // ISO 3166-1 codes not implemented
+  private static final FieldRule COUNTRY_RULE = FieldRule.text(country, "[a-zA-Z .'()/-]", 5);
+  private static final FieldRule IATA_RULE =
+      FieldRule.text(IATA, "[a-zA-Z0-9]", 6).length(3, 3).allowIgnoringCase("null", "unknown", "");
+  private static final FieldRule ICAO_RULE =
+      FieldRule.text(ICAO, "[a-zA-Z0-9]", 7)
+          .length(4, 4)
+          .allowIgnoringCase("null", "unknown", "\\N", "");
+  private static final FieldRule LATITUDE_RULE = FieldRule.decimal(latitude, 8);
+  private static final FieldRule LONGITUDE_RULE = FieldRule.decimal(longitude, 9);
+  private static final FieldRule ALTITUDE_RULE = FieldRule.integer(altitude, 10);
+  private static final FieldRule TIMEZONE_RULE =
+      FieldRule.decimal(timezone, 11).range(-12, 14, FieldRule.REJECT);
+  private static final FieldRule DST_RULE = FieldRule.text(DST, "[EASOZNU]", 12).length(1, 1);
+  private static final FieldRule DBTZ_RULE =
+      FieldRule.text(dataBaseTimeZone, "[a-zA-Z-/a-zA-Z_]", 13).allowIgnoringCase("\\N");
+
+  /** The layout of a line of airport data, with the rules checked after the airport ID. */
+  private static final FieldSchema SCHEMA =
+      new FieldSchema(
+          12,
+          NAME_RULE,
+          CITY_RULE,
+          COUNTRY_RULE,
+          IATA_RULE,
+          ICAO_RULE,
+          LATITUDE_RULE,
+          LONGITUDE_RULE,
+          ALTITUDE_RULE,
+          TIMEZONE_RULE,
+          DST_RULE,
+          DBTZ_RULE);
+
+  /** The IDs of the airports in parserData, used to check for duplicate IDs. */
+  private final IntHashSet airportIds = new IntHashSet();
+
+  /** The IDs of the airports already in the file the lines are added to. Never changed here. */
+  private final IntHashSet existingIds;
 
   /**
    * The constructor of AirportParser, it will start dataParse method as well.
    *
-   * @param dataFile The list contains one line of datafile per element.
+   * @param dataFile Supplies one line of datafile per element.
    */
-  public AirportParser(ArrayList<String> dataFile, List<Airport> existingAirports) {
+  public AirportParser(Iterable<? extends CharSequence> dataFile, List<Airport> existingAirports) {
+    this(dataFile, existingAirports, 1);
+  }
+
+  /**
+   * The constructor of AirportParser which checks the lines in parallel chunks, it will start
+   * dataParse method as well.
+   *
+   * @param dataFile Supplies one line of datafile per element.
+   * @param parseChunks The number of chunks to check in parallel.
+   */
+  public AirportParser(
+      Iterable<? extends CharSequence> dataFile, List<Airport> existingAirports, int parseChunks) {
+    super(dataFile, 16, parseChunks);
+    existingIds = new IntHashSet();
+    for (Airport airport : existingAirports) {
+      addEntry(airport);
+    }
+    dataParser();
+  }
+
+  /**
+   * The constructor of AirportParser for lines added to an existing file, it will start dataParse
+   * method as well. The lines are checked for duplicates against the IDs already in the file, but
+   * only the new airports are added to parserData.
+   *
+   * @param dataFile Supplies one line of datafile per element.
+   * @param existingIds The IDs of the airports already in the file.
+   */
+  public AirportParser(Iterable<? extends CharSequence> dataFile, IntHashSet existingIds) {
     super(dataFile, 16);
-    parserData.addAll(existingAirports);
+    this.existingIds = existingIds;
     dataParser();
   }
 
+  /** Constructor of an empty AirportParser used to check lines on a worker thread or a sample. */
+  AirportParser() {
+    super(Collections.emptyList(), 16);
+    existingIds = new IntHashSet();
+  }
+
+  /** This method returns an empty AirportParser to check lines on a worker thread. */
+  @Override
+  protected Parser newWorker() {
+    return new AirportParser();
+  }
+
   /** This method initializes the error messages for each error code */
   @Override
   protected void initErrorLookup() {
@@ -76,14 +158,7 @@ public class AirportParser extends Parser {
    */
   @Override
   protected void dataParser() {
-    for (String dataLine : dataFile) {
-      if (totalErrors > 200) {
-        totalErrors = 0;
-        throw new RuntimeException(
-            "File rejected: more than 200 lines contain errors.\n" + getErrorMessage(false));
-      }
-      parseLine(dataLine);
-    }
+    parseLines();
     if (!getValidFile()) {
       if (totalErrors == 1) {
         throw new RuntimeException(
@@ -95,94 +170,73 @@ public class AirportParser extends Parser {
     }
   }
 
+  /** This method returns the layout of a line of airport data. */
+  @Override
+  protected FieldSchema getSchema() {
+    return SCHEMA;
+  }
+
+  /** This method returns the error code for an airport which could not be created. */
+  @Override
+  protected int getUnknownErrorCode() {
+    return 14;
+  }
+
   /**
-   * This method is a data parser to convert airport data from list into airport objects and add to
-   * HashSet. It will also call validater to verify each airport data.
+   * This method checks the airport ID is not a duplicate of one already parsed.
    *
-   * @param dataLine line from file to split into segments.
+   * @param line String list contains 12 data for airport attributes.
+   * @return true if the ID is valid, false otherwise.
    */
-  protected void parseLine(String dataLine) {
-    String[] line = dataLine.replaceAll("\"", "").split(",");
-    if (validater(line)) {
-      try {
-        Airport airport =
-            new Airport(
-                Integer.parseInt(line[airportID]),
-                line[name],
-                line[city],
-                line[country],
-                line[IATA],
-                line[ICAO],
-                Double.parseDouble(line[latitude]),
-                Double.parseDouble(line[longitude]),
-                Integer.parseInt(line[altitude]),
-                Float.parseFloat(line[timezone]),
-                line[DST],
-                line[dataBaseTimeZone]);
-        parserData.add(airport);
-      } catch (Exception e) {
-        errorCounter(14);
-      }
-    }
+  @Override
+  protected boolean isKeyValid(String[] line) {
+    return isIdValid(line[airportID]);
   }
 
   /**
-   * This method Validates the data in one line is valid or not.
+   * This method checks the airport ID of the line held by the tokenizer is not a duplicate of one
+   * already parsed, without creating a String for it.
    *
-   * @param line String list contains 11 data for airport attributes.
-   * @return true if the data line is valid, false if the data line is not expected.
+   * @param fields the tokenizer holding the fields of the line.
+   * @return true if the ID is valid, false otherwise.
    */
   @Override
-  protected boolean validater(String[] line) {
-    if (line.length != 12) {
-      errorCounter(0);
-      return false;
-    }
-
-    if (!isIdValid(line[airportID])) {
-      return false;
-    }
-    if (!isNameValid(line[name])) {
-      return false;
-    }
-
-    if (!isCityValid(line[city])) {
-      return false;
-    }
-
-    if (!isCountryValid(line[country])) {
-      return false;
-    }
-
-    if (!isIATAValid(line[IATA])) {
-      return false;
-    }
-
-    if (!isICAOValid(line[ICAO])) {
-      return false;
-    }
-
-    if (!isLatValid(line[latitude])) {
-      return false;
-    }
-
-    if (!isLonValid(line[longitude])) {
-      return false;
-    }
-
-    if (!isAltValid(line[altitude])) {
-      return false;
-    }
-
-    if (!isTZValid(line[timezone])) {
-      return false;
-    }
+  protected boolean isKeyValid(CsvTokenizer fields) {
+    return isIdValid(fields.view(airportID));
+  }
 
-    if (!isDSTValid(line[DST])) {
-      return false;
-    }
+  /**
+   * This method creates an airport object from a line of airport data.
+   *
+   * @param line String list contains 12 data for airport attributes.
+   * @return the airport created.
+   */
+  @Override
+  protected DataType buildEntry(String[] line) {
+    return new Airport(
+        Integer.parseInt(line[airportID]),
+        line[name],
+        line[city],
+        line[country],
+        line[IATA],
+        line[ICAO],
+        Double.parseDouble(line[latitude]),
+        Double.parseDouble(line[longitude]),
+        Integer.parseInt(line[altitude]),
+        Float.parseFloat(line[timezone]),
+        line[DST],
+        line[dataBaseTimeZone]);
+  }
 
-    return isDBTZValid(line[dataBaseTimeZone]);
+  /**
+   * This method adds an airport to parserData.
+   *
+   * @param entry the airport to add.
+   */
+  @Override
+  protected void addEntry(DataType entry) {
+    parserData.add(entry);
+    airportIds.add(((Airport) entry).getAirportID());
   }
 
   /**
@@ -191,20 +245,18 @@ public class AirportParser extends Parser {
    * @param id airport id as a string.
    * @return true if valid, false if invalid.
    */
-  protected boolean isIdValid(String id) {
-    for (DataType data : parserData) {
-      try {
-        Airport airport = (Airport) data;
-        if (airport.getAirportID() == Integer.parseInt(id)) {
-          errorCounter(1);
-          return false;
-        }
-      } catch (Exception e) {
-        errorCounter(2);
-        return false;
-      }
+  protected boolean isIdValid(CharSequence id) {
+    long parsed = FieldRule.parseInteger(id);
+    if (parsed == FieldRule.NOT_AN_INTEGER) {
+      errorCounter(2);
+      return false;
     }
-    return Integer.parseInt(id) >= 0;
+    int airportId = (int) parsed;
+    if (airportIds.contains(airportId) || existingIds.contains(airportId)) {
+      errorCounter(1);
+      return false;
+    }
+    return airportId >= 0;
   }
 
   /**
@@ -214,11 +266,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isNameValid(String name) {
-    if (!name.matches("[\\p{L}0-9 .'()/-]+")) {
-      errorCounter(3);
-      return false;
-    }
-    return true;
+    return isFieldValid(NAME_RULE, name);
   }
 
   /**
@@ -228,11 +276,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isCityValid(String city) {
-    if (!city.matches("[\\p{L}0-9 .'()/-]+")) {
-      errorCounter(4);
-      return false;
-    }
-    return true;
+    return isFieldValid(CITY_RULE, city);
   }
 
   /**
@@ -242,12 +286,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isCountryValid(String country) {
-    // ISO 3166-1 codes not implemented
-    if (!country.matches("[a-zA-Z .'()/-]+")) {
-      errorCounter(5);
-      return false;
-    }
-    return true;
+    return isFieldValid(COUNTRY_RULE, country);
   }
 
   /**
@@ -257,15 +296,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isIATAValid(String IATA) {
-    if (!IATA.equalsIgnoreCase("null")
-        && !IATA.equalsIgnoreCase("unknown")
-        && !IATA.equalsIgnoreCase("")) {
-      if (!IATA.matches("[a-zA-Z0-9]+") || IATA.length() != 3) {
-        errorCounter(6);
-        return false;
-      }
-    }
-    return true;
+    return isFieldValid(IATA_RULE, IATA);
   }
 
   /**
@@ -275,16 +306,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isICAOValid(String ICAO) {
-    if (!ICAO.equalsIgnoreCase("null")
-        && !ICAO.equalsIgnoreCase("unknown")
-        && !ICAO.equalsIgnoreCase("\\N")
-        && !ICAO.equalsIgnoreCase("")) {
-      if (!ICAO.matches("[a-zA-Z0-9]+") || ICAO.length() != 4) {
-        errorCounter(7);
-        return false;
-      }
-    }
-    return true;
+    return isFieldValid(ICAO_RULE, ICAO);
   }
 
   /**
@@ -294,13 +316,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isLatValid(String lat) {
-    try {
-      Float.parseFloat(lat);
-      return true;
-    } catch (Exception e) {
-      errorCounter(8);
-      return false;
-    }
+    return isFieldValid(LATITUDE_RULE, lat);
   }
 
   /**
@@ -310,13 +326,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isLonValid(String lon) {
-    try {
-      Float.parseFloat(lon);
-      return true;
-    } catch (Exception e) {
-      errorCounter(9);
-      return false;
-    }
+    return isFieldValid(LONGITUDE_RULE, lon);
   }
 
   /**
@@ -326,13 +336,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isAltValid(String alt) {
-    try {
-      Integer.parseInt(alt);
-      return true;
-    } catch (Exception e) {
-      errorCounter(10);
-      return false;
-    }
+    return isFieldValid(ALTITUDE_RULE, alt);
   }
 
   /**
@@ -342,12 +346,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isTZValid(String timeZone) {
-    try {
-      return -12 <= Float.parseFloat(timeZone) && Float.parseFloat(timeZone) <= 14;
-    } catch (Exception e) {
-      errorCounter(11);
-      return false;
-    }
+    return isFieldValid(TIMEZONE_RULE, timeZone);
   }
 
   /**
@@ -357,12 +356,7 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isDSTValid(String DST) {
-    if (DST.matches("[EASOZNU]+") && DST.length() == 1) {
-      return true;
-    } else {
-      errorCounter(12);
-      return false;
-    }
+    return isFieldValid(DST_RULE, DST);
   }
 
   /**
@@ -372,12 +366,6 @@ public class AirportParser extends Parser {
    * @return true if valid, false if invalid.
    */
   protected boolean isDBTZValid(String DBTZ) {
-    if (!DBTZ.equalsIgnoreCase("\\N")) {
-      if (!DBTZ.matches("[a-zA-Z-/a-zA-Z_]+")) {
-        errorCounter(13);
-        return false;
-      }
-    }
-    return true;
+    return isFieldValid(DBTZ_RULE, DBTZ);
   }
 }
@@ -0,0 +1,258 @@
+package model.loader;
+
+/**
+ * Class to split a line of a data file into its fields. The characters of each field are copied
+ * into a buffer which is reused for every line, and the start and end of each field in the buffer
+ * are recorded, so a line can be checked without creating a String per field. A field may be
+ * wrapped in double quotes, in which case it can contain the delimiter, and two double quotes in a
+ * row inside quotes stand for a single double quote. Quote characters themselves are never part of
+ * a field.
+ *
+ * <p>Like String.split, empty fields at the end of a line are dropped, and an empty line has a
+ * single empty field.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class CsvTokenizer {
+
+  /** The character separating fields. */
+  private final char delimiter;
+
+  /** Whether double quotes are treated as quoting fields. */
+  private final boolean quoted;
+
+  /** The characters of every field of the current line, one after another. */
+  private char[] buffer = new char[256];
+
+  /** The index in the buffer each field starts at. */
+  private int[] starts = new int[16];
+
+  /** The index in the buffer each field ends at, exclusive. */
+  private int[] ends = new int[16];
+
+  /** The number of fields in the current line. */
+  private int count = 0;
+
+  /** Views of the fields of the current line, created the first time each field is viewed. */
+  private FieldView[] views = new FieldView[16];
+
+  /** Constructor of a CsvTokenizer which splits on commas and handles quoted fields. */
+  public CsvTokenizer() {
+    this(',', true);
+  }
+
+  /**
+   * Constructor of a CsvTokenizer which splits on the given delimiter.
+   *
+   * @param delimiter The character separating fields.
+   * @param quoted Whether double quotes are treated as quoting fields.
+   */
+  public CsvTokenizer(char delimiter, boolean quoted) {
+    this.delimiter = delimiter;
+    this.quoted = quoted;
+  }
+
+  /**
+   * This method splits a line into its fields, replacing the fields of the previous line.
+   *
+   * @param line The line to split.
+   * @return the number of fields in the line.
+   */
+  public int tokenize(CharSequence line) {
+    int length = line.length();
+    if (buffer.length < length) {
+      buffer = new char[Math.max(length, buffer.length * 2)];
+    }
+    count = 0;
+    int position = 0;
+    int fieldStart = 0;
+    boolean inQuotes = false;
+    for (int i = 0; i < length; i++) {
+      char c = line.charAt(i);
+      if (quoted && c == '"') {
+        if (inQuotes && i + 1 < length && line.charAt(i + 1) == '"') {
+          buffer[position++] = '"';
+          i++;
+        } else {
+          inQuotes = !inQuotes;
+        }
+      } else if (c == delimiter && !inQuotes) {
+        addField(fieldStart, position);
+        fieldStart = position;
+      } else {
+        buffer[position++] = c;
+      }
+    }
+    addField(fieldStart, position);
+    if (length > 0) {
+      while (count > 0 && starts[count - 1] == ends[count - 1]) {
+        count--;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * This method records the position of a field in the buffer.
+   *
+   * @param start The index the field starts at.
+   * @param end The index the field ends at, exclusive.
+   */
+  private void addField(int start, int end) {
+    if (count == starts.length) {
+      int[] newStarts = new int[count * 2];
+      int[] newEnds = new int[count * 2];
+      System.arraycopy(starts, 0, newStarts, 0, count);
+      System.arraycopy(ends, 0, newEnds, 0, count);
+      starts = newStarts;
+      ends = newEnds;
+    }
+    starts[count] = start;
+    ends[count] = end;
+    count++;
+  }
+
+  /**
+   * This method returns the number of fields in the current line.
+   *
+   * @return the number of fields.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * This method returns the buffer holding the characters of the fields of the current line. The
+   * buffer is overwritten by the next call to tokenize.
+   *
+   * @return the field buffer.
+   */
+  public char[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * This method returns the index in the buffer a field starts at.
+   *
+   * @param field The index of the field.
+   * @return the start of the field.
+   */
+  public int start(int field) {
+    checkField(field);
+    return starts[field];
+  }
+
+  /**
+   * This method returns the index in the buffer a field ends at.
+   *
+   * @param field The index of the field.
+   * @return the end of the field, exclusive.
+   */
+  public int end(int field) {
+    checkField(field);
+    return ends[field];
+  }
+
+  /**
+   * This method returns the number of characters in a field.
+   *
+   * @param field The index of the field.
+   * @return the length of the field.
+   */
+  public int length(int field) {
+    checkField(field);
+    return ends[field] - starts[field];
+  }
+
+  /**
+   * This method returns a view of a field which reads its characters straight from the buffer, so
+   * the field can be checked without creating a String. The same view is returned for a field
+   * index every time, and it shows that field of whichever line was tokenized last.
+   *
+   * @param field The index of the field.
+   * @return the field as a CharSequence backed by the buffer.
+   */
+  public CharSequence view(int field) {
+    checkField(field);
+    if (field >= views.length) {
+      FieldView[] newViews = new FieldView[Math.max(field + 1, views.length * 2)];
+      System.arraycopy(views, 0, newViews, 0, views.length);
+      views = newViews;
+    }
+    if (views[field] == null) {
+      views[field] = new FieldView(field);
+    }
+    return views[field];
+  }
+
+  /**
+   * This method creates a String holding a field.
+   *
+   * @param field The index of the field.
+   * @return the field as a String.
+   */
+  public String field(int field) {
+    checkField(field);
+    return new String(buffer, starts[field], ends[field] - starts[field]);
+  }
+
+  /**
+   * This method creates an array holding every field of the current line as a String.
+   *
+   * @return the fields of the line.
+   */
+  public String[] toArray() {
+    String[] fields = new String[count];
+    for (int i = 0; i < count; i++) {
+      fields[i] = new String(buffer, starts[i], ends[i] - starts[i]);
+    }
+    return fields;
+  }
+
+  /**
+   * This method checks a field index is within the current line.
+   *
+   * @param field The index of the field.
+   * @throws IndexOutOfBoundsException If there is no field at that index.
+   */
+  private void checkField(int field) throws IndexOutOfBoundsException {
+    if (field < 0 || field >= count) {
+      throw new IndexOutOfBoundsException("Field " + field + " of " + count);
+    }
+  }
+
+  /** A field of the current line, read from the buffer without copying it. */
+  private class FieldView implements CharSequence {
+
+    /** The index of the field this view shows. */
+    private final int field;
+
+    private FieldView(int field) {
+      this.field = field;
+    }
+
+    @Override
+    public int length() {
+      return ends[field] - starts[field];
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException("Index " + index + " of " + length());
+      }
+      return buffer[starts[field] + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return new String(buffer, starts[field], length());
+    }
+  }
+}
@@ -0,0 +1,396 @@
+package model.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A rule which one column of a data file must follow, along with the error code counted when a
+ * field breaks it. Text rules give the characters allowed in the field as a regex character class,
+ * which is compiled once into a lookup table so each field is checked with a single pass over its
+ * characters. Rules may also allow some exact values regardless of their characters, and bound the
+ * length or numeric value of the field.
+ *
+ * <p>Rules are built once, with the methods returning the rule so the options can be chained, and
+ * can then be shared by any number of parsers.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FieldRule {
+
+  /** Returned by check when a field is valid. */
+  public static final int VALID = -1;
+
+  /** Returned by check when a field is invalid but no error should be counted for it. */
+  public static final int REJECT = -2;
+
+  /** Returned by parseInteger when a field is not a decimal integer. */
+  public static final long NOT_AN_INTEGER = Long.MIN_VALUE;
+
+  /** The kinds of value a field can hold. */
+  public enum Type {
+    /** Characters from the rule's character class. */
+    TEXT,
+    /** A decimal integer. */
+    INTEGER,
+    /** A floating point number. */
+    DECIMAL
+  }
+
+  /** The index of the column this rule checks. */
+  private final int column;
+
+  /** The kind of value the field holds. */
+  private final Type type;
+
+  /** The error code counted when a field breaks this rule. */
+  private final int errorCode;
+
+  /** The character class as a single character regex, used for characters outside ASCII. */
+  private final Pattern charClass;
+
+  /** Whether each ASCII character is in the character class. */
+  private final boolean[] asciiChars = new boolean[128];
+
+  /** Values which are always valid, compared exactly. */
+  private final List<String> allowed = new ArrayList<>();
+
+  /** Values which are always valid, compared ignoring case. */
+  private final List<String> allowedIgnoringCase = new ArrayList<>();
+
+  /** The fewest characters a text field may have. */
+  private int minLength = 1;
+
+  /** The most characters a text field may have. */
+  private int maxLength = Integer.MAX_VALUE;
+
+  /** The character separating items of a list field, or 0 if the field is not a list. */
+  private char separator = 0;
+
+  /** The smallest value a decimal field may have. */
+  private double minValue = Double.NEGATIVE_INFINITY;
+
+  /** The largest value a decimal field may have. */
+  private double maxValue = Double.POSITIVE_INFINITY;
+
+  /** The error code counted when a decimal field is out of range. */
+  private int rangeErrorCode;
+
+  /**
+   * Constructor of FieldRule.
+   *
+   * @param column The index of the column this rule checks.
+   * @param type The kind of value the field holds.
+   * @param charClass The characters allowed in a text field as a regex class, or null.
+   * @param errorCode The error code counted when a field breaks this rule.
+   */
+  private FieldRule(int column, Type type, String charClass, int errorCode) {
+    this.column = column;
+    this.type = type;
+    this.errorCode = errorCode;
+    this.rangeErrorCode = errorCode;
+    if (charClass == null) {
+      this.charClass = null;
+    } else {
+      this.charClass = Pattern.compile(charClass);
+      for (char c = 0; c < asciiChars.length; c++) {
+        asciiChars[c] = this.charClass.matcher(String.valueOf(c)).matches();
+      }
+    }
+  }
+
+  /**
+   * This method creates a rule for a text field made of the given characters. By default the field
+   * must have at least one character.
+   *
+   * @param column The index of the column this rule checks.
+   * @param charClass The characters allowed, as a regex character class such as "[A-Z0-9]".
+   * @param errorCode The error code counted when a field breaks this rule.
+   * @return the new rule.
+   */
+  public static FieldRule text(int column, String charClass, int errorCode) {
+    return new FieldRule(column, Type.TEXT, charClass, errorCode);
+  }
+
+  /**
+   * This method creates a rule for a field holding a decimal integer.
+   *
+   * @param column The index of the column this rule checks.
+   * @param errorCode The error code counted when a field breaks this rule.
+   * @return the new rule.
+   */
+  public static FieldRule integer(int column, int errorCode) {
+    return new FieldRule(column, Type.INTEGER, null, errorCode);
+  }
+
+  /**
+   * This method creates a rule for a field holding a floating point number.
+   *
+   * @param column The index of the column this rule checks.
+   * @param errorCode The error code counted when a field breaks this rule.
+   * @return the new rule.
+   */
+  public static FieldRule decimal(int column, int errorCode) {
+    return new FieldRule(column, Type.DECIMAL, null, errorCode);
+  }
+
+  /**
+   * This method sets the number of characters a text field may have.
+   *
+   * @param minLength The fewest characters, 0 to allow an empty field.
+   * @param maxLength The most characters.
+   * @return this rule.
+   */
+  public FieldRule length(int minLength, int maxLength) {
+    this.minLength = minLength;
+    this.maxLength = maxLength;
+    return this;
+  }
+
+  /**
+   * This method adds values which are always valid, compared exactly.
+   *
+   * @param values The values to allow.
+   * @return this rule.
+   */
+  public FieldRule allow(String... values) {
+    allowed.addAll(List.of(values));
+    return this;
+  }
+
+  /**
+   * This method adds values which are always valid, compared ignoring case.
+   *
+   * @param values The values to allow.
+   * @return this rule.
+   */
+  public FieldRule allowIgnoringCase(String... values) {
+    allowedIgnoringCase.addAll(List.of(values));
+    return this;
+  }
+
+  /**
+   * This method makes a text field a list of items separated by the given character, where each
+   * item must follow the character class and length of this rule. Separators at the end of the
+   * field are ignored, as String.split does.
+   *
+   * @param separator The character between items.
+   * @return this rule.
+   */
+  public FieldRule separatedBy(char separator) {
+    this.separator = separator;
+    return this;
+  }
+
+  /**
+   * This method sets the range a decimal field must be in.
+   *
+   * @param minValue The smallest value allowed.
+   * @param maxValue The largest value allowed.
+   * @param rangeErrorCode The error code counted for a value out of range, or REJECT to reject the
+   *     field without counting an error.
+   * @return this rule.
+   */
+  public FieldRule range(double minValue, double maxValue, int rangeErrorCode) {
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+    this.rangeErrorCode = rangeErrorCode;
+    return this;
+  }
+
+  /**
+   * This method returns the index of the column this rule checks.
+   *
+   * @return the column index.
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * This method returns the error code counted when a field breaks this rule.
+   *
+   * @return the error code.
+   */
+  public int getErrorCode() {
+    return errorCode;
+  }
+
+  /**
+   * This method checks a field against this rule.
+   *
+   * @param value The field to check.
+   * @return VALID if the field follows the rule, otherwise the error code to count or REJECT.
+   */
+  public int check(CharSequence value) {
+    if (isAllowedValue(value)) {
+      return VALID;
+    }
+    switch (type) {
+      case INTEGER:
+        return parseInteger(value) != NOT_AN_INTEGER ? VALID : errorCode;
+      case DECIMAL:
+        float number;
+        try {
+          number = Float.parseFloat(value.toString());
+        } catch (NumberFormatException e) {
+          return errorCode;
+        }
+        return minValue <= number && number <= maxValue ? VALID : rangeErrorCode;
+      default:
+        return isTextValid(value) ? VALID : errorCode;
+    }
+  }
+
+  /**
+   * This method checks if a field follows this rule.
+   *
+   * @param value The field to check.
+   * @return true if the field is valid, false otherwise.
+   */
+  public boolean isValid(CharSequence value) {
+    return check(value) == VALID;
+  }
+
+  /**
+   * This method checks if a field is one of the values which are always valid.
+   *
+   * @param value The field to check.
+   * @return true if the value is allowed, false otherwise.
+   */
+  private boolean isAllowedValue(CharSequence value) {
+    for (String text : allowed) {
+      if (text.contentEquals(value)) {
+        return true;
+      }
+    }
+    for (String text : allowedIgnoringCase) {
+      if (equalsIgnoreCase(text, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * This method compares a value to a field ignoring case, in the same way as
+   * String.equalsIgnoreCase, without creating a String from the field.
+   *
+   * @param text The value to compare.
+   * @param value The field to compare.
+   * @return true if they are equal ignoring case, false otherwise.
+   */
+  private static boolean equalsIgnoreCase(String text, CharSequence value) {
+    if (text.length() != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      char a = text.charAt(i);
+      char b = value.charAt(i);
+      if (a != b) {
+        char upperA = Character.toUpperCase(a);
+        char upperB = Character.toUpperCase(b);
+        if (upperA != upperB
+            && Character.toLowerCase(upperA) != Character.toLowerCase(upperB)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This method parses a field as a decimal integer, accepting the same values as
+   * Integer.parseInt, but returning NOT_AN_INTEGER instead of throwing an exception so invalid
+   * fields can be rejected without creating any objects.
+   *
+   * @param value The field to parse.
+   * @return the value of the field, or NOT_AN_INTEGER if it is not an int.
+   */
+  public static long parseInteger(CharSequence value) {
+    int length = value.length();
+    if (length == 0) {
+      return NOT_AN_INTEGER;
+    }
+    int i = 0;
+    boolean negative = false;
+    char first = value.charAt(0);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      if (length == 1) {
+        return NOT_AN_INTEGER;
+      }
+      i = 1;
+    }
+    long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+    long result = 0;
+    for (; i < length; i++) {
+      int digit = Character.digit(value.charAt(i), 10);
+      if (digit < 0) {
+        return NOT_AN_INTEGER;
+      }
+      result = result * 10 + digit;
+      if (result > limit) {
+        return NOT_AN_INTEGER;
+      }
+    }
+    return negative ? -result : result;
+  }
+
+  /**
+   * This method checks the characters and length of a text field, or of each item of a list field.
+   *
+   * @param value The field to check.
+   * @return true if the field is valid, false otherwise.
+   */
+  private boolean isTextValid(CharSequence value) {
+    if (separator == 0 || value.length() == 0) {
+      return isItemValid(value, 0, value.length());
+    }
+    int end = value.length();
+    while (end > 0 && value.charAt(end - 1) == separator) {
+      end--;
+    }
+    int start = 0;
+    for (int i = 0; i < end; i++) {
+      if (value.charAt(i) == separator) {
+        if (!isItemValid(value, start, i)) {
+          return false;
+        }
+        start = i + 1;
+      }
+    }
+    return end == 0 || isItemValid(value, start, end);
+  }
+
+  /**
+   * This method checks the length and characters of part of a field.
+   *
+   * @param value The field to check.
+   * @param start The index of the first character to check.
+   * @param end The index after the last character to check.
+   * @return true if the characters are valid, false otherwise.
+   */
+  private boolean isItemValid(CharSequence value, int start, int end) {
+    int length = end - start;
+    if (length < minLength || length > maxLength) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      char c = value.charAt(i);
+      if (c < asciiChars.length) {
+        if (!asciiChars[c]) {
+          return false;
+        }
+      } else {
+        int codePoint = Character.codePointAt(value, i);
+        if (!charClass.matcher(new String(Character.toChars(codePoint))).matches()) {
+          return false;
+        }
+        i += Character.charCount(codePoint) - 1;
+      }
+    }
+    return true;
+  }
+}
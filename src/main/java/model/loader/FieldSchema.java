@@ -0,0 +1,49 @@
+package model.loader;
+
+import java.util.List;
+
+/**
+ * The layout of one type of data file: the number of fields on each line and the rules the fields
+ * must follow, in the order they are checked. The first rule a line breaks decides the error code
+ * counted for that line.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FieldSchema {
+
+  /** The number of fields on each line. */
+  private final int fieldCount;
+
+  /** The rules checked for each line, in order. */
+  private final List<FieldRule> rules;
+
+  /**
+   * Constructor of FieldSchema.
+   *
+   * @param fieldCount The number of fields on each line.
+   * @param rules The rules checked for each line, in order.
+   */
+  public FieldSchema(int fieldCount, FieldRule... rules) {
+    this.fieldCount = fieldCount;
+    this.rules = List.of(rules);
+  }
+
+  /**
+   * This method returns the number of fields on each line.
+   *
+   * @return the field count.
+   */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * This method returns the rules checked for each line, in order.
+   *
+   * @return the rules.
+   */
+  public List<FieldRule> getRules() {
+    return rules;
+  }
+}
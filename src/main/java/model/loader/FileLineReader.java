@@ -0,0 +1,215 @@
+package model.loader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Class to stream the lines of a data file to a Parser one at a time. Lines are read through a
+ * buffered UTF-8 reader as the parser asks for them, so only the line currently being parsed is
+ * held in memory rather than the whole file. Files compressed with gzip or zip are decompressed as
+ * they are read.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FileLineReader implements Iterable<String>, Closeable {
+
+  /** Size of the read buffer in characters. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** The number of decompressed buffers which can be read ahead of the parser. */
+  private static final int READ_AHEAD_BLOCKS = 16;
+
+  /** The reader the lines are taken from. */
+  private final BufferedReader reader;
+
+  /** The number of bytes in the file being read, or -1 if unknown. */
+  private final long byteCount;
+
+  /** Whether the iterator has already been handed out. */
+  private boolean iterated = false;
+
+  /**
+   * Constructor which opens the file at the given path for reading.
+   *
+   * @param filePath Path of the file to read.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  public FileLineReader(String filePath) throws FileNotFoundException {
+    this(openStream(filePath), new File(filePath).length());
+  }
+
+  /**
+   * This method opens a file for reading. Files ending in .gz are decompressed with gzip and files
+   * ending in .zip must hold a single file, which is decompressed. Compressed files are decompressed
+   * on a separate thread as they are read, so the decompressed file is never written to disk.
+   *
+   * @param filePath Path of the file to open.
+   * @return a stream of the bytes of the file, decompressed if necessary.
+   * @throws FileNotFoundException If the file cannot be opened.
+   * @throws IllegalArgumentException If a zip file does not hold exactly one file.
+   * @throws UncheckedIOException If a compressed file is not in the expected format.
+   */
+  private static InputStream openStream(String filePath) throws FileNotFoundException {
+    String lowerPath = filePath.toLowerCase();
+    if (!lowerPath.endsWith(".gz") && !lowerPath.endsWith(".zip")) {
+      return new FileInputStream(filePath);
+    }
+    InputStream decompressed;
+    if (lowerPath.endsWith(".gz")) {
+      FileInputStream file = new FileInputStream(filePath);
+      try {
+        decompressed = new GZIPInputStream(file, BUFFER_SIZE);
+      } catch (IOException e) {
+        closeQuietly(file);
+        throw new UncheckedIOException(e);
+      }
+    } else {
+      checkSingleEntry(filePath);
+      ZipInputStream zip =
+          new ZipInputStream(new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE));
+      try {
+        ZipEntry entry = zip.getNextEntry();
+        while (entry != null && entry.isDirectory()) {
+          entry = zip.getNextEntry();
+        }
+      } catch (IOException e) {
+        closeQuietly(zip);
+        throw new UncheckedIOException(e);
+      }
+      decompressed = zip;
+    }
+    return new ReadAheadInputStream(decompressed, BUFFER_SIZE, READ_AHEAD_BLOCKS);
+  }
+
+  /**
+   * This method checks a zip file holds exactly one file, ignoring directories.
+   *
+   * @param filePath Path of the zip file.
+   * @throws FileNotFoundException If the file cannot be opened.
+   * @throws IllegalArgumentException If the zip file does not hold exactly one file.
+   */
+  private static void checkSingleEntry(String filePath) throws FileNotFoundException {
+    if (!new File(filePath).exists()) {
+      throw new FileNotFoundException(filePath);
+    }
+    int files = 0;
+    try (ZipFile zipFile = new ZipFile(filePath)) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        if (!entries.nextElement().isDirectory()) {
+          files++;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (files != 1) {
+      throw new IllegalArgumentException(
+          String.format("Zip file must hold a single data file, but holds %d files.", files));
+    }
+  }
+
+  /**
+   * This method closes a stream, ignoring any error.
+   *
+   * @param stream The stream to close.
+   */
+  private static void closeQuietly(InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  /**
+   * Constructor which reads lines from an already opened stream.
+   *
+   * @param inputStream The stream to read lines from, decoded as UTF-8.
+   * @param byteCount The number of bytes that will be read from the stream, or -1 if unknown.
+   */
+  public FileLineReader(InputStream inputStream, long byteCount) {
+    this.reader =
+        new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    this.byteCount = byteCount;
+  }
+
+  /**
+   * This method returns the number of bytes in the file being read.
+   *
+   * @return the size of the file in bytes, or -1 if unknown.
+   */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  /**
+   * This method returns an iterator which reads the next line from the file each time it is
+   * advanced. The lines can only be iterated over once.
+   *
+   * @return an iterator over the lines of the file.
+   */
+  @Override
+  public Iterator<String> iterator() {
+    if (iterated) {
+      throw new IllegalStateException("File lines can only be read once.");
+    }
+    iterated = true;
+    return new Iterator<String>() {
+      private String nextLine = readLine();
+
+      @Override
+      public boolean hasNext() {
+        return nextLine != null;
+      }
+
+      @Override
+      public String next() {
+        if (nextLine == null) {
+          throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = readLine();
+        return line;
+      }
+    };
+  }
+
+  /**
+   * This method reads a single line from the file.
+   *
+   * @return the line read, or null at the end of the file.
+   */
+  private String readLine() {
+    try {
+      return reader.readLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** This method closes the underlying file. */
+  @Override
+  public void close() {
+    try {
+      reader.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
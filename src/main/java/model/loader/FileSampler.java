@@ -0,0 +1,154 @@
+package model.loader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Class to take a quick sample of the lines of a data file before it is parsed. Blocks are read
+ * from the start, middle and end of the file, so a file of the wrong type can be recognised in
+ * milliseconds whatever its size. Compressed files cannot be read from the middle, so only the
+ * start of a compressed file is sampled.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FileSampler {
+
+  /** The number of bytes in each block sampled. */
+  static final int BLOCK_SIZE = 1 << 14;
+
+  /** The complete lines sampled from the file, without blank lines. */
+  private final List<String> lines = new ArrayList<>();
+
+  /** Whether the sample holds every line of the file. */
+  private boolean complete;
+
+  /**
+   * Constructor which samples the file at the given path.
+   *
+   * @param filePath Path of the file to sample.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  public FileSampler(String filePath) throws FileNotFoundException {
+    String lowerPath = filePath.toLowerCase();
+    if (lowerPath.endsWith(".gz") || lowerPath.endsWith(".zip")) {
+      sampleStart(filePath);
+    } else {
+      sampleBlocks(filePath);
+    }
+  }
+
+  /**
+   * This method samples the first lines of a compressed file, as they are decompressed.
+   *
+   * @param filePath Path of the file to sample.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  private void sampleStart(String filePath) throws FileNotFoundException {
+    long characters = 0;
+    try (FileLineReader reader = new FileLineReader(filePath)) {
+      Iterator<String> fileLines = reader.iterator();
+      while (fileLines.hasNext() && characters < 3L * BLOCK_SIZE) {
+        String line = fileLines.next();
+        characters += line.length() + 1;
+        addLine(line);
+      }
+      complete = !fileLines.hasNext();
+    }
+  }
+
+  /**
+   * This method samples a block from the start, middle and end of an uncompressed file. A file no
+   * bigger than the three blocks is sampled whole.
+   *
+   * @param filePath Path of the file to sample.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  private void sampleBlocks(String filePath) throws FileNotFoundException {
+    try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+      long size = file.length();
+      complete = size <= 3L * BLOCK_SIZE;
+      if (complete) {
+        addLines(readBlock(file, 0, (int) size), false, false);
+      } else {
+        addLines(readBlock(file, 0, BLOCK_SIZE), false, true);
+        addLines(readBlock(file, size / 2 - BLOCK_SIZE / 2, BLOCK_SIZE), true, true);
+        addLines(readBlock(file, size - BLOCK_SIZE, BLOCK_SIZE), true, false);
+      }
+    } catch (FileNotFoundException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * This method reads a block of a file as UTF-8 text.
+   *
+   * @param file The file to read.
+   * @param start The position of the block in the file.
+   * @param length The number of bytes in the block.
+   * @return the text of the block.
+   * @throws IOException If the file cannot be read.
+   */
+  private static String readBlock(RandomAccessFile file, long start, int length)
+      throws IOException {
+    byte[] bytes = new byte[length];
+    file.seek(start);
+    file.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * This method adds the lines of a block to the sample, leaving out lines cut by the ends of the
+   * block.
+   *
+   * @param block The text of the block.
+   * @param cutAtStart Whether the block may start part way through a line.
+   * @param cutAtEnd Whether the block may end part way through a line.
+   */
+  private void addLines(String block, boolean cutAtStart, boolean cutAtEnd) {
+    String[] blockLines = block.split("\r\n|\r|\n", -1);
+    int first = cutAtStart ? 1 : 0;
+    int last = cutAtEnd ? blockLines.length - 1 : blockLines.length;
+    for (int i = first; i < last; i++) {
+      addLine(blockLines[i]);
+    }
+  }
+
+  /**
+   * This method adds a line to the sample if it is not blank.
+   *
+   * @param line The line to add.
+   */
+  private void addLine(String line) {
+    if (!line.isBlank()) {
+      lines.add(line);
+    }
+  }
+
+  /**
+   * This method returns the lines sampled from the file.
+   *
+   * @return the complete, non blank lines sampled.
+   */
+  public List<String> getLines() {
+    return lines;
+  }
+
+  /**
+   * This method checks if the sample holds every line of the file, in which case the file is small
+   * enough to be parsed straight away.
+   *
+   * @return true if the whole file was sampled, false otherwise.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+}
@@ -0,0 +1,125 @@
+package model.loader;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive int keys stored in a single open addressing table with linear probing. Used
+ * by the parsers to check for duplicate IDs in constant time without boxing each ID.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class IntHashSet {
+
+  /** Value marking an empty slot in the table. */
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  /** The table is grown when it is more than this fraction full. */
+  private static final double MAX_LOAD = 0.5;
+
+  /** The keys in the set, with EMPTY in unused slots. */
+  private int[] keys;
+
+  /** Whether EMPTY itself has been added, since it cannot be stored in the table. */
+  private boolean containsEmpty = false;
+
+  /** The number of keys in the set. */
+  private int size = 0;
+
+  /** Constructor of an empty IntHashSet. */
+  public IntHashSet() {
+    this(16);
+  }
+
+  /**
+   * Constructor of an empty IntHashSet with room for the given number of keys before growing.
+   *
+   * @param expectedSize The number of keys expected to be added.
+   */
+  public IntHashSet(int expectedSize) {
+    int capacity = 16;
+    while (capacity * MAX_LOAD < expectedSize) {
+      capacity <<= 1;
+    }
+    keys = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * This method adds a key to the set.
+   *
+   * @param key The key to add.
+   * @return true if the key was added, false if it was already in the set.
+   */
+  public boolean add(int key) {
+    if (key == EMPTY) {
+      if (containsEmpty) {
+        return false;
+      }
+      containsEmpty = true;
+      size++;
+      return true;
+    }
+    int slot = findSlot(keys, key);
+    if (keys[slot] == key) {
+      return false;
+    }
+    keys[slot] = key;
+    size++;
+    if (size > keys.length * MAX_LOAD) {
+      grow();
+    }
+    return true;
+  }
+
+  /**
+   * This method checks if a key is in the set.
+   *
+   * @param key The key to look for.
+   * @return true if the key is in the set, false otherwise.
+   */
+  public boolean contains(int key) {
+    if (key == EMPTY) {
+      return containsEmpty;
+    }
+    return keys[findSlot(keys, key)] == key;
+  }
+
+  /**
+   * This method returns the number of keys in the set.
+   *
+   * @return the size of the set.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * This method finds the slot holding a key, or the empty slot where it would be added.
+   *
+   * @param table The table to search.
+   * @param key The key to find.
+   * @return the index of the slot.
+   */
+  private static int findSlot(int[] table, int key) {
+    int mask = table.length - 1;
+    int hash = key * 0x9E3779B9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (table[slot] != EMPTY && table[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** This method doubles the size of the table and re-inserts every key. */
+  private void grow() {
+    int[] oldKeys = keys;
+    keys = new int[oldKeys.length << 1];
+    Arrays.fill(keys, EMPTY);
+    for (int key : oldKeys) {
+      if (key != EMPTY) {
+        keys[findSlot(keys, key)] = key;
+      }
+    }
+  }
+}
@@ -7,7 +7,6 @@ import java.nio.file.FileSystemException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 import static com.google.common.io.Files.getFileExtension;
 
 /**
@@ -19,21 +18,46 @@ import static com.google.common.io.Files.getFileExtension;
  * @since 04/10/2020
  */
 public class Loader {
+  /**
+   * The size in bytes from which an uncompressed file is memory mapped by default. Smaller files
+   * are parsed faster in parallel chunks, while larger files are mapped to keep them off the heap.
+   */
+  static final long DEFAULT_MEMORY_MAP_THRESHOLD = 256L * 1024 * 1024;
+
 
   /** Expected file extension */
   private final ArrayList<String> supportedExtensions;
+  /** Extensions of compressed files, which are decompressed as they are read. */
+  private final ArrayList<String> compressedExtensions;
   /** Filenames used by application. Cannot be used as names of user files. */
   private final ArrayList<String> reservedFilenames;
   /** The storage used in the application. */
   private final Storage storage;
   /** The parser constructed for single entry. */
   private Parser parser;
+  /** The entry added by the most recent single entry. */
+  private DataType lastEntry;
+  /** The number of bytes read by the most recent file ingest. */
+  private volatile long lastIngestBytes = 0;
+  /** The time taken by the most recent file ingest in nanoseconds. */
+  private volatile long lastIngestNanos = 0;
+  /** The parse speedup of the most recent file ingest. */
+  private volatile double lastParseSpeedup = 1;
+  /** The number of chunks the most recent file ingest was parsed in. */
+  private volatile int lastParseChunks = 1;
+  /** The number of chunks a file is split into to be parsed in parallel. */
+  private int parseChunks = Runtime.getRuntime().availableProcessors();
+  /** The size in bytes from which uncompressed files are memory mapped instead of read. */
+  private volatile long memoryMapThreshold = DEFAULT_MEMORY_MAP_THRESHOLD;
 
   /** This constructor adds extensions for supported fileTypes to supportedExtensions. */
   public Loader(Storage storage) {
     this.storage = storage;
     supportedExtensions = new ArrayList<>();
     supportedExtensions.add("csv");
+    compressedExtensions = new ArrayList<>();
+    compressedExtensions.add("gz");
+    compressedExtensions.add("zip");
     reservedFilenames = new ArrayList<>();
     reservedFilenames.add("singleEntryAirlines.csv");
     reservedFilenames.add("singleEntryAirports.csv");
@@ -41,7 +65,9 @@ public class Loader {
   }
 
   /**
-   * This method checks if file extension matches supported file types.
+   * This method checks if file extension matches supported file types. A gzip file must be named
+   * after the file it holds, as in routes.csv.gz, while a zip file is checked to hold a single file
+   * when it is opened.
    *
    * @param fileName Name of file to be checked.
    * @throws FileSystemException If file extension does not match one of supported formats.
@@ -50,17 +76,25 @@ public class Loader {
   protected void checkFileType(String fileName)
       throws FileSystemException, IllegalArgumentException {
     String extension = getFileExtension(fileName);
+    if (extension.equals("gz")) {
+      extension = getFileExtension(fileName.substring(0, fileName.length() - ".gz".length()));
+    } else if (extension.equals("zip")) {
+      return;
+    }
     if (extension.isEmpty()) {
       throw new IllegalArgumentException("Address does not contain file extension.");
     }
     if (!supportedExtensions.contains(extension)) {
       throw new FileSystemException(
-          "Unsupported file type", extension, "Only CSV files can be processed.");
+          "Unsupported file type",
+          extension,
+          "Only CSV files, or CSV files compressed with gzip or zip, can be processed.");
     }
   }
 
   /**
-   * This method gets the name of the file from its full path.
+   * This method gets the name of the file from its full path. The .gz or .zip extension of a
+   * compressed file is removed, so it has the same name as the file it holds.
    *
    * @param filePath full path of the file on the computer.
    * @return the last part of the file path (after the last slash).
@@ -72,6 +106,11 @@ public class Loader {
     } else {
       fileName = filePath.substring(filePath.lastIndexOf("\\") + 1);
     }
+    for (String extension : compressedExtensions) {
+      if (fileName.toLowerCase().endsWith("." + extension)) {
+        fileName = fileName.substring(0, fileName.length() - extension.length() - 1);
+      }
+    }
     return fileName;
   }
 
@@ -110,13 +149,11 @@ public class Loader {
   protected ArrayList<String> openFile(String fileName) throws FileNotFoundException {
 
     ArrayList<String> lines = new ArrayList<>();
-    File file = new File(fileName);
-    Scanner scanner;
-    scanner = new Scanner(file);
-    while (scanner.hasNextLine()) {
-      lines.add(scanner.nextLine());
+    try (FileLineReader reader = new FileLineReader(fileName)) {
+      for (String line : reader) {
+        lines.add(line);
+      }
     }
-    scanner.close();
     return lines;
   }
 
@@ -124,11 +161,32 @@ public class Loader {
    * This method constructs a parser of the relevant type.
    *
    * @param dataType The type of data to be processed.
-   * @param lines An ArrayList of Strings of data to be processed by the parser.
+   * @param lines The lines of data to be processed by the parser.
+   * @param appendToExisting Whether the data is added to the current file. Entries added to the
+   *     current file are parsed sequentially, whole files are parsed in parseChunks chunks.
+   * @throws IllegalArgumentException Thrown if data type is not one of airline, airport, flight or
+   *     route.
+   */
+  public Parser constructParser(
+      String dataType, Iterable<? extends CharSequence> lines, boolean appendToExisting)
+      throws IllegalArgumentException {
+
+    return constructParser(dataType, lines, appendToExisting, appendToExisting ? 1 : parseChunks);
+  }
+
+  /**
+   * This method constructs a parser of the relevant type which parses the lines in the given number
+   * of chunks.
+   *
+   * @param dataType The type of data to be processed.
+   * @param lines The lines of data to be processed by the parser.
+   * @param appendToExisting Whether the data is added to the current file.
+   * @param chunks The number of chunks to parse the lines in, 1 to parse them sequentially.
    * @throws IllegalArgumentException Thrown if data type is not one of airline, airport, flight or
    *     route.
    */
-  public Parser constructParser(String dataType, ArrayList<String> lines, boolean appendToExisting)
+  private Parser constructParser(
+      String dataType, Iterable<? extends CharSequence> lines, boolean appendToExisting, int chunks)
       throws IllegalArgumentException {
 
     Parser parser;
@@ -139,21 +197,21 @@ public class Loader {
         if (appendToExisting) {
           existingAirports = storage.getAirports();
         }
-        parser = new AirportParser(lines, existingAirports);
+        parser = new AirportParser(lines, existingAirports, chunks);
         break;
       case "Airline":
         List<Airline> existingAirlines = new ArrayList<>();
         if (appendToExisting) {
           existingAirlines = storage.getAirlines();
         }
-        parser = new AirlineParser(lines, existingAirlines);
+        parser = new AirlineParser(lines, existingAirlines, chunks);
         break;
       case "Route":
         List<Route> existingRoutes = new ArrayList<>();
         if (appendToExisting) {
           existingRoutes = storage.getRoutes();
         }
-        parser = new RouteParser(lines, existingRoutes);
+        parser = new RouteParser(lines, existingRoutes, chunks);
         break;
       default:
         throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
@@ -173,11 +231,7 @@ public class Loader {
   public String loadFile(String filePath, String dataType)
       throws FileSystemException, FileNotFoundException, SQLException {
 
-    String fileName = getFileName(filePath);
-    Parser parser = processFile(filePath, dataType);
-    List<DataType> data = parser.getData();
-    storage.setData(data, dataType, fileName);
-    return parser.getErrorMessage(true);
+    return commit(stageFile(filePath, dataType));
   }
 
   /**
@@ -191,24 +245,63 @@ public class Loader {
   public String checkFile(String filePath, String dataType)
       throws FileSystemException, FileNotFoundException {
 
-    Parser parser = processFile(filePath, dataType);
-    return parser.getErrorMessage(true);
+    StagedUpload upload = stageFile(filePath, dataType);
+    discard(upload);
+    return upload.getErrorMessage();
   }
 
   /**
-   * This method checks if the filepath and datatype fields are empty, if the file is in an illegal
-   * type or if the filename is a duplicate. If any of these things are true it raises and error. If
-   * not, it creates a parser and processes all the lines in the file.
+   * This method calls processFile to preform error checks and process the data, and holds the
+   * processed data until the upload is committed or discarded. This lets the errors in a file be
+   * shown before it is uploaded without reading the file a second time.
    *
-   * @param filePath the local path of the file.
-   * @param dataType the type of data to be processed, one of Airline, Airport, Route.
-   * @return a parser which has processed all the lines in the file.
+   * @param filePath Path of the file to be opened.
+   * @param dataType The type of data in the file (one of airport, airline, or route).
+   * @return the staged upload holding the processed data and its error message.
    * @throws FileSystemException If the file is not in a supported format.
    * @throws FileNotFoundException If the file cannot be found.
    */
-  private Parser processFile(String filePath, String dataType)
+  public StagedUpload stageFile(String filePath, String dataType)
       throws FileSystemException, FileNotFoundException {
 
+    checkUpload(filePath, dataType);
+    return parseFile(filePath, dataType, null);
+  }
+
+  /**
+   * This method stores the data of a staged upload in the storage class.
+   *
+   * @param upload The staged upload to store.
+   * @return Error information string.
+   * @throws IllegalStateException If the upload has already been committed or discarded.
+   * @throws RuntimeException If a file with the same name has been uploaded since it was staged.
+   */
+  public String commit(StagedUpload upload) throws IllegalStateException {
+    List<DataType> data = upload.getData();
+    checkDuplicateFileName(upload.getFileName());
+    storage.setData(data, upload.getDataType(), upload.getFileName());
+    upload.release();
+    return upload.getErrorMessage();
+  }
+
+  /**
+   * This method discards a staged upload without storing its data.
+   *
+   * @param upload The staged upload to discard.
+   */
+  public void discard(StagedUpload upload) {
+    upload.release();
+  }
+
+  /**
+   * This method checks if the filepath and datatype fields are empty, if the file is in an illegal
+   * type or if the filename is a duplicate. If any of these things are true it raises and error.
+   *
+   * @param filePath the local path of the file.
+   * @param dataType the type of data to be processed, one of Airline, Airport, Route.
+   * @throws FileSystemException If the file is not in a supported format.
+   */
+  protected void checkUpload(String filePath, String dataType) throws FileSystemException {
     if (filePath.isEmpty()) {
       throw new RuntimeException("Filename cannot be empty.");
     } else if (dataType.isEmpty()) {
@@ -216,14 +309,256 @@ public class Loader {
     }
 
     checkFileType(filePath);
+    checkDuplicateFileName(getFileName(filePath));
+  }
 
-    String fileName = getFileName(filePath);
-    checkDuplicateFileName(fileName);
-    ArrayList<String> lines;
-    lines = openFile(filePath);
+  /**
+   * This method creates a parser and processes all the lines in the file. It does not read or
+   * change storage, so files can be parsed on several threads at once. An uncompressed file at
+   * least as large as the memory map threshold is mapped rather than read, and its lines are parsed
+   * sequentially straight from the mapping.
+   *
+   * @param filePath the local path of the file.
+   * @param dataType the type of data to be processed, one of Airline, Airport, Route.
+   * @param task the background upload to count lines for and stop when cancelled, or null.
+   * @return the staged upload holding the parser which has processed all the lines in the file.
+   * @throws FileNotFoundException If the file cannot be found.
+   * @throws RuntimeException If a sample of the file shows it does not hold data of the type.
+   */
+  StagedUpload parseFile(String filePath, String dataType, UploadTask task)
+      throws FileNotFoundException {
 
-    Parser parser = constructParser(dataType, lines, false);
-    return parser;
+    Parser parser;
+    long bytes;
+    long startTime = System.nanoTime();
+    checkSample(filePath, dataType);
+    if (!isCompressed(filePath) && new File(filePath).length() >= memoryMapThreshold) {
+      try (MappedLineReader lines = new MappedLineReader(filePath)) {
+        parser = constructParser(dataType, task == null ? lines : task.track(lines), false, 1);
+        bytes = lines.getByteCount();
+      }
+    } else {
+      try (FileLineReader lines = new FileLineReader(filePath)) {
+        parser = constructParser(dataType, task == null ? lines : task.track(lines), false);
+        bytes = lines.getByteCount();
+      }
+    }
+    long nanos = System.nanoTime() - startTime;
+    double speedup = parser.getParseSpeedup();
+    int chunks = parser.getParseChunks();
+    lastIngestBytes = bytes;
+    lastIngestNanos = nanos;
+    lastParseSpeedup = speedup;
+    lastParseChunks = chunks;
+    return new StagedUpload(
+        getFileName(filePath),
+        dataType,
+        parser,
+        formatIngestReport(bytes, nanos, chunks, speedup));
+  }
+
+  /**
+   * This method checks a sample of lines from the start, middle and end of a file before the whole
+   * file is parsed, so a file of the wrong type is rejected straight away rather than after every
+   * line has been read. The file is rejected if none of the lines sampled are valid data of the
+   * type, and the type the lines are valid for is suggested if there is one. A file small enough
+   * to be sampled whole is left for the parser to check, so its errors are reported in full.
+   *
+   * @param filePath the local path of the file.
+   * @param dataType the type of data to be processed, one of Airline, Airport, Route.
+   * @throws FileNotFoundException If the file cannot be found.
+   * @throws RuntimeException If none of the lines sampled are valid data of the type.
+   */
+  protected void checkSample(String filePath, String dataType) throws FileNotFoundException {
+    FileSampler sample = new FileSampler(filePath);
+    List<String> lines = sample.getLines();
+    if (sample.isComplete() || lines.isEmpty()) {
+      return;
+    }
+    Parser parser = constructSampleParser(dataType);
+    int wrongFieldCount = 0;
+    for (String line : lines) {
+      if (parser.isSampleLineValid(line)) {
+        return;
+      }
+      if (parser.tokenizer.size() != parser.getFieldCount()) {
+        wrongFieldCount++;
+      }
+    }
+
+    StringBuilder message =
+        new StringBuilder(
+            String.format(
+                "File rejected: none of the %d lines sampled are valid %s data.",
+                lines.size(), dataType));
+    if (wrongFieldCount == lines.size()) {
+      message.append(
+          String.format(
+              "\n%s data has %d fields on each line, but the lines sampled have %d.",
+              dataType, parser.getFieldCount(), parser.tokenizer.size()));
+    }
+    for (String otherType : List.of("Airline", "Airport", "Route")) {
+      if (!otherType.equals(dataType) && countSampleLinesValid(otherType, lines) > 0) {
+        message.append(String.format("\nThe file looks like %s data.", otherType));
+        break;
+      }
+    }
+    throw new RuntimeException(message.toString());
+  }
+
+  /**
+   * This method counts the lines of a sample which are valid data of a type.
+   *
+   * @param dataType the type of data to check for.
+   * @param lines the lines sampled.
+   * @return the number of valid lines.
+   */
+  private int countSampleLinesValid(String dataType, List<String> lines) {
+    Parser parser = constructSampleParser(dataType);
+    int valid = 0;
+    for (String line : lines) {
+      if (parser.isSampleLineValid(line)) {
+        valid++;
+      }
+    }
+    return valid;
+  }
+
+  /**
+   * This method constructs an empty parser of the relevant type to check sampled lines with.
+   *
+   * @param dataType The type of data to be checked.
+   * @return the empty parser.
+   * @throws IllegalArgumentException Thrown if data type is not one of airline, airport or route.
+   */
+  private Parser constructSampleParser(String dataType) throws IllegalArgumentException {
+    switch (dataType) {
+      case "Airport":
+        return new AirportParser();
+      case "Airline":
+        return new AirlineParser();
+      case "Route":
+        return new RouteParser();
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
+  /**
+   * This method returns the rate at which the most recently processed file was read and parsed.
+   *
+   * @return the ingest throughput in megabytes per second, or 0 if no file has been processed.
+   */
+  public double getIngestThroughput() {
+    if (lastIngestNanos <= 0) {
+      return 0;
+    }
+    return (lastIngestBytes / 1e6) / (lastIngestNanos / 1e9);
+  }
+
+  /**
+   * This method creates a message describing the size of the most recently processed file and how
+   * quickly it was read and parsed.
+   *
+   * @return String with the ingest statistics for the last file.
+   */
+  public String getIngestReport() {
+    return formatIngestReport(lastIngestBytes, lastIngestNanos, lastParseChunks, lastParseSpeedup);
+  }
+
+  /**
+   * This method creates a message describing the size of a processed file and how quickly it was
+   * read and parsed.
+   *
+   * @param bytes The number of bytes read.
+   * @param nanos The time taken in nanoseconds.
+   * @param chunks The number of chunks the file was parsed in.
+   * @param speedup The parse speedup.
+   * @return String with the ingest statistics.
+   */
+  private String formatIngestReport(long bytes, long nanos, int chunks, double speedup) {
+    double throughput = nanos <= 0 ? 0 : (bytes / 1e6) / (nanos / 1e9);
+    String report =
+        String.format(
+            "Read %.2f MB in %.2f s (%.2f MB/s).", bytes / 1e6, nanos / 1e9, throughput);
+    if (chunks > 1) {
+      report += String.format("\nParsed in %d chunks (%.2fx speedup).", chunks, speedup);
+    }
+    return report;
+  }
+
+  /**
+   * This method sets the number of chunks a file is split into to be parsed in parallel.
+   *
+   * @param parseChunks The number of chunks, 1 to parse files on a single thread.
+   * @throws IllegalArgumentException If parseChunks is less than 1.
+   */
+  public void setParseChunks(int parseChunks) throws IllegalArgumentException {
+    if (parseChunks < 1) {
+      throw new IllegalArgumentException("Number of parse chunks must be at least 1.");
+    }
+    this.parseChunks = parseChunks;
+  }
+
+  /**
+   * This method returns the number of chunks a file is split into to be parsed in parallel.
+   *
+   * @return the number of parse chunks.
+   */
+  public int getParseChunks() {
+    return parseChunks;
+  }
+
+  /**
+   * This method sets the size from which uncompressed files are memory mapped. A mapped file is
+   * read a window at a time straight from the mapping, and lines are only copied onto the heap once
+   * they are known to be valid, so files of several gigabytes can be uploaded. Mapped files are
+   * parsed sequentially.
+   *
+   * @param memoryMapThreshold The size in bytes from which files are mapped, 0 to map every file.
+   */
+  public void setMemoryMapThreshold(long memoryMapThreshold) {
+    if (memoryMapThreshold < 0) {
+      throw new IllegalArgumentException("Memory map threshold cannot be negative.");
+    }
+    this.memoryMapThreshold = memoryMapThreshold;
+  }
+
+  /**
+   * This method returns the size from which uncompressed files are memory mapped.
+   *
+   * @return the size in bytes from which files are mapped.
+   */
+  public long getMemoryMapThreshold() {
+    return memoryMapThreshold;
+  }
+
+  /**
+   * This method sets whether every uncompressed file is memory mapped, whatever its size.
+   *
+   * @param memoryMapped true to memory map every file, false to read every file through a reader.
+   */
+  public void setMemoryMapped(boolean memoryMapped) {
+    setMemoryMapThreshold(memoryMapped ? 0 : Long.MAX_VALUE);
+  }
+
+  /**
+   * This method checks whether every uncompressed file is memory mapped.
+   *
+   * @return true if every file is memory mapped, false otherwise.
+   */
+  public boolean isMemoryMapped() {
+    return memoryMapThreshold == 0;
+  }
+
+  /**
+   * This method checks if a file is compressed, and so must be decompressed as it is read.
+   *
+   * @param filePath the local path of the file.
+   * @return true if the file has a compressed extension, false otherwise.
+   */
+  private boolean isCompressed(String filePath) {
+    return compressedExtensions.contains(getFileExtension(filePath).toLowerCase());
   }
 
   /**
@@ -262,9 +597,34 @@ public class Loader {
     return fileName;
   }
 
+  /**
+   * This method constructs a parser of the relevant type for lines added to an existing file. The
+   * lines are checked for duplicates against the index storage keeps for the file, so the cost does
+   * not depend on the size of the file.
+   *
+   * @param dataType The type of data to be processed.
+   * @param lines The lines of data to be processed by the parser.
+   * @param fileName The name of the file the lines are added to.
+   * @throws IllegalArgumentException Thrown if data type is not one of airline, airport, route.
+   */
+  private Parser constructLineParser(String dataType, Iterable<String> lines, String fileName)
+      throws IllegalArgumentException {
+    switch (dataType) {
+      case "Airport":
+        return new AirportParser(lines, storage.getAirportIds(fileName));
+      case "Airline":
+        return new AirlineParser(lines, storage.getAirlineIds(fileName));
+      case "Route":
+        return new RouteParser(lines, storage.getRouteKeys(fileName));
+      default:
+        throw new IllegalArgumentException("Datatype must be one of: airline, airport, route.");
+    }
+  }
+
   /**
    * This method parses a single line and returns a message about whether any errors occurred when
-   * processing that line.
+   * processing that line. The entry is appended to the current file of its type in storage, without
+   * copying the entries already in the file.
    *
    * @param entryString The entry to be parsed.
    * @param dataType Type of entry, must be one of Airline, Airport or Route.
@@ -277,13 +637,27 @@ public class Loader {
     ArrayList<String> line = new ArrayList<>();
     line.add(entryString);
 
-    parser = constructParser(dataType, line, true);
+    parser = constructLineParser(dataType, line, fileName);
 
-    List<DataType> data = parser.getData();
-    storage.setData(data, dataType, fileName);
+    lastEntry = null;
+    for (DataType entry : parser.getData()) {
+      if (entry != null) {
+        storage.appendEntry(entry, dataType, fileName);
+        lastEntry = entry;
+      }
+    }
     return String.format("%s successfully uploaded", dataType);
   }
 
+  /**
+   * This method returns the entry added by the most recent call to loadLine.
+   *
+   * @return the entry added, or null if no entry was added.
+   */
+  public DataType getLastEntry() {
+    return lastEntry;
+  }
+
   /**
    * This method returns the parser constructed for single entry.
    *
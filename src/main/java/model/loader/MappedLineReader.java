@@ -0,0 +1,282 @@
+package model.loader;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class to stream the lines of a very large data file to a Parser without copying them onto the
+ * heap. The file is memory mapped one window at a time, line ends are found by scanning the mapped
+ * bytes, and each line is handed to the parser as a CharSequence which reads its characters
+ * straight from the mapping. Lines of ASCII text are never copied. A line holding other UTF-8
+ * characters is decoded into a buffer which is reused for every line.
+ *
+ * <p>The same CharSequence is returned for every line, so a line is only valid until the next one
+ * is read, and must be copied with toString to be kept. Lines end at '\n', '\r' or "\r\n", as for
+ * BufferedReader.readLine.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class MappedLineReader implements Iterable<CharSequence>, Closeable {
+
+  /** Size of each mapped window of the file in bytes. */
+  private static final int WINDOW_SIZE = 1 << 26;
+
+  /** The file being read. */
+  private final FileChannel channel;
+
+  /** The number of bytes in the file. */
+  private final long byteCount;
+
+  /** The size of the windows mapped, grown if a single line does not fit in a window. */
+  private int windowSize;
+
+  /** The window of the file currently mapped, or null before the first line is read. */
+  private MappedByteBuffer window;
+
+  /** A copy of the window used to decode lines which are not ASCII. */
+  private ByteBuffer decodeWindow;
+
+  /** The position in the file the current window starts at. */
+  private long windowStart = 0;
+
+  /** The index in the window of the start of the next line. */
+  private int position = 0;
+
+  /** The line most recently read. */
+  private final MappedLine line = new MappedLine();
+
+  /** Decodes lines which are not ASCII, replacing malformed bytes as InputStreamReader does. */
+  private final CharsetDecoder decoder =
+      StandardCharsets.UTF_8
+          .newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  /** Holds the characters of the most recent line which was not ASCII. */
+  private CharBuffer decoded = CharBuffer.allocate(256);
+
+  /** Whether the iterator has already been handed out. */
+  private boolean iterated = false;
+
+  /**
+   * Constructor which opens the file at the given path for reading.
+   *
+   * @param filePath Path of the file to read.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  public MappedLineReader(String filePath) throws FileNotFoundException {
+    this(filePath, WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor which opens the file at the given path, mapping windows of the given size.
+   *
+   * @param filePath Path of the file to read.
+   * @param windowSize The number of bytes mapped at a time.
+   * @throws FileNotFoundException If the file cannot be opened.
+   */
+  MappedLineReader(String filePath, int windowSize) throws FileNotFoundException {
+    this.windowSize = windowSize;
+    try {
+      channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+      byteCount = channel.size();
+    } catch (NoSuchFileException e) {
+      throw new FileNotFoundException(filePath);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * This method returns the number of bytes in the file being read.
+   *
+   * @return the size of the file in bytes.
+   */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  /**
+   * This method returns an iterator which finds the next line in the mapped file each time it is
+   * advanced. Every call to next returns the same CharSequence, showing the new line. The lines
+   * can only be iterated over once.
+   *
+   * @return an iterator over the lines of the file.
+   */
+  @Override
+  public Iterator<CharSequence> iterator() {
+    if (iterated) {
+      throw new IllegalStateException("File lines can only be read once.");
+    }
+    iterated = true;
+    return new Iterator<CharSequence>() {
+      @Override
+      public boolean hasNext() {
+        return windowStart + position < byteCount;
+      }
+
+      @Override
+      public CharSequence next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        readLine();
+        return line;
+      }
+    };
+  }
+
+  /**
+   * This method finds the end of the next line, mapping the next window of the file when the line
+   * runs past the end of the current one, and points the line at it.
+   */
+  private void readLine() {
+    if (window == null) {
+      map(0);
+    }
+    while (true) {
+      int limit = window.limit();
+      boolean lastWindow = windowStart + limit == byteCount;
+      boolean ascii = true;
+      for (int i = position; i < limit; i++) {
+        byte b = window.get(i);
+        if (b == '\n' || b == '\r') {
+          if (b == '\r' && i + 1 == limit && !lastWindow) {
+            // The '\n' which may follow is in the next window.
+            break;
+          }
+          setLine(position, i, ascii);
+          position = b == '\r' && i + 1 < limit && window.get(i + 1) == '\n' ? i + 2 : i + 1;
+          return;
+        }
+        ascii &= b >= 0;
+      }
+      if (lastWindow) {
+        setLine(position, limit, ascii);
+        position = limit;
+        return;
+      }
+      if (position == 0) {
+        // The line is longer than a whole window.
+        windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+      }
+      map(windowStart + position);
+    }
+  }
+
+  /**
+   * This method maps the window of the file starting at the given position.
+   *
+   * @param start The position in the file to map from.
+   */
+  private void map(long start) {
+    try {
+      long size = Math.min(windowSize, byteCount - start);
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    decodeWindow = null;
+    windowStart = start;
+    position = 0;
+  }
+
+  /**
+   * This method points the line at the bytes of the window between start and end, decoding them
+   * if they are not all ASCII.
+   *
+   * @param start The index in the window of the first byte of the line.
+   * @param end The index in the window after the last byte of the line.
+   * @param ascii Whether every byte of the line is ASCII.
+   */
+  private void setLine(int start, int end, boolean ascii) {
+    line.start = start;
+    line.length = end - start;
+    line.inDecodeBuffer = !ascii;
+    if (ascii) {
+      return;
+    }
+    if (decodeWindow == null) {
+      decodeWindow = window.duplicate();
+    }
+    if (decoded.capacity() < end - start) {
+      decoded = CharBuffer.allocate(Math.max(end - start, decoded.capacity() * 2));
+    }
+    decodeWindow.limit(end).position(start);
+    decoded.clear();
+    decoder.reset();
+    decoder.decode(decodeWindow, decoded, true);
+    decoder.flush(decoded);
+    line.length = decoded.position();
+  }
+
+  /** This method closes the underlying file. The mapped windows are released once collected. */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  /** A line of the file, read from the mapped window or from the decode buffer. */
+  private class MappedLine implements CharSequence {
+
+    /** The index in the window of the first byte of the line. */
+    private int start;
+
+    /** The number of characters in the line. */
+    private int length;
+
+    /** Whether the line was decoded into the decode buffer rather than read from the window. */
+    private boolean inDecodeBuffer;
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("Index " + index + " of " + length);
+      }
+      if (inDecodeBuffer) {
+        return decoded.get(index);
+      }
+      return (char) window.get(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+      if (inDecodeBuffer) {
+        return new String(decoded.array(), 0, length);
+      }
+      byte[] bytes = new byte[length];
+      ByteBuffer slice = window.duplicate();
+      slice.position(start);
+      slice.get(bytes);
+      return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+  }
+}
@@ -3,8 +3,12 @@ package model.loader;
 import model.data.DataType;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The super class of whole sub_parser classes
@@ -14,8 +18,17 @@ import java.util.Map;
  */
 public abstract class Parser {
 
-  /** The database file. */
-  protected final List<String> dataFile;
+  /** The number of lines each chunk holds when a file is parsed in parallel. */
+  private static final int CHUNK_LINES = 2048;
+
+  /** Error code recorded for a line which was rejected without counting an error. */
+  private static final int NO_ERROR = -1;
+
+  /**
+   * The lines of the data file, read one at a time as they are parsed. A line may be a view which
+   * is reused for the next line, so lines are only copied once they are known to be valid.
+   */
+  protected final Iterable<? extends CharSequence> dataFile;
 
   /** Stores int key for error code and int value for error quantity. */
   protected Map<Integer, Integer> errorCollection = new HashMap<>();
@@ -31,18 +44,46 @@ public abstract class Parser {
   /** The total number of errors found while parsing the file. */
   protected int totalErrors = 0;
 
+  /** The number of lines read from the file so far. */
+  protected int totalLines = 0;
+
   /** The set contains airport, Airline, route for each sub-parser. */
   protected List<DataType> parserData = new ArrayList<>();
 
+  /** Splits each line into its fields, reusing the same buffers for every line. */
+  protected final CsvTokenizer tokenizer = new CsvTokenizer();
+
+  /** The number of chunks the lines are split into to be checked in parallel. */
+  private final int parseChunks;
+
+  /** The most recent error code counted, used by workers to report why a line failed. */
+  private int lastErrorCode = NO_ERROR;
+
+  /** Total time spent checking lines and merging results, summed over all threads. */
+  private final AtomicLong parseWorkNanos = new AtomicLong();
+
+  /** Elapsed time taken to parse the lines. */
+  private long parseWallNanos = 0;
+
   /**
    * Constructor of Parser class.
    *
-   * @param dataFile passed from loader, contains all data from datafile, one line per element in
-   *     the list.
+   * @param dataFile passed from loader, supplies the data from datafile one line at a time.
    */
-  public Parser(List<String> dataFile, int numCodes) {
+  public Parser(Iterable<? extends CharSequence> dataFile, int numCodes) {
+    this(dataFile, numCodes, 1);
+  }
+
+  /**
+   * Constructor of Parser class which checks the lines of the file in parallel chunks.
+   *
+   * @param dataFile passed from loader, supplies the data from datafile one line at a time.
+   * @param parseChunks the number of chunks to check in parallel, 1 to parse sequentially.
+   */
+  public Parser(Iterable<? extends CharSequence> dataFile, int numCodes, int parseChunks) {
     this.dataFile = dataFile;
     this.numCodes = numCodes;
+    this.parseChunks = Math.max(1, parseChunks);
     errorCollectionInitializer(numCodes);
     errorLookup = new String[numCodes];
     initErrorLookup();
@@ -54,8 +95,358 @@ public abstract class Parser {
   /** Abstract class of dataParser. */
   protected abstract void dataParser();
 
-  /** Abstract class of validater. */
-  protected abstract boolean validater(String[] line);
+  /**
+   * This method returns a new parser of the same type, with no data, which is used to check a
+   * chunk of lines on a worker thread.
+   *
+   * @return an empty parser of the same type.
+   */
+  protected abstract Parser newWorker();
+
+  /**
+   * This method splits a line of the file into its fields. Fields may be quoted, in which case
+   * they can contain commas.
+   *
+   * @param dataLine line from file to split into segments.
+   * @return the fields of the line.
+   */
+  protected String[] splitLine(String dataLine) {
+    tokenizer.tokenize(dataLine);
+    return tokenizer.toArray();
+  }
+
+  /**
+   * This method returns the layout of a line of the file and the rules its fields must follow.
+   *
+   * @return the schema of the file.
+   */
+  protected abstract FieldSchema getSchema();
+
+  /**
+   * This method returns the number of fields a line of the file is expected to have.
+   *
+   * @return the expected number of fields.
+   */
+  protected int getFieldCount() {
+    return getSchema().getFieldCount();
+  }
+
+  /**
+   * This method checks the key of a line against the data already parsed, for example for a
+   * duplicate ID. By default every key is accepted.
+   *
+   * @param line the fields of the line.
+   * @return true if the key is valid, false otherwise.
+   */
+  protected boolean isKeyValid(String[] line) {
+    return true;
+  }
+
+  /**
+   * This method checks the key of the line held by the tokenizer, in the same way as
+   * isKeyValid(String[]) but without creating a String for each field. By default every key is
+   * accepted.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @return true if the key is valid, false otherwise.
+   */
+  protected boolean isKeyValid(CsvTokenizer fields) {
+    return true;
+  }
+
+  /**
+   * This method checks every field of a line which does not depend on the data already parsed,
+   * against the rules of the schema in order. The error code of the first rule broken is counted.
+   *
+   * @param line the fields of the line.
+   * @return true if every field is valid, false otherwise.
+   */
+  protected boolean areFieldsValid(String[] line) {
+    for (FieldRule rule : getSchema().getRules()) {
+      if (!isFieldValid(rule, line[rule.getColumn()])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This method checks every field of the line held by the tokenizer against the rules of the
+   * schema, in the same way as areFieldsValid(String[]) but reading the fields straight from the
+   * tokenizer's buffer.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @return true if every field is valid, false otherwise.
+   */
+  protected boolean areFieldsValid(CsvTokenizer fields) {
+    for (FieldRule rule : getSchema().getRules()) {
+      if (!isFieldValid(rule, fieldValue(fields, rule.getColumn()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This method returns the value of a field of the line held by the tokenizer as it should be
+   * checked. By default this is the field itself.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @param column the index of the field.
+   * @return the value to check.
+   */
+  protected CharSequence fieldValue(CsvTokenizer fields, int column) {
+    return fields.view(column);
+  }
+
+  /**
+   * This method checks if the line held by the tokenizer duplicates data already parsed, counting
+   * the duplicate error if it does. It lets duplicates be rejected before an object is created
+   * for them. By default no line is a duplicate.
+   *
+   * @param fields the tokenizer holding the fields of a line whose fields are all valid.
+   * @return true if the line is a duplicate, false otherwise.
+   */
+  protected boolean isDuplicate(CsvTokenizer fields) {
+    return false;
+  }
+
+  /**
+   * This method checks a single field against a rule, counting the rule's error if it is broken.
+   *
+   * @param rule the rule to check.
+   * @param value the field to check.
+   * @return true if the field is valid, false otherwise.
+   */
+  protected boolean isFieldValid(FieldRule rule, CharSequence value) {
+    int code = rule.check(value);
+    if (code == FieldRule.VALID) {
+      return true;
+    }
+    if (code != FieldRule.REJECT) {
+      errorCounter(code);
+    }
+    return false;
+  }
+
+  /**
+   * This method creates the object represented by a valid line.
+   *
+   * @param line the fields of the line.
+   * @return the object created from the line.
+   */
+  protected abstract DataType buildEntry(String[] line);
+
+  /**
+   * This method adds an object created from a line to parserData.
+   *
+   * @param entry the object to add.
+   */
+  protected abstract void addEntry(DataType entry);
+
+  /**
+   * This method returns the error code counted when an object cannot be created from a line.
+   *
+   * @return the unknown error code.
+   */
+  protected abstract int getUnknownErrorCode();
+
+  /**
+   * This method splits a line into segments, checks each segment in the tokenizer's buffer, and
+   * then adds the object created from that line to parserData if it is valid. The fields are only
+   * copied into Strings once the line is known to be valid, so rejecting a line creates no objects.
+   * The errors counted are the same as for validater.
+   *
+   * @param dataLine line from file to split into segments.
+   */
+  protected void parseLine(CharSequence dataLine) {
+    if (tokenizer.tokenize(dataLine) != getFieldCount()) {
+      errorCounter(0);
+      return;
+    }
+    if (!isKeyValid(tokenizer) || !areFieldsValid(tokenizer) || isDuplicate(tokenizer)) {
+      return;
+    }
+    DataType entry;
+    try {
+      entry = buildEntry(tokenizer.toArray());
+    } catch (Exception e) {
+      errorCounter(getUnknownErrorCode());
+      return;
+    }
+    addEntry(entry);
+  }
+
+  /**
+   * This method checks that line has expected number of entries, that its key is valid and that
+   * each field matches the expected pattern.
+   *
+   * @param line the fields of the line.
+   * @return True if all fields are valid, false otherwise
+   */
+  protected boolean validater(String[] line) {
+    if (line.length != getFieldCount()) {
+      errorCounter(0);
+      return false;
+    }
+    return isKeyValid(line) && areFieldsValid(line);
+  }
+
+  /**
+   * This method checks if a line sampled from a file is valid data of this parser's type. The line
+   * is checked in the same way as by parseLine, but no object is created or added and any errors
+   * are only counted on this parser.
+   *
+   * @param dataLine line sampled from a file.
+   * @return true if the line could be added, false otherwise.
+   */
+  boolean isSampleLineValid(CharSequence dataLine) {
+    return tokenizer.tokenize(dataLine) == getFieldCount()
+        && isKeyValid(tokenizer)
+        && areFieldsValid(tokenizer);
+  }
+
+  /**
+   * This method reads each line from dataFile and calls parseLine on it, counting the lines as they
+   * are read. If more than 200 lines contain errors it raises an exception. When more than one
+   * parse chunk is set the lines are checked in parallel instead, giving the same result, though
+   * each line is then copied so it can be handed to a worker.
+   */
+  protected void parseLines() {
+    long start = System.nanoTime();
+    if (parseChunks > 1) {
+      parseLinesInChunks();
+    } else {
+      for (CharSequence dataLine : dataFile) {
+        checkErrorLimit();
+        totalLines++;
+        parseLine(dataLine);
+      }
+      parseWorkNanos.addAndGet(System.nanoTime() - start);
+    }
+    parseWallNanos += System.nanoTime() - start;
+  }
+
+  /**
+   * This method reads the lines of dataFile in windows of one chunk per worker. The chunks of each
+   * window are checked in parallel by worker parsers, then the results are merged back in file
+   * order so that duplicates, error counts and the 200 error limit match a sequential parse.
+   */
+  private void parseLinesInChunks() {
+    Iterator<? extends CharSequence> lines = dataFile.iterator();
+    int windowSize = parseChunks * CHUNK_LINES;
+    List<ForkJoinTask<LineResult[]>> tasks = new ArrayList<>(parseChunks);
+    while (lines.hasNext()) {
+      List<String> window = new ArrayList<>(windowSize);
+      while (lines.hasNext() && window.size() < windowSize) {
+        window.add(lines.next().toString());
+      }
+      int chunkSize = (window.size() + parseChunks - 1) / parseChunks;
+      tasks.clear();
+      for (int from = 0; from < window.size(); from += chunkSize) {
+        List<String> chunk = window.subList(from, Math.min(from + chunkSize, window.size()));
+        tasks.add(ForkJoinPool.commonPool().submit(() -> checkChunk(chunk)));
+      }
+      for (ForkJoinTask<LineResult[]> task : tasks) {
+        long start = System.nanoTime();
+        for (LineResult result : task.join()) {
+          checkErrorLimit();
+          totalLines++;
+          mergeLine(result);
+        }
+        parseWorkNanos.addAndGet(System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * This method checks each line of a chunk on a new worker parser.
+   *
+   * @param chunk the lines to check.
+   * @return the result of checking each line, in the same order as the lines.
+   */
+  private LineResult[] checkChunk(List<String> chunk) {
+    long start = System.nanoTime();
+    Parser worker = newWorker();
+    LineResult[] results = new LineResult[chunk.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = worker.checkLine(chunk.get(i));
+    }
+    parseWorkNanos.addAndGet(System.nanoTime() - start);
+    return results;
+  }
+
+  /**
+   * This method checks the fields of a single line and creates its object, without looking at the
+   * data already parsed.
+   *
+   * @param dataLine line from file to split into segments.
+   * @return the result of checking the line.
+   */
+  private LineResult checkLine(String dataLine) {
+    String[] line = splitLine(dataLine);
+    if (line.length != getFieldCount()) {
+      return new LineResult(line, false, 0, null);
+    }
+    lastErrorCode = NO_ERROR;
+    if (!areFieldsValid(line)) {
+      return new LineResult(line, true, lastErrorCode, null);
+    }
+    try {
+      return new LineResult(line, true, NO_ERROR, buildEntry(line));
+    } catch (Exception e) {
+      return new LineResult(line, true, getUnknownErrorCode(), null);
+    }
+  }
+
+  /**
+   * This method merges the result of checking a line into this parser, checking its key against
+   * the data already parsed before counting its error or adding its object.
+   *
+   * @param result the result of checking the line.
+   */
+  private void mergeLine(LineResult result) {
+    if (!result.lengthValid) {
+      errorCounter(0);
+    } else if (isKeyValid(result.line)) {
+      if (result.entry != null) {
+        addEntry(result.entry);
+      } else if (result.errorCode != NO_ERROR) {
+        errorCounter(result.errorCode);
+      }
+    }
+  }
+
+  /** This method raises an exception if more than 200 lines of the file contain errors. */
+  private void checkErrorLimit() {
+    if (totalErrors > 200) {
+      totalErrors = 0;
+      throw new RuntimeException(
+          "File rejected: more than 200 lines contain errors.\n" + getErrorMessage(false));
+    }
+  }
+
+  /**
+   * This method returns how many times faster the lines were parsed than they would have been on a
+   * single thread, estimated from the time spent by every thread over the elapsed time.
+   *
+   * @return the parse speedup, 1 when the lines were parsed sequentially.
+   */
+  public double getParseSpeedup() {
+    if (parseWallNanos == 0) {
+      return 1;
+    }
+    return (double) parseWorkNanos.get() / parseWallNanos;
+  }
+
+  /**
+   * This method returns the number of chunks the lines are checked in.
+   *
+   * @return the number of parse chunks.
+   */
+  public int getParseChunks() {
+    return parseChunks;
+  }
 
   /** Getter returning processed data result for all sub-parsers. */
   public List<DataType> getData() {
@@ -79,6 +470,7 @@ public abstract class Parser {
    * @param key error code initialized before use.
    */
   protected void errorCounter(int key) {
+    lastErrorCode = key;
     try {
       errorCollection.put(key, errorCollection.get(key) + 1);
       totalErrors++;
@@ -112,6 +504,29 @@ public abstract class Parser {
    * @return true if there are less errors than lines in the file, false otherwise.
    */
   public boolean getValidFile() {
-    return (totalErrors < dataFile.size());
+    return (totalErrors < totalLines);
+  }
+
+  /** The result of checking a single line on a worker parser. */
+  private static class LineResult {
+
+    /** The fields of the line. */
+    private final String[] line;
+
+    /** Whether the line has the expected number of fields. */
+    private final boolean lengthValid;
+
+    /** The error code of the first invalid field, or NO_ERROR. */
+    private final int errorCode;
+
+    /** The object created from the line, or null if the line is invalid. */
+    private final DataType entry;
+
+    private LineResult(String[] line, boolean lengthValid, int errorCode, DataType entry) {
+      this.line = line;
+      this.lengthValid = lengthValid;
+      this.errorCode = errorCode;
+      this.entry = entry;
+    }
   }
 }
@@ -0,0 +1,196 @@
+package model.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A stream which reads another stream ahead of the reader on a separate thread. It is used to
+ * decompress a file while the lines already decompressed are being parsed, so the time taken to
+ * decompress is hidden behind parsing. The number of blocks read ahead is bounded, so memory use
+ * does not depend on the size of the file. The source is only ever used by the read thread, which
+ * closes it once it stops, as a decompressing stream cannot be closed while it is being read.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ReadAheadInputStream extends InputStream {
+
+  /** Placed in the queue after the last block of the source stream. */
+  private static final byte[] END = new byte[0];
+
+  /** The stream being read ahead. */
+  private final InputStream source;
+
+  /** The blocks read from the source which have not been handed to the reader yet. */
+  private final BlockingQueue<byte[]> blocks;
+
+  /** The thread reading the source. */
+  private final Thread readThread;
+
+  /** The error which stopped the read thread, rethrown to the reader. */
+  private volatile IOException error;
+
+  /** The error closing the source, thrown by close. */
+  private volatile IOException closeError;
+
+  /** Whether the stream has been closed, which stops the read thread after its current read. */
+  private volatile boolean closed = false;
+
+  /** The block currently being read. */
+  private byte[] block = null;
+
+  /** The index of the next byte of the current block. */
+  private int position = 0;
+
+  /** Whether the end of the source has been reached. */
+  private boolean finished = false;
+
+  /**
+   * Constructor which starts reading the source stream ahead.
+   *
+   * @param source The stream to read ahead.
+   * @param blockSize The number of bytes in each block read from the source.
+   * @param blocksAhead The most blocks which can be read before the reader takes them.
+   */
+  public ReadAheadInputStream(InputStream source, int blockSize, int blocksAhead) {
+    this.source = source;
+    this.blocks = new ArrayBlockingQueue<>(blocksAhead);
+    this.readThread = new Thread(() -> readAhead(blockSize), "read-ahead");
+    readThread.setDaemon(true);
+    readThread.start();
+  }
+
+  /**
+   * This method reads the source into blocks until it ends or the stream is closed, on the read
+   * thread, then closes the source. A runtime exception thrown by the source, such as a
+   * decompressing stream finding a damaged file, is handed to the reader as an IOException.
+   *
+   * @param blockSize The number of bytes in each block.
+   */
+  private void readAhead(int blockSize) {
+    try {
+      readBlocks(blockSize);
+    } finally {
+      try {
+        source.close();
+      } catch (IOException e) {
+        closeError = e;
+      }
+    }
+  }
+
+  /**
+   * This method reads the source into blocks until it ends or the stream is closed.
+   *
+   * @param blockSize The number of bytes in each block.
+   */
+  private void readBlocks(int blockSize) {
+    try {
+      while (!closed) {
+        byte[] buffer = new byte[blockSize];
+        int filled = 0;
+        int read = 0;
+        while (filled < blockSize && (read = source.read(buffer, filled, blockSize - filled)) > 0) {
+          filled += read;
+        }
+        if (filled > 0) {
+          blocks.put(filled == blockSize ? buffer : Arrays.copyOf(buffer, filled));
+        }
+        if (read < 0) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      error = e;
+    } catch (RuntimeException e) {
+      error = new IOException("The stream could not be read ahead.", e);
+    } catch (InterruptedException e) {
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    try {
+      blocks.put(END);
+    } catch (InterruptedException ignored) {
+    }
+  }
+
+  /**
+   * This method makes sure there is a block with bytes left to read.
+   *
+   * @return true if there are bytes to read, false at the end of the stream.
+   * @throws IOException If reading the source failed.
+   */
+  private boolean nextBlock() throws IOException {
+    while (!finished && (block == null || position == block.length)) {
+      try {
+        block = blocks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for data.");
+      }
+      position = 0;
+      if (block == END) {
+        finished = true;
+        if (error != null) {
+          throw error;
+        }
+      }
+    }
+    return !finished;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlock()) {
+      return -1;
+    }
+    return block[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!nextBlock()) {
+      return -1;
+    }
+    int count = Math.min(length, block.length - position);
+    System.arraycopy(block, position, buffer, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return block == null || finished ? 0 : block.length - position;
+  }
+
+  /**
+   * This method stops the read thread and waits for it to close the source stream. The thread
+   * stops once any read of the source it is in returns.
+   *
+   * @throws IOException If the source cannot be closed, or the wait is interrupted.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    readThread.interrupt();
+    blocks.clear();
+    try {
+      readThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing the stream.");
+    }
+    if (closeError != null) {
+      throw closeError;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package model.loader;
 
+import model.data.DataType;
 import model.data.Route;
-import java.util.ArrayList;
+import model.data.RouteKeyIndex;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,15 +17,20 @@ import java.util.List;
  */
 public class RouteParser extends Parser {
 
-  /**
-   * * Codes corresponding to each Route to check for duplicates. The external ArrayList indexed by
-   * airline ID and the internal ArrayList contains {sourceID, destinationID} arrays for all Routes
-   * with that airline ID.
-   */
-  private final ArrayList<ArrayList<int[]>> routeCodes = new ArrayList<>();
+  /** The identities of the routes in parserData, used to check for duplicate routes. */
+  private final RouteKeyIndex routeKeys = new RouteKeyIndex();
+
+  /** The keys of the routes already in the file the lines are added to. Never changed here. */
+  private final RouteKeyIndex existingKeys;
+
+  /** Splits the equipment field into its space separated plane codes. */
+  private final CsvTokenizer equipmentTokenizer = new CsvTokenizer(' ', false);
+
+  /** The value of an ID which is not known. */
+  private static final String NULL_ID = "\\N";
 
   /** Variable name to represent line index */
-  private final int airline = 0,
+  private static final int airline = 0,
       airlineID = 1,
       sourceAirport = 2,
       sourceAirportID = 3,
@@ -33,44 +40,87 @@ public class RouteParser extends Parser {
       stops = 7,
       equipment = 8;
 
+  private static final FieldRule AIRLINE_RULE = FieldRule.text(airline, "[0-9A-Z]", 1).length(2, 3);
+  private static final FieldRule AIRLINE_ID_RULE =
+      FieldRule.text(airlineID, "[0-9]", 2).length(1, 5);
+  private static final FieldRule SOURCE_AIRPORT_RULE =
+      FieldRule.text(sourceAirport, "[A-Z]", 3).length(3, 4);
+  private static final FieldRule SOURCE_AIRPORT_ID_RULE =
+      FieldRule.text(sourceAirportID, "[0-9]", 4).length(1, 5);
+  private static final FieldRule DESTINATION_AIRPORT_RULE =
+      FieldRule.text(destinationAirport, "[A-Z]", 5).length(3, 4);
+  private static final FieldRule DESTINATION_AIRPORT_ID_RULE =
+      FieldRule.text(destinationAirportID, "[0-9]", 6).length(1, 5);
+  private static final FieldRule CODESHARE_RULE =
+      FieldRule.text(codeshare, "[Y]", 7).length(1, 1).allow("");
+  private static final FieldRule STOPS_RULE = FieldRule.text(stops, "[0-9]", 8).length(1, 1);
+  private static final FieldRule EQUIPMENT_RULE =
+      FieldRule.text(equipment, "[0-9A-Z]", 9).length(3, 3).separatedBy(' ');
+
+  /** The layout of a line of route data. */
+  private static final FieldSchema SCHEMA =
+      new FieldSchema(
+          9,
+          AIRLINE_RULE,
+          AIRLINE_ID_RULE,
+          SOURCE_AIRPORT_RULE,
+          SOURCE_AIRPORT_ID_RULE,
+          DESTINATION_AIRPORT_RULE,
+          DESTINATION_AIRPORT_ID_RULE,
+          CODESHARE_RULE,
+          STOPS_RULE,
+          EQUIPMENT_RULE);
+
   /**
    * This method initializes error collection and calls dataParser method to begin processing data.
    *
-   * @param dataFile ArrayList of a string for each line in the file.
+   * @param dataFile A string for each line in the file.
    */
-  public RouteParser(ArrayList<String> dataFile, List<Route> existingRoutes) {
-    super(dataFile, 12);
+  public RouteParser(Iterable<? extends CharSequence> dataFile, List<Route> existingRoutes) {
+    this(dataFile, existingRoutes, 1);
+  }
+
+  /**
+   * This method initializes error collection and calls dataParser method to begin processing data,
+   * checking the lines in parallel chunks.
+   *
+   * @param dataFile A string for each line in the file.
+   * @param parseChunks The number of chunks to check in parallel.
+   */
+  public RouteParser(
+      Iterable<? extends CharSequence> dataFile, List<Route> existingRoutes, int parseChunks) {
+    super(dataFile, 12, parseChunks);
+    existingKeys = new RouteKeyIndex();
     for (Route route : existingRoutes) {
       addRoute(route);
     }
-    dataParser();
-    if (!getValidFile()) {
-      if (totalErrors == 1) {
-        throw new RuntimeException(
-            "Entry contains errors and was not uploaded.\n" + getErrorMessage(false));
-      } else {
-        throw new RuntimeException(
-            "File rejected: all lines contain errors.\n" + getErrorMessage(false));
-      }
-    }
+    parseAndCheck();
   }
 
   /**
-   * This method adds a route to an array containing the routes source and destination airport IDs
-   * to the internal ArrayList which is found at an index of the external ArrayList which
-   * corresponds to the Route's airline ID.
+   * This method initializes error collection and calls dataParser method to begin processing data
+   * added to an existing file. The lines are checked for duplicates against the routes already in
+   * the file, but only the new routes are added to parserData.
    *
-   * @param route The Route from which to get the code to add to RouteCodes.
+   * @param dataFile A string for each line in the file.
+   * @param existingKeys The keys of the routes already in the file.
    */
-  private void addToRouteCodes(Route route) {
-    int[] routeCode = new int[2];
-    routeCode[0] = route.getSourceAirportID();
-    routeCode[1] = route.getDestinationAirportID();
-    int index = route.getAirlineID();
-    while (routeCodes.size() < index + 1) {
-      routeCodes.add(new ArrayList<>());
-    }
-    routeCodes.get(index).add(routeCode);
+  public RouteParser(Iterable<? extends CharSequence> dataFile, RouteKeyIndex existingKeys) {
+    super(dataFile, 12);
+    this.existingKeys = existingKeys;
+    parseAndCheck();
+  }
+
+  /** Constructor of an empty RouteParser used to check lines on a worker thread or a sample. */
+  RouteParser() {
+    super(Collections.emptyList(), 12);
+    existingKeys = new RouteKeyIndex();
+  }
+
+  /** This method returns an empty RouteParser to check lines on a worker thread. */
+  @Override
+  protected Parser newWorker() {
+    return new RouteParser();
   }
 
   /** This method initializes the error lookup array with message for each error code. */
@@ -90,6 +140,24 @@ public class RouteParser extends Parser {
     errorLookup[11] = "Unknown error";
   }
 
+  /**
+   * This method parses the lines and throws an exception if none of them could be added.
+   *
+   * @throws RuntimeException If every line contains errors.
+   */
+  private void parseAndCheck() {
+    dataParser();
+    if (!getValidFile()) {
+      if (totalErrors == 1) {
+        throw new RuntimeException(
+            "Entry contains errors and was not uploaded.\n" + getErrorMessage(false));
+      } else {
+        throw new RuntimeException(
+            "File rejected: all lines contain errors.\n" + getErrorMessage(false));
+      }
+    }
+  }
+
   /**
    * This method is called when RouteParser is initialized. Calls validate method to check each
    * line. If line is valid, creates Route object with attributes from line and adds route to routes
@@ -97,106 +165,101 @@ public class RouteParser extends Parser {
    */
   @Override
   protected void dataParser() {
-    for (String dataLine : dataFile) {
-      if (totalErrors > 200) {
-        totalErrors = 0;
-        throw new RuntimeException(
-            "File rejected: more than 200 lines contain errors.\n" + getErrorMessage(false));
-      }
-      parseLine(dataLine);
-    }
+    parseLines();
+  }
+
+  /** This method returns the layout of a line of route data. */
+  @Override
+  protected FieldSchema getSchema() {
+    return SCHEMA;
+  }
+
+  /** This method returns the error code for a route which could not be created. */
+  @Override
+  protected int getUnknownErrorCode() {
+    return 11;
   }
 
   /**
-   * This method calls the validator method to check a single line and then add that line to
-   * parserData if it is valid.
+   * This method creates a route object from a line of route data.
    *
-   * @param dataLine Line to be checked and added to parserData.
+   * @param line A string for each field of the line.
+   * @return the route created.
    */
-  protected void parseLine(String dataLine) {
-    String[] line = dataLine.split(",");
-    if (validater(line)) {
-      try {
-        Route route =
-            new Route(
-                line[airline],
-                Integer.parseInt(line[airlineID]),
-                line[sourceAirport],
-                Integer.parseInt(line[sourceAirportID]),
-                line[destinationAirport],
-                Integer.parseInt(line[destinationAirportID]),
-                line[codeshare],
-                Integer.parseInt(line[stops]),
-                line[equipment].split(" "));
-        addRoute(route);
-      } catch (Exception e) {
-        errorCounter(11);
-      }
-    }
+  @Override
+  protected DataType buildEntry(String[] line) {
+    changeNulls(line);
+    return new Route(
+        line[airline],
+        Integer.parseInt(line[airlineID]),
+        line[sourceAirport],
+        Integer.parseInt(line[sourceAirportID]),
+        line[destinationAirport],
+        Integer.parseInt(line[destinationAirportID]),
+        line[codeshare],
+        Integer.parseInt(line[stops]),
+        splitEquipment(line[equipment]));
+  }
+
+  /**
+   * This method adds a route to parserData if it is not a duplicate.
+   *
+   * @param entry the route to add.
+   */
+  @Override
+  protected void addEntry(DataType entry) {
+    addRoute((Route) entry);
   }
 
   /**
-   * This method checks that line has expected number of entries and calls isValid method to check
-   * that each token on the line matches the expected pattern.
+   * This method replaces '\N' IDs with 0 and then checks that each token on the line matches the
+   * expected pattern.
    *
    * @param line A string made up of comma-separated tokens representing data about a route
    * @return True if all tokens are valid, false otherwise
    */
   @Override
-  protected boolean validater(String[] line) {
-    if (line.length != 9) {
-      errorCounter(0);
-      return false;
-    }
-
+  protected boolean areFieldsValid(String[] line) {
     changeNulls(line);
+    return super.areFieldsValid(line);
+  }
 
-    if (!isAirlineValid(line[airline])) {
-      errorCounter(1);
-      return false;
-    }
-
-    if (!isAirlineIDValid(line[airlineID])) {
-      errorCounter(2);
-      return false;
-    }
-
-    if (!isAirportValid(line[sourceAirport])) {
-      errorCounter(3);
-      return false;
-    }
-
-    if (!isAirportIDValid(line[sourceAirportID])) {
-      errorCounter(4);
-      return false;
-    }
-
-    if (!isAirportValid(line[destinationAirport])) {
-      errorCounter(5);
-      return false;
-    }
-
-    if (!isAirportIDValid(line[destinationAirportID])) {
-      errorCounter(6);
-      return false;
-    }
-
-    if (!isCodeshareValid(line[codeshare])) {
-      errorCounter(7);
-      return false;
-    }
-
-    if (!isStopsValid(line[stops])) {
-      errorCounter(8);
-      return false;
+  /**
+   * This method returns the value of a field as it should be checked, with '\N' IDs read as 0.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @param column the index of the field.
+   * @return the value to check.
+   */
+  @Override
+  protected CharSequence fieldValue(CsvTokenizer fields, int column) {
+    CharSequence value = fields.view(column);
+    if ((column == airlineID || column == sourceAirportID || column == destinationAirportID)
+        && NULL_ID.contentEquals(value)) {
+      return "0";
     }
+    return value;
+  }
 
-    if (!isEquipmentValid(line[equipment])) {
-      errorCounter(9);
-      return false;
+  /**
+   * This method checks if the route on a line with valid fields has already been parsed, so the
+   * duplicate is rejected without creating a Route for it.
+   *
+   * @param fields the tokenizer holding the fields of the line.
+   * @return true if the route is a duplicate, false otherwise.
+   */
+  @Override
+  protected boolean isDuplicate(CsvTokenizer fields) {
+    long key =
+        RouteKeyIndex.key(
+            (int) FieldRule.parseInteger(fieldValue(fields, airlineID)),
+            (int) FieldRule.parseInteger(fieldValue(fields, sourceAirportID)),
+            (int) FieldRule.parseInteger(fieldValue(fields, destinationAirportID)));
+    if (existingKeys.contains(key) || routeKeys.contains(key)) {
+      errorCounter(10);
+      return true;
     }
-
-    return true;
+    return false;
   }
 
   /**
@@ -205,15 +268,15 @@ public class RouteParser extends Parser {
    * @param line Array to replace nulls in.
    */
   protected void changeNulls(String[] line) {
-    if (line[airlineID].equals("\\N")) {
+    if (line[airlineID].equals(NULL_ID)) {
       line[airlineID] = "0";
     }
 
-    if (line[sourceAirportID].equals("\\N")) {
+    if (line[sourceAirportID].equals(NULL_ID)) {
       line[sourceAirportID] = "0";
     }
 
-    if (line[destinationAirportID].equals("\\N")) {
+    if (line[destinationAirportID].equals(NULL_ID)) {
       line[destinationAirportID] = "0";
     }
   }
@@ -225,7 +288,7 @@ public class RouteParser extends Parser {
    * @return True if string matches ICAO or IATA format, false otherwise.
    */
   protected boolean isAirportValid(String airport) {
-    return (airport.length() == 3 || airport.length() == 4) && airport.matches("[A-Z]+");
+    return SOURCE_AIRPORT_RULE.isValid(airport);
   }
 
   /**
@@ -235,7 +298,7 @@ public class RouteParser extends Parser {
    * @return True if string matches openFlights format, false otherwise.
    */
   protected boolean isAirportIDValid(String airportID) {
-    return (airportID.length() <= 5 && airportID.matches("[0-9]+"));
+    return SOURCE_AIRPORT_ID_RULE.isValid(airportID);
   }
 
   /**
@@ -245,7 +308,7 @@ public class RouteParser extends Parser {
    * @return True if string matches ICAO or IATA format, false otherwise.
    */
   protected boolean isAirlineValid(String airline) {
-    return (airline.length() == 2 || airline.length() == 3) && airline.matches("[0-9A-Z]+");
+    return AIRLINE_RULE.isValid(airline);
   }
 
   /**
@@ -255,7 +318,7 @@ public class RouteParser extends Parser {
    * @return True if string matches openFlights format, false otherwise.
    */
   protected boolean isAirlineIDValid(String airlineID) {
-    return airlineID.length() <= 5 && airlineID.matches("[0-9]+");
+    return AIRLINE_ID_RULE.isValid(airlineID);
   }
 
   /**
@@ -265,7 +328,7 @@ public class RouteParser extends Parser {
    * @return true if string is "Y" or empty, false otherwise.
    */
   protected boolean isCodeshareValid(String codeshare) {
-    return codeshare.isEmpty() || codeshare.equals("Y");
+    return CODESHARE_RULE.isValid(codeshare);
   }
 
   /**
@@ -275,7 +338,7 @@ public class RouteParser extends Parser {
    * @return True if string is a number less than 10, false otherwise.
    */
   protected boolean isStopsValid(String stops) {
-    return stops.matches("[0-9]");
+    return STOPS_RULE.isValid(stops);
   }
 
   /**
@@ -286,13 +349,18 @@ public class RouteParser extends Parser {
    * @return True if string matches expected format, false otherwise.
    */
   protected boolean isEquipmentValid(String equipment) {
-    String[] equipArray = equipment.split(" ");
-    for (String plane : equipArray) {
-      if (!(plane.length() == 3 && plane.matches("[0-9A-Z]+"))) {
-        return false;
-      }
-    }
-    return true;
+    return EQUIPMENT_RULE.isValid(equipment);
+  }
+
+  /**
+   * This method splits the equipment field into its plane codes.
+   *
+   * @param equipment The equipment field of a route.
+   * @return the plane codes.
+   */
+  private String[] splitEquipment(String equipment) {
+    equipmentTokenizer.tokenize(equipment);
+    return equipmentTokenizer.toArray();
   }
 
   /**
@@ -301,23 +369,10 @@ public class RouteParser extends Parser {
    * @param newRoute Route to be added.
    */
   private void addRoute(Route newRoute) {
-    boolean inData = false;
-    int[] newCode = new int[2];
-    newCode[0] = newRoute.getSourceAirportID();
-    newCode[1] = newRoute.getDestinationAirportID();
-    if (routeCodes.size() > newRoute.getAirlineID()) {
-      ArrayList<int[]> searchList = routeCodes.get(newRoute.getAirlineID());
-      for (int[] existingCode : searchList) {
-        if (existingCode[0] == newCode[0] && existingCode[1] == newCode[1]) {
-          inData = true;
-          errorCounter(10);
-          break;
-        }
-      }
-    }
-    if (!inData) {
+    if (!existingKeys.contains(newRoute) && routeKeys.add(newRoute)) {
       parserData.add(newRoute);
-      addToRouteCodes(newRoute);
+    } else {
+      errorCounter(10);
     }
   }
 }
@@ -0,0 +1,110 @@
+package model.loader;
+
+import model.data.DataType;
+import java.util.List;
+
+/**
+ * A data file which has been parsed by the Loader but not yet added to Storage. Holds the parsed
+ * data so that the file only has to be read once, even though the user is shown the errors found
+ * in it before deciding whether to upload it. A staged upload is either committed into Storage or
+ * discarded, and cannot be used again after either.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class StagedUpload {
+
+  /** The name of the file the data was read from. */
+  private final String fileName;
+
+  /** The type of data in the file, one of Airline, Airport, Route. */
+  private final String dataType;
+
+  /** The parser which processed the file, or null once the upload is committed or discarded. */
+  private Parser parser;
+
+  /** The message describing the errors found in the file. */
+  private final String errorMessage;
+
+  /** The message describing how quickly the file was read and parsed. */
+  private final String ingestReport;
+
+  /**
+   * Constructor of StagedUpload.
+   *
+   * @param fileName The name of the file the data was read from.
+   * @param dataType The type of data in the file.
+   * @param parser The parser which processed the file.
+   * @param ingestReport The message describing how quickly the file was read and parsed.
+   */
+  StagedUpload(String fileName, String dataType, Parser parser, String ingestReport) {
+    this.fileName = fileName;
+    this.dataType = dataType;
+    this.parser = parser;
+    this.errorMessage = parser.getErrorMessage(true);
+    this.ingestReport = ingestReport;
+  }
+
+  /**
+   * This method returns the name of the file the data was read from.
+   *
+   * @return the file name.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * This method returns the type of data in the file.
+   *
+   * @return one of Airline, Airport, Route.
+   */
+  public String getDataType() {
+    return dataType;
+  }
+
+  /**
+   * This method returns the message describing the errors found in the file.
+   *
+   * @return Error information string.
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * This method returns the message describing how quickly the file was read and parsed.
+   *
+   * @return String with the ingest statistics for the file.
+   */
+  public String getIngestReport() {
+    return ingestReport;
+  }
+
+  /**
+   * This method checks if the upload can still be committed.
+   *
+   * @return true if the upload has not been committed or discarded, false otherwise.
+   */
+  public boolean isPending() {
+    return parser != null;
+  }
+
+  /**
+   * This method returns the data parsed from the file.
+   *
+   * @return the parsed data.
+   * @throws IllegalStateException If the upload has already been committed or discarded.
+   */
+  List<DataType> getData() throws IllegalStateException {
+    if (parser == null) {
+      throw new IllegalStateException("Upload of " + fileName + " is no longer pending.");
+    }
+    return parser.getData();
+  }
+
+  /** This method releases the parsed data, so the upload can no longer be committed. */
+  void release() {
+    parser = null;
+  }
+}
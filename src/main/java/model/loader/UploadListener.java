@@ -0,0 +1,22 @@
+package model.loader;
+
+/**
+ * Listener told about the progress of a file being uploaded by the UploadService. It is called on
+ * the executor given to the service, which in the application is the JavaFX thread.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public interface UploadListener {
+
+  /**
+   * This method is called when the state of an upload changes, and regularly while lines are
+   * parsed and rows are written. It is called once with each state the upload changes to, so a
+   * listener should act on a change of state through the state given, as the upload may have
+   * changed again by the time the listener is called.
+   *
+   * @param task The upload which has changed.
+   * @param state The state of the upload when it changed.
+   */
+  void uploadChanged(UploadTask task, UploadTask.State state);
+}
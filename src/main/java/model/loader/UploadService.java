@@ -0,0 +1,316 @@
+package model.loader;
+
+import model.data.DataType;
+import model.data.Storage;
+import model.database.PragmaProfile;
+import model.database.RowBatch;
+import model.database.SQLiteDatabase;
+import java.nio.file.FileSystemException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class which uploads files in the background so the application stays responsive while large
+ * files are read. Files are parsed on a pool of threads, so several files can be parsed at once,
+ * and written to the database by a single writer thread, since the database has a single writer
+ * connection, which is reserved for the whole of each write. Storage is only changed on the
+ * executor given to the service, which in the application is the JavaFX thread.
+ *
+ * <p>An upload is started with upload, waits in the STAGED state once the file is parsed, and is
+ * then either committed or cancelled. Cancelling an upload while it is being written rolls back
+ * the rows written so far and removes the file from storage and the database.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class UploadService {
+
+  /** The number of files which can be parsed at once. */
+  private static final int PARSE_THREADS = 2;
+
+  /** The longest time to wait for changes queued in storage to be written before an upload. */
+  private static final long QUEUED_WRITES_TIMEOUT_SECONDS = 60;
+
+  /** The longest time to wait for queued changes, in milliseconds. */
+  private long queuedWritesTimeout = TimeUnit.SECONDS.toMillis(QUEUED_WRITES_TIMEOUT_SECONDS);
+
+  /** The loader used to check and parse files. */
+  private final Loader loader;
+
+  /** The storage uploaded data is added to. */
+  private final Storage storage;
+
+  /** Runs changes to storage and calls to listeners, the JavaFX thread in the application. */
+  private final Executor storageExecutor;
+
+  /** The threads files are parsed on. */
+  private final ExecutorService parsePool;
+
+  /** The thread data is written to the database on. */
+  private final ExecutorService writer;
+
+  /** The uploads which have not finished. */
+  private final List<UploadTask> activeUploads = new CopyOnWriteArrayList<>();
+
+  /** The database the writer thread writes to, created on first use. */
+  private SQLiteDatabase database;
+
+  /**
+   * Constructor of UploadService.
+   *
+   * @param loader The loader used to check and parse files.
+   * @param storage The storage uploaded data is added to.
+   * @param storageExecutor Runs changes to storage and calls to listeners.
+   */
+  public UploadService(Loader loader, Storage storage, Executor storageExecutor) {
+    this.loader = loader;
+    this.storage = storage;
+    this.storageExecutor = storageExecutor;
+    this.parsePool = Executors.newFixedThreadPool(PARSE_THREADS, daemonThreads("upload-parser"));
+    this.writer = Executors.newSingleThreadExecutor(daemonThreads("upload-writer"));
+  }
+
+  /**
+   * This method creates daemon threads with the given name, so uploads do not stop the
+   * application from exiting.
+   *
+   * @param name The name of the threads.
+   * @return the thread factory.
+   */
+  private static ThreadFactory daemonThreads(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * This method checks a file can be uploaded and starts parsing it in the background. The
+   * listener is told when the file is staged, and should then commit or cancel the upload.
+   *
+   * @param filePath Path of the file to be uploaded.
+   * @param dataType The type of data in the file (one of airport, airline, or route).
+   * @param listener Told about the progress of the upload.
+   * @return the upload started.
+   * @throws FileSystemException If the file is not in a supported format.
+   * @throws RuntimeException If the file name is already in use or is already being uploaded.
+   */
+  public UploadTask upload(String filePath, String dataType, UploadListener listener)
+      throws FileSystemException {
+    loader.checkUpload(filePath, dataType);
+    String fileName = loader.getFileName(filePath);
+    for (UploadTask active : activeUploads) {
+      if (active.getFileName().equals(fileName)) {
+        throw new RuntimeException(
+            String.format("The file %s is already being uploaded", fileName));
+      }
+    }
+
+    UploadTask task = new UploadTask(filePath, fileName, dataType);
+    task.setProgressCallback(() -> notify(task, listener));
+    activeUploads.add(task);
+    parsePool.execute(() -> parse(task, listener));
+    return task;
+  }
+
+  /**
+   * This method parses the file of an upload, on a parser thread.
+   *
+   * @param task The upload to parse.
+   * @param listener Told about the progress of the upload.
+   */
+  private void parse(UploadTask task, UploadListener listener) {
+    try {
+      task.checkCancelled();
+      StagedUpload upload = loader.parseFile(task.getFilePath(), task.getDataType(), task);
+      synchronized (task) {
+        if (task.isCancelled()) {
+          loader.discard(upload);
+          throw new CancellationException();
+        }
+        task.staged(upload);
+      }
+    } catch (CancellationException e) {
+      task.cancelled();
+      activeUploads.remove(task);
+    } catch (Exception e) {
+      task.failed(e);
+      activeUploads.remove(task);
+    }
+    notify(task, listener);
+  }
+
+  /**
+   * This method stores the data of a staged upload and starts writing it to the database in the
+   * background. It must be called on the thread storage is changed on.
+   *
+   * @param task The staged upload to commit.
+   * @param listener Told about the progress of the upload.
+   * @throws IllegalStateException If the upload is not staged.
+   * @throws RuntimeException If a file with the same name has been uploaded since it was staged.
+   */
+  public void commit(UploadTask task, UploadListener listener) throws IllegalStateException {
+    if (task.getState() != UploadTask.State.STAGED) {
+      throw new IllegalStateException("Upload of " + task.getFileName() + " is not staged.");
+    }
+    StagedUpload upload = task.getUpload();
+    List<DataType> rows = upload.getData();
+    try {
+      loader.commit(upload);
+    } catch (RuntimeException e) {
+      loader.discard(upload);
+      task.failed(e);
+      activeUploads.remove(task);
+      notify(task, listener);
+      throw e;
+    }
+    task.writing(rows);
+    notify(task, listener);
+    writer.execute(() -> write(task, listener));
+  }
+
+  /**
+   * This method asks an upload to stop. A staged upload is discarded straight away, an upload being
+   * parsed or written stops at the next line or row, and any rows it has written are rolled back.
+   *
+   * @param task The upload to cancel.
+   * @param listener Told about the progress of the upload.
+   */
+  public void cancel(UploadTask task, UploadListener listener) {
+    synchronized (task) {
+      task.cancel();
+      if (task.getState() != UploadTask.State.STAGED) {
+        return;
+      }
+      loader.discard(task.getUpload());
+      task.cancelled();
+    }
+    activeUploads.remove(task);
+    notify(task, listener);
+  }
+
+  /**
+   * This method writes the data of an upload to the database, on the writer thread. The writer
+   * uses the BULK_INGEST settings while the upload is written. Changes queued in storage before
+   * the upload, such as deleting a file with the same name, are written first, and the upload
+   * fails if they are not written in time, as they could otherwise delete or change its rows. If
+   * the file cannot be registered, or its rows written or committed, the upload is rolled back and
+   * fails, so it is never reported done without being in the database.
+   *
+   * @param task The upload to write.
+   * @param listener Told about the progress of the upload.
+   */
+  private void write(UploadTask task, UploadListener listener) {
+    String fileName = task.getFileName();
+    String dataType = task.getDataType();
+    boolean tableCreated = false;
+    if (!storage.getPersistence().flush(queuedWritesTimeout, TimeUnit.MILLISECONDS)) {
+      storageExecutor.execute(() -> storage.removeFile(fileName, dataType));
+      task.failed(
+          new IllegalStateException(
+              "Changes made before uploading " + fileName + " could not be saved in time."));
+      activeUploads.remove(task);
+      notify(task, listener);
+      return;
+    }
+    if (database == null) {
+      database = new SQLiteDatabase();
+    }
+    database.beginWrite();
+    database.setWriterProfile(PragmaProfile.BULK_INGEST);
+    try {
+      task.checkCancelled();
+      database.startFile(dataType, fileName);
+      tableCreated = true;
+      try (RowBatch batch = database.startBatch(dataType)) {
+        for (DataType row : task.getRows()) {
+          if (row != null) {
+            batch.add(row);
+            task.rowWritten();
+          }
+        }
+      }
+      task.checkCancelled();
+      database.commit();
+      database.writeSnapshot(dataType, fileName, task.getRows());
+      task.done();
+    } catch (Exception e) {
+      database.rollback();
+      if (tableCreated) {
+        database.deleteFile(fileName, dataType);
+      }
+      storageExecutor.execute(() -> storage.removeFile(fileName, dataType));
+      if (e instanceof CancellationException) {
+        task.cancelled();
+      } else {
+        task.failed(e);
+      }
+    } finally {
+      database.setWriterProfile(database.getProfile());
+      database.endWrite();
+    }
+    activeUploads.remove(task);
+    notify(task, listener);
+  }
+
+  /**
+   * This method sets the longest time to wait for changes queued in storage to be written before
+   * an upload.
+   *
+   * @param timeout The longest time to wait.
+   * @param unit The unit of the timeout.
+   */
+  void setQueuedWritesTimeout(long timeout, TimeUnit unit) {
+    queuedWritesTimeout = unit.toMillis(timeout);
+  }
+
+  /**
+   * This method tells a listener about an upload on the storage executor, with the state the
+   * upload is in now.
+   *
+   * @param task The upload which has changed.
+   * @param listener The listener to tell.
+   */
+  private void notify(UploadTask task, UploadListener listener) {
+    UploadTask.State state = task.getState();
+    storageExecutor.execute(() -> listener.uploadChanged(task, state));
+  }
+
+  /**
+   * This method returns the uploads which have not finished.
+   *
+   * @return a list of the active uploads.
+   */
+  public List<UploadTask> getActiveUploads() {
+    return new ArrayList<>(activeUploads);
+  }
+
+  /**
+   * This method stops accepting uploads, cancels the uploads being parsed and waits for the rows
+   * being written to finish, so the database is left complete when the application closes.
+   *
+   * @param timeoutSeconds The longest time to wait for the writer.
+   */
+  public void shutdown(long timeoutSeconds) {
+    for (UploadTask task : activeUploads) {
+      if (task.getState() != UploadTask.State.WRITING) {
+        task.cancel();
+      }
+    }
+    parsePool.shutdownNow();
+    writer.shutdown();
+    try {
+      writer.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,384 @@
+package model.loader;
+
+import model.data.DataType;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A file being uploaded in the background by the UploadService. The file is first parsed, then
+ * waits in the STAGED state until the user confirms or cancels it, and is then written to the
+ * database. The counts of lines parsed and rows written can be read from any thread while the
+ * upload runs.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class UploadTask {
+
+  /** The stages an upload goes through. */
+  public enum State {
+    /** The file is being read and parsed. */
+    PARSING,
+    /** The file has been parsed and is waiting to be committed or cancelled. */
+    STAGED,
+    /** The data is in storage and is being written to the database. */
+    WRITING,
+    /** The data has been stored and written to the database. */
+    DONE,
+    /** The upload was cancelled and anything it stored has been removed. */
+    CANCELLED,
+    /** The upload stopped because of an error. */
+    FAILED
+  }
+
+  /** The number of lines parsed or rows written between progress updates. */
+  static final int PROGRESS_INTERVAL = 4096;
+
+  /** The path of the file being uploaded. */
+  private final String filePath;
+
+  /** The name of the file being uploaded. */
+  private final String fileName;
+
+  /** The type of data in the file, one of Airline, Airport, Route. */
+  private final String dataType;
+
+  /** The current state of the upload. */
+  private volatile State state = State.PARSING;
+
+  /** Whether the upload has been asked to stop. */
+  private volatile boolean cancelled = false;
+
+  /** The parsed file, once the upload is staged. */
+  private volatile StagedUpload upload;
+
+  /** The data being written to the database. */
+  private volatile List<DataType> rows;
+
+  /** The error which stopped the upload, if it failed. */
+  private volatile Exception error;
+
+  /** The number of lines read from the file so far. */
+  private final AtomicLong linesParsed = new AtomicLong();
+
+  /** The number of rows written to the database so far. */
+  private final AtomicLong rowsWritten = new AtomicLong();
+
+  /** The time parsing started, from System.nanoTime. */
+  private final long parseStartNanos = System.nanoTime();
+
+  /** The time parsing finished, or 0 while the file is being parsed. */
+  private volatile long parseEndNanos = 0;
+
+  /** The time writing started, or 0 if it has not. */
+  private volatile long writeStartNanos = 0;
+
+  /** The time writing finished, or 0 while rows are being written. */
+  private volatile long writeEndNanos = 0;
+
+  /** Called every PROGRESS_INTERVAL lines or rows. */
+  private Runnable progressCallback = () -> {};
+
+  /**
+   * Constructor of UploadTask.
+   *
+   * @param filePath The path of the file being uploaded.
+   * @param fileName The name of the file being uploaded.
+   * @param dataType The type of data in the file.
+   */
+  UploadTask(String filePath, String fileName, String dataType) {
+    this.filePath = filePath;
+    this.fileName = fileName;
+    this.dataType = dataType;
+  }
+
+  /**
+   * This method returns the path of the file being uploaded.
+   *
+   * @return the file path.
+   */
+  public String getFilePath() {
+    return filePath;
+  }
+
+  /**
+   * This method returns the name of the file being uploaded.
+   *
+   * @return the file name.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * This method returns the type of data in the file.
+   *
+   * @return one of Airline, Airport, Route.
+   */
+  public String getDataType() {
+    return dataType;
+  }
+
+  /**
+   * This method returns the current state of the upload.
+   *
+   * @return the state.
+   */
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * This method checks if the upload has finished, whether or not it succeeded.
+   *
+   * @return true if the upload is done, cancelled or failed, false otherwise.
+   */
+  public boolean isFinished() {
+    return state == State.DONE || state == State.CANCELLED || state == State.FAILED;
+  }
+
+  /**
+   * This method checks if the upload has been asked to stop.
+   *
+   * @return true if the upload has been cancelled, false otherwise.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * This method returns the parsed file once the upload is staged.
+   *
+   * @return the staged upload, or null if the file has not been parsed.
+   */
+  public StagedUpload getUpload() {
+    return upload;
+  }
+
+  /**
+   * This method returns the error which stopped the upload.
+   *
+   * @return the error, or null if the upload has not failed.
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * This method returns the number of lines read from the file so far.
+   *
+   * @return the number of lines parsed.
+   */
+  public long getLinesParsed() {
+    return linesParsed.get();
+  }
+
+  /**
+   * This method returns the number of rows written to the database so far.
+   *
+   * @return the number of rows written.
+   */
+  public long getRowsWritten() {
+    return rowsWritten.get();
+  }
+
+  /**
+   * This method returns the rate lines were parsed at, up to now if the file is still being parsed.
+   *
+   * @return the number of lines parsed per second.
+   */
+  public double getLinesPerSecond() {
+    long end = parseEndNanos == 0 ? System.nanoTime() : parseEndNanos;
+    return perSecond(linesParsed.get(), end - parseStartNanos);
+  }
+
+  /**
+   * This method returns the rate rows were written at, up to now if rows are still being written.
+   *
+   * @return the number of rows written per second, or 0 if writing has not started.
+   */
+  public double getRowsPerSecond() {
+    if (writeStartNanos == 0) {
+      return 0;
+    }
+    long end = writeEndNanos == 0 ? System.nanoTime() : writeEndNanos;
+    return perSecond(rowsWritten.get(), end - writeStartNanos);
+  }
+
+  /**
+   * This method creates a message describing the progress of the upload.
+   *
+   * @return String with the state and progress of the upload.
+   */
+  public String getProgressReport() {
+    String report =
+        String.format(
+            "%s (%s): %s, %d lines parsed (%.0f lines/s)",
+            fileName, dataType, state, getLinesParsed(), getLinesPerSecond());
+    if (writeStartNanos != 0) {
+      report +=
+          String.format(", %d rows written (%.0f rows/s)", getRowsWritten(), getRowsPerSecond());
+    }
+    if (state == State.FAILED && error != null) {
+      report += ", " + error.getMessage();
+    }
+    return report;
+  }
+
+  /**
+   * This method returns the progress report, so the upload can be shown directly in a list.
+   *
+   * @return String with the state and progress of the upload.
+   */
+  @Override
+  public String toString() {
+    return getProgressReport();
+  }
+
+  /**
+   * This method calculates a rate per second.
+   *
+   * @param count The number of items processed.
+   * @param nanos The time taken in nanoseconds.
+   * @return the number of items per second, or 0 if no time has passed.
+   */
+  private static double perSecond(long count, long nanos) {
+    return nanos <= 0 ? 0 : count / (nanos / 1e9);
+  }
+
+  /** This method asks the upload to stop. */
+  void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * This method sets the callback run every PROGRESS_INTERVAL lines or rows.
+   *
+   * @param progressCallback The callback to run.
+   */
+  void setProgressCallback(Runnable progressCallback) {
+    this.progressCallback = progressCallback;
+  }
+
+  /**
+   * This method wraps the lines of the file so each line read is counted, and so reading stops
+   * with a CancellationException once the upload is cancelled.
+   *
+   * @param lines The lines of the file.
+   * @param <T> The type of the lines.
+   * @return the same lines, counted as they are read.
+   */
+  <T> Iterable<T> track(Iterable<T> lines) {
+    return () -> {
+      Iterator<T> iterator = lines.iterator();
+      return new Iterator<T>() {
+        @Override
+        public boolean hasNext() {
+          checkCancelled();
+          return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+          T line = iterator.next();
+          if (linesParsed.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+            progressCallback.run();
+          }
+          return line;
+        }
+      };
+    };
+  }
+
+  /**
+   * This method counts a row written to the database.
+   *
+   * @throws CancellationException If the upload has been cancelled.
+   */
+  void rowWritten() throws CancellationException {
+    checkCancelled();
+    if (rowsWritten.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+      progressCallback.run();
+    }
+  }
+
+  /**
+   * This method throws an exception if the upload has been cancelled.
+   *
+   * @throws CancellationException If the upload has been cancelled.
+   */
+  void checkCancelled() throws CancellationException {
+    if (cancelled) {
+      throw new CancellationException("Upload of " + fileName + " was cancelled.");
+    }
+  }
+
+  /**
+   * This method records that the file has been parsed.
+   *
+   * @param upload The parsed file.
+   */
+  void staged(StagedUpload upload) {
+    this.upload = upload;
+    parseEndNanos = System.nanoTime();
+    state = State.STAGED;
+  }
+
+  /**
+   * This method records that the data is being written to the database.
+   *
+   * @param rows The data to write.
+   */
+  void writing(List<DataType> rows) {
+    this.rows = rows;
+    writeStartNanos = System.nanoTime();
+    state = State.WRITING;
+  }
+
+  /**
+   * This method returns the data being written to the database.
+   *
+   * @return the rows to write.
+   */
+  List<DataType> getRows() {
+    return rows;
+  }
+
+  /** This method records that the upload has finished successfully. */
+  void done() {
+    writeEndNanos = System.nanoTime();
+    rows = null;
+    state = State.DONE;
+  }
+
+  /** This method records that the upload was cancelled. */
+  void cancelled() {
+    finish();
+    state = State.CANCELLED;
+  }
+
+  /**
+   * This method records that the upload stopped because of an error.
+   *
+   * @param error The error which stopped the upload.
+   */
+  void failed(Exception error) {
+    this.error = error;
+    finish();
+    state = State.FAILED;
+  }
+
+  /** This method stops the clocks and releases the data of an upload which did not finish. */
+  private void finish() {
+    long now = System.nanoTime();
+    if (parseEndNanos == 0) {
+      parseEndNanos = now;
+    }
+    if (writeStartNanos != 0 && writeEndNanos == 0) {
+      writeEndNanos = now;
+    }
+    rows = null;
+  }
+}
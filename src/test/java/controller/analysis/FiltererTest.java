@@ -4,6 +4,7 @@ import model.data.Airline;
 import model.data.Airport;
 import model.data.Route;
 import model.data.Storage;
+import model.database.QueryBackend;
 import model.loader.Loader;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +13,7 @@ import java.nio.file.FileSystemException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.*;
 
 /**
@@ -675,4 +677,23 @@ public class FiltererTest {
     expectedResults.add(new Route("2K", 1654, "HTA", 2935, "IKT", 2937, "", 0, "AN4".split(" ")));
     assertArrayEquals(expectedResults.toArray(), results.toArray());
   }
+
+  /**
+   * Verify that filtering a stored airport file in the database finds the same airports, and
+   * records the order key of each.
+   */
+  @Test
+  public void filterAirportsInDatabaseTest() {
+    storage.updateDatabase("Airport");
+    assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+    HashMap<String, String> testFilterTerms = new HashMap<>();
+    testFilterTerms.put("Name", "goroka");
+    testFilterTerms.put("Country", "Papua New Guinea");
+    filterer.filterAirports(testFilterTerms, storage.getAirports());
+    ArrayList<Airport> expected = new ArrayList<>(filterer.getFilteredAirports());
+    assertNull(filterer.getFilteredKeys());
+    filterer.filterAirports(testFilterTerms, new QueryBackend(), storage.getCurrentAirportFile());
+    assertEquals(expected, filterer.getFilteredAirports());
+    assertEquals(expected.size(), filterer.getFilteredKeys().size());
+  }
 }
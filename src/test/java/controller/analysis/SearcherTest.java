@@ -4,6 +4,7 @@ import model.data.Airline;
 import model.data.Airport;
 import model.data.Route;
 import model.data.Storage;
+import model.database.QueryBackend;
 import model.loader.Loader;
 import org.junit.Before;
 import org.junit.Test;
@@ -11,7 +12,10 @@ import java.io.FileNotFoundException;
 import java.nio.file.FileSystemException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.*;
 
 /**
@@ -434,4 +438,65 @@ public class SearcherTest {
         Searcher.searchAirlines("True", "Active status", storage.getAirlines());
     assertArrayEquals(expectedResults.toArray(), results.toArray());
   }
+
+  /** Verify that searching a stored airport file in the database finds the same airports. */
+  @Test
+  public void searchAirportsInDatabaseTest() {
+    storage.updateDatabase("Airport");
+    assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+    assertEquals(
+        Searcher.searchAirports("greenland", "Country", storage.getAirports()),
+        Searcher.searchAirports(
+            "greenland", "Country", new QueryBackend(), storage.getCurrentAirportFile(), null));
+  }
+
+  /** Verify that searching a stored airline file in the database finds the same airlines. */
+  @Test
+  public void searchAirlinesInDatabaseTest() {
+    storage.updateDatabase("Airline");
+    assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+    assertEquals(
+        Searcher.searchAirlines("True", "Active status", storage.getAirlines()),
+        Searcher.searchAirlines(
+            "True",
+            "Active status",
+            new QueryBackend(),
+            storage.getCurrentAirlineFile(),
+            null));
+  }
+
+  /**
+   * Verify that searching a stored route file in the database finds the same routes, and the order
+   * key of each.
+   */
+  @Test
+  public void searchRoutesInDatabaseTest() {
+    storage.updateDatabase("Route");
+    assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+    ArrayList<Route> expected = Searcher.searchRoutes("gyd", "Source", storage.getRoutes());
+    Map<Route, Long> keys = new IdentityHashMap<>();
+    ArrayList<Route> results =
+        Searcher.searchRoutes(
+            "gyd", "Source", new QueryBackend(), storage.getCurrentRouteFile(), keys);
+    assertEquals(expected.size(), results.size());
+    assertEquals(results.size(), keys.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getAirlineID(), results.get(i).getAirlineID());
+      assertEquals(
+          expected.get(i).getDestinationAirportID(), results.get(i).getDestinationAirportID());
+    }
+  }
+
+  /** Verify that searching the database with no matching entries raises a RuntimeException. */
+  @Test(expected = RuntimeException.class)
+  public void searchRoutesInDatabaseNoMatchTest() {
+    storage.updateDatabase("Route");
+    assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+    Searcher.searchRoutes(
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZ",
+        "Airline",
+        new QueryBackend(),
+        storage.getCurrentRouteFile(),
+        null);
+  }
 }
@@ -0,0 +1,89 @@
+package controller.guiController.dataview;
+
+import model.data.Airport;
+import model.database.ConnectionManager;
+import model.database.RowPager;
+import model.database.SQLiteDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PagedRowList class, reading a database in a temporary folder.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PagedRowListTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+  private SQLiteDatabase database;
+
+  @Before
+  public void setUp() {
+    connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite"), 2);
+    database = new SQLiteDatabase(connections);
+    List<Airport> airports = new ArrayList<>();
+    for (int i = 0; i < 3 * PagedRowList.PAGE_SIZE; i++) {
+      airports.add(
+          new Airport(
+              i, "Goroka", "Goroka", "Papua New Guinea", "GKA", "AYGA", 1.5, 2.5, 10, 10, "U",
+              "Pacific/Port_Moresby"));
+    }
+    database.beginWrite();
+    try {
+      database.initialiseTable("Airport", "pagedAirports.csv");
+      database.updateAirportTable(airports);
+      database.updateTableList("pagedAirports.csv", "Airport");
+    } finally {
+      database.endWrite();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /** Test that the rows are read a page at a time, in the order of the file. */
+  @Test
+  public void readRowsTest() throws SQLException {
+    PagedRowList<Airport> airports =
+        new PagedRowList<>(new RowPager(connections, "Airport", "pagedAirports.csv"));
+    assertEquals(3 * PagedRowList.PAGE_SIZE, airports.size());
+    assertEquals(0, airports.get(0).getAirportID());
+    int last = airports.size() - 1;
+    assertEquals(last, airports.get(last).getAirportID());
+    assertNull(airports.getFailure());
+  }
+
+  /**
+   * Test that once a page cannot be read the listener is told once, and the pages which are not
+   * kept are not read again.
+   */
+  @Test
+  public void failedReadTest() throws SQLException {
+    PagedRowList<Airport> airports =
+        new PagedRowList<>(new RowPager(connections, "Airport", "pagedAirports.csv"));
+    List<SQLException> failures = new ArrayList<>();
+    airports.setFailureListener(failures::add);
+    assertNotNull(airports.get(0));
+    database.deleteFile("pagedAirports.csv", "Airport");
+
+    assertNull(airports.get(2 * PagedRowList.PAGE_SIZE));
+    assertNull(airports.get(2 * PagedRowList.PAGE_SIZE + 1));
+    assertEquals(1, failures.size());
+    assertSame(failures.get(0), airports.getFailure());
+    assertNotNull(airports.get(1));
+  }
+}
@@ -0,0 +1,77 @@
+package controller.guiController.dataview;
+
+import javafx.beans.property.BooleanProperty;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RowSelection class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowSelectionTest {
+
+  private final RowSelection<String> selection = new RowSelection<>();
+
+  /** Test that checking and unchecking the property of a row selects and deselects it. */
+  @Test
+  public void propertySelectsTest() {
+    String row = "row";
+    BooleanProperty property = selection.property(row, 0);
+    assertFalse(property.get());
+    property.set(true);
+    assertTrue(selection.isSelected(row));
+    assertTrue(selection.property(row, 0).get());
+    property.set(false);
+    assertTrue(selection.isEmpty());
+  }
+
+  /** Test that rows equal to a selected row are not selected with it. */
+  @Test
+  public void identityTest() {
+    String row = new String("row");
+    selection.property(row, 0).set(true);
+    assertFalse(selection.isSelected(new String("row")));
+    selection.deselect(Collections.singletonList(new String("row")));
+    assertTrue(selection.isSelected(row));
+  }
+
+  /** Test that the position of a row is only found once it is selected. */
+  @Test
+  public void positionWhenSelectedTest() {
+    int[] found = {0};
+    BooleanProperty property =
+        selection.property(
+            "c",
+            () -> {
+              found[0]++;
+              return 2;
+            });
+    assertEquals(0, found[0]);
+    property.set(true);
+    assertEquals(1, found[0]);
+    List<String> loaded = Arrays.asList("a", "b", new String("c"));
+    selection.resolve(loaded);
+    assertTrue(selection.isSelected(loaded.get(2)));
+  }
+
+  /** Test that resolving replaces each selected row by the row at its position. */
+  @Test
+  public void resolveTest() {
+    selection.property("a", 0).set(true);
+    selection.property("c", 2).set(true);
+    selection.property("z", 9).set(true);
+    List<String> loaded = Arrays.asList(new String("a"), "b", new String("c"));
+    selection.resolve(loaded);
+    assertTrue(selection.isSelected(loaded.get(0)));
+    assertFalse(selection.isSelected(loaded.get(1)));
+    assertTrue(selection.isSelected(loaded.get(2)));
+    selection.deselect(loaded);
+    assertTrue(selection.isEmpty());
+  }
+}
@@ -0,0 +1,51 @@
+package model.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for EquipmentCodes class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class EquipmentCodesTest {
+
+  /** Test that the same codes always give the same array, and each code the same string. */
+  @Test
+  public void sameCodesSharedTest() {
+    String[] first = EquipmentCodes.intern(new String[] {"CR2", "A81"});
+    String[] second = EquipmentCodes.intern(new String[] {new String("CR2"), "A81"});
+    assertSame(first, second);
+    assertSame(first[0], EquipmentCodes.intern(new String[] {"CR2"})[0]);
+    assertNotSame(first, EquipmentCodes.intern(new String[] {"A81", "CR2"}));
+  }
+
+  /** Test that empty codes, such as those left by a leading space, are left out. */
+  @Test
+  public void emptyCodesLeftOutTest() {
+    String[] codes = EquipmentCodes.intern(new String[] {"", "CR2"});
+    assertArrayEquals(new String[] {"CR2"}, codes);
+    assertSame(codes, EquipmentCodes.intern(new String[] {"CR2"}));
+    assertEquals(0, EquipmentCodes.intern(new String[] {""}).length);
+  }
+
+  /** Test that space separated text is split into its codes. */
+  @Test
+  public void splitTest() {
+    String[] codes = EquipmentCodes.intern(new String[] {"CR2", "A81"});
+    assertSame(codes, EquipmentCodes.split(" CR2  A81"));
+    assertEquals(0, EquipmentCodes.split(null).length);
+    assertEquals(0, EquipmentCodes.split("  ").length);
+  }
+
+  /** Test that routes flying the same planes share their codes. */
+  @Test
+  public void routesShareCodesTest() {
+    Route first = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
+    Route second = new Route("2B", 410, "ASF", 2966, "KZN", 2990, "", 0, new String[] {"CR2"});
+    assertSame(first.getEquipment(), second.getEquipment());
+    assertEquals("CR2", first.getFirstEquipment());
+  }
+}
@@ -0,0 +1,106 @@
+package model.data;
+
+import org.junit.Before;
+import org.junit.Test;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for RouteKeyIndex.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RouteKeyIndexTest {
+
+  private RouteKeyIndex index;
+  private Route route;
+
+  @Before
+  public void setUp() {
+    index = new RouteKeyIndex();
+    route = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
+  }
+
+  /** Verify that routes with different IDs are given different keys. */
+  @Test
+  public void keyDistinctTest() {
+    Set<Long> keys = new HashSet<>();
+    keys.add(RouteKeyIndex.key(1, 2, 3));
+    keys.add(RouteKeyIndex.key(1, 3, 2));
+    keys.add(RouteKeyIndex.key(2, 1, 3));
+    keys.add(RouteKeyIndex.key(0, 0, 0));
+    keys.add(RouteKeyIndex.key(RouteKeyIndex.MAX_ID, RouteKeyIndex.MAX_ID, RouteKeyIndex.MAX_ID));
+    assertEquals(5, keys.size());
+  }
+
+  /** Verify that key throws an exception for a negative ID. */
+  @Test(expected = IllegalArgumentException.class)
+  public void keyNegativeIdTest() {
+    RouteKeyIndex.key(-1, 2, 3);
+  }
+
+  /** Verify that key throws an exception for an ID too large to pack. */
+  @Test(expected = IllegalArgumentException.class)
+  public void keyTooLargeIdTest() {
+    RouteKeyIndex.key(1, RouteKeyIndex.MAX_ID + 1, 3);
+  }
+
+  /** Verify that a route is in the index after it is added. */
+  @Test
+  public void addRouteTest() {
+    assertTrue(index.add(route));
+    assertTrue(index.contains(route));
+    assertEquals(1, index.size());
+  }
+
+  /** Verify that a route with the same IDs as an indexed route is treated as a duplicate. */
+  @Test
+  public void addDuplicateRouteTest() {
+    index.add(route);
+    Route sameIds = new Route("2B", 410, "ABC", 2965, "DEF", 2990, "Y", 1, new String[] {"737"});
+    assertFalse(index.add(sameIds));
+    assertEquals(1, index.size());
+  }
+
+  /** Verify that a route is no longer in the index after it is removed. */
+  @Test
+  public void removeRouteTest() {
+    index.add(route);
+    assertTrue(index.remove(route));
+    assertFalse(index.contains(route));
+    assertFalse(index.remove(route));
+    assertEquals(0, index.size());
+  }
+
+  /** Verify that clear removes every route. */
+  @Test
+  public void clearTest() {
+    index.add(route);
+    index.add(RouteKeyIndex.key(1, 2, 3));
+    index.clear();
+    assertEquals(0, index.size());
+    assertFalse(index.contains(route));
+  }
+
+  /** Verify that the index matches a HashSet over a random sequence of adds and removes. */
+  @Test
+  public void randomAddRemoveMatchesHashSetTest() {
+    Random random = new Random(202);
+    Set<Long> expected = new HashSet<>();
+    for (int i = 0; i < 200000; i++) {
+      long key = RouteKeyIndex.key(random.nextInt(50), random.nextInt(100), random.nextInt(100));
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), index.remove(key));
+      } else {
+        assertEquals(expected.add(key), index.add(key));
+      }
+    }
+    assertEquals(expected.size(), index.size());
+    for (long key : expected) {
+      assertTrue(index.contains(key));
+    }
+  }
+}
@@ -1,12 +1,14 @@
 package model.data;
 
 import javafx.util.Pair;
+import model.database.SQLiteDatabase;
 import org.junit.Before;
 import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.*;
 
 /**
@@ -481,4 +483,143 @@ public class StorageTest {
     storage.setData(createAirportList(), "Airport", "airportstest2.csv");
     assertEquals("airportstest2.csv", storage.getCurrentAirportFile());
   }
+
+  /** Test that appendEntry adds the entry to the end of the same list, without copying it. */
+  @Test
+  public void appendEntryInPlaceTest() {
+    storage.setData(createRouteList(), "Route", "routes.csv");
+    List<Route> routes = storage.getRoutes();
+    Route route = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, "CR2".split(" "));
+    storage.appendEntry(route, "Route", "routes.csv");
+    assertSame(routes, storage.getRoutes());
+    assertEquals(3, routes.size());
+    assertSame(route, routes.get(2));
+  }
+
+  /** Test that appendEntry creates the file and makes it current when the file does not exist. */
+  @Test
+  public void appendEntryNewFileTest() {
+    Airline airline =
+        new Airline(2508, "Galaxy Air", "N", "7O", "GAL", "GALAXY", "Kyrgyzstan", false);
+    storage.appendEntry(airline, "Airline", "singleEntryAirlines.csv");
+    assertEquals("singleEntryAirlines.csv", storage.getCurrentAirlineFile());
+    assertEquals(Collections.singletonList(airline), storage.getAirlines());
+    assertTrue(storage.getAirlineIds("singleEntryAirlines.csv").contains(2508));
+  }
+
+  /** Test that the ID index of a file holds the IDs of the entries in the file. */
+  @Test
+  public void getAirportIdsTest() {
+    storage.setData(createAirportList(), "Airport", "airports.csv");
+    for (Airport airport : storage.getAirports()) {
+      assertTrue(storage.getAirportIds("airports.csv").contains(airport.getAirportID()));
+    }
+    assertFalse(storage.getAirportIds("airports.csv").contains(1));
+  }
+
+  /** Test that the route index is rebuilt when routes are removed from the file directly. */
+  @Test
+  public void getRouteKeysRebuiltAfterRemoveTest() {
+    storage.setData(createRouteList(), "Route", "routes.csv");
+    Route removed = storage.getRoutes().get(0);
+    assertTrue(storage.getRouteKeys("routes.csv").contains(removed));
+    storage.getRoutes().remove(0);
+    assertFalse(storage.getRouteKeys("routes.csv").contains(removed));
+  }
+
+  /** Test that setData replaces the index of a file it replaces. */
+  @Test
+  public void setDataResetsIndexTest() {
+    storage.setData(createAirlineList(), "Airline", "airlines.csv");
+    assertTrue(storage.getAirlineIds("airlines.csv").contains(3478));
+    storage.setData(new ArrayList<>(), "Airline", "airlines.csv");
+    assertFalse(storage.getAirlineIds("airlines.csv").contains(3478));
+  }
+
+  /**
+   * This method stores an airline file in the database, as an upload does.
+   *
+   * @param database The database to store the file in.
+   * @param filename The name of the file.
+   */
+  private void storeAirlineFile(SQLiteDatabase database, String filename) {
+    List<Airline> airlines = new ArrayList<>();
+    for (DataType airline : createAirlineList()) {
+      airlines.add((Airline) airline);
+    }
+    database.beginWrite();
+    try {
+      database.initialiseTable("Airline", filename);
+      database.updateAirlineTable(airlines);
+      database.updateTableList(filename, "Airline");
+    } finally {
+      database.endWrite();
+    }
+  }
+
+  /** Test that stored files are only listed at start up, and loaded when first used. */
+  @Test
+  public void initialiseStorageLoadsOnDemandTest() {
+    SQLiteDatabase database = new SQLiteDatabase();
+    storeAirlineFile(database, "lazyAirlines.csv");
+    try {
+      storage.initialiseStorage();
+      assertTrue(storage.getAirlineFileNames().contains("lazyAirlines.csv"));
+      assertFalse(storage.isLoaded("Airline", "lazyAirlines.csv"));
+      assertNull(storage.getAirlineFileList().get("lazyAirlines.csv"));
+
+      storage.setCurrentAirlineFile("lazyAirlines.csv");
+      assertEquals(2, storage.getAirlines().size());
+      assertTrue(storage.getAirlines().containsAll(createAirlineList()));
+      assertTrue(storage.isLoaded("Airline", "lazyAirlines.csv"));
+      assertSame(storage.getAirlines(), storage.getAirlines());
+    } finally {
+      database.deleteFile("lazyAirlines.csv", "Airline");
+    }
+  }
+
+  /** Test that an entry appended to a file which has not been loaded keeps the stored entries. */
+  @Test
+  public void appendEntryToStoredFileTest() {
+    SQLiteDatabase database = new SQLiteDatabase();
+    storeAirlineFile(database, "lazyAppendAirlines.csv");
+    try {
+      storage.addStoredFile("Airline", "lazyAppendAirlines.csv");
+      Airline airline =
+          new Airline(2508, "Galaxy Air", "N", "7O", "GAL", "GALAXY", "Kyrgyzstan", false);
+      assertFalse(storage.getAirlineIds("lazyAppendAirlines.csv").contains(2508));
+      assertTrue(storage.getAirlineIds("lazyAppendAirlines.csv").contains(3478));
+      storage.appendEntry(airline, "Airline", "lazyAppendAirlines.csv");
+      assertEquals(3, storage.getAirlines().size());
+    } finally {
+      database.deleteFile("lazyAppendAirlines.csv", "Airline");
+    }
+  }
+
+  /** Test that removed entries are taken out of storage and only their rows deleted. */
+  @Test
+  public void removeEntriesTest() {
+    SQLiteDatabase database = new SQLiteDatabase();
+    storeAirlineFile(database, "removeAirlines.csv");
+    try {
+      storage.addStoredFile("Airline", "removeAirlines.csv");
+      List<Airline> removed = new ArrayList<>();
+      for (Airline airline : storage.getAirlines()) {
+        if (airline.getAirlineID() == 3478) {
+          removed.add(airline);
+        }
+      }
+      storage.removeEntries("Airline", removed);
+      assertTrue(storage.getPersistence().flush(10, TimeUnit.SECONDS));
+      assertEquals(1, storage.getAirlines().size());
+      assertEquals(1711, storage.getAirlines().get(0).getAirlineID());
+      assertFalse(storage.getAirlineIds("removeAirlines.csv").contains(3478));
+
+      List<DataType> stored = database.loadFile("Airline", "removeAirlines.csv");
+      assertEquals(1, stored.size());
+      assertEquals(1711, ((Airline) stored.get(0)).getAirlineID());
+    } finally {
+      database.deleteFile("removeAirlines.csv", "Airline");
+    }
+  }
 }
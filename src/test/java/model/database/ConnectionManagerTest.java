@@ -0,0 +1,196 @@
+package model.database;
+
+import model.data.Airline;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the ConnectionManager class, using a database in a temporary folder.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ConnectionManagerTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+
+  @Before
+  public void setUp() {
+    String url = "jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite");
+    connections = new ConnectionManager(url, 2);
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /**
+   * This method counts the rows of the numbers table.
+   *
+   * @param connection The connection to count with.
+   * @return the number of rows.
+   */
+  private int countNumbers(Connection connection) throws SQLException {
+    try (Statement state = connection.createStatement();
+        ResultSet res = state.executeQuery("select count(*) from numbers")) {
+      return res.getInt(1);
+    }
+  }
+
+  /** Test that the writer is shared, and reopened once it has been closed. */
+  @Test
+  public void writerReopenedTest() throws SQLException {
+    Connection writer = connections.getWriter();
+    assertSame(writer, connections.getWriter());
+    assertFalse(writer.getAutoCommit());
+    writer.close();
+    Connection reopened = connections.getWriter();
+    assertNotSame(writer, reopened);
+    assertFalse(reopened.isClosed());
+  }
+
+  /** Test that readers only see changes once the writer has committed them. */
+  @Test
+  public void readersSeeCommittedDataTest() throws SQLException {
+    Connection writer = connections.getWriter();
+    try (Statement state = writer.createStatement()) {
+      state.executeUpdate("create table numbers (n integer)");
+      writer.commit();
+      state.executeUpdate("insert into numbers values (1)");
+    }
+    Connection reader = connections.acquireReader();
+    try {
+      assertEquals(0, countNumbers(reader));
+      writer.commit();
+      assertEquals(1, countNumbers(reader));
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /** Test that readers cannot change the database. */
+  @Test(expected = SQLException.class)
+  public void readerIsReadOnlyTest() throws SQLException {
+    connections.getWriter().commit();
+    Connection reader = connections.acquireReader();
+    try (Statement state = reader.createStatement()) {
+      state.executeUpdate("create table numbers (n integer)");
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /** Test that no more readers are opened than allowed, and released readers are reused. */
+  @Test
+  public void readerPoolTest() throws Exception {
+    Connection first = connections.acquireReader();
+    Connection second = connections.acquireReader();
+    assertNotSame(first, second);
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    Connection[] third = new Connection[1];
+    Thread waiting =
+        new Thread(
+            () -> {
+              try {
+                third[0] = connections.acquireReader();
+                acquired.countDown();
+              } catch (SQLException ignored) {
+              }
+            });
+    waiting.start();
+    assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+    connections.releaseReader(first);
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    assertSame(first, third[0]);
+    connections.releaseReader(second);
+    connections.releaseReader(third[0]);
+  }
+
+  /** Test that a closed reader is replaced rather than handed out. */
+  @Test
+  public void closedReaderReplacedTest() throws SQLException {
+    Connection reader = connections.acquireReader();
+    reader.close();
+    connections.releaseReader(reader);
+    Connection replaced = connections.acquireReader();
+    assertFalse(replaced.isClosed());
+    connections.releaseReader(replaced);
+  }
+
+  /** Test that another thread waits for the writer until it is unlocked. */
+  @Test
+  public void writerLockTest() throws Exception {
+    connections.lockWriter();
+    connections.lockWriter();
+    AtomicBoolean locked = new AtomicBoolean(false);
+    CountDownLatch done = new CountDownLatch(1);
+    Thread other =
+        new Thread(
+            () -> {
+              connections.lockWriter();
+              locked.set(true);
+              connections.unlockWriter();
+              done.countDown();
+            });
+    other.start();
+    connections.unlockWriter();
+    assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+    assertFalse(locked.get());
+    connections.unlockWriter();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertTrue(locked.get());
+  }
+
+  /** Test that the snapshots of a database are kept in a directory next to its file. */
+  @Test
+  public void snapshotDirectoryTest() {
+    Path database = folder.getRoot().toPath().resolve("test.sqlite");
+    assertEquals(
+        folder.getRoot().toPath().resolve("test.sqlite-snapshots"),
+        ConnectionManager.snapshotDirectory("jdbc:sqlite:" + database));
+    assertEquals(
+        Paths.get("app.sqlite-snapshots").toAbsolutePath(),
+        ConnectionManager.snapshotDirectory(ConnectionManager.DEFAULT_URL));
+  }
+
+  /** Test that a database written in a temporary folder keeps its snapshots there. */
+  @Test
+  public void snapshotsInDatabaseFolderTest() {
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    List<Airline> airlines =
+        Arrays.asList(new Airline(1, "Airline", "\\N", "", "ABC", "CALL", "Russia", true));
+    database.beginWrite();
+    try {
+      database.initialiseTable("Airline", "snapshotFolder.csv");
+      database.updateAirlineTable(airlines);
+      database.updateTableList("snapshotFolder.csv", "Airline");
+      database.writeSnapshot("Airline", "snapshotFolder.csv", airlines);
+    } finally {
+      database.endWrite();
+    }
+    Path snapshot = connections.getSnapshots().getPath("Airline", "snapshotFolder.csv");
+    assertTrue(snapshot.startsWith(folder.getRoot().toPath()));
+    assertTrue(Files.exists(snapshot));
+  }
+}
@@ -0,0 +1,102 @@
+package model.database;
+
+import model.data.Route;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the time taken to save the flight history after a single add, edit or remove, as
+ * the history grows. Rewriting the whole table with updateHistoryTable is compared with saving
+ * only the change with saveHistory. Every history size uses a new database in a temporary folder.
+ * Run with the test classpath, optionally passing the number of operations timed at each size.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class HistoryBenchmark {
+
+  /** The history sizes compared. */
+  private static final int[] HISTORY_SIZES = {100, 1000, 10000, 50000};
+
+  public static void main(String[] args) throws IOException {
+    int operations = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+
+    System.out.println("history   rewrite ms/op   delta ms/op");
+    for (int size : HISTORY_SIZES) {
+      Path folder = Files.createTempDirectory("historyBenchmark");
+      ConnectionManager connections =
+          new ConnectionManager("jdbc:sqlite:" + folder.resolve("benchmark.sqlite"), 1);
+      SQLiteDatabase database = new SQLiteDatabase(connections);
+      List<Route> history = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        history.add(route(i));
+      }
+
+      database.updateHistoryTable(history);
+      long start = System.nanoTime();
+      for (int i = 0; i < operations; i++) {
+        change(history, i);
+        database.updateHistoryTable(history);
+      }
+      long rewrite = System.nanoTime() - start;
+
+      HistoryJournal journal = new HistoryJournal();
+      database.updateHistoryTable(new ArrayList<>());
+      database.saveHistory(history, journal);
+      start = System.nanoTime();
+      for (int i = 0; i < operations; i++) {
+        change(history, i);
+        database.saveHistory(history, journal);
+      }
+      long delta = System.nanoTime() - start;
+
+      System.out.printf(
+          "%7d %15.2f %13.2f%n", size, rewrite / 1e6 / operations, delta / 1e6 / operations);
+      connections.close();
+      try (Stream<Path> files = Files.list(folder)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(folder);
+    }
+  }
+
+  /**
+   * This method creates a route of the history.
+   *
+   * @param i The number of the route.
+   * @return the route, taken once.
+   */
+  private static Route route(int i) {
+    Route route =
+        new Route("2B", 410, "AER", i / 1000, "KZN", i % 1000, "", 0, new String[] {"CR2"});
+    route.setTimesTaken(1);
+    return route;
+  }
+
+  /**
+   * This method makes one change to the history, in turn adding a route, editing the times taken
+   * of a route and removing a route, as the history view does.
+   *
+   * @param history The flight history.
+   * @param i The number of the change.
+   */
+  private static void change(List<Route> history, int i) {
+    switch (i % 3) {
+      case 0:
+        history.add(route(history.size()));
+        break;
+      case 1:
+        Route edited = history.get(history.size() / 2);
+        edited.setTimesTaken(edited.getTimesTaken() + 1);
+        break;
+      default:
+        history.remove(history.size() - 1);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package model.database;
+
+import model.data.Route;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the HistoryJournal class and saving the history through it.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class HistoryJournalTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+  private SQLiteDatabase database;
+  private HistoryJournal journal;
+
+  @Before
+  public void setUp() {
+    connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite"), 2);
+    database = new SQLiteDatabase(connections);
+    journal = new HistoryJournal();
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /**
+   * This method creates a route taken a number of times.
+   *
+   * @param source The ID of the source airport.
+   * @param timesTaken The number of times the route was taken.
+   * @return the route.
+   */
+  private Route route(int source, int timesTaken) {
+    Route route = new Route("2B", 410, "AER", source, "KZN", 2990, "", 0, new String[] {"CR2"});
+    route.setTimesTaken(timesTaken);
+    return route;
+  }
+
+  /**
+   * This method reads the times taken of each row of the history table, by route_id.
+   *
+   * @return the route_id and times taken of each row, in order of route_id.
+   */
+  private List<String> readTable() throws SQLException {
+    List<String> rows = new ArrayList<>();
+    Connection reader = connections.acquireReader();
+    try (Statement state = reader.createStatement();
+        ResultSet res =
+            state.executeQuery("select route_id, timesTaken from 'history' order by route_id")) {
+      while (res.next()) {
+        rows.add(res.getInt(1) + ":" + res.getInt(2));
+      }
+    } finally {
+      connections.releaseReader(reader);
+    }
+    return rows;
+  }
+
+  /** Test that added, removed and edited routes are found, and saved routes are not. */
+  @Test
+  public void changesTest() {
+    Route kept = route(1, 1);
+    Route edited = route(2, 1);
+    Route removed = route(3, 1);
+    journal.saved(kept, 1);
+    journal.saved(edited, 2);
+    journal.saved(removed, 3);
+    Route added = route(4, 1);
+    edited.setTimesTaken(5);
+
+    List<Route> history = Arrays.asList(kept, edited, added);
+    assertEquals(Arrays.asList(added), journal.getAdded(history));
+    assertEquals(Arrays.asList(removed), journal.getRemoved(history));
+    assertEquals(Arrays.asList(edited), journal.getChanged(history));
+    assertEquals(2, journal.getRouteId(edited));
+    assertEquals(-1, journal.getRouteId(added));
+  }
+
+  /** Test that equal routes are told apart, so each is saved in its own row. */
+  @Test
+  public void equalRoutesTest() {
+    Route first = route(1, 1);
+    Route second = route(1, 1);
+    assertEquals(first, second);
+    journal.saved(first, 1);
+    assertEquals(Arrays.asList(second), journal.getAdded(Arrays.asList(first, second)));
+  }
+
+  /** Test that only changes are written, and the saved rows keep their route_id. */
+  @Test
+  public void saveHistoryTest() throws SQLException {
+    List<Route> history = new ArrayList<>(Arrays.asList(route(1, 1), route(2, 2), route(3, 3)));
+    database.saveHistory(history, journal);
+    assertEquals(Arrays.asList("1:1", "2:2", "3:3"), readTable());
+    assertEquals(3, journal.size());
+
+    history.remove(0);
+    history.get(0).setTimesTaken(7);
+    history.add(route(4, 4));
+    database.saveHistory(history, journal);
+    assertEquals(Arrays.asList("2:7", "3:3", "4:4"), readTable());
+    assertEquals(3, journal.size());
+    assertEquals(2, journal.getRouteId(history.get(0)));
+  }
+
+  /** Test that loaded routes are recorded, so saving them again writes nothing. */
+  @Test
+  public void loadHistoryTest() throws SQLException {
+    database.saveHistory(Arrays.asList(route(1, 1), route(2, 2)), journal);
+
+    HistoryJournal loadedJournal = new HistoryJournal();
+    List<Route> loaded = new ArrayList<>(database.loadHistory(loadedJournal));
+    assertEquals(2, loaded.size());
+    assertTrue(loadedJournal.getAdded(loaded).isEmpty());
+    assertTrue(loadedJournal.getChanged(loaded).isEmpty());
+
+    loaded.remove(1);
+    database.saveHistory(loaded, loadedJournal);
+    assertEquals(Arrays.asList("1:1"), readTable());
+  }
+}
@@ -0,0 +1,105 @@
+package model.database;
+
+import model.data.Route;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the rate routes are inserted into the database, comparing a statement prepared for
+ * each row with one statement executed in batches of several sizes. Every run inserts the routes
+ * as a fresh file in a single transaction. Run with the test classpath, optionally passing the
+ * number of routes to insert.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class InsertBenchmark {
+
+  /** The name of the file the routes are inserted as. */
+  private static final String TABLE = "insertBenchmark";
+
+  /** The batch sizes compared. */
+  private static final int[] BATCH_SIZES = {1, 10, 100, 1000, 10000};
+
+  /** The number of times each insert is run before timing, to warm up the JIT. */
+  private static final int WARMUP_RUNS = 2;
+
+  public static void main(String[] args) throws SQLException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    List<Route> routes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      routes.add(
+          new Route("2B", 410, "AER", i / 1000, "KZN", i % 1000, "", 0, new String[] {"CR2"}));
+    }
+    SQLiteDatabase database = new SQLiteDatabase();
+
+    System.out.println("method        ms   rows/s");
+    report("per row", count, time(database, () -> routes.forEach(database::addRoutes)));
+    for (int batchSize : BATCH_SIZES) {
+      report(
+          "batch " + batchSize,
+          count,
+          time(
+              database,
+              () -> {
+                try (RowBatch batch =
+                    new RowBatch(
+                        database.getCon(),
+                        "Route",
+                        SQLiteDatabase.dataTable("Route"),
+                        SQLiteDatabase.findFile(database.getCon(), "Route", TABLE),
+                        batchSize)) {
+                  for (Route route : routes) {
+                    batch.add(route);
+                  }
+                } catch (SQLException e) {
+                  throw new RuntimeException(e);
+                }
+              }));
+    }
+    drop(database);
+  }
+
+  /**
+   * This method inserts the routes as a fresh file several times and returns the time taken
+   * by the last run, including the commit.
+   *
+   * @param database The database to insert into.
+   * @param insert Inserts the routes.
+   * @return the time taken in nanoseconds.
+   */
+  private static long time(SQLiteDatabase database, Runnable insert) throws SQLException {
+    long nanos = 0;
+    for (int i = 0; i <= WARMUP_RUNS; i++) {
+      drop(database);
+      database.initialiseTable("Route", TABLE);
+      database.startCommite();
+      long start = System.nanoTime();
+      insert.run();
+      database.startCommite();
+      nanos = System.nanoTime() - start;
+    }
+    return nanos;
+  }
+
+  /**
+   * This method deletes the benchmark file and its rows.
+   *
+   * @param database The database holding the file.
+   */
+  private static void drop(SQLiteDatabase database) {
+    database.deleteFile(TABLE, "Route");
+  }
+
+  /**
+   * This method prints the timing of a single insert.
+   *
+   * @param method The way the routes were inserted.
+   * @param rows The number of routes inserted.
+   * @param nanos The time taken in nanoseconds.
+   */
+  private static void report(String method, int rows, long nanos) {
+    System.out.printf("%-11s %5d %8d%n", method, nanos / 1000000, rows * 1000000000L / nanos);
+  }
+}
@@ -0,0 +1,218 @@
+package model.database;
+
+import model.data.Airline;
+import model.data.DataType;
+import model.data.Route;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PersistenceQueue class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PersistenceQueueTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+  private PersistenceQueue queue;
+  private List<String> failures;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite"), 2);
+    queue = new PersistenceQueue(connections);
+    failures = new ArrayList<>();
+    queue.setFailureListener((description, e) -> failures.add(description));
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    queue.shutdown(10);
+    connections.close();
+  }
+
+  /** This method keeps the writer busy until release is counted down. */
+  private void blockWriter() {
+    queue.submit(
+        new Object(),
+        "Blocking the writer",
+        database -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return null;
+        });
+  }
+
+  private static Airline airline(int id) {
+    return new Airline(id, "Airline " + id, "\\N", "", "ABC", "CALL", "Russia", true);
+  }
+
+  /** Test that a write waiting with the same key as a later one is replaced by it. */
+  @Test
+  public void sameKeyCoalescedTest() {
+    blockWriter();
+    AtomicInteger made = new AtomicInteger();
+    AtomicInteger last = new AtomicInteger();
+    for (int i = 1; i <= 3; i++) {
+      int value = i;
+      queue.submit(
+          "key",
+          "Counting",
+          database -> {
+            made.incrementAndGet();
+            last.set(value);
+            return null;
+          });
+    }
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertEquals(1, made.get());
+    assertEquals(3, last.get());
+  }
+
+  /** Test that a write which fails is rolled back alone, and the writes around it committed. */
+  @Test
+  public void failedWriteRolledBackAloneTest() {
+    blockWriter();
+    queue.addRows("Airline", "first.csv", Arrays.asList(airline(1), airline(2)));
+    queue.submit(
+        new Object(),
+        "Failing",
+        database -> {
+          database.storeRows("Airline", "failed.csv", Arrays.asList(airline(3)), false);
+          throw new SQLException("Failed on purpose");
+        });
+    queue.addRows("Airline", "second.csv", Arrays.asList(airline(4)));
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    assertEquals(2, database.loadFile("Airline", "first.csv").size());
+    assertEquals(1, database.loadFile("Airline", "second.csv").size());
+    assertNull(database.loadFile("Airline", "failed.csv"));
+    assertEquals(Arrays.asList("Failing"), failures);
+  }
+
+  /** Test that deleting a file replaces a waiting write of the whole file. */
+  @Test
+  public void deleteFileReplacesWriteTest() {
+    queue.writeFile("Airline", "deleted.csv", Arrays.asList(airline(1)));
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    blockWriter();
+    queue.writeFile("Airline", "deleted.csv", Arrays.asList(airline(1), airline(2)));
+    queue.deleteFile("deleted.csv", "Airline");
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertNull(new SQLiteDatabase(connections).loadFile("Airline", "deleted.csv"));
+    assertTrue(failures.isEmpty());
+  }
+
+  /** Test that rows written then deleted through the queue leave only the other rows. */
+  @Test
+  public void deleteRowsTest() {
+    List<DataType> airlines = Arrays.asList(airline(1), airline(2), airline(3));
+    queue.writeFile("Airline", "rows.csv", airlines);
+    queue.deleteRows("Airline", "rows.csv", Arrays.asList(airlines.get(1)));
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    List<DataType> stored = new SQLiteDatabase(connections).loadFile("Airline", "rows.csv");
+    assertEquals(2, stored.size());
+    assertEquals(3, ((Airline) stored.get(1)).getAirlineID());
+  }
+
+  /**
+   * Test that writing a whole file again replaces the waiting writes of its rows queued since the
+   * last, so they are not made on a file which is not stored yet or again on the new rows.
+   */
+  @Test
+  public void writeFileReplacesRowWritesTest() {
+    List<DataType> airlines = Arrays.asList(airline(1), airline(2), airline(3));
+    blockWriter();
+    queue.writeFile("Airline", "rewritten.csv", airlines);
+    queue.deleteRows("Airline", "rewritten.csv", Arrays.asList(airlines.get(1)));
+    queue.addRows("Airline", "rewritten.csv", Arrays.asList(airline(4)));
+    queue.addRows("Airline", "other.csv", Arrays.asList(airline(5)));
+    queue.writeFile(
+        "Airline", "rewritten.csv", Arrays.asList(airlines.get(0), airlines.get(2), airline(4)));
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertTrue(failures.toString(), failures.isEmpty());
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    List<DataType> stored = database.loadFile("Airline", "rewritten.csv");
+    assertEquals(3, stored.size());
+    assertEquals(4, ((Airline) stored.get(2)).getAirlineID());
+    assertEquals(1, database.loadFile("Airline", "other.csv").size());
+  }
+
+  /** Test that several saves of the history are written once, with the latest history. */
+  @Test
+  public void historySavesCoalescedTest() {
+    HistoryJournal journal = new HistoryJournal();
+    List<Route> history = new ArrayList<>();
+    blockWriter();
+    for (int i = 0; i < 3; i++) {
+      history.add(new Route("2B", 410, "AER", i, "KZN", 2990, "", 0, new String[] {"CR2"}));
+      queue.saveHistory(history, journal);
+    }
+    history.get(0).setTimesTaken(5);
+    queue.saveHistory(history, journal);
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertEquals(3, journal.size());
+
+    List<Route> loaded = new SQLiteDatabase(connections).loadHistory(new HistoryJournal());
+    assertEquals(3, loaded.size());
+    int timesTaken = 0;
+    for (Route route : loaded) {
+      timesTaken += route.getTimesTaken();
+    }
+    assertEquals(5, timesTaken);
+  }
+
+  /** This method returns the times taken of the first route saved in the history table. */
+  private int savedTimesTaken() {
+    return new SQLiteDatabase(connections).loadHistory(new HistoryJournal()).get(0).getTimesTaken();
+  }
+
+  /** Test that a route edited after its save is queued is saved again by the next save. */
+  @Test
+  public void editWhileSavingTest() {
+    HistoryJournal journal = new HistoryJournal();
+    Route route = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
+    route.setTimesTaken(1);
+    List<Route> history = new ArrayList<>(Arrays.asList(route));
+    blockWriter();
+    queue.saveHistory(history, journal);
+    route.setTimesTaken(7);
+    release.countDown();
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertEquals(1, savedTimesTaken());
+    assertEquals(Arrays.asList(route), journal.getChanged(history));
+
+    queue.saveHistory(history, journal);
+    assertTrue(queue.flush(10, TimeUnit.SECONDS));
+    assertEquals(7, savedTimesTaken());
+    assertTrue(journal.getChanged(history).isEmpty());
+  }
+}
@@ -0,0 +1,94 @@
+package model.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PragmaProfile class, using a database in a temporary folder.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class PragmaProfileTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+
+  @Before
+  public void setUp() {
+    String url = "jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite");
+    connections = new ConnectionManager(url, 1, PragmaProfile.DURABLE);
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /**
+   * This method reads the value of a pragma.
+   *
+   * @param con The connection to read from.
+   * @param pragma The name of the pragma.
+   * @return the value of the pragma.
+   */
+  private String pragma(Connection con, String pragma) throws SQLException {
+    try (Statement state = con.createStatement();
+        ResultSet res = state.executeQuery("PRAGMA " + pragma)) {
+      return res.getString(1);
+    }
+  }
+
+  /** Test that the writer is opened with every setting of the profile. */
+  @Test
+  public void writerOpenedWithProfileTest() throws SQLException {
+    Connection writer = connections.getWriter();
+    assertEquals("wal", pragma(writer, "journal_mode"));
+    assertEquals("2", pragma(writer, "synchronous"));
+    assertEquals("-8192", pragma(writer, "cache_size"));
+    assertEquals("4096", pragma(writer, "page_size"));
+    assertFalse(writer.getAutoCommit());
+  }
+
+  /** Test that readers are opened with the settings of the profile they can change. */
+  @Test
+  public void readerOpenedWithProfileTest() throws SQLException {
+    Connection reader = connections.acquireReader();
+    try {
+      assertEquals("wal", pragma(reader, "journal_mode"));
+      assertEquals("-8192", pragma(reader, "cache_size"));
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /** Test that the writer can switch to the bulk ingest settings and back. */
+  @Test
+  public void setWriterProfileTest() throws SQLException {
+    Connection writer = connections.getWriter();
+    try (Statement state = writer.createStatement()) {
+      state.executeUpdate("create table numbers (n integer)");
+    }
+    connections.setWriterProfile(PragmaProfile.BULK_INGEST);
+    assertEquals("1", pragma(writer, "synchronous"));
+    assertEquals("2", pragma(writer, "temp_store"));
+    assertFalse(writer.getAutoCommit());
+    try (Statement state = writer.createStatement()) {
+      state.executeUpdate("insert into numbers values (1)");
+    }
+    writer.commit();
+    connections.setWriterProfile(connections.getProfile());
+    assertEquals("2", pragma(writer, "synchronous"));
+    assertEquals("0", pragma(writer, "temp_store"));
+  }
+}
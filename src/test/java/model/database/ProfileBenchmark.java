@@ -0,0 +1,83 @@
+package model.database;
+
+import model.data.Route;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the SQLite settings of each PragmaProfile, against SQLite's default rollback
+ * journal. Each profile writes a large upload in one transaction, then saves a flight history
+ * many times, each save committed on its own as the history view does. Every profile uses a new
+ * database in a temporary folder. Run with the test classpath, optionally passing the number of
+ * routes uploaded.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ProfileBenchmark {
+
+  /** SQLite's default settings, which the application used before profiles were added. */
+  private static final PragmaProfile ROLLBACK_JOURNAL =
+      new PragmaProfile("rollback", "DELETE", "FULL", 2000, 0, "DEFAULT", 4096);
+
+  /** The number of routes in the saved history. */
+  private static final int HISTORY_SIZE = 200;
+
+  /** The number of times the history is saved. */
+  private static final int HISTORY_SAVES = 50;
+
+  public static void main(String[] args) throws IOException, SQLException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    List<Route> routes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      routes.add(
+          new Route("2B", 410, "AER", i / 1000, "KZN", i % 1000, "", 0, new String[] {"CR2"}));
+    }
+    List<Route> history = routes.subList(0, HISTORY_SIZE);
+
+    System.out.println("profile       upload ms   rows/s   history ms   ms/save");
+    for (PragmaProfile profile :
+        new PragmaProfile[] {ROLLBACK_JOURNAL, PragmaProfile.DURABLE, PragmaProfile.BULK_INGEST}) {
+      Path folder = Files.createTempDirectory("profileBenchmark");
+      ConnectionManager connections =
+          new ConnectionManager("jdbc:sqlite:" + folder.resolve("benchmark.sqlite"), 1, profile);
+      SQLiteDatabase database = new SQLiteDatabase(connections);
+
+      long start = System.nanoTime();
+      database.initialiseTable("Route", "upload");
+      try (RowBatch batch = database.startBatch("Route")) {
+        for (Route route : routes) {
+          batch.add(route);
+        }
+      }
+      database.startCommite();
+      long upload = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < HISTORY_SAVES; i++) {
+        database.updateHistoryTable(history);
+      }
+      long saves = System.nanoTime() - start;
+
+      System.out.printf(
+          "%-12s %10d %8d %12d %9.1f%n",
+          profile,
+          upload / 1000000,
+          count * 1000000000L / upload,
+          saves / 1000000,
+          saves / 1e6 / HISTORY_SAVES);
+      connections.close();
+      try (Stream<Path> files = Files.list(folder)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(folder);
+    }
+  }
+}
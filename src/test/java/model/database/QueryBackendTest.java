@@ -0,0 +1,205 @@
+package model.database;
+
+import model.data.Airport;
+import model.data.DataType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the QueryBackend class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class QueryBackendTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+  private QueryBackend backend;
+
+  @Before
+  public void setUp() {
+    connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite"), 2);
+    backend = new QueryBackend(connections);
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    List<Airport> airports = new ArrayList<>();
+    String[][] places = {
+      {"Goroka", "Papua New Guinea", "GKA"},
+      {"Madang", "Papua New Guinea", "MAG"},
+      {"Akureyri", "Iceland", "AEY"},
+      {"Nuuk", "Greenland", "GOH"}
+    };
+    for (int i = 0; i < places.length; i++) {
+      airports.add(
+          new Airport(
+              i + 1, places[i][0], places[i][0], places[i][1], places[i][2], "ABCD", 1.5, 2.5, 10,
+              10, "U", "Pacific/Port_Moresby"));
+    }
+    database.beginWrite();
+    try {
+      database.initialiseTable("Airport", "queryAirports.csv");
+      database.updateAirportTable(airports);
+      database.updateTableList("queryAirports.csv", "Airport");
+    } finally {
+      database.endWrite();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /**
+   * This method returns the names of the airports matching the terms.
+   *
+   * @param terms The term for each type of search.
+   * @return the names of the matching airports, in order.
+   */
+  private List<String> names(Map<String, String> terms) throws SQLException {
+    List<String> names = new ArrayList<>();
+    backend.forEachMatch(
+        "Airport", "queryAirports.csv", terms, airport -> names.add(((Airport) airport).getName()));
+    return names;
+  }
+
+  /** Test that terms are compared ignoring case, and every term must match. */
+  @Test
+  public void matchEveryTermTest() throws SQLException {
+    Map<String, String> terms = new HashMap<>();
+    terms.put("Country", "papua new guinea");
+    assertEquals(Arrays.asList("Goroka", "Madang"), names(terms));
+    terms.put("IATA", "mag");
+    assertEquals(Arrays.asList("Madang"), names(terms));
+    terms.put("Name", "Goroka");
+    assertTrue(names(terms).isEmpty());
+  }
+
+  /** Test that only the rows of the file searched are matched, not those of other files. */
+  @Test
+  public void otherFileTest() throws SQLException {
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    database.beginWrite();
+    try {
+      database.initialiseTable("Airport", "otherAirports.csv");
+      database.updateAirportTable(
+          Arrays.asList(
+              new Airport(
+                  9, "Reykjavik", "Reykjavik", "Iceland", "RKV", "BIRK", 1.5, 2.5, 10, 10, "U",
+                  "Atlantic/Reykjavik")));
+      database.updateTableList("otherAirports.csv", "Airport");
+    } finally {
+      database.endWrite();
+    }
+    Map<String, String> terms = new HashMap<>();
+    terms.put("Country", "Iceland");
+    assertEquals(Arrays.asList("Akureyri"), names(terms));
+    assertEquals(1, backend.query("Airport", "otherAirports.csv", terms).size());
+  }
+
+  /** Test that an index on each column which can be searched is created with the table. */
+  @Test
+  public void indexWithTableTest() throws SQLException {
+    List<String> indexes = new ArrayList<>();
+    try (Statement state = connections.getWriter().createStatement();
+        ResultSet res =
+            state.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type='index' AND tbl_name='airport_rows'")) {
+      while (res.next()) {
+        indexes.add(res.getString(1));
+      }
+    }
+    for (String column : new String[] {"name", "country", "IATA", "ICAO", "city"}) {
+      assertTrue(indexes.toString(), indexes.contains("airport_rows_" + column));
+    }
+  }
+
+  /** Test that a search does not wait for the writer, as it creates no index. */
+  @Test
+  public void searchWhileWritingTest() throws Exception {
+    Map<String, String> terms = new HashMap<>();
+    terms.put("ICAO", "ABCD");
+    ExecutorService searcher = Executors.newSingleThreadExecutor();
+    connections.lockWriter();
+    try {
+      Future<List<DataType>> matches =
+          searcher.submit(() -> backend.query("Airport", "queryAirports.csv", terms));
+      assertEquals(4, matches.get(10, TimeUnit.SECONDS).size());
+    } finally {
+      connections.unlockWriter();
+      searcher.shutdownNow();
+    }
+  }
+
+  /** Test that the order key of each match is recorded with it. */
+  @Test
+  public void keysTest() throws SQLException {
+    Map<String, String> terms = new HashMap<>();
+    terms.put("Country", "Papua New Guinea");
+    Map<Airport, Long> keys = new IdentityHashMap<>();
+    List<Airport> matches = backend.query("Airport", "queryAirports.csv", terms, keys);
+    assertEquals(2, keys.size());
+    assertEquals(1, (long) keys.get(matches.get(0)));
+    assertEquals(2, (long) keys.get(matches.get(1)));
+  }
+
+  /** Test that the plan of a search uses the index rather than reading the whole table. */
+  @Test
+  public void indexUsedTest() throws SQLException {
+    Map<String, String> terms = new HashMap<>();
+    terms.put("Country", "Iceland");
+    assertEquals(Arrays.asList("Akureyri"), names(terms));
+    Connection reader = connections.acquireReader();
+    try (Statement state = reader.createStatement();
+        ResultSet res =
+            state.executeQuery(
+                "explain query plan "
+                    + QueryBackend.selectStatement(
+                            "Airport", "airport_rows", true, Arrays.asList("country"), true)
+                        .replaceFirst("\\?", "1")
+                        .replace("?", "'Iceland'"))) {
+      StringBuilder plan = new StringBuilder();
+      while (res.next()) {
+        plan.append(res.getString("detail"));
+      }
+      assertTrue(plan.toString(), plan.toString().contains("airport_rows_country"));
+    } finally {
+      connections.releaseReader(reader);
+    }
+  }
+
+  /** Test that a file which is not stored cannot be searched. */
+  @Test(expected = SQLException.class)
+  public void missingFileTest() throws SQLException {
+    backend.query("Airport", "missing.csv", new HashMap<>());
+  }
+
+  /** Test that a search type which is not one of the file's is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void illegalTypeTest() throws SQLException {
+    Map<String, String> terms = new HashMap<>();
+    terms.put("Source", "GKA");
+    backend.query("Airport", "queryAirports.csv", terms);
+  }
+}
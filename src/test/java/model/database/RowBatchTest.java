@@ -0,0 +1,131 @@
+package model.database;
+
+import model.data.Airline;
+import model.data.Airport;
+import model.data.Route;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RowBatch class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowBatchTest {
+
+  private SQLiteDatabase database;
+  private Connection con;
+
+  @Before
+  public void setUp() throws SQLException {
+    database = new SQLiteDatabase();
+    con = database.getCon();
+    deleteFiles();
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    database.rollback();
+    deleteFiles();
+  }
+
+  /** This method deletes the files written by the tests, with their rows. */
+  private void deleteFiles() {
+    database.deleteFile("routeBatch", "Route");
+    database.deleteFile("airportBatch", "Airport");
+    database.deleteFile("airlineBatch", "Airline");
+  }
+
+  /**
+   * This method counts the rows of a file.
+   *
+   * @param fileType The type of the file.
+   * @param fileName The name of the file.
+   * @return the number of rows.
+   */
+  private int countRows(String fileType, String fileName) throws SQLException {
+    try (PreparedStatement state =
+        con.prepareStatement(
+            "select count(*) from " + SQLiteDatabase.dataTable(fileType) + " where file_id = ?")) {
+      state.setInt(1, SQLiteDatabase.findFile(con, fileType, fileName));
+      try (ResultSet res = state.executeQuery()) {
+        return res.getInt(1);
+      }
+    }
+  }
+
+  /** Test that every route is inserted across several batches and numbered in order. */
+  @Test
+  public void routesAcrossBatchesTest() throws SQLException {
+    database.initialiseTable("Route", "routeBatch");
+    int fileId = SQLiteDatabase.findFile(con, "Route", "routeBatch");
+    try (RowBatch batch = new RowBatch(con, "Route", "route_rows", fileId, 7)) {
+      for (int i = 0; i < 50; i++) {
+        batch.add(new Route("2B", 410, "AER", i, "KZN", 2990, "", 0, new String[] {"CR2"}));
+      }
+      batch.add(null);
+      assertEquals(50, batch.getRowsAdded());
+    }
+    database.startCommite();
+    assertEquals(50, countRows("Route", "routeBatch"));
+    try (PreparedStatement state =
+        con.prepareStatement(
+            "select route_id, sourceAirportID, equipment from route_rows where file_id = ?"
+                + " order by route_id")) {
+      state.setInt(1, fileId);
+      EquipmentDictionary equipment = new EquipmentDictionary(con);
+      try (ResultSet res = state.executeQuery()) {
+        int row = 0;
+        int routeId = 0;
+        while (res.next()) {
+          assertTrue(res.getInt("route_id") > routeId);
+          routeId = res.getInt("route_id");
+          assertEquals(row, res.getInt("sourceAirportID"));
+          assertEquals(2, res.getBytes("equipment").length);
+          assertArrayEquals(new String[] {"CR2"}, equipment.decode(res.getBytes("equipment")));
+          row++;
+        }
+        assertEquals(50, row);
+      }
+    }
+  }
+
+  /** Test that rows added to a batch are discarded if the transaction is rolled back. */
+  @Test
+  public void rollbackTest() throws SQLException {
+    database.initialiseTable("Airline", "airlineBatch");
+    database.startCommite();
+    try (RowBatch batch = database.startBatch("Airline")) {
+      for (int i = 1; i <= 10; i++) {
+        batch.add(new Airline(i, "Airline", "\\N", "AB", "ABC", "CALL", "Country", true));
+      }
+    }
+    database.rollback();
+    assertEquals(0, countRows("Airline", "airlineBatch"));
+  }
+
+  /** Test that airports written through updateAirportTable are all inserted. */
+  @Test
+  public void updateAirportTableTest() throws SQLException {
+    database.initialiseTable("Airport", "airportBatch");
+    List<Airport> airports = new ArrayList<>();
+    for (int i = 1; i <= RowBatch.BATCH_SIZE + 1; i++) {
+      airports.add(
+          new Airport(
+              i, "Airport", "City", "Country", "ABC", "ABCD", -6.08, 145.39, 5282, 10, "U",
+              "Pacific/Port_Moresby"));
+    }
+    database.updateAirportTable(airports);
+    assertEquals(RowBatch.BATCH_SIZE + 1, countRows("Airport", "airportBatch"));
+  }
+}
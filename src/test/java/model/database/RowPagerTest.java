@@ -0,0 +1,132 @@
+package model.database;
+
+import model.data.Airport;
+import model.data.DataType;
+import model.data.Route;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RowPager class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class RowPagerTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private ConnectionManager connections;
+
+  @Before
+  public void setUp() throws SQLException {
+    connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("test.sqlite"), 2);
+    List<Route> routes = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      routes.add(new Route("2B", i, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"}));
+    }
+    List<Airport> airports = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      airports.add(
+          new Airport(
+              10 - i, "Goroka", "Goroka", "Papua New Guinea", "GKA", "AYGA", 1.5, 2.5, 10, 10, "U",
+              "Pacific/Port_Moresby"));
+    }
+    SQLiteDatabase database = new SQLiteDatabase(connections);
+    database.beginWrite();
+    try {
+      database.storeRows("Route", "routes.csv", routes, true);
+      database.storeRows("Route", "other.csv", routes.subList(0, 3), true);
+      database.storeRows("Airport", "airports.csv", airports, true);
+      database.getCon().commit();
+    } finally {
+      database.endWrite();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    connections.close();
+  }
+
+  /**
+   * This method returns the route ids of routes read from the database.
+   *
+   * @param rows The routes.
+   * @return the route id of each, in order.
+   */
+  private static List<Integer> routeIds(List<DataType> rows) {
+    List<Integer> ids = new ArrayList<>();
+    for (DataType row : rows) {
+      ids.add(((Route) row).getAirlineID());
+    }
+    return ids;
+  }
+
+  /** Test that the size of a file is its number of rows. */
+  @Test
+  public void sizeTest() throws SQLException {
+    assertEquals(25, new RowPager(connections, "Route", "routes.csv").size());
+    assertEquals(3, new RowPager(connections, "Route", "other.csv").size());
+  }
+
+  /** Test that reading page after page returns the rows of the file in order. */
+  @Test
+  public void readPagesInOrderTest() throws SQLException {
+    RowPager pager = new RowPager(connections, "Route", "routes.csv");
+    List<Integer> ids = new ArrayList<>();
+    for (int first = 0; first < 25; first += 10) {
+      ids.addAll(routeIds(pager.read(first, 10)));
+    }
+    assertEquals(25, ids.size());
+    for (int i = 0; i < 25; i++) {
+      assertEquals(i, (int) ids.get(i));
+    }
+  }
+
+  /** Test that a page far from any page read before starts at the right row. */
+  @Test
+  public void readJumpTest() throws SQLException {
+    RowPager pager = new RowPager(connections, "Route", "routes.csv");
+    assertEquals(Arrays.asList(20, 21, 22), routeIds(pager.read(20, 3)));
+    assertEquals(Arrays.asList(5, 6), routeIds(pager.read(5, 2)));
+    assertEquals(Arrays.asList(23, 24), routeIds(pager.read(23, 10)));
+    assertTrue(pager.read(25, 10).isEmpty());
+  }
+
+  /** Test that airports are read in the order of their airport id. */
+  @Test
+  public void readAirportsTest() throws SQLException {
+    List<DataType> airports = new RowPager(connections, "Airport", "airports.csv").read(1, 2);
+    assertEquals(7, ((Airport) airports.get(0)).getAirportID());
+    assertEquals(8, ((Airport) airports.get(1)).getAirportID());
+  }
+
+  /** Test that the position of a row found by its order key counts the rows of its file before. */
+  @Test
+  public void positionTest() throws SQLException {
+    RowPager airports = new RowPager(connections, "Airport", "airports.csv");
+    assertEquals(0, airports.position(6));
+    assertEquals(3, airports.position(9));
+    assertEquals(5, airports.position(11));
+    RowPager other = new RowPager(connections, "Route", "other.csv");
+    assertEquals(0, other.position(Long.MIN_VALUE));
+    assertEquals(3, other.position(Long.MAX_VALUE));
+  }
+
+  /** Test that paging a file which is not stored fails. */
+  @Test(expected = SQLException.class)
+  public void missingFileTest() throws SQLException {
+    new RowPager(connections, "Route", "missing.csv").size();
+  }
+}
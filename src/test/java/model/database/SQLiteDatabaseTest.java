@@ -5,10 +5,13 @@ import model.data.Airport;
 import model.data.Route;
 import model.data.Storage;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -19,6 +22,8 @@ import static org.junit.Assert.*;
  * @since 04/10/2020
  */
 public class SQLiteDatabaseTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   private static Connection con;
   private static Statement cleanState;
   private static ResultSet tableNames;
@@ -43,55 +48,53 @@ public class SQLiteDatabaseTest {
     assertEquals("'testFile'", database.setTableName("testFile.csv"));
   }
 
+  /**
+   * This method checks if a table exists.
+   *
+   * @param table The name of the table.
+   * @return true if the table exists.
+   */
+  private boolean tableExists(String table) throws SQLException {
+    return SQLiteDatabase.tableExists(con, "'" + table + "'");
+  }
+
+  /**
+   * This method counts the rows of a file.
+   *
+   * @param fileType The type of the file.
+   * @param fileName The name of the file.
+   * @return the number of rows of the file.
+   */
+  private int countRows(String fileType, String fileName) throws SQLException {
+    try (PreparedStatement count =
+        con.prepareStatement(
+            "select count(*) from " + SQLiteDatabase.dataTable(fileType) + " where file_id = ?")) {
+      count.setInt(1, SQLiteDatabase.findFile(con, fileType, fileName));
+      try (ResultSet rows = count.executeQuery()) {
+        return rows.getInt(1);
+      }
+    }
+  }
+
   /** Test that if airport table is correctly created. */
   @Test
   public void isAirportsTableCreated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'airportTest'");
-    database.startCommite();
-
-    database.setTableName("airportTest");
     database.buildAirportsTable();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='airportTest'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(tableExists("airport_rows"));
     con.close();
   }
   /** Test that if airline table is correctly created. */
   @Test
   public void isAirlinesTableCreated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'airlineTest'");
-    database.startCommite();
-
-    database.setTableName("airlineTest");
     database.buildAirlinesTable();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='airlineTest'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(tableExists("airline_rows"));
     con.close();
   }
   /** Test that if route table is correctly created. */
   @Test
   public void isRouteTableCreated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'routeTest'");
-    database.startCommite();
-
-    database.setTableName("routeTest");
     database.buildRoutesTable();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='routeTest'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(tableExists("route_rows"));
     con.close();
   }
   /** Test that if file_list table is correctly created. */
@@ -126,9 +129,7 @@ public class SQLiteDatabaseTest {
   /** Test that if airport successfully insert into database. */
   @Test
   public void isAirportInsertIntoDatabase() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'AirportInsertion'");
-    database.startCommite();
+    database.deleteFile("AirportInsertion", "Airport");
     Airport airport =
         new Airport(
             1,
@@ -143,50 +144,52 @@ public class SQLiteDatabaseTest {
             10,
             "U",
             "Port_Moresby");
-    database.setTableName("AirportInsertion");
-    database.buildAirportsTable();
+    database.initialiseTable("Airport", "AirportInsertion");
     database.addAirports(airport);
     database.startCommite();
-    res = state.executeQuery("select name from 'AirportInsertion' where airport_id=1");
+    prep = con.prepareStatement("select name from airport_rows where file_id=? and airport_id=1");
+    prep.setInt(1, SQLiteDatabase.findFile(con, "Airport", "AirportInsertion"));
+    res = prep.executeQuery();
     assertEquals("Goroka", res.getString("name"));
     res.close();
-    state.close();
+    prep.close();
     con.close();
   }
 
   /** Test that if route successfully insert into database. */
   @Test
   public void isRouteInsertIntoDatabase() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'routeInsertion'");
-    database.startCommite();
+    database.deleteFile("routeInsertion", "Route");
     Route route = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
-    database.setTableName("routeInsertion");
-    database.buildRoutesTable();
+    database.initialiseTable("Route", "routeInsertion");
     database.addRoutes(route);
     database.startCommite();
-    res =
-        state.executeQuery("select sourceAirport from 'routeInsertion' where sourceAirportID=2965");
+    prep =
+        con.prepareStatement(
+            "select sourceAirport from route_rows where file_id=? and sourceAirportID=2965");
+    prep.setInt(1, SQLiteDatabase.findFile(con, "Route", "routeInsertion"));
+    res = prep.executeQuery();
     assertEquals("AER", res.getString("sourceAirport"));
     res.close();
-    state.close();
+    prep.close();
     con.close();
   }
   /** Test that if airline successfully insert into database. */
   @Test
   public void isAirlineInsertIntoDatabase() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'airlineInsertion'");
-    database.startCommite();
+    database.deleteFile("airlineInsertion", "Airline");
     Airline airline = new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true);
-    database.setTableName("airlineInsertion");
-    database.buildAirlinesTable();
+    database.initialiseTable("Airline", "airlineInsertion");
     database.addAirlines(airline);
     database.startCommite();
-    res = state.executeQuery("select airlineName from 'airlineInsertion' where airline_id=2");
+    prep =
+        con.prepareStatement(
+            "select airlineName from airline_rows where file_id=? and airline_id=2");
+    prep.setInt(1, SQLiteDatabase.findFile(con, "Airline", "airlineInsertion"));
+    res = prep.executeQuery();
     assertEquals("Private flight", res.getString("airlineName"));
     res.close();
-    state.close();
+    prep.close();
     con.close();
   }
   /**
@@ -196,13 +199,8 @@ public class SQLiteDatabaseTest {
   @Test
   public void isAirportTableInitialised() throws SQLException {
     database.initialiseTable("Airport", "airportTableinit.csv");
-    state = con.createStatement();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='airportTableinit'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(SQLiteDatabase.findFile(con, "Airport", "airportTableinit.csv") >= 0);
+    database.rollback();
     con.close();
   }
   /**
@@ -211,13 +209,8 @@ public class SQLiteDatabaseTest {
   @Test
   public void isRouteTableInitialised() throws SQLException {
     database.initialiseTable("Route", "routeTableinit.csv");
-    state = con.createStatement();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='routeTableinit'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(SQLiteDatabase.findFile(con, "Route", "routeTableinit.csv") >= 0);
+    database.rollback();
     con.close();
   }
   /**
@@ -227,13 +220,8 @@ public class SQLiteDatabaseTest {
   @Test
   public void isAirlineTableInitialised() throws SQLException {
     database.initialiseTable("Airline", "airlineTableinit.csv");
-    state = con.createStatement();
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='airlineTableinit'");
-    assertTrue(res.next());
-    res.close();
-    state.close();
+    assertTrue(SQLiteDatabase.findFile(con, "Airline", "airlineTableinit.csv") >= 0);
+    database.rollback();
     con.close();
   }
   /** Test that if airport table successfully up-to-dated. */
@@ -253,17 +241,14 @@ public class SQLiteDatabaseTest {
             10,
             "U",
             "Port_Moresby");
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'airportStorageUpdate'");
-    database.startCommite();
-    database.initialiseTable("Airport", "airportStorageUpdate");
+    database.deleteFile("airportStorageUpdate.csv", "Airport");
+    database.initialiseTable("Airport", "airportStorageUpdate.csv");
     database.addAirports(airport);
     database.startCommite();
     database.updateTableList("airportStorageUpdate.csv", "Airport");
     storage = new Storage();
-    database.initialiseStorage(storage);
+    storage.initialiseStorage();
     assertEquals(1, storage.getAirports().size());
-    state.close();
     con.close();
   }
   /** Test that if route table successfully up-to-dated. */
@@ -271,17 +256,14 @@ public class SQLiteDatabaseTest {
   public void isRouteInTheStorgeUpdated() throws SQLException {
     Route route = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
 
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'routeStorageUpdate'");
-    database.startCommite();
-    database.initialiseTable("Route", "routeStorageUpdate");
+    database.deleteFile("routeStorageUpdate.csv", "Route");
+    database.initialiseTable("Route", "routeStorageUpdate.csv");
     database.addRoutes(route);
     database.startCommite();
     database.updateTableList("routeStorageUpdate.csv", "Route");
     storage = new Storage();
-    database.initialiseStorage(storage);
+    storage.initialiseStorage();
     assertEquals(1, storage.getRoutes().size());
-    state.close();
     con.close();
   }
 
@@ -289,17 +271,14 @@ public class SQLiteDatabaseTest {
   @Test
   public void isAirlineInTheStorgeUpdated() throws SQLException {
     Airline airline = new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true);
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'airlineStorageUpdate'");
-    database.startCommite();
-    database.initialiseTable("Airline", "airlineStorageUpdate");
+    database.deleteFile("airlineStorageUpdate.csv", "Airline");
+    database.initialiseTable("Airline", "airlineStorageUpdate.csv");
     database.addAirlines(airline);
     database.startCommite();
     database.updateTableList("airlineStorageUpdate.csv", "Airline");
     storage = new Storage();
-    database.initialiseStorage(storage);
+    storage.initialiseStorage();
     assertEquals(1, storage.getAirlines().size());
-    state.close();
     con.close();
   }
 
@@ -315,7 +294,7 @@ public class SQLiteDatabaseTest {
     database.initialiseTable("History", "history");
     database.updateHistoryTable(history);
     storage = new Storage();
-    database.initialiseStorage(storage);
+    storage.initialiseStorage();
     assertEquals(1, storage.getHistory().size());
     state.close();
     con.close();
@@ -323,9 +302,7 @@ public class SQLiteDatabaseTest {
   /** Test that if airport table successfully up-to-dated from list. */
   @Test
   public void isAirportTableUpdated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'AirportTableUpdate'");
-    database.startCommite();
+    database.deleteFile("AirportTableUpdate", "Airport");
     database.initialiseTable("Airport", "AirportTableUpdate");
     Airport airport1 =
         new Airport(
@@ -359,18 +336,13 @@ public class SQLiteDatabaseTest {
     airports.add(airport1);
     airports.add(airport2);
     database.updateAirportTable(airports);
-    res = state.executeQuery("select count(*) as row_count from 'AirportTableUpdate'");
-    assertEquals(2, res.getInt("row_count"));
-    res.close();
-    state.close();
+    assertEquals(2, countRows("Airport", "AirportTableUpdate"));
     con.close();
   }
   /** Test that if airline table successfully up-to-dated from list. */
   @Test
   public void isAirlineTableUpdated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'AirlineTableUpdate'");
-    database.startCommite();
+    database.deleteFile("AirlineTableUpdate", "Airline");
     database.initialiseTable("Airline", "AirlineTableUpdate");
 
     Airline airline1 = new Airline(1, "Private flight", "\\N", "-", "N/A", "", "", true);
@@ -380,18 +352,13 @@ public class SQLiteDatabaseTest {
     airlines.add(airline1);
     airlines.add(airline2);
     database.updateAirlineTable(airlines);
-    res = state.executeQuery("select count(*) as row_count from 'AirlineTableUpdate'");
-    assertEquals(2, res.getInt("row_count"));
-    res.close();
-    state.close();
+    assertEquals(2, countRows("Airline", "AirlineTableUpdate"));
     con.close();
   }
   /** Test that if route table successfully up-to-dated from list. */
   @Test
   public void isRouteTableUpdated() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'routeTableUpdate'");
-    database.startCommite();
+    database.deleteFile("routeTableUpdate", "Route");
     database.initialiseTable("Route", "routeTableUpdate");
 
     Route route1 = new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"});
@@ -401,10 +368,7 @@ public class SQLiteDatabaseTest {
     routes.add(route1);
     routes.add(route2);
     database.updateRoute(routes);
-    res = state.executeQuery("select count(*) as row_count from 'routeTableUpdate'");
-    assertEquals(2, res.getInt("row_count"));
-    res.close();
-    state.close();
+    assertEquals(2, countRows("Route", "routeTableUpdate"));
     con.close();
   }
   /** Test that if history table successfully up-to-dated from list. */
@@ -490,54 +454,189 @@ public class SQLiteDatabaseTest {
     con.close();
   }
 
-  /** Test that if specific table can be deleted from database. */
+  /** Test that if the rows of a specific file can be deleted from database. */
   @Test
   public void isFileDeleted() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'fileToBeDeleted'");
-    database.startCommite();
+    database.deleteFile("fileToBeDeleted.csv", "Airport");
     database.initialiseTable("Airport", "fileToBeDeleted.csv");
+    database.addAirports(
+        new Airport(1, "Goroka", "Goroka", "Papua New Guinea", "GKA", "AYGA", -6.081689,
+            145.391881, 5282, 10, "U", "Port_Moresby"));
     database.updateTableList("fileToBeDeleted.csv", "Airport");
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='fileToBeDeleted'");
-    if (res.next()) {
-      state.close();
-      database.deleteFile("fileToBeDeleted.csv", "Airport");
-      res =
-          state.executeQuery(
-              "SELECT name FROM sqlite_master WHERE type='table' AND name='fileToBeDeleted'");
-      assertFalse(res.next());
-    } else {
-      Exception e = new Exception("File not deleted.");
-    }
+    assertEquals(1, countRows("Airport", "fileToBeDeleted.csv"));
+    prep = con.prepareStatement("select count(*) from airport_rows where file_id=?");
+    prep.setInt(1, SQLiteDatabase.findFile(con, "Airport", "fileToBeDeleted.csv"));
+    database.deleteFile("fileToBeDeleted.csv", "Airport");
+    res = prep.executeQuery();
+    assertEquals(0, res.getInt(1));
     res.close();
-    state.close();
+    prep.close();
     con.close();
   }
 
   /** Test that if specific file name can be deleted from file_list. */
   @Test
   public void isFileDeletedFromFileList() throws SQLException {
-    state = con.createStatement();
-    state.executeUpdate("drop table IF EXISTS 'fileToBeDeleted'");
-    database.startCommite();
+    database.deleteFile("fileToBeDeleted.csv", "Airport");
     database.initialiseTable("Airport", "fileToBeDeleted.csv");
     database.updateTableList("fileToBeDeleted.csv", "Airport");
-    res =
-        state.executeQuery(
-            "SELECT name FROM sqlite_master WHERE type='table' AND name='fileToBeDeleted'");
-    if (res.next()) {
-      state.close();
-      state = con.createStatement();
-      database.deleteFile("fileToBeDeleted.csv", "Airport");
-      res = state.executeQuery("select count(*) as row_count from 'file_list'");
-      assertEquals(0, res.getInt("row_count"));
-    } else {
-      Exception e = new Exception("File not deleted.");
-    }
-    res.close();
-    state.close();
+    assertTrue(SQLiteDatabase.findFile(con, "Airport", "fileToBeDeleted.csv") >= 0);
+    database.deleteFile("fileToBeDeleted.csv", "Airport");
+    assertEquals(-1, SQLiteDatabase.findFile(con, "Airport", "fileToBeDeleted.csv"));
+    assertFalse(database.getFileNamesByType("Airport").contains("fileToBeDeleted.csv"));
     con.close();
   }
+
+  /** Test that every stored file is listed at start up, the last of each type loaded first. */
+  @Test
+  public void isStorageInitialisedWithCurrentFiles() {
+    for (int file = 1; file <= 4; file++) {
+      List<Route> routes = new ArrayList<>();
+      for (int i = 0; i < file * 10; i++) {
+        routes.add(new Route("2B", 410, "AER", i, "KZN", file, "", 0, new String[] {"CR2"}));
+      }
+      database.deleteFile("startRoutes" + file + ".csv", "Route");
+      database.initialiseTable("Route", "startRoutes" + file + ".csv");
+      database.updateRoute(routes);
+      database.updateTableList("startRoutes" + file + ".csv", "Route");
+    }
+
+    storage = new Storage();
+    storage.initialiseStorage();
+    assertEquals("startRoutes4.csv", storage.getCurrentRouteFile());
+    assertEquals(40, storage.getRoutes().size());
+    for (int file = 1; file <= 4; file++) {
+      assertTrue(storage.getRouteFileNames().contains("startRoutes" + file + ".csv"));
+      storage.setCurrentRouteFile("startRoutes" + file + ".csv");
+      assertEquals(file * 10, storage.getRoutes().size());
+    }
+    for (int file = 1; file <= 4; file++) {
+      database.deleteFile("startRoutes" + file + ".csv", "Route");
+    }
+  }
+
+  /** Test that only the given rows are deleted, one row for each route. */
+  @Test
+  public void isOnlySelectedRowsDeleted() throws SQLException {
+    ConnectionManager connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("rows.sqlite"), 1);
+    SQLiteDatabase rows = new SQLiteDatabase(connections);
+    try {
+      List<Route> routes = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        routes.add(new Route("2B", 410, "AER", i, "KZN", 2990, "", 0, new String[] {"CR2"}));
+      }
+      routes.add(new Route("2B", 410, "AER", 1, "KZN", 2990, "", 0, new String[] {"CR2"}));
+      rows.initialiseTable("Route", "deleteRoutes.csv");
+      rows.updateRoute(routes);
+      rows.updateTableList("deleteRoutes.csv", "Route");
+
+      List<Route> deleted = new ArrayList<>();
+      deleted.add(routes.get(1));
+      deleted.add(routes.get(3));
+      rows.deleteRows("Route", "deleteRoutes.csv", deleted);
+      List<Integer> sources = new ArrayList<>();
+      for (Object route : rows.loadFile("Route", "deleteRoutes.csv")) {
+        sources.add(((Route) route).getSourceAirportID());
+        assertArrayEquals(new String[] {"CR2"}, ((Route) route).getEquipment());
+      }
+      assertEquals(List.of(0, 2, 4, 1), sources);
+
+      Airline airline = new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true);
+      Airline other = new Airline(3, "135 Airways", "\\N", "", "GNL", "GENERAL", "", false);
+      rows.initialiseTable("Airline", "deleteAirlines.csv");
+      rows.updateAirlineTable(List.of(airline, other));
+      rows.deleteRows("Airline", "deleteAirlines.csv", List.of(airline));
+      assertEquals(List.of(other), rows.loadFile("Airline", "deleteAirlines.csv"));
+    } finally {
+      connections.close();
+    }
+  }
+
+  /**
+   * Test that a database with a table for each file is migrated to one table for each type, with
+   * the plane codes of its routes numbered.
+   */
+  @Test
+  public void isLegacyDatabaseMigrated() throws SQLException {
+    String url = "jdbc:sqlite:" + folder.getRoot().toPath().resolve("legacy.sqlite");
+    try (Connection legacy = DriverManager.getConnection(url);
+        Statement build = legacy.createStatement()) {
+      build.executeUpdate(
+          "create table file_list(file_id integer, file_name varchar(255),"
+              + " file_type varchar(10), primary key (file_id))");
+      build.executeUpdate("insert into file_list values(1, 'airport_rows.csv', 'Airport')");
+      build.executeUpdate("insert into file_list values(2, 'oldRoutes.csv', 'Route')");
+      build.executeUpdate(
+          "create table 'airport_rows'(airport_id integer, name varchar(60), city varchar(60),"
+              + " country varchar(60), IATA varchar(5), ICAO varchar(5), lat double(4, 6),"
+              + " lon double(4, 6), alt integer, timezone float, DST varchar(60),"
+              + " DBTimezone varchar(60), primary key (airport_id))");
+      build.executeUpdate(
+          "insert into 'airport_rows' values"
+              + "(2, 'Madang', 'Madang', 'PNG', 'MAG', 'AYMD', 1, 2, 3, 10, 'U', 'Port_Moresby'),"
+              + "(1, 'Goroka', 'Goroka', 'PNG', 'GKA', 'AYGA', 1, 2, 3, 10, 'U', 'Port_Moresby')");
+      build.executeUpdate(
+          "create table 'oldRoutes'(route_id integer, airlineName varchar(60),"
+              + " airlineID integer, sourceAirport varchar(60), sourceAirportID integer,"
+              + " destinationAirport varchar(60), destinationAirportID integer,"
+              + " codeShare varchar(60), numOfStops integer, equipment varchar(256),"
+              + " emissions double(100, 10), distance double(100, 10), timesTaken integer,"
+              + " primary key (route_id))");
+      build.executeUpdate(
+          "insert into 'oldRoutes' values"
+              + "(5, '2B', 410, 'AER', 7, 'KZN', 2990, '', 0, ' CR2', 0, 0, 0),"
+              + "(3, '2B', 410, 'AER', 9, 'KZN', 2990, '', 0, ' CR2', 0, 0, 0)");
+    }
+
+    ConnectionManager connections = new ConnectionManager(url, 1);
+    SQLiteDatabase migrated = new SQLiteDatabase(connections);
+    try {
+      List<Integer> airports = new ArrayList<>();
+      for (Object airport : migrated.loadFile("Airport", "airport_rows.csv")) {
+        airports.add(((Airport) airport).getAirportID());
+      }
+      assertEquals(List.of(1, 2), airports);
+      List<Integer> sources = new ArrayList<>();
+      for (Object route : migrated.loadFile("Route", "oldRoutes.csv")) {
+        sources.add(((Route) route).getSourceAirportID());
+        assertArrayEquals(new String[] {"CR2"}, ((Route) route).getEquipment());
+      }
+      assertEquals(List.of(9, 7), sources);
+
+      Connection writer = connections.getWriter();
+      assertFalse(SQLiteDatabase.tableExists(writer, "'oldRoutes'"));
+      assertFalse(SQLiteDatabase.tableExists(writer, "'legacy_file_1'"));
+      try (Statement query = writer.createStatement();
+          ResultSet version = query.executeQuery("PRAGMA user_version")) {
+        assertEquals(SQLiteDatabase.SCHEMA_VERSION, version.getInt(1));
+      }
+    } finally {
+      connections.close();
+    }
+  }
+
+  /** Test that a file which cannot be read is thrown by readFile rather than shown. */
+  @Test
+  public void readFileFailureTest() throws SQLException {
+    ConnectionManager connections =
+        new ConnectionManager("jdbc:sqlite:" + folder.getRoot().toPath().resolve("read.sqlite"), 1);
+    SQLiteDatabase broken = new SQLiteDatabase(connections);
+    try {
+      broken.initialiseTable("Airline", "unreadable.csv");
+      broken.updateTableList("unreadable.csv", "Airline");
+      try (Statement drop = connections.getWriter().createStatement()) {
+        drop.executeUpdate("drop table airline_rows");
+      }
+      connections.getWriter().commit();
+      try {
+        broken.readFile("Airline", "unreadable.csv");
+        fail("Expected the missing table to be thrown");
+      } catch (SQLException expected) {
+        assertTrue(expected.getMessage().contains("airline_rows"));
+      }
+    } finally {
+      connections.close();
+    }
+  }
 }
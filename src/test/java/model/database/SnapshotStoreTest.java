@@ -0,0 +1,236 @@
+package model.database;
+
+import model.data.Airline;
+import model.data.Airport;
+import model.data.DataType;
+import model.data.Route;
+import model.data.Storage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SnapshotStore class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class SnapshotStoreTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private SnapshotStore store;
+
+  @Before
+  public void setUp() {
+    store = new SnapshotStore(folder.getRoot().toPath().resolve("snapshots"));
+  }
+
+  /** Test that airports are read back from a snapshot as they were written. */
+  @Test
+  public void airportRoundTripTest() {
+    List<Airport> airports = new ArrayList<>();
+    airports.add(
+        new Airport(
+            1, "Goroka", "Goroka", "Papua New Guinea", "GKA", "AYGA", -6.081689, 145.391881, 5282,
+            10, "U", "Pacific/Port_Moresby"));
+    airports.add(
+        new Airport(
+            2, "Madang", "Madang", "Papua New Guinea", "MAG", "AYMD", -5.207083, 145.7887, 20,
+            5.5f, "U", "Pacific/Port_Moresby"));
+    assertTrue(store.write("Airport", "airports.csv", 1, airports));
+
+    List<DataType> read = store.read("Airport", "airports.csv", 1);
+    assertEquals(airports, read);
+    Airport madang = (Airport) read.get(1);
+    assertEquals(5.5, madang.getTimezone(), 0);
+    assertSame(((Airport) read.get(0)).getCountry(), madang.getCountry());
+  }
+
+  /** Test that airlines are read back from a snapshot, including null strings. */
+  @Test
+  public void airlineRoundTripTest() {
+    List<Airline> airlines = new ArrayList<>();
+    airlines.add(new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true));
+    airlines.add(
+        new Airline(3, "135 Airways", "\\N", "", "GNL", "GENERAL", "United States", false));
+    airlines.add(new Airline(4, null, null, null, null, null, null, false));
+    assertTrue(store.write("Airline", "airlines.csv", 1, airlines));
+
+    List<DataType> read = store.read("Airline", "airlines.csv", 1);
+    assertEquals(airlines.subList(0, 2), read.subList(0, 2));
+    Airline empty = (Airline) read.get(2);
+    assertEquals(4, empty.getAirlineID());
+    assertNull(empty.getName());
+    assertNull(empty.getCountry());
+  }
+
+  /** Test that routes are read back with the same attributes, sharing their plane codes. */
+  @Test
+  public void routeRoundTripTest() {
+    Route route =
+        new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2", "A81"});
+    route.setEmissions(12.5);
+    route.setDistance(1500.25);
+    route.setTimesTaken(3);
+    List<Route> routes = new ArrayList<>();
+    routes.add(route);
+    routes.add(new Route("2B", 410, "ASF", 2966, "KZN", 2990, "Y", 1, new String[0]));
+    assertTrue(store.write("Route", "routes.csv", 1, routes));
+
+    List<DataType> read = store.read("Route", "routes.csv", 1);
+    Route first = (Route) read.get(0);
+    assertSame(route.getEquipment(), first.getEquipment());
+    assertEquals("KZN", first.getDestinationAirport());
+    assertEquals(12.5, first.getEmissions(), 0);
+    assertEquals(1500.25, first.getDistance(), 0);
+    assertEquals(3, first.getTimesTaken());
+    Route second = (Route) read.get(1);
+    assertEquals("Y", second.getCodeShare());
+    assertEquals(1, second.getNumOfStops());
+    assertEquals(0, second.getEquipment().length);
+  }
+
+  /** Test that a snapshot is ignored when it was written at another revision of the file. */
+  @Test
+  public void revisionMismatchTest() {
+    List<Airline> airlines = new ArrayList<>();
+    airlines.add(new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true));
+    store.write("Airline", "airlines.csv", 1, airlines);
+    assertNull(store.read("Airline", "airlines.csv", 2));
+    assertNull(store.read("Airport", "airlines.csv", 1));
+    assertEquals(airlines, store.read("Airline", "airlines.csv", 1));
+  }
+
+  /** Test that files whose names differ only after the first dot keep their own snapshots. */
+  @Test
+  public void namesSharingPrefixTest() throws Exception {
+    List<Airline> first = new ArrayList<>();
+    first.add(new Airline(1, "First", "\\N", "-", "N/A", "", "", true));
+    List<Airline> second = new ArrayList<>();
+    second.add(new Airline(2, "Second", "\\N", "-", "N/A", "", "", true));
+    store.write("Airline", "airlines.2019.csv", 1, first);
+    store.write("Airline", "airlines.2020.csv", 1, second);
+    assertNotEquals(
+        store.getPath("Airline", "airlines.2019.csv"),
+        store.getPath("Airline", "airlines.2020.csv"));
+    assertEquals(first, store.read("Airline", "airlines.2019.csv", 1));
+    assertEquals(second, store.read("Airline", "airlines.2020.csv", 1));
+
+    Files.copy(
+        store.getPath("Airline", "airlines.2020.csv"),
+        store.getPath("Airline", "airlines.2019.csv"),
+        StandardCopyOption.REPLACE_EXISTING);
+    assertNull(store.read("Airline", "airlines.2019.csv", 1));
+  }
+
+  /** Test that a snapshot of another version or a damaged snapshot is ignored. */
+  @Test
+  public void corruptSnapshotTest() throws Exception {
+    List<Airline> airlines = new ArrayList<>();
+    airlines.add(new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true));
+    store.write("Airline", "airlines.csv", 1, airlines);
+    Path path = store.getPath("Airline", "airlines.csv");
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(4);
+      file.writeInt(SnapshotStore.VERSION + 1);
+    }
+    assertNull(store.read("Airline", "airlines.csv", 1));
+
+    store.write("Airline", "airlines.csv", 1, airlines);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.setLength(file.length() - 3);
+    }
+    assertNull(store.read("Airline", "airlines.csv", 1));
+    assertNull(store.read("Airline", "missing.csv", 1));
+  }
+
+  /** Test that a deleted snapshot is removed from disk. */
+  @Test
+  public void deleteTest() {
+    List<Airline> airlines = new ArrayList<>();
+    airlines.add(new Airline(2, "Private flight", "\\N", "-", "N/A", "", "", true));
+    store.write("Airline", "airlines.csv", 1, airlines);
+    assertTrue(Files.exists(store.getPath("Airline", "airlines.csv")));
+    store.delete("Airline", "airlines.csv");
+    assertFalse(Files.exists(store.getPath("Airline", "airlines.csv")));
+    assertNull(store.read("Airline", "airlines.csv", 1));
+  }
+
+  /** Test that storage is loaded from a snapshot once written, with the same data as its table. */
+  @Test
+  public void initialiseStorageFromSnapshotTest() throws Exception {
+    SQLiteDatabase database = new SQLiteDatabase();
+    database.deleteFile("routeSnapshot.csv", "Route");
+    database.initialiseTable("Route", "routeSnapshot.csv");
+    database.addRoutes(
+        new Route("2B", 410, "AER", 2965, "KZN", 2990, "", 0, new String[] {"CR2"}));
+    database.startCommite();
+    database.updateTableList("routeSnapshot.csv", "Route");
+
+    Storage fromTable = new Storage();
+    fromTable.initialiseStorage();
+    fromTable.setCurrentRouteFile("routeSnapshot.csv");
+    fromTable.getRoutes();
+    Path snapshot =
+        ConnectionManager.getShared().getSnapshots().getPath("Route", "routeSnapshot.csv");
+    assertTrue(Files.exists(snapshot));
+    Storage fromSnapshot = new Storage();
+    fromSnapshot.initialiseStorage();
+    fromSnapshot.setCurrentRouteFile("routeSnapshot.csv");
+    assertEquals(fromTable.getRoutes(), fromSnapshot.getRoutes());
+
+    database.closeAutoCommite();
+    database.deleteFile("routeSnapshot.csv", "Route");
+    assertFalse(Files.exists(snapshot));
+  }
+
+  /**
+   * Test that a change to a file's rows which keeps their number is not hidden by its snapshot,
+   * nor by a snapshot written late from rows read before the change.
+   */
+  @Test
+  public void sameCountChangeTest() throws Exception {
+    SQLiteDatabase database = new SQLiteDatabase();
+    Airline before = new Airline(1, "Before", "\\N", "", "BFR", "BEFORE", "Russia", true);
+    Airline after = new Airline(1, "After", "\\N", "", "AFT", "AFTER", "Russia", true);
+    database.deleteFile("revisionSnapshot.csv", "Airline");
+    database.initialiseTable("Airline", "revisionSnapshot.csv");
+    database.updateAirlineTable(Collections.singletonList(before));
+    database.updateTableList("revisionSnapshot.csv", "Airline");
+    assertEquals(
+        Collections.singletonList(before),
+        database.loadFile("Airline", "revisionSnapshot.csv"));
+    long revision =
+        SQLiteDatabase.findRevision(
+            database.getCon(),
+            SQLiteDatabase.findFile(database.getCon(), "Airline", "revisionSnapshot.csv"));
+
+    database.beginWrite();
+    try {
+      database.storeRows("Airline", "revisionSnapshot.csv", Collections.singletonList(after), true);
+      database.commit();
+    } finally {
+      database.endWrite();
+    }
+    assertEquals(
+        Collections.singletonList(after), database.loadFile("Airline", "revisionSnapshot.csv"));
+
+    ConnectionManager.getShared()
+        .getSnapshots()
+        .write("Airline", "revisionSnapshot.csv", revision, Collections.singletonList(before));
+    assertEquals(
+        Collections.singletonList(after), database.loadFile("Airline", "revisionSnapshot.csv"));
+    database.deleteFile("revisionSnapshot.csv", "Airline");
+  }
+}
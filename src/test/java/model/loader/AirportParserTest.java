@@ -272,6 +272,17 @@ public class AirportParserTest {
     assertFalse(airportParser.isDBTZValid("a1"));
   }
 
+  /** Verify that an airport whose quoted city contains a comma is parsed with the full city. */
+  @Test
+  public void quotedCommaInCityTest() {
+    airportParser.parseLine(
+        "5562,\"Robin Hood Doncaster Sheffield Airport\",\"Doncaster, Sheffield\",\"United Kingdom\",\"DSA\",\"EGCN\",53.474722,-1.004444,55,0,\"E\",\"Europe/London\"");
+    Airport airport = (Airport) airportParser.getData().get(airportParser.getData().size() - 1);
+    assertEquals(5562, airport.getAirportID());
+    assertEquals("Doncaster, Sheffield", airport.getCity());
+    assertEquals("United Kingdom", airport.getCountry());
+  }
+
   /**
    * Verify that the correct error message is produced when attempting to add a file where over 200
    * lines are wrong.
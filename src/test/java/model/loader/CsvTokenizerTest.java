@@ -0,0 +1,119 @@
+package model.loader;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for CsvTokenizer.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class CsvTokenizerTest {
+
+  private CsvTokenizer tokenizer;
+
+  @Before
+  public void setUp() {
+    tokenizer = new CsvTokenizer();
+  }
+
+  /** Verify that an unquoted line is split the same way as String.split. */
+  @Test
+  public void unquotedLineTest() {
+    String line = "2B,410,AER,2965,KZN,2990,,0,CR2";
+    assertEquals(9, tokenizer.tokenize(line));
+    assertArrayEquals(line.split(","), tokenizer.toArray());
+  }
+
+  /** Verify that quotes are removed from quoted fields. */
+  @Test
+  public void quotedFieldsTest() {
+    tokenizer.tokenize("1,\"Goroka\",\"Papua New Guinea\",\\N");
+    assertArrayEquals(
+        new String[] {"1", "Goroka", "Papua New Guinea", "\\N"}, tokenizer.toArray());
+  }
+
+  /** Verify that a comma inside a quoted field does not split the field. */
+  @Test
+  public void quotedCommaTest() {
+    assertEquals(3, tokenizer.tokenize("5562,\"Doncaster, Sheffield\",\"United Kingdom\""));
+    assertEquals("Doncaster, Sheffield", tokenizer.field(1));
+  }
+
+  /** Verify that two double quotes inside a quoted field stand for one double quote. */
+  @Test
+  public void escapedQuoteTest() {
+    tokenizer.tokenize("\"say \"\"hi\"\"\",b");
+    assertEquals("say \"hi\"", tokenizer.field(0));
+    assertEquals("b", tokenizer.field(1));
+  }
+
+  /** Verify that empty fields in the middle of a line are kept. */
+  @Test
+  public void emptyMiddleFieldTest() {
+    assertEquals(3, tokenizer.tokenize("a,\"\",c"));
+    assertEquals(0, tokenizer.length(1));
+  }
+
+  /** Verify that empty fields at the end of a line are dropped, like String.split. */
+  @Test
+  public void trailingEmptyFieldsDroppedTest() {
+    assertEquals(2, tokenizer.tokenize("a,b,,\"\","));
+  }
+
+  /** Verify that an empty line has a single empty field, like String.split. */
+  @Test
+  public void emptyLineTest() {
+    assertEquals(1, tokenizer.tokenize(""));
+    assertEquals("", tokenizer.field(0));
+  }
+
+  /** Verify that the fields of a line replace those of the previous line. */
+  @Test
+  public void reuseTest() {
+    tokenizer.tokenize("a much longer first line,with,several,fields");
+    assertEquals(2, tokenizer.tokenize("x,y"));
+    assertArrayEquals(new String[] {"x", "y"}, tokenizer.toArray());
+  }
+
+  /** Verify that a line longer than the initial buffer is split correctly. */
+  @Test
+  public void longLineTest() {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      line.append("field").append(i).append(',');
+    }
+    assertEquals(500, tokenizer.tokenize(line));
+    assertEquals("field499", tokenizer.field(499));
+  }
+
+  /** Verify that a tokenizer on spaces without quoting splits equipment codes. */
+  @Test
+  public void spaceDelimiterTest() {
+    CsvTokenizer equipment = new CsvTokenizer(' ', false);
+    assertEquals(3, equipment.tokenize("CR2 737 \"A3"));
+    assertEquals("\"A3", equipment.field(2));
+  }
+
+  /** Verify that a field view reads the field of whichever line was tokenized last. */
+  @Test
+  public void viewTest() {
+    tokenizer.tokenize("2B,\"410\",AER");
+    CharSequence view = tokenizer.view(1);
+    assertEquals("410", view.toString());
+    assertEquals('4', view.charAt(0));
+    tokenizer.tokenize("3C,5678,ASF");
+    assertSame(view, tokenizer.view(1));
+    assertEquals(4, view.length());
+    assertEquals("5678", view.toString());
+  }
+
+  /** Verify that asking for a field past the end of the line throws an exception. */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void fieldOutOfRangeTest() {
+    tokenizer.tokenize("a,b");
+    tokenizer.field(2);
+  }
+}
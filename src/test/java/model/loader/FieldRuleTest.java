@@ -0,0 +1,137 @@
+package model.loader;
+
+import org.junit.Test;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for FieldRule.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FieldRuleTest {
+
+  /** Verify that a text rule accepts a field made only of allowed characters. */
+  @Test
+  public void textValidTest() {
+    FieldRule rule = FieldRule.text(0, "[A-Z]", 3);
+    assertEquals(FieldRule.VALID, rule.check("ABC"));
+  }
+
+  /** Verify that a text rule returns its error code for a field with other characters. */
+  @Test
+  public void textInvalidCharacterTest() {
+    FieldRule rule = FieldRule.text(0, "[A-Z]", 3);
+    assertEquals(3, rule.check("AbC"));
+  }
+
+  /** Verify that a text rule rejects an empty field by default. */
+  @Test
+  public void textEmptyTest() {
+    assertFalse(FieldRule.text(0, "[A-Z]", 3).isValid(""));
+  }
+
+  /** Verify that a text rule checks the length bounds. */
+  @Test
+  public void textLengthTest() {
+    FieldRule rule = FieldRule.text(0, "[A-Z]", 3).length(3, 4);
+    assertFalse(rule.isValid("AB"));
+    assertTrue(rule.isValid("ABC"));
+    assertTrue(rule.isValid("ABCD"));
+    assertFalse(rule.isValid("ABCDE"));
+  }
+
+  /** Verify that allowed values are valid even though they break the character class. */
+  @Test
+  public void allowTest() {
+    FieldRule rule = FieldRule.text(0, "[A-Z]", 3).length(3, 3).allow("\\N", "");
+    assertTrue(rule.isValid("\\N"));
+    assertTrue(rule.isValid(""));
+    assertFalse(rule.isValid("\\n"));
+  }
+
+  /** Verify that values allowed ignoring case are valid in any case. */
+  @Test
+  public void allowIgnoringCaseTest() {
+    FieldRule rule = FieldRule.text(0, "[A-Z]", 3).length(3, 3).allowIgnoringCase("unknown");
+    assertTrue(rule.isValid("Unknown"));
+    assertTrue(rule.isValid("UNKNOWN"));
+  }
+
+  /** Verify that a non-ASCII letter is accepted by a class containing all letters. */
+  @Test
+  public void unicodeLetterTest() {
+    FieldRule rule = FieldRule.text(0, "[\\p{L} ]", 3);
+    assertTrue(rule.isValid("Zürich Flughafen"));
+    assertTrue(rule.isValid("𐐀"));
+    assertFalse(rule.isValid("Zürich€"));
+  }
+
+  /** Verify that each item of a list field is checked. */
+  @Test
+  public void separatedByTest() {
+    FieldRule rule = FieldRule.text(0, "[0-9A-Z]", 9).length(3, 3).separatedBy(' ');
+    assertTrue(rule.isValid("CR2 737"));
+    assertTrue(rule.isValid("CR2 737 "));
+    assertFalse(rule.isValid("CR2  737"));
+    assertFalse(rule.isValid(" CR2"));
+    assertFalse(rule.isValid("CR2 73"));
+    assertFalse(rule.isValid(""));
+  }
+
+  /** Verify that an integer rule accepts integers and returns its error code otherwise. */
+  @Test
+  public void integerTest() {
+    FieldRule rule = FieldRule.integer(0, 10);
+    assertEquals(FieldRule.VALID, rule.check("-239"));
+    assertEquals(10, rule.check("23.9"));
+    assertEquals(10, rule.check(""));
+  }
+
+  /** Verify that parseInteger accepts the same values as Integer.parseInt. */
+  @Test
+  public void parseIntegerTest() {
+    String[] values = {
+      "0", "-239", "+17", "007", "2147483647", "-2147483648", "2147483648", "-2147483649", "",
+      "-", "+", "23.9", "1e3", " 1", "\\N", "٣"
+    };
+    for (String value : values) {
+      long expected;
+      try {
+        expected = Integer.parseInt(value);
+      } catch (NumberFormatException e) {
+        expected = FieldRule.NOT_AN_INTEGER;
+      }
+      assertEquals(value, expected, FieldRule.parseInteger(value));
+    }
+  }
+
+  /** Verify that a decimal rule checks its range with the range error code. */
+  @Test
+  public void decimalRangeTest() {
+    FieldRule rule = FieldRule.decimal(0, 11).range(-12, 14, FieldRule.REJECT);
+    assertEquals(FieldRule.VALID, rule.check("5.5"));
+    assertEquals(FieldRule.REJECT, rule.check("15"));
+    assertEquals(11, rule.check("five"));
+  }
+
+  /** Verify that text rules agree with String.matches for random strings. */
+  @Test
+  public void matchesRegexTest() {
+    String[] classes = {"[a-zA-Z0-9 -.]", "[a-zA-Z-/a-zA-Z_]", "[\\w ]", "[\\p{L}0-9 .,'()/-]"};
+    String alphabet = "aZ09 -._/,'()\\\"é€#";
+    Random random = new Random(202);
+    for (String charClass : classes) {
+      FieldRule rule = FieldRule.text(0, charClass, 1);
+      for (int i = 0; i < 2000; i++) {
+        StringBuilder value = new StringBuilder();
+        for (int j = random.nextInt(4) + 1; j > 0; j--) {
+          value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        String text = value.toString();
+        assertEquals(charClass + " " + text, text.matches(charClass + "+"), rule.isValid(text));
+      }
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package model.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the FileLineReader class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FileLineReaderTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /** The lines written to compressed test files. */
+  private static final String TEXT =
+      "2B,410,AER,2965,KZN,2990,,0,CR2\n2B,410,ASF,2966,KZN,2990,,0,CR2\n";
+
+  /**
+   * Create a reader over the given text.
+   *
+   * @param text The contents of the reader.
+   * @return A FileLineReader which reads the text.
+   */
+  private FileLineReader readerOf(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    return new FileLineReader(new ByteArrayInputStream(bytes), bytes.length);
+  }
+
+  /** Verify that each line of the input is returned in order. */
+  @Test
+  public void readsLinesInOrderTest() {
+    List<String> lines = new ArrayList<>();
+    for (String line : readerOf("first\nsecond\r\nthird")) {
+      lines.add(line);
+    }
+    assertArrayEquals(new String[] {"first", "second", "third"}, lines.toArray());
+  }
+
+  /** Verify that multi-byte UTF-8 characters are decoded correctly. */
+  @Test
+  public void decodesUtf8Test() {
+    for (String line : readerOf("Zürich,Köln")) {
+      assertEquals("Zürich,Köln", line);
+    }
+  }
+
+  /** Verify that the lines can only be iterated over once. */
+  @Test
+  public void iterateTwiceTest() {
+    FileLineReader reader = readerOf("line");
+    reader.iterator();
+    try {
+      reader.iterator();
+      fail();
+    } catch (IllegalStateException e) {
+      assertTrue(true);
+    }
+  }
+
+  /** Verify that the byte count is the size of the file. */
+  @Test
+  public void byteCountTest() throws FileNotFoundException {
+    FileLineReader reader =
+        new FileLineReader("../seng202_project/src/test/java/TestFiles/singleRoute.csv");
+    assertTrue(reader.getByteCount() > 0);
+    reader.close();
+  }
+
+  /** Verify that a missing file raises a FileNotFoundException. */
+  @Test
+  public void missingFileTest() {
+    try {
+      new FileLineReader("../seng202_project/src/test/java/TestFiles/doesntExist.csv");
+      fail();
+    } catch (FileNotFoundException e) {
+      assertTrue(true);
+    }
+  }
+
+  /**
+   * Read every line of a file.
+   *
+   * @param path The path of the file.
+   * @return The lines of the file.
+   */
+  private List<String> readAll(String path) throws FileNotFoundException {
+    List<String> lines = new ArrayList<>();
+    try (FileLineReader reader = new FileLineReader(path)) {
+      for (String line : reader) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Write a zip file holding a file for each of the given names, each containing TEXT.
+   *
+   * @param name The name of the zip file.
+   * @param entries The names of the files in the zip file.
+   * @return The zip file.
+   */
+  private File zipOf(String name, String... entries) throws IOException {
+    File file = folder.newFile(name);
+    try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+      for (String entry : entries) {
+        zip.putNextEntry(new ZipEntry(entry));
+        zip.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+      }
+    }
+    return file;
+  }
+
+  /** Verify that a gzip file is decompressed as it is read. */
+  @Test
+  public void gzipFileTest() throws IOException {
+    File file = folder.newFile("routes.csv.gz");
+    try (GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(file))) {
+      gzip.write(TEXT.getBytes(StandardCharsets.UTF_8));
+    }
+    assertArrayEquals(TEXT.split("\n"), readAll(file.getPath()).toArray());
+  }
+
+  /** Verify that the single file in a zip file is decompressed as it is read. */
+  @Test
+  public void zipFileTest() throws IOException {
+    File file = zipOf("routes.zip", "routes.csv");
+    assertArrayEquals(TEXT.split("\n"), readAll(file.getPath()).toArray());
+  }
+
+  /** Verify that a zip file holding more than one file is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void zipWithTwoFilesTest() throws IOException {
+    readAll(zipOf("two.zip", "routes.csv", "airports.csv").getPath());
+  }
+
+  /** Verify that a file with a .gz extension which is not gzip data is rejected. */
+  @Test(expected = UncheckedIOException.class)
+  public void notGzipTest() throws IOException {
+    File file = folder.newFile("routes.csv.gz");
+    Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.UTF_8));
+    readAll(file.getPath());
+  }
+}
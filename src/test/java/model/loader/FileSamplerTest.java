@@ -0,0 +1,96 @@
+package model.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the FileSampler class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class FileSamplerTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * This method creates numbered lines filling more than the three blocks which are sampled.
+   *
+   * @return the text of the lines.
+   */
+  private String largeText() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; text.length() < 10 * FileSampler.BLOCK_SIZE; i++) {
+      text.append("line ").append(i).append('\n');
+    }
+    return text.toString();
+  }
+
+  /**
+   * Write text to a file in the temporary folder.
+   *
+   * @param name The name of the file.
+   * @param text The contents of the file.
+   * @return the path of the file.
+   */
+  private String fileOf(String name, String text) throws IOException {
+    File file = folder.newFile(name);
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file.getPath();
+  }
+
+  /** Verify that a small file is sampled whole, without blank lines. */
+  @Test
+  public void smallFileTest() throws IOException {
+    FileSampler sample = new FileSampler(fileOf("small.csv", "first\n\nsecond\r\nthird"));
+    assertTrue(sample.isComplete());
+    assertArrayEquals(new String[] {"first", "second", "third"}, sample.getLines().toArray());
+  }
+
+  /** Verify that a large file is sampled from its start, middle and end, in whole lines. */
+  @Test
+  public void largeFileTest() throws IOException {
+    String text = largeText();
+    FileSampler sample = new FileSampler(fileOf("large.csv", text));
+    assertFalse(sample.isComplete());
+    assertEquals("line 0", sample.getLines().get(0));
+    String lastLine = text.substring(text.lastIndexOf('\n', text.length() - 2) + 1).trim();
+    assertEquals(lastLine, sample.getLines().get(sample.getLines().size() - 1));
+    assertTrue(sample.getLines().size() < text.split("\n").length / 2);
+    for (String line : sample.getLines()) {
+      assertTrue(line, text.contains("\n" + line + "\n") || text.startsWith(line + "\n"));
+    }
+    int middle = text.split("\n").length / 2;
+    assertTrue(sample.getLines().contains("line " + middle));
+  }
+
+  /** Verify that only the start of a compressed file is sampled. */
+  @Test
+  public void compressedFileTest() throws IOException {
+    File file = folder.newFile("large.csv.gz");
+    try (GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(file))) {
+      gzip.write(largeText().getBytes(StandardCharsets.UTF_8));
+    }
+    FileSampler sample = new FileSampler(file.getPath());
+    assertFalse(sample.isComplete());
+    assertEquals("line 0", sample.getLines().get(0));
+    assertEquals(
+        "line " + (sample.getLines().size() - 1),
+        sample.getLines().get(sample.getLines().size() - 1));
+  }
+
+  /** Verify that sampling a file which does not exist throws FileNotFoundException. */
+  @Test(expected = FileNotFoundException.class)
+  public void missingFileTest() throws FileNotFoundException {
+    new FileSampler(new File(folder.getRoot(), "doesntExist.csv").getPath());
+  }
+}
@@ -0,0 +1,75 @@
+package model.loader;
+
+import org.junit.Before;
+import org.junit.Test;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for IntHashSet.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class IntHashSetTest {
+
+  private IntHashSet set;
+
+  @Before
+  public void setUp() {
+    set = new IntHashSet();
+  }
+
+  /** Verify that a new set is empty and contains nothing. */
+  @Test
+  public void emptySetTest() {
+    assertEquals(0, set.size());
+    assertFalse(set.contains(0));
+  }
+
+  /** Verify that add returns true for a new key and the key is then in the set. */
+  @Test
+  public void addNewKeyTest() {
+    assertTrue(set.add(42));
+    assertTrue(set.contains(42));
+    assertEquals(1, set.size());
+  }
+
+  /** Verify that add returns false for a key already in the set and the size does not change. */
+  @Test
+  public void addDuplicateKeyTest() {
+    set.add(42);
+    assertFalse(set.add(42));
+    assertEquals(1, set.size());
+  }
+
+  /** Verify that zero, negative numbers and the smallest int can be stored. */
+  @Test
+  public void addEdgeKeysTest() {
+    assertTrue(set.add(0));
+    assertTrue(set.add(-1));
+    assertTrue(set.add(Integer.MIN_VALUE));
+    assertFalse(set.add(Integer.MIN_VALUE));
+    assertTrue(set.contains(0));
+    assertTrue(set.contains(-1));
+    assertTrue(set.contains(Integer.MIN_VALUE));
+    assertEquals(3, set.size());
+  }
+
+  /** Verify that the set keeps every key when it grows past its initial capacity. */
+  @Test
+  public void growMatchesHashSetTest() {
+    Random random = new Random(202);
+    Set<Integer> expected = new HashSet<>();
+    for (int i = 0; i < 100000; i++) {
+      int key = random.nextInt(200000) - 100000;
+      assertEquals(expected.add(key), set.add(key));
+    }
+    assertEquals(expected.size(), set.size());
+    for (int key = -100000; key < 100000; key++) {
+      assertEquals(expected.contains(key), set.contains(key));
+    }
+  }
+}
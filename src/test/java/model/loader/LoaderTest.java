@@ -3,11 +3,16 @@ package model.loader;
 import model.data.*;
 import org.junit.Before;
 import org.junit.Test;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import static org.junit.Assert.*;
 
 /**
@@ -95,6 +100,114 @@ public class LoaderTest {
     assertEquals("airlines.csv", filename);
   }
 
+  /** Test that checkFileType accepts a gzip compressed CSV file. */
+  @Test
+  public void testCheckFileTypeGzip() throws FileSystemException {
+    loader.checkFileType("routes.csv.gz");
+    loader.checkFileType("routes.zip");
+  }
+
+  /** Test that checkFileType rejects a gzip compressed file which does not hold a CSV file. */
+  @Test(expected = FileSystemException.class)
+  public void testCheckFileTypeGzipNotCsv() throws FileSystemException {
+    loader.checkFileType("routes.txt.gz");
+  }
+
+  /** Test that getFileName removes the extension of a compressed file. */
+  @Test
+  public void testGetFileNameCompressed() {
+    assertEquals("routes.csv", loader.getFileName("/data/routes.csv.gz"));
+    assertEquals("routes", loader.getFileName("/data/routes.zip"));
+  }
+
+  /** Test that a gzip compressed file is loaded with the same data as the uncompressed file. */
+  @Test
+  public void testLoadGzipFile() throws Exception {
+    File gzipFile = File.createTempFile("singleRoute", ".csv.gz");
+    gzipFile.deleteOnExit();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(gzipFile))) {
+      gzip.write(
+          Files.readAllBytes(
+              Paths.get("../seng202_project/src/test/java/TestFiles/singleRoute.csv")));
+    }
+    loader.loadFile(gzipFile.getPath(), "Route");
+    Route expected = new Route("2B", 410, "EGO", 6156, "KZN", 2990, "", 0, "CR2".split(" "));
+    assertArrayEquals(new Route[] {expected}, storage.getRoutes().toArray());
+    assertEquals(loader.getFileName(gzipFile.getPath()), storage.getCurrentRouteFile());
+  }
+
+  /** Test that memory mapped files are parsed with the same errors as files read normally. */
+  @Test
+  public void testCheckFileMemoryMapped() throws Exception {
+    String[][] files = {
+      {"routes.csv", "Route"},
+      {"routesTest.csv", "Route"},
+      {"duplicateRouteTest.csv", "Route"},
+      {"airports.csv", "Airport"},
+      {"duplicateAirportTest.csv", "Airport"},
+      {"airlines.csv", "Airline"},
+      {"duplicateAirlinesTest.csv", "Airline"}
+    };
+    for (String[] file : files) {
+      String path = "../seng202_project/src/test/java/TestFiles/" + file[0];
+      loader.setMemoryMapped(false);
+      String expected = loader.checkFile(path, file[1]);
+      loader.setMemoryMapped(true);
+      assertEquals(file[0], expected, loader.checkFile(path, file[1]));
+    }
+  }
+
+  /** Test that only an uncompressed file at least as large as the threshold is memory mapped. */
+  @Test
+  public void testMemoryMapThreshold() throws Exception {
+    String path = "../seng202_project/src/test/java/TestFiles/routes.csv";
+    long size = new File(path).length();
+    assertFalse(loader.isMemoryMapped());
+    loader.setParseChunks(4);
+    loader.setMemoryMapThreshold(size + 1);
+    loader.checkFile(path, "Route");
+    assertTrue(loader.getIngestReport().contains("chunks"));
+    loader.setMemoryMapThreshold(size);
+    loader.checkFile(path, "Route");
+    assertFalse(loader.getIngestReport().contains("chunks"));
+  }
+
+  /** Test that a memory mapped file is loaded with the same data as a file read normally. */
+  @Test
+  public void testLoadFileMemoryMapped() throws Exception {
+    loader.setMemoryMapped(true);
+    loader.loadFile("../seng202_project/src/test/java/TestFiles/singleRoute.csv", "Route");
+    Route expected = new Route("2B", 410, "EGO", 6156, "KZN", 2990, "", 0, "CR2".split(" "));
+    assertArrayEquals(new Route[] {expected}, storage.getRoutes().toArray());
+  }
+
+  /** Test that a large file of the wrong type is rejected from a sample, suggesting its type. */
+  @Test
+  public void testCheckSampleWrongType() throws FileNotFoundException {
+    try {
+      loader.checkSample("../seng202_project/src/test/java/TestFiles/routes.csv", "Airport");
+      fail();
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().startsWith("File rejected"));
+      assertTrue(e.getMessage().contains("Airport data has 12 fields on each line"));
+      assertTrue(e.getMessage().contains("looks like Route data"));
+    }
+  }
+
+  /** Test that a large file of the right type passes the sample check. */
+  @Test
+  public void testCheckSampleRightType() throws FileNotFoundException {
+    loader.checkSample("../seng202_project/src/test/java/TestFiles/routes.csv", "Route");
+    loader.checkSample("../seng202_project/src/test/java/TestFiles/airports.csv", "Airport");
+    loader.checkSample("../seng202_project/src/test/java/TestFiles/airlines.csv", "Airline");
+  }
+
+  /** Test that a small file is left for the parser to check, so all its errors are reported. */
+  @Test
+  public void testCheckSampleSmallFile() throws FileNotFoundException {
+    loader.checkSample("../seng202_project/src/test/java/TestFiles/singleRoute.csv", "Airport");
+  }
+
   /** Test that getFileName returns the correct filename for a file path containing no slashes. */
   @Test
   public void testGetFileNameNoSlash() {
@@ -437,6 +550,57 @@ public class LoaderTest {
     assertArrayEquals(expected, storage.getAirlines().toArray());
   }
 
+  /**
+   * Test that when loadLine is called with a route already in the current route file the route is
+   * rejected as a duplicate and the file is unchanged.
+   */
+  @Test
+  public void testLoadLineDuplicateRouteRejected()
+      throws FileNotFoundException, FileSystemException, SQLException {
+    loader.loadFile("../seng202_project/src/test/java/TestFiles/singleRoute.csv", "Route");
+    List<Route> routes = storage.getRoutes();
+    try {
+      loader.loadLine("2B,410,EGO,6156,KZN,2990,,0,CR2", "Route");
+      fail();
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().contains("Duplicate route"));
+    }
+    assertEquals(1, storage.getRoutes().size());
+    assertSame(routes, storage.getRoutes());
+  }
+
+  /**
+   * Test that when loadLine is called twice with the same airport the second one is rejected as a
+   * duplicate of the first.
+   */
+  @Test
+  public void testLoadLineDuplicateAirportRejected() throws SQLException {
+    String line =
+        "7800,\"Essen HBF\",\"Essen\",\"Germany\",\"ESX\",\"ESSE\",51.451389,7.0138,1000,1,\"E\","
+            + "\"Europe/Berlin\"";
+    loader.loadLine(line, "Airport");
+    try {
+      loader.loadLine(line, "Airport");
+      fail();
+    } catch (RuntimeException e) {
+      assertEquals(1, storage.getAirports().size());
+    }
+  }
+
+  /**
+   * Test that an airline can be added again by loadLine after it is removed from the current file,
+   * and that getLastEntry returns the airline added.
+   */
+  @Test
+  public void testLoadLineAfterRemove() throws SQLException {
+    String line = "2508,\"Galaxy Air\",\\N,\"7O\",\"GAL\",\"GALAXY\",\"Kyrgyzstan\",\"N\"";
+    loader.loadLine(line, "Airline");
+    storage.getAirlines().clear();
+    loader.loadLine(line, "Airline");
+    assertEquals(1, storage.getAirlines().size());
+    assertSame(storage.getAirlines().get(0), loader.getLastEntry());
+  }
+
   /** Test that checkFile returns the expected error message when called with a valid file. */
   @Test
   public void testCheckFileValidErrorMessage() throws FileNotFoundException, FileSystemException {
@@ -457,10 +621,78 @@ public class LoaderTest {
     }
   }
 
+  /** Test that the ingest throughput is recorded after a file is processed. */
+  @Test
+  public void testIngestThroughputRecorded() throws FileNotFoundException, FileSystemException {
+    assertEquals(0, loader.getIngestThroughput(), 0);
+    loader.checkFile("../seng202_project/src/test/java/TestFiles/routesTest.csv", "Route");
+    assertTrue(loader.getIngestThroughput() > 0);
+    assertTrue(loader.getIngestReport().contains("MB/s"));
+  }
+
   /** Test that checkFile doesn't upload any data when called with a valid file. */
   @Test
   public void testCheckFileDoesntUploadData() throws FileNotFoundException, FileSystemException {
     loader.checkFile("../seng202_project/src/test/java/TestFiles/singleairline.csv", "Airline");
     assertTrue(storage.getAirlines().isEmpty());
   }
+
+  /** Test that staging a file doesn't upload any data until it is committed. */
+  @Test
+  public void testStageFileDoesntUploadData() throws FileNotFoundException, FileSystemException {
+    StagedUpload upload =
+        loader.stageFile("../seng202_project/src/test/java/TestFiles/singleairline.csv", "Airline");
+    assertTrue(storage.getAirlines().isEmpty());
+    assertTrue(upload.isPending());
+    assertEquals("File uploaded with 0 invalid lines rejected.\n", upload.getErrorMessage());
+  }
+
+  /** Test that committing a staged file stores its data under the file name. */
+  @Test
+  public void testCommitStagedFile() throws FileNotFoundException, FileSystemException {
+    StagedUpload upload =
+        loader.stageFile("../seng202_project/src/test/java/TestFiles/routesTest.csv", "Route");
+    String message = loader.commit(upload);
+    assertEquals(upload.getErrorMessage(), message);
+    assertFalse(upload.isPending());
+    assertEquals("routesTest.csv", storage.getCurrentRouteFile());
+    assertFalse(storage.getRoutes().isEmpty());
+  }
+
+  /** Test that a staged file cannot be committed twice. */
+  @Test(expected = IllegalStateException.class)
+  public void testCommitStagedFileTwice() throws FileNotFoundException, FileSystemException {
+    StagedUpload upload =
+        loader.stageFile("../seng202_project/src/test/java/TestFiles/routesTest.csv", "Route");
+    loader.commit(upload);
+    loader.commit(upload);
+  }
+
+  /** Test that a discarded staged file cannot be committed. */
+  @Test(expected = IllegalStateException.class)
+  public void testCommitDiscardedFile() throws FileNotFoundException, FileSystemException {
+    StagedUpload upload =
+        loader.stageFile("../seng202_project/src/test/java/TestFiles/routesTest.csv", "Route");
+    loader.discard(upload);
+    loader.commit(upload);
+  }
+
+  /**
+   * Test that a staged file is not committed if a file with the same name was uploaded after it
+   * was staged.
+   */
+  @Test
+  public void testCommitStagedFileDuplicateName()
+      throws FileNotFoundException, FileSystemException, SQLException {
+    StagedUpload upload =
+        loader.stageFile("../seng202_project/src/test/java/TestFiles/singleairline.csv", "Airline");
+    loader.loadFile("../seng202_project/src/test/java/TestFiles/singleairline.csv", "Airline");
+    try {
+      loader.commit(upload);
+      fail();
+    } catch (RuntimeException e) {
+      assertEquals(
+          "There is already a file with the name singleairline.csv in the system", e.getMessage());
+    }
+  }
 }
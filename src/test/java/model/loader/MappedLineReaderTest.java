@@ -0,0 +1,141 @@
+package model.loader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the MappedLineReader class. Small windows are used so that lines cross the ends
+ * of windows.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class MappedLineReaderTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Write text to a file in the temporary folder.
+   *
+   * @param text The contents of the file.
+   * @return the path of the file.
+   */
+  private String fileOf(String text) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file.getPath();
+  }
+
+  /**
+   * Read every line of a file, mapping windows of the given size.
+   *
+   * @param text The contents of the file.
+   * @param windowSize The number of bytes mapped at a time.
+   * @return the lines of the file.
+   */
+  private List<String> mappedLines(String text, int windowSize) throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (MappedLineReader reader = new MappedLineReader(fileOf(text), windowSize)) {
+      for (CharSequence line : reader) {
+        lines.add(line.toString());
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Read every line of some text with a FileLineReader.
+   *
+   * @param text The text to read.
+   * @return the lines of the text.
+   */
+  private List<String> readerLines(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    List<String> lines = new ArrayList<>();
+    for (String line : new FileLineReader(new ByteArrayInputStream(bytes), bytes.length)) {
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  /** Verify that each line of the file is returned in order. */
+  @Test
+  public void readsLinesInOrderTest() throws IOException {
+    assertEquals(List.of("first", "second", "third"), mappedLines("first\nsecond\r\nthird", 1024));
+  }
+
+  /** Verify that lines crossing the ends of windows match the lines read by a FileLineReader. */
+  @Test
+  public void linesAcrossWindowsTest() throws IOException {
+    String text = "2B,410,AER\r\nZürich,Köln\n\nlast line\rafter\r\n";
+    for (int windowSize = 1; windowSize <= text.length() + 1; windowSize++) {
+      assertEquals("Window " + windowSize, readerLines(text), mappedLines(text, windowSize));
+    }
+  }
+
+  /** Verify that a line longer than a whole window is read in full. */
+  @Test
+  public void lineLongerThanWindowTest() throws IOException {
+    String longLine = "2B,410,AER,2965,KZN,2990,,0,CR2 A81 A32";
+    assertEquals(List.of(longLine, "end"), mappedLines(longLine + "\nend\n", 4));
+  }
+
+  /** Verify that multi-byte UTF-8 characters are decoded correctly. */
+  @Test
+  public void decodesUtf8Test() throws IOException {
+    assertEquals(List.of("Zürich,Köln", "ascii"), mappedLines("Zürich,Köln\nascii", 1024));
+  }
+
+  /** Verify that the same CharSequence is reused for every line. */
+  @Test
+  public void lineIsReusedTest() throws IOException {
+    try (MappedLineReader reader = new MappedLineReader(fileOf("first\nsecond\n"))) {
+      Iterator<CharSequence> lines = reader.iterator();
+      CharSequence first = lines.next();
+      CharSequence second = lines.next();
+      assertSame(first, second);
+      assertEquals("second", second.toString());
+      assertFalse(lines.hasNext());
+    }
+  }
+
+  /** Verify that an empty file has no lines. */
+  @Test
+  public void emptyFileTest() throws IOException {
+    assertTrue(mappedLines("", 1024).isEmpty());
+  }
+
+  /** Verify that the byte count is the size of the file. */
+  @Test
+  public void byteCountTest() throws IOException {
+    try (MappedLineReader reader = new MappedLineReader(fileOf("Köln\n"))) {
+      assertEquals(6, reader.getByteCount());
+    }
+  }
+
+  /** Verify that the lines can only be iterated over once. */
+  @Test(expected = IllegalStateException.class)
+  public void iterateTwiceTest() throws IOException {
+    try (MappedLineReader reader = new MappedLineReader(fileOf("line"))) {
+      reader.iterator();
+      reader.iterator();
+    }
+  }
+
+  /** Verify that opening a file which does not exist throws FileNotFoundException. */
+  @Test(expected = FileNotFoundException.class)
+  public void missingFileTest() throws FileNotFoundException {
+    new MappedLineReader(new File(folder.getRoot(), "doesntExist.csv").getPath());
+  }
+}
@@ -0,0 +1,104 @@
+package model.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the time taken to parse generated airport, airline and route files of increasing
+ * size. The time per line should stay roughly constant as the file grows, showing the duplicate
+ * checks do not depend on the number of entries already parsed. Run with the test classpath,
+ * optionally passing the largest number of lines to generate.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ParserBenchmark {
+
+  /** The number of times each file is parsed before timing, to warm up the JIT. */
+  private static final int WARMUP_RUNS = 3;
+
+  public static void main(String[] args) {
+    int maxLines = args.length > 0 ? Integer.parseInt(args[0]) : 160000;
+    System.out.println("type      lines      ms   ns/line");
+    for (int lines = 10000; lines <= maxLines; lines *= 2) {
+      List<String> airports = airportLines(lines);
+      List<String> airlines = airlineLines(lines);
+      List<String> routes = routeLines(lines);
+      report("Airport", lines, time(() -> new AirportParser(airports, new ArrayList<>())));
+      report("Airline", lines, time(() -> new AirlineParser(airlines, new ArrayList<>())));
+      report("Route", lines, time(() -> new RouteParser(routes, new ArrayList<>())));
+    }
+  }
+
+  /**
+   * This method generates lines of airport data with unique IDs.
+   *
+   * @param count The number of lines to generate.
+   * @return the generated lines.
+   */
+  private static List<String> airportLines(int count) {
+    List<String> lines = new ArrayList<>(count);
+    for (int i = 1; i <= count; i++) {
+      lines.add(
+          i
+              + ",\"Airport\",\"City\",\"Country\",\"ABC\",\"ABCD\",-6.08,145.39,5282,10,\"U\","
+              + "\"Pacific/Port_Moresby\"");
+    }
+    return lines;
+  }
+
+  /**
+   * This method generates lines of airline data with unique IDs.
+   *
+   * @param count The number of lines to generate.
+   * @return the generated lines.
+   */
+  private static List<String> airlineLines(int count) {
+    List<String> lines = new ArrayList<>(count);
+    for (int i = 1; i <= count; i++) {
+      lines.add(i + ",\"Airline\",\\N,\"AB\",\"ABC\",\"CALLSIGN\",\"Country\",\"Y\"");
+    }
+    return lines;
+  }
+
+  /**
+   * This method generates lines of route data which are all flown by the same airline, the worst
+   * case for duplicate checks grouped by airline.
+   *
+   * @param count The number of lines to generate.
+   * @return the generated lines.
+   */
+  private static List<String> routeLines(int count) {
+    List<String> lines = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      lines.add("2B,410,AER," + (i / 1000) + ",KZN," + (i % 1000) + ",,0,CR2");
+    }
+    return lines;
+  }
+
+  /**
+   * This method parses a file several times and returns the time taken by the last run.
+   *
+   * @param parse Parses the file.
+   * @return the time taken in nanoseconds.
+   */
+  private static long time(Runnable parse) {
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      parse.run();
+    }
+    long start = System.nanoTime();
+    parse.run();
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * This method prints the timing of a single parse.
+   *
+   * @param type The type of data parsed.
+   * @param lines The number of lines parsed.
+   * @param nanos The time taken in nanoseconds.
+   */
+  private static void report(String type, int lines, long nanos) {
+    System.out.printf("%-7s %7d %7d %9d%n", type, lines, nanos / 1000000, nanos / lines);
+  }
+}
@@ -1,8 +1,10 @@
 package model.loader;
 
 import model.data.Airline;
+import model.data.Storage;
 import org.junit.Before;
 import org.junit.Test;
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -163,4 +165,60 @@ public class ParserTest {
             + "Error [3] Invalid airline name: 1 occurrences\n",
         errorMessage);
   }
+
+  /**
+   * Verify that parsing the routes file in parallel chunks gives the same routes and errors as
+   * parsing it sequentially.
+   */
+  @Test
+  public void parallelRouteParseMatchesSequentialTest() throws FileNotFoundException {
+    ArrayList<String> lines =
+        new Loader(new Storage())
+            .openFile("../seng202_project/src/test/java/TestFiles/routes.csv");
+    RouteParser sequential = new RouteParser(lines, new ArrayList<>());
+    RouteParser parallel = new RouteParser(lines, new ArrayList<>(), 4);
+    assertEquals(sequential.getData(), parallel.getData());
+    assertEquals(sequential.getErrorMessage(true), parallel.getErrorMessage(true));
+  }
+
+  /**
+   * Verify that parsing the airports file in parallel chunks gives the same airports and errors as
+   * parsing it sequentially.
+   */
+  @Test
+  public void parallelAirportParseMatchesSequentialTest() throws FileNotFoundException {
+    ArrayList<String> lines =
+        new Loader(new Storage())
+            .openFile("../seng202_project/src/test/java/TestFiles/airports.csv");
+    AirportParser sequential = new AirportParser(lines, new ArrayList<>());
+    AirportParser parallel = new AirportParser(lines, new ArrayList<>(), 4);
+    assertEquals(sequential.getData(), parallel.getData());
+    assertEquals(sequential.getErrorMessage(true), parallel.getErrorMessage(true));
+  }
+
+  /**
+   * Verify that parsing a file with duplicate airlines in parallel chunks gives the same airlines
+   * and errors as parsing it sequentially.
+   */
+  @Test
+  public void parallelAirlineParseMatchesSequentialTest() throws FileNotFoundException {
+    ArrayList<String> lines =
+        new Loader(new Storage())
+            .openFile("../seng202_project/src/test/java/TestFiles/airlines.csv");
+    lines.addAll(testLines);
+    AirlineParser sequential = new AirlineParser(lines, new ArrayList<>());
+    AirlineParser parallel = new AirlineParser(lines, new ArrayList<>(), 3);
+    assertEquals(sequential.getData(), parallel.getData());
+    assertEquals(sequential.getErrorMessage(true), parallel.getErrorMessage(true));
+  }
+
+  /** Verify that a file with more than 200 invalid lines is rejected when parsed in parallel. */
+  @Test(expected = RuntimeException.class)
+  public void parallelParseErrorLimitTest() {
+    ArrayList<String> lines = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      lines.add("invalid line");
+    }
+    new RouteParser(lines, new ArrayList<>(), 4);
+  }
 }
@@ -0,0 +1,146 @@
+package model.loader;
+
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the ReadAheadInputStream class.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class ReadAheadInputStreamTest {
+
+  /**
+   * Read a stream to its end in reads of the given size.
+   *
+   * @param stream The stream to read.
+   * @param readSize The number of bytes asked for in each read.
+   * @return The bytes read.
+   */
+  private byte[] readAll(InputStream stream, int readSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[readSize];
+    int read;
+    while ((read = stream.read(buffer, 0, readSize)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  /** Verify that the bytes read are those of the source, across many block boundaries. */
+  @Test
+  public void copiesSourceTest() throws IOException {
+    byte[] data = new byte[100003];
+    new Random(202).nextBytes(data);
+    try (InputStream stream = new ReadAheadInputStream(new ByteArrayInputStream(data), 1000, 4)) {
+      assertArrayEquals(data, readAll(stream, 777));
+    }
+  }
+
+  /** Verify that single byte reads return every byte and then -1. */
+  @Test
+  public void singleByteReadTest() throws IOException {
+    byte[] data = {1, -2, 3};
+    try (InputStream stream = new ReadAheadInputStream(new ByteArrayInputStream(data), 2, 1)) {
+      assertEquals(1, stream.read());
+      assertEquals(254, stream.read());
+      assertEquals(3, stream.read());
+      assertEquals(-1, stream.read());
+    }
+  }
+
+  /** Verify that an empty source gives an empty stream. */
+  @Test
+  public void emptySourceTest() throws IOException {
+    InputStream empty = new ByteArrayInputStream(new byte[0]);
+    try (InputStream stream = new ReadAheadInputStream(empty, 8, 2)) {
+      assertEquals(-1, stream.read());
+    }
+  }
+
+  /** Verify that an error reading the source is thrown to the reader. */
+  @Test(expected = IOException.class)
+  public void sourceErrorTest() throws IOException {
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Disk error");
+          }
+        };
+    try (InputStream stream = new ReadAheadInputStream(failing, 8, 2)) {
+      stream.read();
+    }
+  }
+
+  /** Verify that closing the stream before reading it all stops the read thread. */
+  @Test
+  public void closeEarlyTest() throws IOException {
+    byte[] data = new byte[1 << 20];
+    InputStream stream = new ReadAheadInputStream(new ByteArrayInputStream(data), 1024, 2);
+    assertEquals(0, stream.read());
+    stream.close();
+  }
+
+  /** Verify that a runtime exception thrown by the source is thrown to the reader. */
+  @Test
+  public void sourceRuntimeErrorTest() throws IOException {
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() {
+            throw new IllegalStateException("Damaged block");
+          }
+        };
+    try (InputStream stream = new ReadAheadInputStream(failing, 8, 2)) {
+      stream.read();
+      fail("Expected the error of the source");
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  /**
+   * Verify that closing the stream while the source is being read leaves the source to be closed
+   * once the read returns, rather than closing it under the read.
+   */
+  @Test
+  public void closeDuringReadTest() throws Exception {
+    CountDownLatch reading = new CountDownLatch(1);
+    AtomicBoolean readAfterClose = new AtomicBoolean();
+    AtomicBoolean closed = new AtomicBoolean();
+    InputStream slow =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            reading.countDown();
+            try {
+              Thread.sleep(100);
+            } catch (InterruptedException e) {
+              // Like a decompressing stream, the read is not stopped by an interrupt.
+            }
+            readAfterClose.compareAndSet(false, closed.get());
+            return 1;
+          }
+
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        };
+    InputStream stream = new ReadAheadInputStream(slow, 4, 1);
+    assertTrue(reading.await(5, TimeUnit.SECONDS));
+    stream.close();
+    assertTrue(closed.get());
+    assertFalse(readAfterClose.get());
+  }
+}
@@ -0,0 +1,248 @@
+package model.loader;
+
+import model.data.Storage;
+import model.database.ConnectionManager;
+import model.database.SQLiteDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the UploadService class. Listeners are run on the upload threads, so the tests
+ * can act at an exact point in an upload.
+ *
+ * @version 1.0
+ * @since 04/10/2020
+ */
+public class UploadServiceTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Storage storage;
+  private UploadService service;
+  private final BlockingQueue<UploadTask.State> states = new LinkedBlockingQueue<>();
+  private final UploadListener recorder = (task, state) -> states.add(state);
+
+  @Before
+  public void setUp() {
+    storage = new Storage();
+    service = new UploadService(new Loader(storage), storage, Runnable::run);
+  }
+
+  @After
+  public void tearDown() {
+    service.shutdown(30);
+  }
+
+  /**
+   * This method writes lines of route data with unique routes to a file in the temporary folder.
+   *
+   * @param name The name of the file.
+   * @param count The number of lines to write.
+   * @return the path of the file.
+   */
+  private String routeFile(String name, int count) throws IOException {
+    List<String> lines = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      lines.add("2B,410,AER," + (i / 1000) + ",KZN," + (i % 1000) + ",,0,CR2");
+    }
+    File file = folder.newFile(name);
+    Files.write(file.toPath(), lines);
+    return file.getPath();
+  }
+
+  /**
+   * This method waits until an upload reaches the given state, skipping progress updates.
+   *
+   * @param expected The state to wait for.
+   */
+  private void awaitState(UploadTask.State expected) throws InterruptedException {
+    UploadTask.State state;
+    do {
+      state = states.poll(30, TimeUnit.SECONDS);
+      assertNotNull("Timed out waiting for " + expected, state);
+    } while (state != expected && !isFinal(state));
+    assertEquals(expected, state);
+  }
+
+  private boolean isFinal(UploadTask.State state) {
+    return state == UploadTask.State.DONE
+        || state == UploadTask.State.CANCELLED
+        || state == UploadTask.State.FAILED;
+  }
+
+  /** Test that a committed upload is stored and every row is written to the database. */
+  @Test
+  public void uploadAndCommitTest() throws Exception {
+    UploadTask task = service.upload(routeFile("uploadServiceDone.csv", 100), "Route", recorder);
+    awaitState(UploadTask.State.STAGED);
+    assertEquals(100, task.getLinesParsed());
+    assertTrue(task.getUpload().getErrorMessage().contains("0 invalid lines"));
+
+    service.commit(task, recorder);
+    awaitState(UploadTask.State.DONE);
+    assertEquals(100, storage.getRoutes().size());
+    assertEquals(100, task.getRowsWritten());
+    assertTrue(service.getActiveUploads().isEmpty());
+    SQLiteDatabase database = new SQLiteDatabase();
+    assertTrue(database.getFileNamesByType("Route").contains("uploadServiceDone.csv"));
+    database.deleteFile("uploadServiceDone.csv", "Route");
+  }
+
+  /** Test that cancelling a staged upload discards it without storing anything. */
+  @Test
+  public void cancelStagedUploadTest() throws Exception {
+    UploadTask task = service.upload(routeFile("uploadServiceStaged.csv", 10), "Route", recorder);
+    awaitState(UploadTask.State.STAGED);
+    service.cancel(task, recorder);
+    awaitState(UploadTask.State.CANCELLED);
+    assertFalse(task.getUpload().isPending());
+    assertTrue(storage.getRouteFileNames().isEmpty());
+  }
+
+  /**
+   * Test that cancelling an upload part way through writing rolls back the rows written and removes
+   * the file from storage and the database.
+   */
+  @Test
+  public void cancelWhileWritingTest() throws Exception {
+    String path = routeFile("uploadServiceCancel.csv", 3 * UploadTask.PROGRESS_INTERVAL);
+    UploadListener cancelling =
+        (task, state) -> {
+          states.add(state);
+          if (state == UploadTask.State.WRITING
+              && task.getRowsWritten() == UploadTask.PROGRESS_INTERVAL) {
+            service.cancel(task, null);
+          }
+        };
+    UploadTask task = service.upload(path, "Route", cancelling);
+    awaitState(UploadTask.State.STAGED);
+    service.commit(task, cancelling);
+    awaitState(UploadTask.State.CANCELLED);
+
+    assertEquals(UploadTask.PROGRESS_INTERVAL, task.getRowsWritten());
+    assertTrue(storage.getRouteFileNames().isEmpty());
+    assertNull(storage.getCurrentRouteFile());
+    SQLiteDatabase database = new SQLiteDatabase();
+    assertFalse(database.getFileNamesByType("Route").contains("uploadServiceCancel.csv"));
+    assertNull(database.loadFile("Route", "uploadServiceCancel.csv"));
+  }
+
+  /** Test that listeners are told the upload was staged once, however many updates follow. */
+  @Test
+  public void stagedOnceTest() throws Exception {
+    String path = routeFile("uploadServiceStagedOnce.csv", 3 * UploadTask.PROGRESS_INTERVAL);
+    List<UploadTask.State> told = new ArrayList<>();
+    UploadListener recording =
+        (task, state) -> {
+          synchronized (told) {
+            told.add(state);
+          }
+          recorder.uploadChanged(task, state);
+        };
+    UploadTask task = service.upload(path, "Route", recording);
+    awaitState(UploadTask.State.STAGED);
+    service.commit(task, recording);
+    awaitState(UploadTask.State.DONE);
+    synchronized (told) {
+      assertEquals(1, told.stream().filter(state -> state == UploadTask.State.STAGED).count());
+      assertEquals(UploadTask.State.PARSING, told.get(0));
+      assertEquals(UploadTask.State.DONE, told.get(told.size() - 1));
+    }
+    new SQLiteDatabase().deleteFile("uploadServiceStagedOnce.csv", "Route");
+  }
+
+  /** Test that several files can be staged at the same time. */
+  @Test
+  public void concurrentUploadsTest() throws Exception {
+    UploadTask first = service.upload(routeFile("uploadServiceA.csv", 5000), "Route", recorder);
+    UploadTask second = service.upload(routeFile("uploadServiceB.csv", 5000), "Route", recorder);
+    assertEquals(2, service.getActiveUploads().size());
+    awaitState(UploadTask.State.STAGED);
+    awaitState(UploadTask.State.STAGED);
+    assertEquals(UploadTask.State.STAGED, first.getState());
+    assertEquals(UploadTask.State.STAGED, second.getState());
+    service.cancel(first, recorder);
+    service.cancel(second, recorder);
+  }
+
+  /** Test that a file cannot be uploaded while a file with the same name is being uploaded. */
+  @Test(expected = RuntimeException.class)
+  public void duplicateActiveUploadTest() throws Exception {
+    String path = routeFile("uploadServiceDuplicate.csv", 10);
+    service.upload(path, "Route", recorder);
+    service.upload(path, "Route", recorder);
+  }
+
+  /**
+   * Test that an upload fails without writing any rows when changes queued before it cannot be
+   * written in time.
+   */
+  @Test
+  public void queuedWritesTimeoutTest() throws Exception {
+    UploadTask task = service.upload(routeFile("uploadServiceFlush.csv", 10), "Route", recorder);
+    awaitState(UploadTask.State.STAGED);
+    service.setQueuedWritesTimeout(100, TimeUnit.MILLISECONDS);
+    ConnectionManager.getShared().lockWriter();
+    try {
+      storage.getPersistence().deleteFile("uploadServiceQueued.csv", "Route");
+      service.commit(task, recorder);
+      awaitState(UploadTask.State.FAILED);
+    } finally {
+      ConnectionManager.getShared().unlockWriter();
+    }
+    assertTrue(task.getError().getMessage().contains("could not be saved"));
+    assertEquals(0, task.getRowsWritten());
+    assertTrue(storage.getRouteFileNames().isEmpty());
+    assertTrue(storage.getPersistence().flush(30, TimeUnit.SECONDS));
+    SQLiteDatabase database = new SQLiteDatabase();
+    assertFalse(database.getFileNamesByType("Route").contains("uploadServiceFlush.csv"));
+  }
+
+  /**
+   * Test that an upload which cannot be written, as another connection holds the database, fails
+   * and is removed from storage rather than being reported done.
+   */
+  @Test
+  public void databaseBusyTest() throws Exception {
+    UploadTask task = service.upload(routeFile("uploadServiceBusy.csv", 10), "Route", recorder);
+    awaitState(UploadTask.State.STAGED);
+    try (Connection other = DriverManager.getConnection("jdbc:sqlite:app.sqlite");
+        Statement lock = other.createStatement()) {
+      lock.execute("begin immediate");
+      service.commit(task, recorder);
+      awaitState(UploadTask.State.FAILED);
+      lock.execute("rollback");
+    }
+    assertTrue(task.getError() instanceof SQLException);
+    assertTrue(storage.getRouteFileNames().isEmpty());
+    SQLiteDatabase database = new SQLiteDatabase();
+    assertFalse(database.getFileNamesByType("Route").contains("uploadServiceBusy.csv"));
+  }
+
+  /** Test that a file which cannot be parsed fails without being staged. */
+  @Test
+  public void failedUploadTest() throws Exception {
+    File file = folder.newFile("uploadServiceBad.csv");
+    Files.write(file.toPath(), List.of("not,a,route", "also,not,a,route"));
+    UploadTask task = service.upload(file.getPath(), "Route", recorder);
+    awaitState(UploadTask.State.FAILED);
+    assertTrue(task.getError().getMessage().contains("File rejected"));
+    assertTrue(service.getActiveUploads().isEmpty());
+  }
+}